@@ -0,0 +1,82 @@
+// Checkout (POST /api/v1/orders) yuk testi.
+// Platform thread (varsayilan) ve virtual-threads profilini ayni senaryoyla karsilastirmak icin; bkz. README.md
+//
+//   (backend dizininden) k6 run -e MODE=platform -e EMAIL=load@test.com -e PASSWORD=secret -e PRODUCT_IDS=1,2,3 loadtest/checkout.js
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const MODE = __ENV.MODE || 'platform';
+const PRODUCT_IDS = (__ENV.PRODUCT_IDS || '1').split(',').map(Number);
+
+const checkoutDuration = new Trend('checkout_duration', true);
+const rejected = new Counter('checkout_rejected_503');
+
+export const options = {
+    scenarios: {
+        checkout: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            stages: [
+                { target: 200, duration: '1m' },
+                { target: 500, duration: '2m' },
+                { target: 1000, duration: '2m' },
+                { target: 0, duration: '30s' },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.05'],
+        checkout_duration: ['p(95)<2000'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    return { token: res.body };
+}
+
+export default function (data) {
+    const productId = PRODUCT_IDS[Math.floor(Math.random() * PRODUCT_IDS.length)];
+    const payload = JSON.stringify({
+        items: [{ productId, quantity: 1 }],
+        shippingAddress: 'Load Test Cad. No:1 Istanbul',
+        phoneNumber: '+905551112233',
+        paymentMethod: 'CREDIT_CARD',
+    });
+
+    const res = http.post(`${BASE_URL}/api/v1/orders`, payload, {
+        headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+        tags: { name: 'checkout' },
+    });
+
+    checkoutDuration.add(res.timings.duration);
+    if (res.status === 503) {
+        rejected.add(1);
+    }
+    check(res, { 'checkout 201': (r) => r.status === 201 });
+}
+
+export function handleSummary(data) {
+    const m = data.metrics;
+    const line = {
+        mode: MODE,
+        requests: m.http_reqs.values.count,
+        throughput: m.http_reqs.values.rate,
+        failedRate: m.http_req_failed.values.rate,
+        p50: m.checkout_duration.values.med,
+        p95: m.checkout_duration.values['p(95)'],
+        rejected503: m.checkout_rejected_503 ? m.checkout_rejected_503.values.count : 0,
+    };
+    return {
+        stdout: JSON.stringify(line, null, 2) + '\n',
+        [`loadtest/results/checkout-${MODE}.json`]: JSON.stringify(line),
+    };
+}
@@ -0,0 +1,317 @@
+package com.v1.backend.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sepetlerin Redis'teki asıl kopyası.
+ * Her sepet dört hash'tir: satırlar (ürün id -> miktar), birim fiyatlar (ürün id -> fiyat), meta (cartId, tarihler)
+ * ve satır bilgisi (ürün id -> "itemId:createdAt:updatedAt"). Satır id'si satır eklenirken cart_items_seq'ten
+ * alınır ve veritabanına aynı id ile yazılır; istemci satırı bu id ile tanır.
+ * Tüm değişiklikler Lua script'leriyle atomik yapılır; veritabanına yazma işi
+ * {@link com.v1.backend.service.CartWriteBehind} tarafından toplu yapılır.
+ * Redis'teki "dirty" kümesi sadece kuyruğa sığmayan veya yazılamayan sepetler için kullanılır.
+ */
+@Component
+public class CartStore {
+
+    public static final String DIRTY_KEY = "cart:dirty";
+
+    // Sonuç kodları
+    public static final long OK = 0;
+    public static final long QUANTITY_OUT_OF_RANGE = 1;
+    public static final long INSUFFICIENT_STOCK = 2;
+
+    // Çok değerli script sonucu (Lua tablosu); DefaultRedisScript sonuç tipini Class olarak aldığı için
+    @SuppressWarnings("unchecked")
+    private static final Class<List<Object>> LIST_RESULT = (Class<List<Object>>) (Class<?>) List.class;
+
+    private static final RedisScript<List<Object>> ADD_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0')
+            local total = current + tonumber(ARGV[2])
+            if total < tonumber(ARGV[4]) or total > tonumber(ARGV[5]) then
+                return {1, current, total}
+            end
+            if total > tonumber(ARGV[6]) then
+                return {2, current, total}
+            end
+            redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[3])
+            redis.call('HSET', KEYS[3], 'updatedAt', ARGV[7])
+            local item = redis.call('HGET', KEYS[4], ARGV[1])
+            if item then
+                redis.call('HSET', KEYS[4], ARGV[1], string.match(item, '^%d+:%d+') .. ':' .. ARGV[7])
+            else
+                redis.call('HSET', KEYS[4], ARGV[1], ARGV[9] .. ':' .. ARGV[7] .. ':' .. ARGV[7])
+            end
+            for i = 1, #KEYS do redis.call('EXPIRE', KEYS[i], ARGV[8]) end
+            return {0, current, total}
+            """, LIST_RESULT);
+
+    private static final RedisScript<Long> SET_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('HSET', KEYS[3], 'updatedAt', ARGV[3])
+            local item = redis.call('HGET', KEYS[4], ARGV[1])
+            if item then
+                redis.call('HSET', KEYS[4], ARGV[1], string.match(item, '^%d+:%d+') .. ':' .. ARGV[3])
+            end
+            for i = 1, #KEYS do redis.call('EXPIRE', KEYS[i], ARGV[4]) end
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            redis.call('HDEL', KEYS[2], ARGV[1])
+            redis.call('HDEL', KEYS[4], ARGV[1])
+            redis.call('HSET', KEYS[3], 'updatedAt', ARGV[2])
+            for i = 1, #KEYS do redis.call('EXPIRE', KEYS[i], ARGV[3]) end
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> CLEAR_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1], KEYS[2], KEYS[4])
+            redis.call('HSET', KEYS[3], 'updatedAt', ARGV[1])
+            redis.call('EXPIRE', KEYS[3], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // Sepet zaten yüklüyse dokunmaz; eşzamanlı iki yükleme birbirini ezmez
+    private static final RedisScript<Long> HYDRATE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[3]) == 1 then
+                return 0
+            end
+            redis.call('HSET', KEYS[3], 'cartId', ARGV[1], 'createdAt', ARGV[2], 'updatedAt', ARGV[3])
+            for i = 5, #ARGV, 4 do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 2])
+                redis.call('HSET', KEYS[4], ARGV[i], ARGV[i + 3])
+            end
+            for i = 1, #KEYS do redis.call('EXPIRE', KEYS[i], ARGV[4]) end
+            return 1
+            """, Long.class);
+
+    // Satır bilgisi olmayan satırlara (bu alan eklenmeden önce Redis'e girmiş sepetler) id verir
+    private static final RedisScript<Long> ASSIGN_IDS_SCRIPT = new DefaultRedisScript<>("""
+            for i = 3, #ARGV, 2 do
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then
+                    redis.call('HSETNX', KEYS[4], ARGV[i], ARGV[i + 1] .. ':' .. ARGV[1] .. ':' .. ARGV[1])
+                end
+            end
+            redis.call('EXPIRE', KEYS[4], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<List<Object>> READ_SCRIPT = new DefaultRedisScript<>("""
+            return {redis.call('HGETALL', KEYS[3]), redis.call('HGETALL', KEYS[1]), redis.call('HGETALL', KEYS[2]),
+                    redis.call('HGETALL', KEYS[4])}
+            """, LIST_RESULT);
+
+    private final StringRedisTemplate redis;
+    private final String ttlSeconds;
+
+    public CartStore(StringRedisTemplate redis, @Value("${cart.redis.ttl-days:7}") long ttlDays) {
+        this.redis = redis;
+        this.ttlSeconds = String.valueOf(Duration.ofDays(ttlDays).toSeconds());
+    }
+
+    /**
+     * Redis'teki sepet; yüklenmemişse (veya süresi dolmuşsa) null
+     */
+    public record CartState(Long cartId, Map<Long, Integer> quantities, Map<Long, BigDecimal> unitPrices,
+                            Map<Long, ItemInfo> items, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        public int totalQuantity() {
+            return quantities.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /**
+         * Satır bilgisi (id) olmayan ürünler
+         */
+        public List<Long> productsWithoutItemId() {
+            return quantities.keySet().stream().filter(productId -> !items.containsKey(productId)).toList();
+        }
+    }
+
+    /**
+     * Sepet satırının kalıcı id'si (cart_items.id) ve tarihleri
+     */
+    public record ItemInfo(Long id, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * @param code     {@link #OK}, {@link #QUANTITY_OUT_OF_RANGE} veya {@link #INSUFFICIENT_STOCK}
+     * @param previous ekleme öncesi sepetteki miktar
+     * @param total    ekleme sonrası (veya reddedildiyse istenen) toplam miktar
+     */
+    public record AddResult(long code, int previous, int total) {
+    }
+
+    /**
+     * Miktarı atomik olarak artırır; toplam [minQuantity, maxQuantity] dışına veya stok üstüne çıkarsa sepete dokunmaz.
+     * Satır yeni ise {@code newItemId} satırın id'si olur, değilse kullanılmaz.
+     */
+    public AddResult add(Long userId, Long productId, int quantity, BigDecimal unitPrice,
+                         int minQuantity, int maxQuantity, int stock, long newItemId) {
+        List<Object> result = redis.execute(ADD_SCRIPT, keys(userId),
+                productId.toString(), String.valueOf(quantity), unitPrice.toPlainString(),
+                String.valueOf(minQuantity), String.valueOf(maxQuantity), String.valueOf(stock),
+                now(), ttlSeconds, String.valueOf(newItemId));
+        return new AddResult(toLong(result.get(0)), (int) toLong(result.get(1)), (int) toLong(result.get(2)));
+    }
+
+    /**
+     * Satırın miktarını değiştirir; ürün sepette yoksa false
+     */
+    public boolean setQuantity(Long userId, Long productId, int quantity) {
+        Long result = redis.execute(SET_SCRIPT, keys(userId),
+                productId.toString(), String.valueOf(quantity), now(), ttlSeconds);
+        return result != null && result == 1;
+    }
+
+    /**
+     * Satırı siler; ürün sepette yoksa false
+     */
+    public boolean remove(Long userId, Long productId) {
+        Long result = redis.execute(REMOVE_SCRIPT, keys(userId),
+                productId.toString(), now(), ttlSeconds);
+        return result != null && result == 1;
+    }
+
+    public void clear(Long userId) {
+        redis.execute(CLEAR_SCRIPT, keys(userId), now(), ttlSeconds);
+    }
+
+    /**
+     * Veritabanındaki sepeti Redis'e yükler (sepet Redis'te zaten varsa değiştirmez)
+     */
+    public void hydrate(Long userId, Long cartId, LocalDateTime createdAt, LocalDateTime updatedAt,
+                        Map<Long, Integer> quantities, Map<Long, BigDecimal> unitPrices, Map<Long, ItemInfo> items) {
+        List<String> args = new ArrayList<>(4 + quantities.size() * 4);
+        args.add(cartId.toString());
+        args.add(toEpochMillis(createdAt));
+        args.add(toEpochMillis(updatedAt));
+        args.add(ttlSeconds);
+        quantities.forEach((productId, quantity) -> {
+            ItemInfo item = items.get(productId);
+            args.add(productId.toString());
+            args.add(quantity.toString());
+            args.add(unitPrices.get(productId).toPlainString());
+            args.add(item.id() + ":" + toEpochMillis(item.createdAt()) + ":" + toEpochMillis(item.updatedAt()));
+        });
+        redis.execute(HYDRATE_SCRIPT, keys(userId), args.toArray());
+    }
+
+    /**
+     * Satır bilgisi olmayan satırlara verilen id'leri yazar (zaten id'si olan veya silinmiş satırlara dokunmaz)
+     */
+    public void assignItemIds(Long userId, Map<Long, Long> itemIds) {
+        List<String> args = new ArrayList<>(2 + itemIds.size() * 2);
+        args.add(now());
+        args.add(ttlSeconds);
+        itemIds.forEach((productId, itemId) -> {
+            args.add(productId.toString());
+            args.add(itemId.toString());
+        });
+        redis.execute(ASSIGN_IDS_SCRIPT, keys(userId), args.toArray());
+    }
+
+    public CartState read(Long userId) {
+        List<Object> result = redis.execute(READ_SCRIPT, keys(userId));
+        List<?> meta = (List<?>) result.get(0);
+        if (meta == null || meta.isEmpty()) {
+            return null;
+        }
+        Map<String, String> metaFields = toMap(meta);
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        toMap((List<?>) result.get(1)).forEach((productId, quantity) ->
+                quantities.put(Long.valueOf(productId), Integer.valueOf(quantity)));
+        Map<Long, BigDecimal> unitPrices = new TreeMap<>();
+        toMap((List<?>) result.get(2)).forEach((productId, price) ->
+                unitPrices.put(Long.valueOf(productId), new BigDecimal(price)));
+        Map<Long, ItemInfo> items = new TreeMap<>();
+        toMap((List<?>) result.get(3)).forEach((productId, item) -> {
+            String[] parts = item.split(":");
+            items.put(Long.valueOf(productId),
+                    new ItemInfo(Long.valueOf(parts[0]), toDateTime(parts[1]), toDateTime(parts[2])));
+        });
+
+        return new CartState(
+                Long.valueOf(metaFields.get("cartId")),
+                quantities,
+                unitPrices,
+                items,
+                toDateTime(metaFields.get("createdAt")),
+                toDateTime(metaFields.get("updatedAt")));
+    }
+
+    /**
+     * Kuyruğa sığmamış veya yazılamamış sepetlerden en fazla count tanesini alır (her sepet tek bir node'a düşer)
+     */
+    public List<Long> popDirty(int count) {
+        List<String> userIds = redis.opsForSet().pop(DIRTY_KEY, count);
+        if (userIds == null) {
+            return List.of();
+        }
+        return userIds.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * Sepetleri Redis'teki dirty kümesine bırakır; herhangi bir node'un periyodik turunda yazılır
+     */
+    public void markDirty(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            redis.opsForSet().add(DIRTY_KEY, userIds.stream().map(String::valueOf).toArray(String[]::new));
+        }
+    }
+
+    private static List<String> keys(Long userId) {
+        String prefix = "cart:" + userId;
+        return List.of(prefix + ":lines", prefix + ":prices", prefix + ":meta", prefix + ":items");
+    }
+
+    private static Map<String, String> toMap(List<?> flat) {
+        Map<String, String> map = new TreeMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            map.put(flat.get(i).toString(), flat.get(i + 1).toString());
+        }
+        return map;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private static String now() {
+        return String.valueOf(System.currentTimeMillis());
+    }
+
+    private static String toEpochMillis(LocalDateTime time) {
+        LocalDateTime value = time != null ? time : LocalDateTime.now();
+        return String.valueOf(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static LocalDateTime toDateTime(String epochMillis) {
+        return epochMillis == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(epochMillis)), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,121 @@
+package com.v1.backend.cache;
+
+import com.v1.backend.model.Category;
+import com.v1.backend.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kategori ağacını bellekte tutar. Okumalar her zaman tam kurulmuş bir snapshot görür;
+ * yazmalardan sonra yeni snapshot kurulup tek adımda değiştirilir.
+ * Diğer node'lar Redis pub/sub ile haberdar edilir ve kendi snapshot'larını yeniler.
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "category-tree-invalidation";
+
+    private final CategoryRepository categoryRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate readTransaction;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicReference<CategoryTreeSnapshot> snapshot = new AtomicReference<>();
+    private long version;
+
+    public CategoryTreeCache(
+            CategoryRepository categoryRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        // afterCommit içinden de çağrıldığı için her zaman kendi transaction'ında okur
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Güncel snapshot; henüz kurulmadıysa ilk çağrıda kurulur
+     */
+    public CategoryTreeSnapshot current() {
+        CategoryTreeSnapshot current = snapshot.get();
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Snapshot kurulduysa {@link #current()} veritabanına gitmez
+     */
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    public synchronized CategoryTreeSnapshot rebuild() {
+        long start = System.currentTimeMillis();
+        CategoryTreeSnapshot rebuilt = readTransaction.execute(status -> {
+            List<Category> categories = categoryRepository.findAll();
+            return CategoryTreeSnapshot.build(categories, ++version);
+        });
+        snapshot.set(rebuilt);
+        log.info("Kategori ağacı yenilendi - Versiyon: {}, KategoriSayısı: {}, Süre: {} ms",
+                rebuilt.getVersion(), rebuilt.all().size(), System.currentTimeMillis() - start);
+        return rebuilt;
+    }
+
+    /**
+     * Transaction commit edildikten sonra ağacı yeniden kurar ve diğer node'lara bildirir
+     */
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildAndPublish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildAndPublish();
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!instanceId.equals(sender)) {
+            rebuild();
+        }
+    }
+
+    private void rebuildAndPublish() {
+        rebuild();
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId);
+        } catch (Exception e) {
+            log.warn("Kategori ağacı invalidation mesajı gönderilemedi: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.v1.backend.cache;
+
+import com.v1.backend.dto.category.CategoryDTO;
+import com.v1.backend.model.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kategori ağacının değişmez bir kopyası.
+ * Path, derinlik ve sıralı çocuklar kurulum sırasında hesaplanır; okumalar sadece map lookup'tır.
+ * Okumalar DTO'ların (çocuklarıyla birlikte) kopyasını döner; çağıranın yaptığı değişiklik snapshot'a yansımaz.
+ */
+public final class CategoryTreeSnapshot {
+
+    private static final Comparator<Category> DISPLAY_ORDER = Comparator
+            .comparing((Category c) -> c.getDisplayOrder() != null ? c.getDisplayOrder() : 0)
+            .thenComparing(Category::getId);
+
+    private final long version;
+    private final Map<Long, CategoryDTO> byId;
+    private final Map<String, CategoryDTO> bySlug;
+    private final Map<Long, List<CategoryDTO>> childrenByParent;
+    private final List<CategoryDTO> roots;
+
+    private CategoryTreeSnapshot(long version, int size) {
+        this.version = version;
+        this.byId = new HashMap<>(size * 2);
+        this.bySlug = new HashMap<>(size * 2);
+        this.childrenByParent = new HashMap<>();
+        this.roots = new ArrayList<>();
+    }
+
+    /**
+     * Tek sorguda okunmuş tüm kategorilerden ağacı kurar (parent id'si proxy'den okunur, ek sorgu yok)
+     */
+    public static CategoryTreeSnapshot build(List<Category> categories, long version) {
+        CategoryTreeSnapshot snapshot = new CategoryTreeSnapshot(version, categories.size());
+
+        Map<Long, List<Category>> childrenOf = new HashMap<>();
+        List<Category> rootCategories = new ArrayList<>();
+        for (Category category : categories) {
+            if (category.getParent() == null) {
+                rootCategories.add(category);
+            } else {
+                childrenOf.computeIfAbsent(category.getParent().getId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+        childrenOf.values().forEach(list -> list.sort(DISPLAY_ORDER));
+        rootCategories.sort(DISPLAY_ORDER);
+
+        for (Category root : rootCategories) {
+            snapshot.roots.add(snapshot.add(root, null, 0, childrenOf));
+        }
+        return snapshot;
+    }
+
+    private CategoryDTO add(Category category, CategoryDTO parent, int depth, Map<Long, List<Category>> childrenOf) {
+        String path = parent == null ? category.getName() : parent.getPath() + " > " + category.getName();
+
+        CategoryDTO dto = CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .slug(category.getSlug())
+                .description(category.getDescription())
+                .imageUrl(category.getImageUrl())
+                .parentId(parent != null ? parent.getId() : null)
+                .parentName(parent != null ? parent.getName() : null)
+                .path(path)
+                .status(category.getStatus())
+                .displayOrder(category.getDisplayOrder())
+                .depthLevel(depth)
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .build();
+        byId.put(dto.getId(), dto);
+        bySlug.put(dto.getSlug(), dto);
+
+        List<CategoryDTO> children = new ArrayList<>();
+        for (Category child : childrenOf.getOrDefault(category.getId(), List.of())) {
+            children.add(add(child, dto, depth + 1, childrenOf));
+        }
+        childrenByParent.put(dto.getId(), Collections.unmodifiableList(children));
+        dto.setChildren(new LinkedHashSet<>(children));
+        return dto;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public CategoryDTO findById(Long id) {
+        CategoryDTO category = byId.get(id);
+        return category != null ? copy(category) : null;
+    }
+
+    public CategoryDTO findBySlug(String slug) {
+        CategoryDTO category = bySlug.get(slug);
+        return category != null ? copy(category) : null;
+    }
+
+    /**
+     * Kategori snapshot'ta var mı (kopya oluşturmadan)
+     */
+    public boolean contains(Long id) {
+        return byId.containsKey(id);
+    }
+
+    /**
+     * Doğrudan alt kategoriler (displayOrder sırasıyla); kategori yoksa boş liste
+     */
+    public List<CategoryDTO> childrenOf(Long parentId) {
+        return copyAll(childrenByParent.getOrDefault(parentId, List.of()));
+    }
+
+    public List<CategoryDTO> roots() {
+        return copyAll(roots);
+    }
+
+    /**
+     * Tüm kategoriler, ağaç sırasıyla (önce ebeveyn sonra çocukları); her kategori bir kez kopyalanır,
+     * çocuk kümeleri listedeki kopyaları içerir
+     */
+    public List<CategoryDTO> all() {
+        List<CategoryDTO> copies = new ArrayList<>(byId.size());
+        for (CategoryDTO root : roots()) {
+            collect(root, copies);
+        }
+        return copies;
+    }
+
+    private static void collect(CategoryDTO category, List<CategoryDTO> into) {
+        into.add(category);
+        for (CategoryDTO child : category.getChildren()) {
+            collect(child, into);
+        }
+    }
+
+    private static List<CategoryDTO> copyAll(List<CategoryDTO> categories) {
+        List<CategoryDTO> copies = new ArrayList<>(categories.size());
+        for (CategoryDTO category : categories) {
+            copies.add(copy(category));
+        }
+        return copies;
+    }
+
+    private static CategoryDTO copy(CategoryDTO category) {
+        return CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .slug(category.getSlug())
+                .description(category.getDescription())
+                .imageUrl(category.getImageUrl())
+                .parentId(category.getParentId())
+                .parentName(category.getParentName())
+                .children(new LinkedHashSet<>(copyAll(List.copyOf(category.getChildren()))))
+                .path(category.getPath())
+                .status(category.getStatus())
+                .displayOrder(category.getDisplayOrder())
+                .depthLevel(category.getDepthLevel())
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .build();
+    }
+}
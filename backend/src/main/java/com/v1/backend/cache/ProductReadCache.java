@@ -0,0 +1,297 @@
+package com.v1.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.v1.backend.dto.ProductDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ürün okumaları için iki katmanlı cache.
+ * L1: uygulama içi Caffeine (boyut + TTL), L2: Redis (TTL).
+ * Ürün değiştiğinde L1/L2 silinir ve Redis pub/sub kanalına mesaj atılır; diğer node'lar
+ * bu mesajla kendi L1'lerini temizler. Stok değişikliği evict gerektirmez: {@link ProductDTO} stok taşımaz.
+ * {@code *Reactive} metotları aynı L1/L2'yi bloklamadan okur (reaktif Redis); loader'ın kendisi de Mono döner.
+ * Her L2 anahtarının bir sürüm sayacı vardır: evict sayacı artırır, miss'te yüklenen değer sadece sürüm
+ * yüklemeden önceki haliyle aynıysa yazılır. Böylece evict'ten önce okunmuş eski değer L2'ye TTL boyunca yerleşmez.
+ */
+@Slf4j
+@Component
+public class ProductReadCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "product-cache-invalidation";
+
+    private static final String ID_PREFIX = "product:id:";
+    private static final String SKU_PREFIX = "product:sku:";
+    private static final String TOP_RATED_KEY = "product:top-rated";
+    private static final String VERSION_SUFFIX = ":version";
+
+    // KEYS: değer, sürüm; ARGV: değer, beklenen sürüm ('' = yok), TTL (ms)
+    private static final RedisScript<Long> FILL_SCRIPT = RedisScript.of("""
+            if (redis.call('GET', KEYS[2]) or '') ~= ARGV[2] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS: (değer, sürüm) çiftleri; ARGV: sürüm TTL (ms). Sürüm silmeden önce artırılır
+    private static final RedisScript<Long> EVICT_SCRIPT = RedisScript.of("""
+            for i = 1, #KEYS, 2 do
+                redis.call('INCR', KEYS[i + 1])
+                redis.call('PEXPIRE', KEYS[i + 1], ARGV[1])
+                redis.call('DEL', KEYS[i])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration redisTtl;
+    private final Cache<String, Object> local;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter invalidations;
+
+    public ProductReadCache(
+            RedisTemplate<String, Object> redisTemplate,
+            ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.local.max-size:10000}") long localMaxSize,
+            @Value("${product.cache.local.ttl-seconds:60}") long localTtlSeconds,
+            @Value("${product.cache.redis.ttl-minutes:10}") long redisTtlMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "product.l1");
+        this.l2Hits = Counter.builder("product.cache.l2").tag("result", "hit").register(meterRegistry);
+        this.l2Misses = Counter.builder("product.cache.l2").tag("result", "miss").register(meterRegistry);
+        this.invalidations = Counter.builder("product.cache.invalidations").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public ProductDTO getById(Long id, Function<Long, ProductDTO> loader) {
+        return (ProductDTO) local.get(ID_PREFIX + id, key -> readThrough(key, () -> loader.apply(id)));
+    }
+
+    /**
+     * SKU değişmediği için SKU -> id eşlemesi cache'lenir, ürünün kendisi id anahtarından okunur
+     */
+    public ProductDTO getBySku(String sku, Function<String, ProductDTO> loader, Function<Long, ProductDTO> idLoader) {
+        String key = SKU_PREFIX + sku;
+        Long id = (Long) local.getIfPresent(key);
+        if (id == null) {
+            String cached = safeRedis(() -> stringRedisTemplate.opsForValue().get(key));
+            if (cached != null) {
+                l2Hits.increment();
+                id = Long.valueOf(cached);
+            } else {
+                l2Misses.increment();
+                ProductDTO product = loader.apply(sku);
+                String value = product.getId().toString();
+                safeRedis(() -> {
+                    stringRedisTemplate.opsForValue().set(key, value, redisTtl);
+                    return null;
+                });
+                // Sadece eşleme cache'lenir; ürün sürüm kontrolünden geçmeden L1'e yazılmaz, id yolundan cache'lenir
+                local.put(key, product.getId());
+                return product;
+            }
+            local.put(key, id);
+        }
+        return getById(id, idLoader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ProductDTO> getTopRated(Supplier<List<ProductDTO>> loader) {
+        return (List<ProductDTO>) local.get(TOP_RATED_KEY, key -> readThrough(key, loader));
+    }
+
+    public Mono<ProductDTO> getByIdReactive(Long id, Function<Long, Mono<ProductDTO>> loader) {
+        return readThroughReactive(ID_PREFIX + id, () -> loader.apply(id)).cast(ProductDTO.class);
+    }
+
+    public Mono<ProductDTO> getBySkuReactive(String sku, Function<String, Mono<ProductDTO>> loader,
+                                             Function<Long, Mono<ProductDTO>> idLoader) {
+        String key = SKU_PREFIX + sku;
+        Long id = (Long) local.getIfPresent(key);
+        if (id != null) {
+            return getByIdReactive(id, idLoader);
+        }
+        return reactiveStringRedisTemplate.opsForValue().get(key)
+                .onErrorResume(this::skipRedis)
+                .flatMap(cached -> {
+                    l2Hits.increment();
+                    Long cachedId = Long.valueOf(cached);
+                    local.put(key, cachedId);
+                    return getByIdReactive(cachedId, idLoader);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    l2Misses.increment();
+                    return loader.apply(sku).flatMap(product -> {
+                        local.put(key, product.getId());
+                        return reactiveStringRedisTemplate.opsForValue()
+                                .set(key, product.getId().toString(), redisTtl)
+                                .onErrorResume(this::skipRedis)
+                                .thenReturn(product);
+                    });
+                }));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<List<ProductDTO>> getTopRatedReactive(Supplier<Mono<List<ProductDTO>>> loader) {
+        return readThroughReactive(TOP_RATED_KEY, loader).map(value -> (List<ProductDTO>) value);
+    }
+
+    /**
+     * Transaction commit edildikten sonra ürünü tüm node'larda geçersiz kılar.
+     * Transaction yoksa hemen çalışır.
+     */
+    public void evictAfterCommit(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(productId);
+            }
+        });
+    }
+
+    public void evict(Long productId) {
+        invalidations.increment();
+        evictLocal(productId.toString());
+        safeRedis(() -> {
+            String idKey = ID_PREFIX + productId;
+            stringRedisTemplate.execute(EVICT_SCRIPT,
+                    List.of(idKey, versionKey(idKey), TOP_RATED_KEY, versionKey(TOP_RATED_KEY)),
+                    String.valueOf(redisTtl.toMillis()));
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, productId.toString());
+            return null;
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        log.debug("Product cache invalidation received: {}", body);
+        evictLocal(body);
+    }
+
+    private void evictLocal(String productId) {
+        local.invalidate(ID_PREFIX + productId);
+        local.invalidate(TOP_RATED_KEY);
+    }
+
+    private Object readThrough(String key, Supplier<?> loader) {
+        Object cached = safeRedis(() -> redisTemplate.opsForValue().get(key));
+        if (cached != null) {
+            l2Hits.increment();
+            return cached;
+        }
+        l2Misses.increment();
+
+        // Sürüm yüklemeden önce okunur; arada evict olursa değer L2'ye yazılmaz
+        String version = safeRedis(() -> stringRedisTemplate.opsForValue().get(versionKey(key)));
+        Object value = loader.get();
+        if (value != null) {
+            safeRedis(() -> stringRedisTemplate.execute(FILL_SCRIPT, List.of(key, versionKey(key)),
+                    toJson(value), version != null ? version : "", String.valueOf(redisTtl.toMillis())));
+        }
+        return value;
+    }
+
+    private Mono<Object> readThroughReactive(String key, Supplier<? extends Mono<?>> loader) {
+        Object cached = local.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return reactiveRedisTemplate.opsForValue().get(key)
+                .onErrorResume(this::skipRedis)
+                .doOnNext(value -> l2Hits.increment())
+                .switchIfEmpty(Mono.defer(() -> {
+                    l2Misses.increment();
+                    return reactiveStringRedisTemplate.opsForValue().get(versionKey(key))
+                            .onErrorResume(this::skipRedis)
+                            .defaultIfEmpty("")
+                            .flatMap(version -> loader.get().flatMap(value -> reactiveStringRedisTemplate
+                                    .execute(FILL_SCRIPT, List.of(key, versionKey(key)),
+                                            List.of(toJson(value), version, String.valueOf(redisTtl.toMillis())))
+                                    .then()
+                                    .onErrorResume(this::skipRedis)
+                                    .thenReturn(value)));
+                }))
+                .doOnNext(value -> local.put(key, value));
+    }
+
+    private static String versionKey(String key) {
+        return key + VERSION_SUFFIX;
+    }
+
+    // Değer redisTemplate'in JSON formatında yazılır, okuma tarafı değişmez
+    @SuppressWarnings("unchecked")
+    private String toJson(Object value) {
+        byte[] json = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    private <T> Mono<T> skipRedis(Throwable e) {
+        log.warn("Product cache Redis operation failed: {}", e.getMessage());
+        return Mono.empty();
+    }
+
+    // Redis erişilemezse cache atlanır, okuma veritabanından devam eder
+    private <T> T safeRedis(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (Exception e) {
+            log.warn("Product cache Redis operation failed: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.v1.backend.config;
+
+import com.v1.backend.event.serde.EventSchema;
+import com.v1.backend.event.serde.FileSchemaRegistry;
+import com.v1.backend.event.serde.SagaEventCodecs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+public class EventSerdeConfiguration {
+
+    /**
+     * Koddaki tüm event şemalarını jar'daki geçmişe karşı doğrular (salt okunur); uyumsuz veya geçmişe
+     * eklenmemiş şemada uygulama açılmaz
+     */
+    @Bean
+    public FileSchemaRegistry sagaSchemaRegistry(
+            @Value("${saga.serde.registry:classpath:schemas/saga-events.registry}") Resource registryHistory) throws IOException {
+        FileSchemaRegistry registry;
+        try (InputStream history = registryHistory.getInputStream()) {
+            registry = new FileSchemaRegistry(history);
+        }
+        for (EventSchema schema : SagaEventCodecs.schemas()) {
+            registry.verify(schema);
+        }
+        return registry;
+    }
+}
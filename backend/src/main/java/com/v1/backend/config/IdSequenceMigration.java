@@ -0,0 +1,70 @@
+package com.v1.backend.config;
+
+import com.v1.backend.model.Cart;
+import com.v1.backend.model.CartItem;
+import com.v1.backend.model.Category;
+import com.v1.backend.model.Order;
+import com.v1.backend.model.OrderItem;
+import com.v1.backend.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * IDENTITY'den pooled sequence'e geçiş. Hibernate ({@code ddl-auto=update}) sequence'leri 1'den başlatır;
+ * mevcut tablolarda bu id'ler dolu olduğu için sequence tablonun en büyük id'sine, en az blok boyuna ilerletilir.
+ * <ul>
+ *   <li>Sequence blok boyunun altında kalmaz: her nextval (v) Hibernate'in pooled optimizer'ında ve
+ *       JDBC ile blok alan kodda aynı {@code v-blok+1..v} aralığına açılır; başlangıçtaki tek id'lik blok kuralı
+ *       kullanılmaz.</li>
+ *   <li>Sadece geri kalmış sequence ilerletilir; çalışan başka bir node'un aldığı bloklar geri alınmaz.</li>
+ *   <li>Eski IDENTITY varsayılanı kaldırılır; id'siz insert (eski sürüm) çakışan id üretmek yerine hata alır.</li>
+ *   <li>Tüm singleton'lar kurulduktan sonra, web sunucusu, listener'lar ve zamanlanmış işler başlamadan çalışır.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceMigration implements SmartInitializingSingleton {
+
+    private record IdSequence(String name, int blockSize) {
+    }
+
+    // tablo -> sequence; blok boyu entity'deki allocationSize ile aynı sabittir
+    private static final Map<String, IdSequence> SEQUENCES = Map.of(
+            "products", new IdSequence("products_seq", Product.ID_BLOCK_SIZE),
+            "categories", new IdSequence("categories_seq", Category.ID_BLOCK_SIZE),
+            "orders", new IdSequence("orders_seq", Order.ID_BLOCK_SIZE),
+            "order_items", new IdSequence("order_items_seq", OrderItem.ID_BLOCK_SIZE),
+            "carts", new IdSequence("carts_seq", Cart.ID_BLOCK_SIZE),
+            "cart_items", new IdSequence("cart_items_seq", CartItem.ID_BLOCK_SIZE));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        SEQUENCES.forEach((table, sequence) -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            // Sonraki nextval (hedef + blok boyu) tablodaki id'lerin üstünde tam bir blok verir
+            Long advancedTo = jdbcTemplate.query(
+                    "SELECT setval('" + sequence.name() + "', m, true) FROM (SELECT GREATEST(COALESCE(MAX(id), 0), "
+                            + sequence.blockSize() + ") AS m FROM " + table + ") t, " + sequence.name()
+                            + " s WHERE m > s.last_value OR (m = s.last_value AND NOT s.is_called)",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (advancedTo != null) {
+                log.info("Id sequence'i tabloya göre ilerletildi - Sequence: {}, Değer: {}", sequence.name(), advancedTo);
+            }
+        });
+    }
+}
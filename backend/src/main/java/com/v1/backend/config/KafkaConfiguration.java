@@ -1,15 +1,32 @@
 package com.v1.backend.config;
 
+import com.v1.backend.saga.OrderStateEngine;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @EnableKafka
 @Configuration
@@ -119,6 +136,51 @@ public class KafkaConfiguration {
         return new DeadLetterPublishingRecoverer(template);
     }
 
+    /**
+     * Saga consumer'ları için batch listener: en fazla max-size kayıt veya max-wait-ms kadar beklenir,
+     * offset'ler batch başına tek seferde commit edilir. Tek kayıt hataları listener içinde DLT'ye gönderilir;
+     * batch'in tamamı başarısız olursa (ör. veritabanı erişilemiyor) birkaç kez yeniden denenir, sonra kayıtlar DLT'ye gider.
+     * Partition elden çıkınca o partition'daki siparişlerin bellekteki durumu silinir.
+     * Virtual thread modunda consumer'lar virtual thread'lerde çalışır.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> sagaBatchListenerFactory(
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+            OrderStateEngine orderStateEngine,
+            @Value("${saga.batch.max-size:100}") int maxSize,
+            @Value("${saga.batch.max-wait-ms:50}") int maxWaitMs,
+            @Value("${saga.batch.fetch-min-bytes:16384}") int fetchMinBytes,
+            Environment environment) {
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxSize);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, maxWaitMs);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setConsumerRebalanceListener(orderStateEngine);
+        // Property açık olsa bile JDK 21 altında aktif değildir
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("saga-consumer-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterPublishingRecoverer, new FixedBackOff(1000L, 2)));
+        return factory;
+    }
+
+    /**
+     * SagaBatchProcessor her kaydı savepoint'te (PROPAGATION_NESTED) işler; JpaTransactionManager bunu varsayılan
+     * olarak kapalı tutar. Savepoint sadece JDBC bağlantısına uygulanır, adımlar veritabanına JDBC ile yazar.
+     */
+    @Bean
+    public TransactionManagerCustomizer<AbstractPlatformTransactionManager> nestedTransactionCustomizer() {
+        return transactionManager -> transactionManager.setNestedTransactionAllowed(true);
+    }
+
     public static class ErrorHandlingDeserializerSupplier {
         public static <T> ErrorHandlingDeserializer<T> createFor(Class<T> targetClass) {
             return new ErrorHandlingDeserializer<>(
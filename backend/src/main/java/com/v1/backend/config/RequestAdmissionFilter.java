@@ -0,0 +1,124 @@
+package com.v1.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aynı anda işlenen istek sayısını sınırlar.
+ * Virtual thread'lerde Tomcat'in thread havuzu sınır olmaktan çıkar; sınır konmazsa binlerce istek aynı anda
+ * HikariCP'den bağlantı bekler, connection timeout'a düşer ve veritabanı gereksiz yük altında kalır.
+ * Sınırı aşan istekler kısa bir süre sırada bekler, yer açılmazsa 503 döner.
+ * Async istekte (reaktif uçlar, servlet async) izin filtre dönünce değil, istek tamamlanınca, hata veya zaman aşımında
+ * bırakılır; aksi halde async istekler sınırın dışında kalırdı.
+ */
+@Slf4j
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long waitMillis;
+    private final Counter rejected;
+
+    public RequestAdmissionFilter(int maxConcurrent, long waitMillis, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.waitMillis = waitMillis;
+        this.rejected = Counter.builder("http.admission.rejected").register(meterRegistry);
+        Gauge.builder("http.admission.in.flight", this, filter -> filter.maxConcurrent - filter.permits.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("http.admission.queued", permits, Semaphore::getQueueLength).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            log.warn("İstek kapasitesi dolu, istek reddedildi - {} {}", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"success\":false,\"message\":\"Sunucu yoğun, lütfen tekrar deneyin\"}");
+            return;
+        }
+
+        boolean releasedByListener = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+                releasedByListener = true;
+            }
+        } finally {
+            if (!releasedByListener) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Async isteğin iznini bir kez bırakır (hata ve zaman aşımından sonra complete de gelir)
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async yeniden başlatılırsa dinleyici yeni context'e de eklenir
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health/metrics yük altında da cevap vermeli
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
@@ -54,7 +54,9 @@ public class SecurityConfig {
                                 "/uploads/**",
                                 "/api/v1/categories/**",
                                 "/api/v1/products/**",
-                                "/api/v1/brands/**"
+                                "/api/v1/brands/**",
+                                "/api/reactive/v1/categories/**",
+                                "/api/reactive/v1/products/**"
                         ).permitAll()
 
                         // 🔒 ADMIN only
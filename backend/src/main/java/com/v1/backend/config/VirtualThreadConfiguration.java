@@ -0,0 +1,49 @@
+package com.v1.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * "virtual-threads" profili (JDK 21+, {@code spring.threads.virtual.enabled=true}).
+ * Tomcat istekleri ve Kafka listener'ları virtual thread'lerde çalışır; thread sayısı artık eşzamanlılığı
+ * sınırlamadığı için veritabanına gidebilecek eşzamanlı istek sayısı HikariCP havuzuna göre sınırlanır:
+ * {@code (havuz - listener'lara ayrılan bağlantılar) * istek-başına-bağlantı oranı}. Listener'lara ayrılan bağlantı
+ * sayısı havuzun {@code reserved-fraction} oranıdır; havuz büyüyüp küçülünce ayrıca değiştirilmesi gerekmez.
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RequestAdmissionFilter> requestAdmissionFilter(
+            MeterRegistry meterRegistry,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${virtual-threads.reserved-fraction:0}") double reservedFraction,
+            @Value("${virtual-threads.requests-per-connection:1.0}") double requestsPerConnection,
+            @Value("${virtual-threads.admission-wait-ms:1000}") long waitMillis) {
+        int reservedConnections = reservedConnections(poolSize, reservedFraction);
+        int maxConcurrent = Math.max(1, (int) ((poolSize - reservedConnections) * requestsPerConnection));
+        log.info("Virtual thread modu - Havuz: {}, Listener'lara ayrılan: {}, Eşzamanlı istek sınırı: {}",
+                poolSize, reservedConnections, maxConcurrent);
+
+        FilterRegistrationBean<RequestAdmissionFilter> registration =
+                new FilterRegistrationBean<>(new RequestAdmissionFilter(maxConcurrent, waitMillis, meterRegistry));
+        // Security ve JWT filtrelerinden önce; reddedilecek istek için token doğrulanmasın
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Havuzun listener'lara ayrılan kısmı; HTTP isteklerine en az bir bağlantı kalır
+     */
+    static int reservedConnections(int poolSize, double reservedFraction) {
+        return Math.min(poolSize - 1, (int) Math.ceil(poolSize * Math.max(0, reservedFraction)));
+    }
+}
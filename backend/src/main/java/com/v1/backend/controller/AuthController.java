@@ -2,8 +2,11 @@ package com.v1.backend.controller;
 import com.v1.backend.dto.login.LoginRequest;
 import com.v1.backend.dto.signup.SignupRequest;
 import com.v1.backend.model.User;
+import com.v1.backend.security.AuthenticationCache;
 import com.v1.backend.security.JwtUtils;
 import com.v1.backend.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +23,7 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtUtils jwtUtils; // <<< bunu ekle
+    private final AuthenticationCache authenticationCache;
 
     @PostMapping("/signup")
     public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest request) {
@@ -79,9 +83,18 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // JWT stateless olduğu için sunucuda bir şey silmeye gerek yok.
-        // Sadece istemciye "işlem başarılı" dönüyoruz.
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        // Doğrulanmış token'lar cache'lendiği için token süresi dolana kadar iptal listesine alınır
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                Claims claims = jwtUtils.extractAllClaims(token);
+                authenticationCache.revokeToken(AuthenticationCache.hash(token), claims.getExpiration().getTime());
+            } catch (JwtException e) {
+                // Geçersiz veya süresi dolmuş token zaten kabul edilmiyor
+            }
+        }
         return ResponseEntity.ok("Logged out successfully");
     }
 
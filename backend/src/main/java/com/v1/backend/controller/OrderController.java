@@ -1,28 +1,35 @@
 package com.v1.backend.controller;
 
+import com.v1.backend.dto.CursorPage;
 import com.v1.backend.dto.order.CreateOrderRequest;
 import com.v1.backend.dto.order.OrderResponse;
 import com.v1.backend.model.Order;
-import com.v1.backend.model.User;
-import com.v1.backend.repository.UserRepository;
+import com.v1.backend.security.AuthenticatedUser;
+import com.v1.backend.service.InvoiceExportService;
+import com.v1.backend.service.InvoiceService;
 import com.v1.backend.service.OrderService;
-import com.v1.backend.utils.InvoicePdfGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestController
@@ -31,22 +38,21 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
-    private final InvoicePdfGenerator invoicePdfGenerator;
-
-    @Autowired
-    private UserRepository userRepository;
+    private final InvoiceService invoiceService;
+    private final InvoiceExportService invoiceExportService;
 
     /**
      * POST /api/v1/orders
      * Yeni sipariş oluşturur
      */
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("POST /api/v1/orders - Sipariş oluşturma isteği alındı");
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.createOrder(request, userId);
+            OrderResponse orderResponse = orderService.createOrder(request, currentUser.userId());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -80,12 +86,11 @@ public class OrderController {
      * Sipariş detaylarını getirir
      */
     @GetMapping("/{orderId}")
-    public ResponseEntity<?> getOrder(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrder(@PathVariable Long orderId, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("GET /api/v1/orders/{} - Sipariş detayı isteği", orderId);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.getOrderById(orderId, userId);
+            OrderResponse orderResponse = orderService.getOrderById(orderId, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -117,12 +122,13 @@ public class OrderController {
      * Sipariş numarası ile bulur
      */
     @GetMapping("/number/{orderNumber}")
-    public ResponseEntity<?> getOrderByNumber(@PathVariable String orderNumber) {
+    public ResponseEntity<?> getOrderByNumber(
+            @PathVariable String orderNumber,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("GET /api/v1/orders/number/{} - Sipariş getirme isteği", orderNumber);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.getOrderByOrderNumber(orderNumber, userId);
+            OrderResponse orderResponse = orderService.getOrderByOrderNumber(orderNumber, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -150,11 +156,31 @@ public class OrderController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("GET /api/v1/orders - Kullanıcı siparişleri isteği");
 
         try {
-            Long userId = getCurrentUserId();
+            Long userId = currentUser.userId();
+
+            // Cursor modu: en yeni sipariş önce, toplam sayı hesaplanmaz
+            if (keyset || cursor != null) {
+                CursorPage<OrderResponse> orders = orderService.getUserOrdersByCursor(userId, cursor, size);
+
+                Map<String, Object> pagination = new HashMap<>();
+                pagination.put("pageSize", orders.getSize());
+                pagination.put("hasNext", orders.isHasNext());
+                pagination.put("nextCursor", orders.getNextCursor());
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", orders.getContent());
+                response.put("pagination", pagination);
+
+                return ResponseEntity.ok(response);
+            }
 
             Sort.Direction direction = sortDirection.equalsIgnoreCase("asc")
                     ? Sort.Direction.ASC
@@ -175,6 +201,14 @@ public class OrderController {
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Siparişler getirilemedi - Hata: {}", e.getMessage());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
             log.error("Siparişler getirilemedi", e);
 
@@ -193,12 +227,12 @@ public class OrderController {
     @PatchMapping("/{orderId}/status")
     public ResponseEntity<?> updateOrderStatus(
             @PathVariable Long orderId,
-            @RequestParam Order.OrderStatus status) {
+            @RequestParam Order.OrderStatus status,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("PATCH /api/v1/orders/{}/status - Status: {}", orderId, status);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.updateOrderStatus(orderId, status, userId);
+            OrderResponse orderResponse = orderService.updateOrderStatus(orderId, status, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -233,12 +267,12 @@ public class OrderController {
     @PatchMapping("/{orderId}/payment-status")
     public ResponseEntity<?> updatePaymentStatus(
             @PathVariable Long orderId,
-            @RequestParam Order.PaymentStatus paymentStatus) {
+            @RequestParam Order.PaymentStatus paymentStatus,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("PATCH /api/v1/orders/{}/payment-status - PaymentStatus: {}", orderId, paymentStatus);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.updatePaymentStatus(orderId, paymentStatus, userId);
+            OrderResponse orderResponse = orderService.updatePaymentStatus(orderId, paymentStatus, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -265,12 +299,12 @@ public class OrderController {
     @PatchMapping("/{orderId}/ship")
     public ResponseEntity<?> shipOrder(
             @PathVariable Long orderId,
-            @RequestParam String trackingNumber) {
+            @RequestParam String trackingNumber,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("PATCH /api/v1/orders/{}/ship - TrackingNumber: {}", orderId, trackingNumber);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.shipOrder(orderId, trackingNumber, userId);
+            OrderResponse orderResponse = orderService.shipOrder(orderId, trackingNumber, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -295,12 +329,11 @@ public class OrderController {
      * Siparişi teslim edildi olarak işaretler (ADMIN)
      */
     @PatchMapping("/{orderId}/deliver")
-    public ResponseEntity<?> deliverOrder(@PathVariable Long orderId) {
+    public ResponseEntity<?> deliverOrder(@PathVariable Long orderId, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("PATCH /api/v1/orders/{}/deliver", orderId);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.deliverOrder(orderId, userId);
+            OrderResponse orderResponse = orderService.deliverOrder(orderId, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -327,12 +360,12 @@ public class OrderController {
     @DeleteMapping("/{orderId}/cancel")
     public ResponseEntity<?> cancelOrder(
             @PathVariable Long orderId,
-            @RequestParam(required = false, defaultValue = "Kullanıcı tarafından iptal edildi") String reason) {
+            @RequestParam(required = false, defaultValue = "Kullanıcı tarafından iptal edildi") String reason,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         log.info("DELETE /api/v1/orders/{}/cancel - Reason: {}", orderId, reason);
 
         try {
-            Long userId = getCurrentUserId();
-            OrderResponse orderResponse = orderService.cancelOrder(orderId, reason, userId);
+            OrderResponse orderResponse = orderService.cancelOrder(orderId, reason, currentUser);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -361,46 +394,74 @@ public class OrderController {
     }
 
     /**
-     * Mevcut kullanıcı ID'sini getirir
+     * GET /api/v1/orders/{orderId}/invoice
+     * Faturayı PDF olarak doğrudan yanıta akıtır
      */
-    private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new IllegalArgumentException("Kullanıcı kimliği doğrulanamadı");
-        }
-
-        String email = authentication.getName();
-
-        return userRepository.findByEmail(email)
-                .map(User::getId)
-                .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı: " + email));
-    }
-
     @GetMapping("/{orderId}/invoice")
-    public ResponseEntity<byte[]> downloadInvoice(
+    public void downloadInvoice(
             @PathVariable Long orderId,
-            @RequestHeader("Authorization") String authHeader) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            Long userId = extractUserIdFromToken(authHeader);
-            OrderResponse order = orderService.getOrderById(orderId, userId);
-            Order orderEntity = orderService.getOrderEntity(orderId);
+            invoiceService.writeInvoice(orderId, currentUser, request, response);
 
-            byte[] pdfBytes = invoicePdfGenerator.generateInvoicePdf(orderEntity);
+        } catch (IllegalArgumentException e) {
+            log.warn("Fatura bulunamadı - OrderId: {}, Hata: {}", orderId, e.getMessage());
+            sendErrorIfPossible(response, HttpStatus.NOT_FOUND);
+        } catch (RejectedExecutionException e) {
+            log.warn("Fatura kuyruğu dolu - OrderId: {}", orderId);
+            response.setHeader("Retry-After", "1");
+            sendErrorIfPossible(response, HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            log.error("Fatura indirme hatası - OrderId: {}", orderId, e);
+            sendErrorIfPossible(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"" + order.getOrderNumber() + "-Fatura.pdf\"")
-                    .header("Content-Type", "application/pdf")
-                    .body(pdfBytes);
+    /**
+     * GET /api/v1/orders/invoices/export?from=2024-01-01&to=2024-02-01&status=DELIVERED
+     * Filtreye uyan siparişlerin faturalarını tek ZIP olarak akıtır (ADMIN)
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/invoices/export")
+    public void exportInvoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Order.OrderStatus status,
+            HttpServletResponse response) throws IOException {
+        log.info("GET /api/v1/orders/invoices/export - From: {}, To: {}, Status: {}", from, to, status);
+
+        if (from == null && to == null && status == null) {
+            sendErrorIfPossible(response, HttpStatus.BAD_REQUEST);
+            return;
+        }
+        // Bitiş günü dahil; verilmeyen taraf sınırsız
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
 
+        try {
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=\"faturalar-"
+                    + (from != null ? from : "tumu") + "-" + (to != null ? to : LocalDate.now()) + ".zip\"");
+            invoiceExportService.exportInvoices(fromTime, toTime, status, response.getOutputStream());
+
+        } catch (RejectedExecutionException e) {
+            log.warn("Toplu fatura dışa aktarımı reddedildi - Hata: {}", e.getMessage());
+            response.setHeader("Retry-After", "30");
+            sendErrorIfPossible(response, HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
-            log.error("Fatura indirme hatası - OrderId: {}", orderId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Toplu fatura dışa aktarım hatası", e);
+            sendErrorIfPossible(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    private Long extractUserIdFromToken(String authHeader) {
-        // JWT token'dan user ID çıkar
-        // Implementation depends on your JWT library
-        return 1L; // Placeholder
+    // Yanıt akmaya başladıysa durum kodu değiştirilemez; bağlantı yarım kalır ve istemci hatayı böyle görür
+    private void sendErrorIfPossible(HttpServletResponse response, HttpStatus status) throws IOException {
+        if (!response.isCommitted()) {
+            response.setContentType(null);
+            response.setHeader("Content-Disposition", null);
+            response.sendError(status.value());
+        }
     }
-}
\ No newline at end of file
+}
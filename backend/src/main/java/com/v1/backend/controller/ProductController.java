@@ -1,7 +1,15 @@
 package com.v1.backend.controller;
 
+import com.v1.backend.dto.ApiResponse;
+import com.v1.backend.dto.CursorPage;
 import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.dto.ProductImportResult;
+import com.v1.backend.dto.browse.ProductBrowseResponse;
+import com.v1.backend.model.Product;
+import com.v1.backend.search.ProductFacetIndex;
+import com.v1.backend.service.ProductImportService;
 import com.v1.backend.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -9,12 +17,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -22,7 +37,15 @@ import java.util.Set;
 @Slf4j
 public class ProductController {
 
+    // Varsayılan sıralama; cursor sayfalamanın tek desteklediği alan
+    private static final String CURSOR_SORT_FIELD = "createdAt";
+
+    // Daha büyük sayfa istekleri bu boyuta indirilir; cursor sayfası bir fazla satır okuduğu için
+    // iki sayfalama türü de ilişkileri tek batch'te yükler
+    public static final int MAX_PAGE_SIZE = Product.FETCH_BATCH_SIZE - 1;
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     // CREATE
     @PostMapping
@@ -32,16 +55,60 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    // BULK IMPORT (Admin Only) - CSV (başlık satırlı) veya JSON Lines; gövde akış olarak okunur
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(HttpServletRequest request) throws IOException {
+        log.info("POST request to import products - Content-Type: {}", request.getContentType());
+        try {
+            ProductImportService.Format format =
+                    ProductImportService.Format.of(MediaType.parseMediaType(request.getContentType()));
+            ProductImportResult result = productImportService.importProducts(request.getInputStream(), format);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.warn("Product import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            log.warn("Product import rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "60")
+                    .body(e.getMessage());
+        }
+    }
+
     // READ - Get All with Pagination
+    // keyset=true veya cursor verilirse OFFSET yerine cursor sayfalama kullanılır; sıralama sabittir (createdAt DESC),
+    // cursor ile farklı sortBy/direction istenirse 400 döner
     @GetMapping
-    public ResponseEntity<Page<ProductDTO>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) Sort.Direction direction,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor) {
+
+        if (keyset || cursor != null) {
+            log.info("GET request for all products by cursor - Size: {}", size);
+            if ((sortBy != null && !sortBy.equals(CURSOR_SORT_FIELD))
+                    || (direction != null && direction != Sort.Direction.DESC)) {
+                log.warn("Product cursor request rejected: sort {} {}", sortBy, direction);
+                return ResponseEntity.badRequest().body(ApiResponse.badRequest(
+                        "Cursor sayfalama sadece createdAt DESC sıralamasını destekler", "UNSUPPORTED_CURSOR_SORT"));
+            }
+            try {
+                CursorPage<ProductDTO> products = productService.getProductsByCursor(cursor, pageSize(size));
+                return ResponseEntity.ok(products);
+            } catch (IllegalArgumentException e) {
+                // Bozuk cursor veya geçersiz sayfa boyutu
+                log.warn("Product cursor request rejected: {}", e.getMessage());
+                return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage(), "INVALID_CURSOR"));
+            }
+        }
 
         log.info("GET request for all products - Page: {}, Size: {}", page, size);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        Pageable pageable = PageRequest.of(page, pageSize(size), Sort.by(direction != null ? direction : Sort.Direction.DESC,
+                sortBy != null ? sortBy : CURSOR_SORT_FIELD));
         Page<ProductDTO> products = productService.getAllProducts(pageable);
         return ResponseEntity.ok(products);
     }
@@ -70,11 +137,47 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size) {
 
         log.info("GET request to search products with keyword: {}", keyword);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, pageSize(size));
         Page<ProductDTO> results = productService.searchProducts(keyword, pageable);
         return ResponseEntity.ok(results);
     }
 
+    // READ - Search Autocomplete
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggestSearchTerms(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<String> suggestions = productService.suggestSearchTerms(prefix, Math.min(limit, 50));
+        return ResponseEntity.ok(suggestions);
+    }
+
+    // READ - Browse with combined filters and facet counts
+    // Facet indeksi açılışta yüklenirken IndexNotReadyException -> 503 + Retry-After (GlobalExceptionHandler)
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseResponse> browseProducts(
+            @RequestParam(required = false) Set<Long> brandIds,
+            @RequestParam(required = false) Set<Long> categoryIds,
+            @RequestParam(required = false) Set<Long> parentCategoryIds,
+            @RequestParam(required = false) Set<String> colors,
+            @RequestParam(required = false) Set<String> sizes,
+            @RequestParam(required = false) Set<String> priceRanges,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Map<String, Set<String>> filters = new HashMap<>();
+        putFilter(filters, ProductFacetIndex.BRAND, brandIds);
+        putFilter(filters, ProductFacetIndex.CATEGORY, categoryIds);
+        putFilter(filters, ProductFacetIndex.PARENT_CATEGORY, parentCategoryIds);
+        putFilter(filters, ProductFacetIndex.COLOR, colors);
+        putFilter(filters, ProductFacetIndex.SIZE, sizes);
+        putFilter(filters, ProductFacetIndex.PRICE, priceRanges);
+
+        log.info("GET request to browse products - Filters: {}, Page: {}, Size: {}", filters, page, size);
+        ProductBrowseResponse response = productService.browseProducts(filters, PageRequest.of(page, pageSize(size)));
+        return ResponseEntity.ok(response);
+    }
+
     // READ - Get by Category
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<Page<ProductDTO>> getProductsByCategory(
@@ -82,11 +185,12 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories) {
 
-        log.info("GET request for products in category: {}", categoryId);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<ProductDTO> products = productService.getProductsByCategory(categoryId, pageable);
+        log.info("GET request for products in category: {}, Include subcategories: {}", categoryId, includeSubcategories);
+        Pageable pageable = PageRequest.of(page, pageSize(size), Sort.by(direction, sortBy));
+        Page<ProductDTO> products = productService.getProductsByCategory(categoryId, includeSubcategories, pageable);
         return ResponseEntity.ok(products);
     }
 
@@ -101,7 +205,7 @@ public class ProductController {
             @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
 
         log.info("GET request for products in category: {} and parent category slug: {}", categoryId, slug);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        Pageable pageable = PageRequest.of(page, pageSize(size), Sort.by(direction, sortBy));
         Page<ProductDTO> products = productService.getProductsByCategoryAndParentCategorySlug(categoryId, slug, pageable);
         return ResponseEntity.ok(products);
     }
@@ -115,7 +219,7 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size) {
 
         log.info("GET request for products in category: {} and parent category ids: {}", categoryId, parentCategoryIds);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, pageSize(size));
         Page<ProductDTO> products = productService.getProductsByCategoryAndParentCategoryIds(categoryId, parentCategoryIds, pageable);
         return ResponseEntity.ok(products);
     }
@@ -128,7 +232,7 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size) {
 
         log.info("GET request for products by brand: {}", brandId);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, pageSize(size));
         Page<ProductDTO> products = productService.getProductsByBrand(brandId, pageable);
         return ResponseEntity.ok(products);
     }
@@ -143,7 +247,7 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size) {
 
         log.info("GET request for products in price range: {} - {}", minPrice, maxPrice);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, pageSize(size));
         Page<ProductDTO> products = productService.getProductsByPriceRange(categoryId, minPrice, maxPrice, pageable);
         return ResponseEntity.ok(products);
     }
@@ -190,4 +294,16 @@ public class ProductController {
         long count = productService.getTotalProductCount();
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    private static int pageSize(int size) {
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static void putFilter(Map<String, Set<String>> filters, String facet, Set<?> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, values.stream()
+                    .map(value -> ProductFacetIndex.normalize(value.toString()))
+                    .collect(Collectors.toSet()));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.v1.backend.controller;
+
+import com.v1.backend.dto.ApiResponse;
+import com.v1.backend.dto.category.CategoryDTO;
+import com.v1.backend.exception.CategoryException;
+import com.v1.backend.service.ReactiveCatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Kategori okumalarının reaktif karşılığı; {@link CategoryController} GET'leriyle aynı JSON'u döner.
+ * MVC uç noktalarıyla yan yana /api/reactive altında sunulur (catalog.reactive.enabled).
+ */
+@RestController
+@RequestMapping("/api/reactive/v1/categories")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveCategoryController {
+
+    private final ReactiveCatalogService catalogService;
+
+    @GetMapping
+    public Mono<ApiResponse<List<CategoryDTO>>> getAllMainCategories() {
+        return catalogService.getAllMainCategories().map(ApiResponse::ok);
+    }
+
+    @GetMapping("/{parentId}/direct-subcategories")
+    public Mono<ApiResponse<List<CategoryDTO>>> getDirectSubcategories(@PathVariable Long parentId) {
+        return catalogService.getDirectSubcategories(parentId).map(ApiResponse::ok);
+    }
+
+    @GetMapping("/all")
+    public Mono<ApiResponse<List<CategoryDTO>>> getAllActiveCategories() {
+        return catalogService.getAllActiveCategories().map(ApiResponse::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ApiResponse<CategoryDTO>> getCategoryById(@PathVariable Long id) {
+        return catalogService.getCategoryById(id).map(ApiResponse::ok);
+    }
+
+    @GetMapping("/slug/{slug}")
+    public Mono<ApiResponse<CategoryDTO>> getCategoryBySlug(@PathVariable String slug) {
+        return catalogService.getCategoryBySlug(slug).map(ApiResponse::ok);
+    }
+
+    @GetMapping("/{parentId}/subcategories")
+    public Mono<ApiResponse<List<CategoryDTO>>> getSubcategories(@PathVariable Long parentId) {
+        return catalogService.getSubcategories(parentId).map(ApiResponse::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ApiResponse<List<CategoryDTO>>> searchCategories(@RequestParam(name = "q") String searchTerm) {
+        return catalogService.searchCategories(searchTerm).map(ApiResponse::ok);
+    }
+
+    @ExceptionHandler(CategoryException.class)
+    public ResponseEntity<ApiResponse<Void>> handleCategoryException(CategoryException ex) {
+        log.error("CategoryException: {} - Code: {}", ex.getMessage(), ex.getErrorCode());
+
+        ApiResponse<Void> response = ApiResponse.<Void>builder()
+                .success(false)
+                .message(ex.getMessage())
+                .errorCode(ex.getErrorCode())
+                .build();
+
+        return new ResponseEntity<>(response, HttpStatus.valueOf(ex.getHttpStatus()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.v1.backend.controller;
+
+import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.service.ReactiveCatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Ürün okumalarının bloklamayan karşılığı; {@link ProductController} GET'leriyle aynı JSON'u döner.
+ * MVC uçlarıyla yan yana /api/reactive altında sunulur (catalog.reactive.enabled).
+ */
+@RestController
+@RequestMapping("/api/reactive/v1/products")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveProductController {
+
+    private final ReactiveCatalogService catalogService;
+
+    @GetMapping
+    public Mono<Page<ProductDTO>> getAllProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+        return catalogService.getAllProducts(PageRequest.of(page, size, Sort.by(direction, sortBy)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ProductDTO> getProductById(@PathVariable Long id) {
+        log.debug("Reactive GET request for product id: {}", id);
+        return catalogService.getProductById(id);
+    }
+
+    @GetMapping("/sku/{sku}")
+    public Mono<ProductDTO> getProductBySku(@PathVariable String sku) {
+        log.debug("Reactive GET request for product SKU: {}", sku);
+        return catalogService.getProductBySku(sku);
+    }
+
+    @GetMapping("/search")
+    public Mono<Page<ProductDTO>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return catalogService.searchProducts(keyword, PageRequest.of(page, size));
+    }
+
+    @GetMapping("/search/suggest")
+    public Flux<String> suggestSearchTerms(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return catalogService.suggestSearchTerms(prefix, Math.min(limit, 50));
+    }
+
+    @GetMapping("/category/{categoryId}")
+    public Mono<Page<ProductDTO>> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories) {
+        return catalogService.getProductsByCategory(categoryId, includeSubcategories,
+                PageRequest.of(page, size, Sort.by(direction, sortBy)));
+    }
+
+    @GetMapping("/brand/{brandId}")
+    public Mono<Page<ProductDTO>> getProductsByBrand(
+            @PathVariable Long brandId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return catalogService.getProductsByBrand(brandId, PageRequest.of(page, size));
+    }
+
+    @GetMapping("/price-range")
+    public Mono<Page<ProductDTO>> getProductsByPriceRange(
+            @RequestParam Long categoryId,
+            @RequestParam BigDecimal minPrice,
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return catalogService.getProductsByPriceRange(categoryId, minPrice, maxPrice, PageRequest.of(page, size));
+    }
+
+    @GetMapping("/top-rated")
+    public Flux<ProductDTO> getTopRatedProducts() {
+        return catalogService.getTopRatedProducts();
+    }
+}
@@ -0,0 +1,49 @@
+package com.v1.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset sayfalama sonucu; toplam sayı hesaplanmaz, sadece devam token'ı döner
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * size + 1 satır okunmuş bir dilimden sayfa oluşturur; fazladan satır varsa devam token'ı üretilir
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, T> mapper, Function<E, String> cursorOf) {
+        requireValidSize(size);
+        boolean hasNext = rows.size() > size;
+        List<E> slice = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(slice.stream().map(mapper).collect(Collectors.toList()))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(slice.get(size - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Sayfa boyutu en az 1 olmalı; 0 ile devam token'ı üretilemez
+     */
+    public static int requireValidSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Sayfa boyutu en az 1 olmalıdır: " + size);
+        }
+        return size;
+    }
+}
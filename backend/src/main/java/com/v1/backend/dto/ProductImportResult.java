@@ -0,0 +1,21 @@
+package com.v1.backend.dto;
+
+import java.util.List;
+
+/**
+ * Toplu ürün içe aktarımının özeti. {@code errors} ilk {@code product.import.max-reported-errors} hatayı içerir.
+ */
+public record ProductImportResult(
+        long read,
+        long imported,
+        long duplicates,
+        long invalid,
+        long tookMs,
+        List<RowError> errors) {
+
+    /**
+     * Reddedilen satır: kaynak dosyadaki satır numarası ve sebebi
+     */
+    public record RowError(long line, String sku, String message) {
+    }
+}
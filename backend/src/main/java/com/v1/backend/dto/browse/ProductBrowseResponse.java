@@ -0,0 +1,38 @@
+package com.v1.backend.dto.browse;
+
+import com.v1.backend.dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtrelenmiş ürün sayfası ve her filtre değeri için ürün sayıları
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseResponse {
+
+    private List<ProductDTO> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // facet adı (brand, category, color ...) -> değerler, sayıya göre azalan
+    private Map<String, List<FacetValue>> facets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetValue {
+        private String value;
+        private long count;
+    }
+}
@@ -26,6 +26,7 @@ public class CategoryDTO {
     private Long parentId;
     private String parentName;
     private Set<CategoryDTO> children;
+    private String path; // "Elektronik > Telefon > Kılıf"
 
     // Durum
     private Boolean status;
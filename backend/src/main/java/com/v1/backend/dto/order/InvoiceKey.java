@@ -0,0 +1,7 @@
+package com.v1.backend.dto.order;
+
+/**
+ * Fatura indirme için siparişin hafif özeti: erişim kontrolü, dosya adı ve cache anahtarı
+ */
+public record InvoiceKey(Long userId, String orderNumber, Long version) {
+}
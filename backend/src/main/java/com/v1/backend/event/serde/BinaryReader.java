@@ -0,0 +1,113 @@
+package com.v1.backend.event.serde;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * {@link BinaryWriter} ile yazılmış veriyi okur
+ */
+public final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+    private final int limit;
+
+    public BinaryReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() {
+        check(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readFixedInt() {
+        check(4);
+        return ((buffer[position++] & 0xFF) << 24)
+                | ((buffer[position++] & 0xFF) << 16)
+                | ((buffer[position++] & 0xFF) << 8)
+                | (buffer[position++] & 0xFF);
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Geçersiz varint");
+    }
+
+    public long readLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public int readInt() {
+        return Math.toIntExact(readLong());
+    }
+
+    public String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() {
+        int length = readLength();
+        byte[] value = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() {
+        int scale = readInt();
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public LocalDateTime readTimestamp() {
+        long seconds = readLong();
+        int nanos = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Uzunluk önekli bir bloğu ayrı okuyucu olarak döner; bloğun bilinmeyen (yeni) alanları atlanmış olur
+     */
+    public BinaryReader readBlock() {
+        int length = readLength();
+        BinaryReader block = new BinaryReader(buffer, position, length);
+        position += length;
+        return block;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private int readLength() {
+        long length = readVarLong();
+        check(length);
+        return (int) length;
+    }
+
+    private void check(long bytes) {
+        if (bytes < 0 || position + bytes > limit) {
+            throw new IllegalArgumentException("İkili veri beklenenden kısa");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.v1.backend.event.serde;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Bir event'in belirli bir sürümdeki şeması.
+ * Alanlar düz yol listesidir ({@code orderId:long}, {@code items:array}, {@code items.productId:long});
+ * iç içe kayıtların alanları kendi ebeveyn yolu altında sıralıdır.
+ *
+ * @param fields alanlar, yazım sırasıyla
+ */
+public record EventSchema(String subject, int version, List<String> fields) {
+
+    public EventSchema {
+        fields = List.copyOf(fields);
+    }
+
+    /**
+     * Şemanın kimliği; her node'da aynı şema aynı değeri üretir, koordinasyon gerekmez
+     */
+    public int fingerprint() {
+        CRC32 crc = new CRC32();
+        crc.update(canonical().getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    public String canonical() {
+        return subject + "|" + version + "|" + String.join(",", fields);
+    }
+
+    /**
+     * Evrim kuralı: her kayıtta (üst seviye ve iç içe) önceki sürümün alanları aynı sırayla korunmuş,
+     * yeni alanlar sadece sona eklenmiş olmalı. Alan silinemez, yeniden sıralanamaz, tipi değiştirilemez.
+     */
+    public boolean isCompatibleWith(EventSchema previous) {
+        Map<String, List<String>> before = groupByRecord(previous.fields);
+        Map<String, List<String>> after = groupByRecord(fields);
+        for (Map.Entry<String, List<String>> entry : before.entrySet()) {
+            List<String> current = after.get(entry.getKey());
+            List<String> old = entry.getValue();
+            if (current == null || current.size() < old.size() || !current.subList(0, old.size()).equals(old)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, List<String>> groupByRecord(List<String> fields) {
+        Map<String, List<String>> records = new LinkedHashMap<>();
+        for (String field : fields) {
+            String name = field.substring(0, field.indexOf(':'));
+            int dot = name.lastIndexOf('.');
+            String parent = dot < 0 ? "" : name.substring(0, dot);
+            records.computeIfAbsent(parent, key -> new ArrayList<>()).add(field);
+        }
+        return records;
+    }
+}
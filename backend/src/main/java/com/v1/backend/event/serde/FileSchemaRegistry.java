@@ -0,0 +1,86 @@
+package com.v1.backend.event.serde;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Şema kaydı yerine geçen, depoda tutulan şema geçmişi (ağ erişimi gerektirmez).
+ * Her satır: {@code parmakİzi subject sürüm alan1,alan2,...}
+ * <p>
+ * Geçmiş salt okunurdur; uygulama çalışırken dosyaya yazılmaz. Koddaki şemalar {@link #verify} ile kontrol edilir:
+ * daha önce kaydedilmiş bir sürümün alanları değiştirilemez, yeni sürüm bir önceki sürümle uyumlu olmalıdır
+ * ({@link EventSchema#isCompatibleWith}) ve satırı geçmişe eklenmiş olmalıdır. Uyumsuzluk testte ve uygulama
+ * açılırken yakalanır.
+ */
+public final class FileSchemaRegistry {
+
+    private final Map<Integer, EventSchema> schemas = new LinkedHashMap<>();
+
+    public FileSchemaRegistry(InputStream history) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(history, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.trim().split(" ", 4);
+                EventSchema schema = new EventSchema(parts[1], Integer.parseInt(parts[2]),
+                        parts.length < 4 ? List.of() : Arrays.asList(parts[3].split(",")));
+                schemas.put(schema.fingerprint(), schema);
+            }
+        }
+    }
+
+    /**
+     * Şemanın geçmişte kayıtlı olduğunu doğrular
+     *
+     * @return şemanın parmak izi
+     * @throws IllegalStateException kayıtlı bir sürüm değiştirildiyse, önceki sürümle uyumsuzsa veya
+     *                               yeni sürüm geçmişe eklenmemişse
+     */
+    public int verify(EventSchema schema) {
+        int fingerprint = schema.fingerprint();
+        if (schemas.containsKey(fingerprint)) {
+            return fingerprint;
+        }
+
+        EventSchema previous = null;
+        for (EventSchema existing : schemas.values()) {
+            if (!existing.subject().equals(schema.subject())) {
+                continue;
+            }
+            if (existing.version() == schema.version()) {
+                throw new IllegalStateException("Kayıtlı şema sürümü değiştirilmiş, sürüm artırılmalı: "
+                        + schema.subject() + " v" + schema.version());
+            }
+            if (existing.version() < schema.version() && (previous == null || existing.version() > previous.version())) {
+                previous = existing;
+            }
+        }
+        if (previous != null && !schema.isCompatibleWith(previous)) {
+            throw new IllegalStateException("Uyumsuz şema değişikliği: " + schema.subject() + " v"
+                    + previous.version() + " -> v" + schema.version());
+        }
+        throw new IllegalStateException("Şema geçmişe eklenmemiş: " + schema.subject() + " v" + schema.version()
+                + ". Geçmiş dosyasına şu satırı ekleyin: " + line(schema));
+    }
+
+    public Optional<EventSchema> lookup(int fingerprint) {
+        return Optional.ofNullable(schemas.get(fingerprint));
+    }
+
+    /**
+     * Şemanın geçmiş dosyasındaki satırı
+     */
+    public static String line(EventSchema schema) {
+        return schema.fingerprint() + " " + schema.subject() + " " + schema.version() + " " + String.join(",", schema.fields());
+    }
+}
@@ -0,0 +1,216 @@
+package com.v1.backend.event.serde;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bir event sınıfının elle tanımlanmış ikili kodlayıcısı (reflection yok, getter/setter referanslarıyla).
+ * <p>
+ * Format: null olmayan alanların bit maskesi (varint), ardından sadece dolu alanların değerleri.
+ * Listedeki iç içe kayıtlar uzunluk önekli bloklar halinde yazılır.
+ * <p>
+ * Evrim: alanlar sadece sona, artan sürüm numarasıyla eklenir ({@link Builder#since}).
+ * Eski okuyucu yeni alanları görmez (maskede fazladan bit, sonda veya blokta fazladan byte olarak kalır);
+ * yeni okuyucu eski mesajdaki eksik alanları null bırakır.
+ */
+public final class RecordCodec<T> {
+
+    private static final int MAX_FIELDS = 64;
+
+    @FunctionalInterface
+    private interface ValueWriter<V> {
+        void write(BinaryWriter out, V value);
+    }
+
+    @FunctionalInterface
+    private interface ValueReader<V> {
+        V read(BinaryReader in);
+    }
+
+    private record Field<T, V>(String name, String type, int since, RecordCodec<?> element,
+                               Function<T, V> getter, BiConsumer<T, V> setter,
+                               ValueWriter<V> writer, ValueReader<V> reader) {
+
+        void write(BinaryWriter out, T record) {
+            writer.write(out, getter.apply(record));
+        }
+
+        void read(BinaryReader in, T record) {
+            setter.accept(record, reader.read(in));
+        }
+    }
+
+    private final Class<T> type;
+    private final String subject;
+    private final Supplier<T> factory;
+    private final List<Field<T, ?>> fields;
+
+    private RecordCodec(Class<T> type, String subject, Supplier<T> factory, List<Field<T, ?>> fields) {
+        this.type = type;
+        this.subject = subject;
+        this.factory = factory;
+        this.fields = List.copyOf(fields);
+    }
+
+    public static <T> Builder<T> builder(Class<T> type, String subject, Supplier<T> factory) {
+        return new Builder<>(type, subject, factory);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public String subject() {
+        return subject;
+    }
+
+    public int latestVersion() {
+        int version = 1;
+        for (Field<T, ?> field : fields) {
+            version = Math.max(version, field.since());
+            if (field.element() != null) {
+                version = Math.max(version, field.element().latestVersion());
+            }
+        }
+        return version;
+    }
+
+    /**
+     * 1'den en son sürüme kadar tüm şemalar
+     */
+    public List<EventSchema> schemas() {
+        List<EventSchema> schemas = new ArrayList<>();
+        for (int version = 1; version <= latestVersion(); version++) {
+            schemas.add(new EventSchema(subject, version, fieldPaths("", version)));
+        }
+        return schemas;
+    }
+
+    public void write(T record, BinaryWriter out) {
+        long present = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getter().apply(record) != null) {
+                present |= 1L << i;
+            }
+        }
+        out.writeVarLong(present);
+        for (int i = 0; i < fields.size(); i++) {
+            if ((present & (1L << i)) != 0) {
+                fields.get(i).write(out, record);
+            }
+        }
+    }
+
+    public T read(BinaryReader in) {
+        T record = factory.get();
+        long present = in.readVarLong();
+        for (int i = 0; i < fields.size(); i++) {
+            if ((present & (1L << i)) != 0) {
+                fields.get(i).read(in, record);
+            }
+        }
+        // Maskede bizden sonraki bitler daha yeni bir yazıcının alanlarıdır; sonda oldukları için okunmaz
+        return record;
+    }
+
+    private List<String> fieldPaths(String prefix, int version) {
+        List<String> paths = new ArrayList<>();
+        for (Field<T, ?> field : fields) {
+            if (field.since() > version) {
+                continue;
+            }
+            paths.add(prefix + field.name() + ":" + field.type());
+            if (field.element() != null) {
+                paths.addAll(field.element().fieldPaths(prefix + field.name() + ".", version));
+            }
+        }
+        return paths;
+    }
+
+    public static final class Builder<T> {
+
+        private final Class<T> type;
+        private final String subject;
+        private final Supplier<T> factory;
+        private final List<Field<T, ?>> fields = new ArrayList<>();
+        private int since = 1;
+
+        private Builder(Class<T> type, String subject, Supplier<T> factory) {
+            this.type = type;
+            this.subject = subject;
+            this.factory = factory;
+        }
+
+        /**
+         * Bundan sonra eklenen alanlar bu sürümde eklenmiş sayılır (sürüm geri alınamaz)
+         */
+        public Builder<T> since(int version) {
+            if (version < since) {
+                throw new IllegalStateException("Alan sürümleri artan sırada olmalı: " + subject);
+            }
+            this.since = version;
+            return this;
+        }
+
+        public Builder<T> longField(String name, Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            return add(name, "long", null, getter, setter, BinaryWriter::writeLong, BinaryReader::readLong);
+        }
+
+        public Builder<T> intField(String name, Function<T, Integer> getter, BiConsumer<T, Integer> setter) {
+            return add(name, "int", null, getter, setter, BinaryWriter::writeInt, BinaryReader::readInt);
+        }
+
+        public Builder<T> stringField(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+            return add(name, "string", null, getter, setter, BinaryWriter::writeString, BinaryReader::readString);
+        }
+
+        public Builder<T> decimalField(String name, Function<T, BigDecimal> getter, BiConsumer<T, BigDecimal> setter) {
+            return add(name, "decimal", null, getter, setter, BinaryWriter::writeDecimal, BinaryReader::readDecimal);
+        }
+
+        public Builder<T> timestampField(String name, Function<T, LocalDateTime> getter, BiConsumer<T, LocalDateTime> setter) {
+            return add(name, "timestamp", null, getter, setter, BinaryWriter::writeTimestamp, BinaryReader::readTimestamp);
+        }
+
+        public <E> Builder<T> listField(String name, RecordCodec<E> element,
+                                        Function<T, List<E>> getter, BiConsumer<T, List<E>> setter) {
+            ValueWriter<List<E>> writer = (out, list) -> {
+                out.writeVarLong(list.size());
+                BinaryWriter block = new BinaryWriter(32);
+                for (E item : list) {
+                    block.reset();
+                    element.write(item, block);
+                    block.writeTo(out);
+                }
+            };
+            ValueReader<List<E>> reader = in -> {
+                int size = Math.toIntExact(in.readVarLong());
+                List<E> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(element.read(in.readBlock()));
+                }
+                return list;
+            };
+            return add(name, "array", element, getter, setter, writer, reader);
+        }
+
+        public RecordCodec<T> build() {
+            return new RecordCodec<>(type, subject, factory, fields);
+        }
+
+        private <V> Builder<T> add(String name, String fieldType, RecordCodec<?> element,
+                                   Function<T, V> getter, BiConsumer<T, V> setter,
+                                   ValueWriter<V> writer, ValueReader<V> reader) {
+            if (fields.size() == MAX_FIELDS) {
+                throw new IllegalStateException("Bir kayıtta en fazla " + MAX_FIELDS + " alan olabilir: " + subject);
+            }
+            fields.add(new Field<>(name, fieldType, since, element, getter, setter, writer, reader));
+            return this;
+        }
+    }
+}
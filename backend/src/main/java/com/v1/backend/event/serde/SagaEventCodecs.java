@@ -0,0 +1,205 @@
+package com.v1.backend.event.serde;
+
+import com.v1.backend.event.OrderCreatedEvent;
+import com.v1.backend.event.PaymentFailedEvent;
+import com.v1.backend.event.PaymentSuccessEvent;
+import com.v1.backend.event.StockDecrementEvent;
+import com.v1.backend.event.StockReservationFailedEvent;
+import com.v1.backend.event.StockReservedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Saga event'lerinin ikili kodlayıcıları.
+ * <p>
+ * Mesaj formatı: {@code 0x01} (sihirli byte) + 4 byte subject kimliği + sürüm (varint) + kayıt.
+ * JSON mesajları '{' ile başladığı için aynı topic'te iki format birlikte okunabilir. Okuyucu, bildiğinden yeni
+ * bir sürümün mesajını o subject'in en yeni yerel kodlayıcısıyla okur: bildiği alanları alır, sondakileri atlar.
+ * Eski format ({@code 0x00} + 4 byte şema parmak izi) hâlâ okunur.
+ * <p>
+ * Yeni alan eklerken: alanı ilgili kodlayıcının sonuna {@code since(n + 1)} ile ekleyin; mevcut alanları
+ * silmeyin, sırasını veya tipini değiştirmeyin. Eski sürümlerin şemaları burada tanımlı kalır, böylece eski
+ * mesajlar her node'da çözülebilir.
+ */
+public final class SagaEventCodecs {
+
+    public static final byte MAGIC = 0x01;
+    // Subject + sürüm başlığından önceki format: şema parmak izi
+    private static final byte FINGERPRINT_MAGIC = 0x00;
+
+    private static final RecordCodec<OrderCreatedEvent.OrderItemDto> ORDER_ITEM = RecordCodec
+            .builder(OrderCreatedEvent.OrderItemDto.class, "order-item", OrderCreatedEvent.OrderItemDto::new)
+            .longField("productId", OrderCreatedEvent.OrderItemDto::getProductId, OrderCreatedEvent.OrderItemDto::setProductId)
+            .stringField("productName", OrderCreatedEvent.OrderItemDto::getProductName, OrderCreatedEvent.OrderItemDto::setProductName)
+            .intField("quantity", OrderCreatedEvent.OrderItemDto::getQuantity, OrderCreatedEvent.OrderItemDto::setQuantity)
+            .decimalField("unitPrice", OrderCreatedEvent.OrderItemDto::getUnitPrice, OrderCreatedEvent.OrderItemDto::setUnitPrice)
+            .build();
+
+    private static final RecordCodec<StockReservedEvent.StockItem> STOCK_ITEM = RecordCodec
+            .builder(StockReservedEvent.StockItem.class, "stock-item", StockReservedEvent.StockItem::new)
+            .longField("productId", StockReservedEvent.StockItem::getProductId, StockReservedEvent.StockItem::setProductId)
+            .intField("quantity", StockReservedEvent.StockItem::getQuantity, StockReservedEvent.StockItem::setQuantity)
+            .build();
+
+    private static final List<RecordCodec<?>> CODECS = List.of(
+            RecordCodec.builder(OrderCreatedEvent.class, "order-created", OrderCreatedEvent::new)
+                    .longField("orderId", OrderCreatedEvent::getOrderId, OrderCreatedEvent::setOrderId)
+                    .stringField("orderNumber", OrderCreatedEvent::getOrderNumber, OrderCreatedEvent::setOrderNumber)
+                    .longField("userId", OrderCreatedEvent::getUserId, OrderCreatedEvent::setUserId)
+                    .decimalField("totalPrice", OrderCreatedEvent::getTotalPrice, OrderCreatedEvent::setTotalPrice)
+                    .stringField("currency", OrderCreatedEvent::getCurrency, OrderCreatedEvent::setCurrency)
+                    .listField("items", ORDER_ITEM, OrderCreatedEvent::getItems, OrderCreatedEvent::setItems)
+                    .timestampField("createdAt", OrderCreatedEvent::getCreatedAt, OrderCreatedEvent::setCreatedAt)
+                    .build(),
+            RecordCodec.builder(PaymentSuccessEvent.class, "payment-success", PaymentSuccessEvent::new)
+                    .longField("orderId", PaymentSuccessEvent::getOrderId, PaymentSuccessEvent::setOrderId)
+                    .stringField("orderNumber", PaymentSuccessEvent::getOrderNumber, PaymentSuccessEvent::setOrderNumber)
+                    .longField("userId", PaymentSuccessEvent::getUserId, PaymentSuccessEvent::setUserId)
+                    .decimalField("totalPrice", PaymentSuccessEvent::getTotalPrice, PaymentSuccessEvent::setTotalPrice)
+                    .stringField("paymentMethod", PaymentSuccessEvent::getPaymentMethod, PaymentSuccessEvent::setPaymentMethod)
+                    .timestampField("paidAt", PaymentSuccessEvent::getPaidAt, PaymentSuccessEvent::setPaidAt)
+                    .build(),
+            RecordCodec.builder(PaymentFailedEvent.class, "payment-failed", PaymentFailedEvent::new)
+                    .longField("orderId", PaymentFailedEvent::getOrderId, PaymentFailedEvent::setOrderId)
+                    .stringField("orderNumber", PaymentFailedEvent::getOrderNumber, PaymentFailedEvent::setOrderNumber)
+                    .longField("userId", PaymentFailedEvent::getUserId, PaymentFailedEvent::setUserId)
+                    .stringField("reason", PaymentFailedEvent::getReason, PaymentFailedEvent::setReason)
+                    .timestampField("failedAt", PaymentFailedEvent::getFailedAt, PaymentFailedEvent::setFailedAt)
+                    .build(),
+            RecordCodec.builder(StockReservedEvent.class, "stock-reserved", StockReservedEvent::new)
+                    .longField("orderId", StockReservedEvent::getOrderId, StockReservedEvent::setOrderId)
+                    .stringField("orderNumber", StockReservedEvent::getOrderNumber, StockReservedEvent::setOrderNumber)
+                    .longField("userId", StockReservedEvent::getUserId, StockReservedEvent::setUserId)
+                    .listField("items", STOCK_ITEM, StockReservedEvent::getItems, StockReservedEvent::setItems)
+                    .timestampField("reservedAt", StockReservedEvent::getReservedAt, StockReservedEvent::setReservedAt)
+                    .build(),
+            RecordCodec.builder(StockReservationFailedEvent.class, "stock-reservation-failed", StockReservationFailedEvent::new)
+                    .longField("orderId", StockReservationFailedEvent::getOrderId, StockReservationFailedEvent::setOrderId)
+                    .stringField("orderNumber", StockReservationFailedEvent::getOrderNumber, StockReservationFailedEvent::setOrderNumber)
+                    .longField("userId", StockReservationFailedEvent::getUserId, StockReservationFailedEvent::setUserId)
+                    .stringField("reason", StockReservationFailedEvent::getReason, StockReservationFailedEvent::setReason)
+                    .timestampField("failedAt", StockReservationFailedEvent::getFailedAt, StockReservationFailedEvent::setFailedAt)
+                    .build(),
+            RecordCodec.builder(StockDecrementEvent.class, "stock-decrement", StockDecrementEvent::new)
+                    .longField("productId", StockDecrementEvent::getProductId, StockDecrementEvent::setProductId)
+                    .intField("quantity", StockDecrementEvent::getQuantity, StockDecrementEvent::setQuantity)
+                    .longField("orderId", StockDecrementEvent::getOrderId, StockDecrementEvent::setOrderId)
+                    .stringField("orderNumber", StockDecrementEvent::getOrderNumber, StockDecrementEvent::setOrderNumber)
+                    .timestampField("timestamp", StockDecrementEvent::getTimestamp, StockDecrementEvent::setTimestamp)
+                    .build()
+    );
+
+    private static final Map<Class<?>, RecordCodec<?>> BY_TYPE = new HashMap<>();
+    private static final Map<Integer, RecordCodec<?>> BY_SUBJECT = index(CODECS);
+    private static final Map<Integer, RecordCodec<?>> BY_FINGERPRINT = new HashMap<>();
+
+    static {
+        for (RecordCodec<?> codec : CODECS) {
+            for (EventSchema schema : codec.schemas()) {
+                RecordCodec<?> existing = BY_FINGERPRINT.putIfAbsent(schema.fingerprint(), codec);
+                if (existing != null) {
+                    throw new IllegalStateException("Şema parmak izi çakışması: " + schema.canonical());
+                }
+            }
+            BY_TYPE.put(codec.type(), codec);
+        }
+    }
+
+    private SagaEventCodecs() {
+    }
+
+    /**
+     * Tüm event'lerin tüm sürüm şemaları
+     */
+    public static List<EventSchema> schemas() {
+        return CODECS.stream().flatMap(codec -> codec.schemas().stream()).toList();
+    }
+
+    public static boolean supports(Class<?> type) {
+        return BY_TYPE.containsKey(type);
+    }
+
+    public static byte[] encode(Object event) {
+        BinaryWriter out = new BinaryWriter();
+        encode(event, out);
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void encode(Object event, BinaryWriter out) {
+        RecordCodec<Object> codec = (RecordCodec<Object>) BY_TYPE.get(event.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("İkili kodlayıcı tanımlı değil: " + event.getClass().getName());
+        }
+        encode(codec, event, out);
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && (data[0] == MAGIC || data[0] == FINGERPRINT_MAGIC);
+    }
+
+    public static Object decode(byte[] data) {
+        if (data.length > 0 && data[0] == FINGERPRINT_MAGIC) {
+            BinaryReader in = new BinaryReader(data);
+            in.readByte();
+            int fingerprint = in.readFixedInt();
+            RecordCodec<?> codec = BY_FINGERPRINT.get(fingerprint);
+            if (codec == null) {
+                throw new IllegalArgumentException("Bilinmeyen şema: " + Integer.toHexString(fingerprint));
+            }
+            return codec.read(in);
+        }
+        return decode(data, BY_SUBJECT);
+    }
+
+    static <T> void encode(RecordCodec<T> codec, T event, BinaryWriter out) {
+        out.writeByte(MAGIC);
+        out.writeFixedInt(subjectId(codec.subject()));
+        out.writeVarLong(codec.latestVersion());
+        codec.write(event, out);
+    }
+
+    /**
+     * Mesajı subject'in yerel kodlayıcısıyla okur; yerel sürümden yeni mesajda bilinmeyen alanlar atlanır,
+     * eski mesajda eksik alanlar null kalır
+     *
+     * @param codecs subject kimliği -> subject'in en yeni kodlayıcısı
+     */
+    static Object decode(byte[] data, Map<Integer, RecordCodec<?>> codecs) {
+        BinaryReader in = new BinaryReader(data);
+        if (in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("İkili event değil");
+        }
+        int subject = in.readFixedInt();
+        // Sürüm: kodlayıcı kendi sürümünden eski ve yeni mesajları okuyabildiği için seçimde kullanılmaz
+        in.readVarLong();
+        RecordCodec<?> codec = codecs.get(subject);
+        if (codec == null) {
+            throw new IllegalArgumentException("Bilinmeyen event: " + Integer.toHexString(subject));
+        }
+        return codec.read(in);
+    }
+
+    static Map<Integer, RecordCodec<?>> index(List<RecordCodec<?>> codecs) {
+        Map<Integer, RecordCodec<?>> bySubject = new HashMap<>();
+        for (RecordCodec<?> codec : codecs) {
+            if (bySubject.putIfAbsent(subjectId(codec.subject()), codec) != null) {
+                throw new IllegalStateException("Subject kimliği çakışması: " + codec.subject());
+            }
+        }
+        return bySubject;
+    }
+
+    /**
+     * Subject adının kimliği; her node'da aynı subject aynı değeri üretir
+     */
+    static int subjectId(String subject) {
+        CRC32 crc = new CRC32();
+        crc.update(subject.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+}
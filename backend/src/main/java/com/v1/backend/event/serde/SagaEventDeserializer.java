@@ -0,0 +1,36 @@
+package com.v1.backend.event.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Saga topic'leri için deserializer: ikili mesajları {@link SagaEventCodecs} ile, eski JSON mesajlarını
+ * {@link JsonDeserializer} ile çözer. Format ilk byte'tan anlaşılır; geçiş sırasında iki format birlikte okunabilir.
+ */
+public class SagaEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return SagaEventCodecs.isBinary(data) ? SagaEventCodecs.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return SagaEventCodecs.isBinary(data) ? SagaEventCodecs.decode(data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.v1.backend.event.serde;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Saga event'lerini ikili formatta yazan Kafka serializer'ı
+ */
+public class SagaEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : SagaEventCodecs.encode(data);
+    }
+}
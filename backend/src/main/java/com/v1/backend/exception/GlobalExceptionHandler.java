@@ -2,6 +2,7 @@ package com.v1.backend.exception;
 
 import com.v1.backend.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -54,6 +55,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * İndeks yükleniyor: geçici durum, 503 + Retry-After
+     */
+    @ExceptionHandler(IndexNotReadyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIndexNotReadyException(
+            IndexNotReadyException ex,
+            WebRequest request) {
+
+        log.warn("IndexNotReadyException: {}", ex.getMessage());
+
+        ApiResponse<Void> response = ApiResponse.error("İndeks yükleniyor, lütfen tekrar deneyin", "INDEX_NOT_READY");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+
     /**
      * RuntimeException handler
      */
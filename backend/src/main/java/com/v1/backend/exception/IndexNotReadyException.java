@@ -0,0 +1,12 @@
+package com.v1.backend.exception;
+
+/**
+ * Bellek içi indeks (facet, arama) açılışta henüz yüklenmediği için isteğin cevaplanamadığını bildirir;
+ * istemci kısa süre sonra tekrar denemelidir (503 + Retry-After)
+ */
+public class IndexNotReadyException extends RuntimeException {
+
+    public IndexNotReadyException(String message) {
+        super(message);
+    }
+}
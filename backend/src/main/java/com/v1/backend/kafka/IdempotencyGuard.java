@@ -0,0 +1,212 @@
+package com.v1.backend.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Idempotent consumer: {@code event-id} başlığı (outbox relay ekler) ile aynı event'in iki kez işlenmesini önler.
+ * <ul>
+ *   <li>İşlenen id'ler {@code processed_events} tablosuna, işi yapan transaction içinde yazılır (claim).
+ *       Satır PK kilidi sayesinde aynı event'i eşzamanlı işleyen ikinci consumer bekler ve çakışma alır.</li>
+ *   <li>Önünde bellekte dönen bir bloom filter durur: ilk kez gelen event'lerin çoğunda filtre "yok" der ve
+ *       veritabanı sorgusu atlanır. Filtre sadece bu node'un son rotasyon aralığındaki id'lerini bilir; unuttuğu bir
+ *       tekrar claim aşamasında yine yakalanır.</li>
+ *   <li>Kayıtlar TTL süresi sonunda silinir; bu süreden sonra gelen tekrarlar yeni event sayılır.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class IdempotencyGuard {
+
+    public static final String EVENT_ID_HEADER = "event-id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?) ON CONFLICT (event_id) DO NOTHING";
+
+    private static final String DELETE_SQL = "DELETE FROM processed_events WHERE event_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RotatingBloomFilter bloomFilter;
+    private final Duration ttl;
+    private final int warmupLimit;
+
+    private final Counter bloomMisses;
+    private final Counter bloomHits;
+    private final Counter falsePositives;
+    private final Counter lookupDuplicates;
+    private final Counter claimDuplicates;
+
+    public IdempotencyGuard(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.bloom.expected-insertions:1000000}") int expectedInsertions,
+            @Value("${idempotency.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bloomFilter = new RotatingBloomFilter(expectedInsertions, falsePositiveRate);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.warmupLimit = expectedInsertions;
+
+        this.bloomMisses = Counter.builder("idempotency.bloom.lookups").tag("result", "miss")
+                .description("Filtrenin 'yok' dediği, veritabanına sorulmayan event'ler")
+                .register(meterRegistry);
+        this.bloomHits = Counter.builder("idempotency.bloom.lookups").tag("result", "hit").register(meterRegistry);
+        this.falsePositives = Counter.builder("idempotency.bloom.false.positives").register(meterRegistry);
+        this.lookupDuplicates = Counter.builder("idempotency.duplicates").tag("stage", "lookup").register(meterRegistry);
+        this.claimDuplicates = Counter.builder("idempotency.duplicates").tag("stage", "claim").register(meterRegistry);
+    }
+
+    /**
+     * @return kaydın event id'si; başlık yoksa null (kayıt korumasız işlenir)
+     */
+    public static String eventIdOf(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(EVENT_ID_HEADER);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Daha önce işlenmiş event'leri bulur. Filtrenin "yok" dediği id'ler veritabanına sorulmaz.
+     */
+    public Set<String> findProcessed(Collection<String> eventIds) {
+        List<String> candidates = new ArrayList<>();
+        for (String eventId : eventIds) {
+            if (bloomFilter.mightContain(eventId)) {
+                candidates.add(eventId);
+            }
+        }
+        bloomMisses.increment(eventIds.size() - candidates.size());
+        bloomHits.increment(candidates.size());
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> processed = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_id FROM processed_events WHERE event_id = ANY (?)", String.class,
+                (Object) candidates.toArray(String[]::new)));
+        falsePositives.increment(candidates.size() - processed.size());
+        lookupDuplicates.increment(processed.size());
+        return processed;
+    }
+
+    /**
+     * Event'leri aktif transaction içinde işlenmiş olarak işaretler; transaction geri alınırsa işaret de kalkar.
+     *
+     * @return bu çağrıda işaretlenen id'ler; dönmeyenleri başka bir consumer zaten işlemiş (veya işliyor)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<String> claim(Collection<String> eventIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(eventIds));
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, ids, ids.size(), (ps, eventId) -> {
+            ps.setString(1, eventId);
+            ps.setTimestamp(2, now);
+        });
+
+        Set<String> claimed = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[0][i] != 0) {
+                claimed.add(ids.get(i));
+            } else {
+                // Filtre bunu unutmuş veya hiç görmemiş; bir dahakine veritabanına sorulsun
+                bloomFilter.put(ids.get(i));
+                claimDuplicates.increment();
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claimed.forEach(bloomFilter::put);
+            }
+        });
+        return claimed;
+    }
+
+    /**
+     * Tek event için: işlenmemişse aktif transaction içinde işaretler
+     *
+     * @return event ilk kez işleniyorsa true
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claimIfNew(String eventId) {
+        return findProcessed(List.of(eventId)).isEmpty() && !claim(List.of(eventId)).isEmpty();
+    }
+
+    /**
+     * İşlenemeyen (DLT'ye giden) event'lerin işaretini aynı transaction içinde kaldırır; DLT'den tekrar
+     * oynatılırlarsa tekrar sayılmasınlar
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar",
+                eventIds.toArray())));
+    }
+
+    /**
+     * Açılışta filtreyi son işlenen id'lerle doldurur; yeniden başlatma sonrası tekrar gelen event'ler
+     * claim aşamasına kadar gitmesin
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<String> recent = jdbcTemplate.queryForList(
+                    "SELECT event_id FROM processed_events ORDER BY processed_at DESC LIMIT ?", String.class, warmupLimit);
+            recent.forEach(bloomFilter::put);
+            log.info("Idempotency filtresi dolduruldu - Kayıt: {}", recent.size());
+        } catch (Exception e) {
+            log.warn("Idempotency filtresi doldurulamadı - Hata: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Filtrenin eski neslini atar; bir id en az bir aralık boyunca filtrede kalır
+     */
+    @Scheduled(fixedRateString = "${idempotency.bloom.rotate-ms:3600000}",
+            initialDelayString = "${idempotency.bloom.rotate-ms:3600000}")
+    public void rotate() {
+        bloomFilter.rotate();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM processed_events WHERE processed_at < ?",
+                    new Timestamp(System.currentTimeMillis() - ttl.toMillis()));
+            if (deleted > 0) {
+                log.info("Süresi dolan işlenmiş event kayıtları silindi - Kayıt: {}", deleted);
+            }
+        } catch (Exception e) {
+            log.error("İşlenmiş event kayıtları silinemedi - Hata: {}", e.getMessage());
+        }
+    }
+}
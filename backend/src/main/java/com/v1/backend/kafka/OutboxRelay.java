@@ -0,0 +1,281 @@
+package com.v1.backend.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox tablosundaki event'leri Kafka'ya taşır.
+ * <ul>
+ *   <li>Satırlar id sırasıyla büyük batch'ler halinde okunur, idempotent producer ile sırayla gönderilir;
+ *       tüm gönderimler onaylanınca kısa bir transaction'da silinir. Onay gelmezse satırlar kalır ve tekrar gönderilir
+ *       (at-least-once, consumer'lar tekrar eden event'e dayanıklı olmalı).</li>
+ *   <li>Aynı anda tek node gönderir (sıra node'lar arasında da korunur): lider, ayrı bir bağlantıda oturum seviyesinde
+ *       PostgreSQL advisory lock tutar. Okuma, Kafka onayını bekleme ve silme bu kilitten bağımsızdır; onay beklenirken
+ *       açık transaction veya havuzdan alınmış ek bağlantı yoktur. Lider olmayan node'lar kilidi
+ *       {@code leader-retry-ms} aralıkla dener.</li>
+ *   <li>Kilit bağlantısı koparsa kilit de düşer; lider her turdan önce bağlantıyı doğrular, geçersizse liderliği bırakır.</li>
+ *   <li>Payload outbox'a yazılırken serileştirildiği için burada tekrar serileştirme yapılmaz.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final long LOCK_KEY = 0x6F7574626F78L;
+
+    private static final String SELECT_SQL =
+            "SELECT id, event_id, topic, message_key, event_type, payload, created_at FROM outbox_events ORDER BY id LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ANY (?)";
+
+    private static final RowMapper<PendingEvent> ROW_MAPPER = (rs, rowNum) -> new PendingEvent(
+            rs.getLong("id"),
+            rs.getString("event_id"),
+            rs.getString("topic"),
+            rs.getString("message_key"),
+            rs.getString("event_type"),
+            rs.getBytes("payload"),
+            rs.getTimestamp("created_at"));
+
+    private record PendingEvent(long id, String eventId, String topic, String key, String type, byte[] payload,
+                                Timestamp createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long idleMillis;
+    private final long leaderRetryMillis;
+    private final long sendTimeoutMs;
+
+    private final Timer lag;
+    private final Counter published;
+    private final Counter failures;
+    // Gönderilmeyi bekleyen en eski event'in yaşı (ms)
+    private final AtomicLong oldestPendingAge = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+    // Liderin advisory lock'u tutan bağlantısı; lider değilse null (sadece relay thread'i erişir)
+    private Connection lockConnection;
+
+    @Autowired
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            ProducerFactory<?, ?> producerFactory,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.idle-ms:100}") long idleMillis,
+            @Value("${outbox.relay.leader-retry-ms:5000}") long leaderRetryMillis,
+            @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this(jdbcTemplate, dataSource, relayTemplate(producerFactory), meterRegistry,
+                batchSize, idleMillis, leaderRetryMillis, sendTimeoutMs);
+    }
+
+    OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            int batchSize,
+            long idleMillis,
+            long leaderRetryMillis,
+            long sendTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.idleMillis = idleMillis;
+        this.leaderRetryMillis = leaderRetryMillis;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Event'in outbox'a yazılmasından Kafka'ya gönderilmesine kadar geçen süre")
+                .register(meterRegistry);
+        this.published = Counter.builder("outbox.relay.published").register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures").register(meterRegistry);
+        Gauge.builder("outbox.relay.oldest.age", oldestPendingAge, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static KafkaTemplate<String, byte[]> relayTemplate(ProducerFactory<?, ?> producerFactory) {
+        Map<String, Object> props = new HashMap<>(producerFactory.getConfigurationProperties());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::relayLoop, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        kafkaTemplate.destroy();
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (!lead()) {
+                    TimeUnit.MILLISECONDS.sleep(leaderRetryMillis);
+                    continue;
+                }
+                int sent;
+                try {
+                    sent = relayBatch();
+                } catch (Exception e) {
+                    failures.increment();
+                    log.error("Outbox event'leri gönderilemedi, tekrar denenecek - Hata: {}", e.getMessage());
+                    sent = 0;
+                }
+                // Batch dolu geldiyse bekleyen event var demektir, beklemeden devam et
+                if (sent < batchSize) {
+                    TimeUnit.MILLISECONDS.sleep(idleMillis);
+                }
+            } catch (InterruptedException e) {
+                log.debug("Outbox relay döngüsü kesildi");
+            }
+        }
+        resign();
+        log.info("Outbox relay durduruldu");
+    }
+
+    /**
+     * Liderse kilit bağlantısını doğrular, değilse kilidi almayı dener
+     *
+     * @return bu node liderse true
+     */
+    private boolean lead() {
+        try {
+            if (lockConnection != null) {
+                if (lockConnection.isValid(1)) {
+                    return true;
+                }
+                log.warn("Outbox relay kilit bağlantısı koptu, liderlik bırakıldı");
+                resign();
+            }
+            Connection connection = dataSource.getConnection();
+            boolean locked;
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, LOCK_KEY);
+                try (ResultSet rs = statement.executeQuery()) {
+                    locked = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!locked) {
+                connection.close();
+                return false;
+            }
+            lockConnection = connection;
+            log.info("Outbox relay liderliği alındı");
+            return true;
+        } catch (SQLException e) {
+            log.warn("Outbox relay kilidi alınamadı - Hata: {}", e.getMessage());
+            resign();
+            return false;
+        }
+    }
+
+    private void resign() {
+        Connection connection = lockConnection;
+        lockConnection = null;
+        if (connection == null) {
+            return;
+        }
+        // Bağlantı kapanınca kilit de düşer; havuza dönen bağlantıda kilit kalmasın diye önce bırakılır
+        try (connection; PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        } catch (SQLException e) {
+            log.debug("Outbox relay kilidi bırakılamadı - Hata: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Çağıran lider olmalıdır. Okuma ve silme ayrı kısa işlemlerdir; Kafka onayı beklenirken transaction açık değildir.
+     *
+     * @return gönderilen event sayısı
+     */
+    int relayBatch() {
+        List<PendingEvent> events = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, batchSize);
+        if (events.isEmpty()) {
+            oldestPendingAge.set(0);
+            return 0;
+        }
+        oldestPendingAge.set(System.currentTimeMillis() - events.get(0).createdAt().getTime());
+
+        CompletableFuture<?>[] sends = events.stream().map(this::send).toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Outbox gönderimi kesildi", e);
+        } catch (Exception e) {
+            // Satırlar silinmez; bir kısmı gönderilmiş olabilir, sonraki turda tekrar gönderilir
+            throw new IllegalStateException("Kafka gönderimi onaylanmadı", e);
+        }
+
+        jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint",
+                events.stream().map(PendingEvent::id).toArray())));
+
+        long now = System.currentTimeMillis();
+        events.forEach(event -> lag.record(now - event.createdAt().getTime(), TimeUnit.MILLISECONDS));
+        published.increment(events.size());
+        return events.size();
+    }
+
+    private CompletableFuture<?> send(PendingEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                event.topic(), null, event.createdAt().getTime(), event.key(), event.payload());
+        // JsonDeserializer payload'ı bu başlıktaki sınıfa çözer
+        record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.type().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("event-id", event.eventId().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+}
@@ -0,0 +1,65 @@
+package com.v1.backend.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.v1.backend.event.serde.SagaEventCodecs;
+import com.v1.backend.model.OutboxEvent;
+import com.v1.backend.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Event'leri Kafka yerine outbox tablosuna yazar. Çağıranın transaction'ı içinde çalışmak zorundadır:
+ * iş verisi commit edilirse event de commit edilir, geri alınırsa event de kaybolur.
+ * <p>
+ * Payload formatı {@code saga.serde.format} ile seçilir: {@code binary} ({@link SagaEventCodecs}) veya {@code json}.
+ * Consumer'lar iki formatı da okur.
+ */
+@Slf4j
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final boolean binary;
+
+    // Consumer'lardaki JsonDeserializer ile aynı ayarlar (JavaTime modülü vb.)
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    public OutboxWriter(
+            OutboxEventRepository outboxEventRepository,
+            @Value("${saga.serde.format:binary}") String format) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.binary = "binary".equalsIgnoreCase(format);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, String key, Object event) {
+        byte[] payload = binary && SagaEventCodecs.supports(event.getClass())
+                ? SagaEventCodecs.encode(event)
+                : toJson(event);
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .topic(topic)
+                .messageKey(key)
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .build());
+
+        log.debug("Event outbox'a yazıldı - Topic: {}, Key: {}", topic, key);
+    }
+
+    private byte[] toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Event serileştirilemedi: " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.v1.backend.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * İki nesilli bloom filter. Ekleme güncel nesle yapılır, sorgu iki nesle de bakar; {@link #rotate()} eski nesli
+ * atar. Böylece bir id en az bir rotasyon aralığı boyunca hatırlanır, bellek sabit kalır.
+ * "Yok" cevabı bu node'un o süre içinde görmediği anlamına gelir; "olabilir" cevabı kesin değildir.
+ */
+final class RotatingBloomFilter {
+
+    private final int bits;
+    private final int hashes;
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    /**
+     * @param expectedInsertions bir nesildeki beklenen eleman sayısı
+     * @param falsePositiveRate  hedef yanlış pozitif oranı (ör. 0.01)
+     */
+    RotatingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        this.current = new AtomicLongArray((bits + 63) / 64);
+        this.previous = new AtomicLongArray((bits + 63) / 64);
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        AtomicLongArray target = current;
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(hash, i);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = target.get(word);
+            } while ((old & mask) == 0 && !target.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    synchronized void rotate() {
+        previous = current;
+        current = new AtomicLongArray(previous.length());
+    }
+
+    private boolean contains(AtomicLongArray generation, long hash) {
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(hash, i);
+            if ((generation.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Çift hash (Kirsch-Mitzenmacher): tek 64 bit hash'in iki yarısından k indeks türetilir
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % bits;
+    }
+
+    // FNV-1a 64 + son karıştırma (murmur3 fmix64)
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,229 @@
+package com.v1.backend.kafka;
+
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderStateEngine;
+import com.v1.backend.saga.OrderTransition;
+import com.v1.backend.utils.SavepointScope;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saga consumer'larının batch modu.
+ * Siparişlerin durumu {@link OrderStateEngine}'den alınır (cache'te olmayanlar tek sorguyla), adımların döndüğü
+ * geçişler batch sonunda tek JDBC batch'i olarak yazılır; geçişler ve outbox event'leri aynı transaction'dadır.
+ * Offset'ler listener döndükten sonra tek seferde commit edilir.
+ * Bir kayıt okunamazsa veya işlenirken exception fırlatırsa sadece o kayıt {@code <topic>.DLT}'ye gönderilir;
+ * batch'in geri kalanı normal devam eder. Her kayıt kendi savepoint'inde işlenir; başarısız kaydın veritabanı
+ * yazıları (ör. stok düşümü) savepoint'e dönülerek geri alınır.
+ * Daha önce işlenmiş event'ler ({@link IdempotencyGuard}) siparişler yüklenmeden atlanır. Adımın bellekteki
+ * duruma göre reddettiği event'lerin claim'i, red veritabanındaki durumla doğrulanmadan commit olmaz.
+ */
+@Slf4j
+@Component
+public class SagaBatchProcessor {
+
+    private final OrderStateEngine orderStateEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate savepoint;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final IdempotencyGuard idempotencyGuard;
+
+    /**
+     * Tek bir event için siparişe uygulanan saga adımı
+     */
+    @FunctionalInterface
+    public interface Step<E> {
+        /**
+         * Sonraki event'ler outbox'a aynı transaction içinde yazılır
+         *
+         * @param state event'in siparişinin durumu; bulunamadıysa null
+         * @return uygulanacak durum geçişi; durum değişmiyorsa null
+         */
+        OrderTransition apply(E event, OrderSagaState state);
+    }
+
+    public SagaBatchProcessor(
+            OrderStateEngine orderStateEngine,
+            PlatformTransactionManager transactionManager,
+            DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+            IdempotencyGuard idempotencyGuard) {
+        this.orderStateEngine = orderStateEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.deadLetterPublishingRecoverer = deadLetterPublishingRecoverer;
+        this.idempotencyGuard = idempotencyGuard;
+    }
+
+    public <E> void process(List<ConsumerRecord<String, E>> records, Function<E, String> orderNumberOf, Step<E> step) {
+        process(records, orderNumberOf, events -> {
+        }, step);
+    }
+
+    /**
+     * @param prepare adımlardan önce aynı transaction içinde işlenecek event'lerin hepsiyle bir kez çağrılır
+     *                (ör. satır kilitlerini tutarlı sırada almak için)
+     */
+    public <E> void process(
+            List<ConsumerRecord<String, E>> records,
+            Function<E, String> orderNumberOf,
+            Consumer<List<E>> prepare,
+            Step<E> step) {
+        Map<ConsumerRecord<String, E>, Exception> failed = new LinkedHashMap<>();
+        Map<ConsumerRecord<String, E>, String> eventIds = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        List<ConsumerRecord<String, E>> valid = new ArrayList<>();
+        int duplicates = 0;
+        for (ConsumerRecord<String, E> record : records) {
+            String eventId = IdempotencyGuard.eventIdOf(record);
+            if (record.value() == null) {
+                failed.put(record, new IllegalArgumentException("Kayıt okunamadı"));
+            } else if (eventId != null && !seen.add(eventId)) {
+                // Aynı batch içinde tekrar
+                duplicates++;
+            } else {
+                valid.add(record);
+                if (eventId != null) {
+                    eventIds.put(record, eventId);
+                }
+            }
+        }
+
+        if (!eventIds.isEmpty()) {
+            Set<String> processed = idempotencyGuard.findProcessed(eventIds.values());
+            if (!processed.isEmpty()) {
+                valid.removeIf(record -> processed.contains(eventIds.get(record)));
+                duplicates += processed.size();
+            }
+        }
+
+        int claimDuplicates = 0;
+        if (!valid.isEmpty()) {
+            Integer skipped = transactionTemplate.execute(status -> {
+                // Başka bir consumer aynı event'i bu arada işlediyse claim alınamaz, kayıt atlanır
+                List<String> pending = valid.stream().map(eventIds::get).filter(Objects::nonNull).toList();
+                Set<String> claimed = pending.isEmpty() ? Set.of() : idempotencyGuard.claim(pending);
+                List<ConsumerRecord<String, E>> owned = valid.stream()
+                        .filter(record -> !eventIds.containsKey(record) || claimed.contains(eventIds.get(record)))
+                        .toList();
+
+                Map<String, Integer> partitions = new HashMap<>();
+                owned.forEach(record -> {
+                    String orderNumber = orderNumberOf.apply(record.value());
+                    if (orderNumber != null) {
+                        partitions.put(orderNumber, record.partition());
+                    }
+                });
+                Map<String, OrderSagaState> states = orderStateEngine.load(partitions);
+                prepare.accept(owned.stream().map(ConsumerRecord::value).toList());
+
+                List<OrderTransition> transitions = new ArrayList<>();
+                List<String> released = new ArrayList<>();
+                // Adımı kaydın savepoint'inde uygular; adım durumu reddettiyse true döner
+                BiPredicate<ConsumerRecord<String, E>, OrderSagaState> apply = (record, state) -> {
+                    String orderNumber = orderNumberOf.apply(record.value());
+                    try {
+                        OrderTransition transition =
+                                SavepointScope.execute(savepoint, recordStatus -> step.apply(record.value(), state));
+                        if (transition != null) {
+                            transitions.add(transition);
+                            // Aynı batch'teki sonraki event'ler yeni durumu görsün
+                            states.put(orderNumber, transition.to());
+                            return false;
+                        }
+                        return orderNumber != null;
+                    } catch (RuntimeException e) {
+                        log.error("Saga kaydı işlenemedi, DLT'ye gönderilecek - Topic: {}, Offset: {}, Hata: {}",
+                                record.topic(), record.offset(), e.getMessage());
+                        failed.put(record, e);
+                        if (eventIds.containsKey(record)) {
+                            released.add(eventIds.get(record));
+                        }
+                        return false;
+                    }
+                };
+
+                List<ConsumerRecord<String, E>> rejected = new ArrayList<>();
+                for (ConsumerRecord<String, E> record : owned) {
+                    String orderNumber = orderNumberOf.apply(record.value());
+                    if (apply.test(record, orderNumber != null ? states.get(orderNumber) : null)) {
+                        rejected.add(record);
+                    }
+                }
+                confirmRejections(rejected, orderNumberOf, states, transitions, apply);
+
+                orderStateEngine.persist(transitions);
+                idempotencyGuard.release(released);
+                return valid.size() - owned.size();
+            });
+            claimDuplicates = skipped != null ? skipped : 0;
+        }
+
+        failed.forEach(deadLetterPublishingRecoverer::accept);
+
+        log.info("Saga batch işlendi - Kayıt: {}, Tekrar: {}, DLT: {}",
+                records.size(), duplicates + claimDuplicates, failed.size());
+    }
+
+    /**
+     * Bellekteki duruma göre reddedilen event'leri veritabanından okunan durumla doğrular. Sipariş başka bir
+     * node'da ilerlemişse (consumer grupları partition'ları bağımsız atar) bellekteki durum eskidir; event yeni
+     * durumla tekrar uygulanır, claim sadece red veritabanındaki durumla da geçerliyse commit olur.
+     * Bu batch'te geçiş yazılan siparişler atlanır: geçişin dayandığı durum persist'te koşullu UPDATE ile doğrulanır.
+     */
+    private <E> void confirmRejections(
+            List<ConsumerRecord<String, E>> rejected,
+            Function<E, String> orderNumberOf,
+            Map<String, OrderSagaState> states,
+            List<OrderTransition> transitions,
+            BiPredicate<ConsumerRecord<String, E>, OrderSagaState> apply) {
+        Set<String> transitioned = transitions.stream().map(t -> t.to().orderNumber()).collect(Collectors.toSet());
+        List<ConsumerRecord<String, E>> unconfirmed = rejected.stream()
+                .filter(record -> !transitioned.contains(orderNumberOf.apply(record.value())))
+                .toList();
+        if (unconfirmed.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> partitions = new HashMap<>();
+        unconfirmed.forEach(record -> partitions.put(orderNumberOf.apply(record.value()), record.partition()));
+        Map<String, OrderSagaState> current = orderStateEngine.reload(partitions);
+        Set<String> stale = new HashSet<>();
+        for (String orderNumber : partitions.keySet()) {
+            OrderSagaState state = current.get(orderNumber);
+            OrderSagaState cached = states.get(orderNumber);
+            if (!Objects.equals(state, cached)) {
+                log.warn("Bellekteki sipariş durumu eskimiş, event veritabanındaki durumla tekrar uygulanıyor - " +
+                                "OrderNumber: {}, Bellekte: {}, Veritabanında: {}", orderNumber,
+                        cached != null ? cached.status() : null, state != null ? state.status() : null);
+                stale.add(orderNumber);
+                states.put(orderNumber, state);
+            }
+        }
+        // Red veritabanındaki durumla da geçerliyse claim commit olur; değilse event güncel durumla tekrar uygulanır
+        for (ConsumerRecord<String, E> record : unconfirmed) {
+            String orderNumber = orderNumberOf.apply(record.value());
+            if (stale.contains(orderNumber)) {
+                apply.test(record, states.get(orderNumber));
+            }
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package com.v1.backend.kafka;
 
 import com.v1.backend.event.StockDecrementEvent;
-import com.v1.backend.model.Product;
 import com.v1.backend.repository.ProductRepository;
+import com.v1.backend.stock.StockLedger;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -18,15 +20,19 @@ import java.util.Optional;
 public class StockDecrementConsumer {
 
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final IdempotencyGuard idempotencyGuard;
 
     /**
      * Stok düşümü event'ini consume eder
-     * Resilience4J CircuitBreaker ve Retry pattern'ları ile korunur
+     * Resilience4J CircuitBreaker ve Retry pattern'ları ile korunur.
+     * Her deneme kendi transaction'ında çalışır; event işlenmiş olarak aynı transaction'da işaretlenir,
+     * böylece tekrar gelen event stoğu ikinci kez düşmez.
      */
     @KafkaListener(
             topics = "stock-decrement",
             groupId = "stock-decrement-group",
-            concurrency = "3"
+            concurrency = "${saga.listener.concurrency:3}"
     )
     @CircuitBreaker(
             name = "stockDecrement",
@@ -36,35 +42,39 @@ public class StockDecrementConsumer {
             name = "stockDecrement",
             fallbackMethod = "stockDecrementFallback"
     )
-    public void handleStockDecrement(StockDecrementEvent event) {
+    @Transactional
+    public void handleStockDecrement(ConsumerRecord<String, StockDecrementEvent> record) {
+        StockDecrementEvent event = record.value();
+        String eventId = IdempotencyGuard.eventIdOf(record);
+        if (eventId != null && !idempotencyGuard.claimIfNew(eventId)) {
+            log.warn("Tekrar eden event atlandı - EventId: {}, OrderId: {}", eventId, event.getOrderId());
+            return;
+        }
+
         log.info("StockDecrementEvent alındı - ProductId: {}, Quantity: {}, OrderId: {}",
                 event.getProductId(), event.getQuantity(), event.getOrderId());
 
         try {
-            Optional<Product> productOpt = productRepository.findById(event.getProductId());
+            if (!stockLedger.reserve(event.getProductId(), event.getQuantity())) {
+                // Hata mesajı için stok sadece başarısız durumda okunur
+                Optional<Integer> stock = productRepository.findStockById(event.getProductId());
 
-            if (productOpt.isEmpty()) {
-                log.error("Ürün bulunamadı - ProductId: {}, OrderId: {}",
-                        event.getProductId(), event.getOrderId());
-                throw new IllegalArgumentException("Ürün bulunamadı: " + event.getProductId());
-            }
+                if (stock.isEmpty()) {
+                    log.error("Ürün bulunamadı - ProductId: {}, OrderId: {}",
+                            event.getProductId(), event.getOrderId());
+                    throw new IllegalArgumentException("Ürün bulunamadı: " + event.getProductId());
+                }
 
-            Product product = productOpt.get();
-
-            if (!product.hasStock(event.getQuantity())) {
                 log.error("Yetersiz stok - ProductId: {}, MevcutStok: {}, İstenenMiktar: {}, OrderId: {}",
-                        event.getProductId(), product.getStock(), event.getQuantity(), event.getOrderId());
+                        event.getProductId(), stock.get(), event.getQuantity(), event.getOrderId());
                 throw new IllegalArgumentException(
                         String.format("Yetersiz stok - ProductId: %d, MevcutStok: %d, İstenenMiktar: %d",
-                                event.getProductId(), product.getStock(), event.getQuantity())
+                                event.getProductId(), stock.get(), event.getQuantity())
                 );
             }
 
-            product.decreaseStock(event.getQuantity());
-            productRepository.save(product);
-
-            log.info("Stok başarıyla düşürüldü - ProductId: {}, YeniStok: {}, OrderId: {}",
-                    event.getProductId(), product.getStock(), event.getOrderId());
+            log.info("Stok başarıyla düşürüldü - ProductId: {}, OrderId: {}",
+                    event.getProductId(), event.getOrderId());
 
         } catch (IllegalArgumentException e) {
             log.error("Stok düşürme işleminde hata - OrderId: {} - Hata: {}",
@@ -80,7 +90,8 @@ public class StockDecrementConsumer {
     /**
      * Fallback method - CircuitBreaker açık olduğunda veya maksimum retry'dan sonra çağrılır
      */
-    public void stockDecrementFallback(StockDecrementEvent event, Exception ex) {
+    public void stockDecrementFallback(ConsumerRecord<String, StockDecrementEvent> record, Exception ex) {
+        StockDecrementEvent event = record.value();
         log.error("FALLBACK: Stok düşürme başarısız oldu - ProductId: {}, OrderId: {}, Hata: {}",
                 event.getProductId(), event.getOrderId(), ex.getMessage(), ex);
 
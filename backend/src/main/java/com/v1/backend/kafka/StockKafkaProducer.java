@@ -4,20 +4,17 @@ import com.v1.backend.event.StockReservationFailedEvent;
 import com.v1.backend.event.StockReservedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
+/**
+ * Stok event'lerini outbox'a yazar; Kafka'ya gönderimi {@link OutboxRelay} yapar
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StockKafkaProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxWriter outboxWriter;
 
     public static final String STOCK_RESERVED_TOPIC = "stock-reserved";
     public static final String STOCK_RESERVATION_FAILED_TOPIC = "stock-reservation-failed";
@@ -26,53 +23,13 @@ public class StockKafkaProducer {
         log.info("Yayınlanıyor: StockReservedEvent - OrderId: {}, OrderNumber: {}",
                 event.getOrderId(), event.getOrderNumber());
 
-        Message<StockReservedEvent> message = MessageBuilder
-                .withPayload(event)
-                .setHeader(KafkaHeaders.TOPIC, STOCK_RESERVED_TOPIC)
-                .setHeader(KafkaHeaders.KEY, event.getOrderNumber())
-                .setHeader("event-id", UUID.randomUUID().toString())
-                .setHeader("event-timestamp", System.currentTimeMillis())
-                .build();
-
-        try {
-            kafkaTemplate.send(message)
-                    .whenComplete((sendResult, ex) -> {
-                        if (ex == null) {
-                            log.info("StockReservedEvent başarıyla yayınlandı - OrderId: {}", event.getOrderId());
-                        } else {
-                            log.error("StockReservedEvent yayınlama başarısız - OrderId: {}", event.getOrderId(), ex);
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("StockReservedEvent yayınlanırken hata oluştu", e);
-            throw new RuntimeException("Kafka event yayınalamadı", e);
-        }
+        outboxWriter.append(STOCK_RESERVED_TOPIC, event.getOrderNumber(), event);
     }
 
     public void publishStockReservationFailed(StockReservationFailedEvent event) {
         log.info("Yayınlanıyor: StockReservationFailedEvent - OrderId: {}, OrderNumber: {}, Reason: {}",
                 event.getOrderId(), event.getOrderNumber(), event.getReason());
 
-        Message<StockReservationFailedEvent> message = MessageBuilder
-                .withPayload(event)
-                .setHeader(KafkaHeaders.TOPIC, STOCK_RESERVATION_FAILED_TOPIC)
-                .setHeader(KafkaHeaders.KEY, event.getOrderNumber())
-                .setHeader("event-id", UUID.randomUUID().toString())
-                .setHeader("event-timestamp", System.currentTimeMillis())
-                .build();
-
-        try {
-            kafkaTemplate.send(message)
-                    .whenComplete((sendResult, ex) -> {
-                        if (ex == null) {
-                            log.info("StockReservationFailedEvent başarıyla yayınlandı - OrderId: {}", event.getOrderId());
-                        } else {
-                            log.error("StockReservationFailedEvent yayınlama başarısız - OrderId: {}", event.getOrderId(), ex);
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("StockReservationFailedEvent yayınlanırken hata oluştu", e);
-            throw new RuntimeException("Kafka event yayınalamadı", e);
-        }
+        outboxWriter.append(STOCK_RESERVATION_FAILED_TOPIC, event.getOrderNumber(), event);
     }
-}
\ No newline at end of file
+}
@@ -20,8 +20,14 @@ import java.util.List;
 @ToString(exclude = "items")
 public class Cart {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carts_seq")
+    @SequenceGenerator(name = "carts_seq", sequenceName = "carts_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -20,8 +20,14 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"cart", "product"})
 public class CartItem {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -24,8 +24,14 @@ import java.util.Set;
 @ToString(exclude = {"children", "parent"})
 public class Category {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 255)
@@ -0,0 +1,44 @@
+package com.v1.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Kategori ağacı için closure table.
+ * Her (ata, torun) çifti için bir satır tutulur; kategori kendisinin 0 derinlikte atasıdır.
+ * Böylece bir alt ağacın tamamı derinlikten bağımsız olarak tek indeksli sorguyla bulunur.
+ */
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "ancestor_id", nullable = false)
+        private Long ancestorId;
+
+        @Column(name = "descendant_id", nullable = false)
+        private Long descendantId;
+    }
+}
@@ -8,20 +8,30 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(exclude = "items")
-@ToString(exclude = "items")
+@EqualsAndHashCode(exclude = {"items", "itemsByProductId", "indexedItems"})
+@ToString(exclude = {"items", "itemsByProductId", "indexedItems"})
 public class Order {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -95,15 +105,24 @@ public class Order {
     @Version
     private Long version;
 
+    // addItem'da ürünün satırını O(1) bulmak için; items'tan kurulur, kalıcı değildir
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, OrderItem> itemsByProductId;
+
+    // itemsByProductId'nin kurulduğu koleksiyon; Hibernate veya setItems koleksiyonu değiştirirse indeks yeniden kurulur
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private List<OrderItem> indexedItems;
+
     public OrderItem addItem(Product product, Integer quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Miktar 0'dan büyük olmalıdır");
         }
 
-        OrderItem existingItem = items.stream()
-                .filter(item -> item.getProduct().getId().equals(product.getId()))
-                .findFirst()
-                .orElse(null);
+        OrderItem existingItem = itemIndex().get(product.getId());
 
         if (existingItem != null) {
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
@@ -116,10 +135,24 @@ public class Order {
                     .unitPrice(product.getPrice())
                     .build();
             items.add(newItem);
+            itemsByProductId.put(product.getId(), newItem);
             return newItem;
         }
     }
 
+    private Map<Long, OrderItem> itemIndex() {
+        // Koleksiyon değiştiyse (setItems, yüklenen PersistentBag) veya addItem dışında satır eklenip
+        // çıkarıldıysa (orphanRemoval) yeniden kurulur
+        if (itemsByProductId == null || indexedItems != items || itemsByProductId.size() != items.size()) {
+            itemsByProductId = new HashMap<>();
+            for (OrderItem item : items) {
+                itemsByProductId.put(item.getProduct().getId(), item);
+            }
+            indexedItems = items;
+        }
+        return itemsByProductId;
+    }
+
     public void calculateTotals() {
         this.subtotal = items.stream()
                 .map(OrderItem::getSubtotal)
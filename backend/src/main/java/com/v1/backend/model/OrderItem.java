@@ -20,8 +20,15 @@ import java.time.LocalDateTime;
 @ToString(exclude = {"order", "product"})
 public class OrderItem {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 100;
+
+    // Sipariş başına satır sayısı kadar id harcanır; blok diğer tablolardan büyük
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
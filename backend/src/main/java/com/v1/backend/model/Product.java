@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,15 +17,29 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_products_category_id", columnList = "category_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    /**
+     * Sequence'ten bir nextval ile alınan id sayısı (pooled optimizer)
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
+    /**
+     * İlişkilerin tek sorguda toplu yüklendiği ürün sayısı; sayfa boyutu bunu aşarsa sayfa başına sorgu sayısı artar
+     */
+    public static final int FETCH_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -49,7 +64,9 @@ public class Product {
     private Category category;
 
     // eklendi
+    // Sayfa sorgularında ürün başına ayrı select yerine IN ile toplu yüklenir
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @JoinTable(
             name = "product_parent_categories",
             joinColumns = @JoinColumn(name = "product_id"),
@@ -71,6 +88,7 @@ public class Product {
     private String dimensions;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url", columnDefinition = "TEXT")
     @OrderColumn(name = "image_order")
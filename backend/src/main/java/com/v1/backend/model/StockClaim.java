@@ -0,0 +1,36 @@
+package com.v1.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Node'un hot ürün için veritabanından ayırıp henüz satışa açmadığı stok (node ve ürün başına tek satır).
+ * Node çökerse bu miktar {@code StockClaimJournal} tarafından products.stock'a geri eklenir.
+ */
+@Entity
+@Table(name = "stock_claims", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_claims_node_product", columnNames = {"node_id", "product_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockClaim {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
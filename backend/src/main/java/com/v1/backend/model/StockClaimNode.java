@@ -0,0 +1,24 @@
+package com.v1.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stok ayıran node'un kirası (lease). Heartbeat'i süresi geçen node'un ayırdığı stok başka bir node tarafından iade edilir.
+ */
+@Entity
+@Table(name = "stock_claim_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockClaimNode {
+
+    @Id
+    @Column(name = "node_id", length = 36)
+    private String nodeId;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+}
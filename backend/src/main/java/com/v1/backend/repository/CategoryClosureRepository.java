@@ -0,0 +1,88 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    // Yeni kategori: kendisi (0) + ebeveynin tüm atalarına bir derinlik fazlası
+    @Modifying
+    @Query(value = """
+        INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+        SELECT ancestor_id, CAST(:categoryId AS BIGINT), depth + 1 FROM category_closure WHERE descendant_id = :parentId
+        UNION ALL
+        SELECT CAST(:categoryId AS BIGINT), CAST(:categoryId AS BIGINT), 0
+    """, nativeQuery = true)
+    void insertNode(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Ana kategori: sadece kendisi
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:categoryId, :categoryId, 0)",
+            nativeQuery = true)
+    void insertRoot(@Param("categoryId") Long categoryId);
+
+    // Alt ağacı (kategori + torunları) tablodan çıkarır
+    @Modifying
+    @Query(value = """
+        DELETE FROM category_closure
+        WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)
+    """, nativeQuery = true)
+    void deleteSubtree(@Param("categoryId") Long categoryId);
+
+    // Taşıma 1/2: alt ağacın dışarıdaki atalarla bağlantılarını kopar
+    @Modifying
+    @Query(value = """
+        DELETE FROM category_closure
+        WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)
+          AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)
+    """, nativeQuery = true)
+    void detachSubtree(@Param("categoryId") Long categoryId);
+
+    // Taşıma 2/2: yeni ebeveynin atalarını alt ağacın her düğümüne bağla
+    @Modifying
+    @Query(value = """
+        INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+        SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1
+        FROM category_closure a
+        CROSS JOIN category_closure d
+        WHERE a.descendant_id = :parentId
+          AND d.ancestor_id = :categoryId
+    """, nativeQuery = true)
+    void attachSubtree(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Tablo boşsa mevcut parent_id ilişkilerinden tek sorguda doldurur.
+    // Aynı anda açılan node'lar da doldurabilir; var olan satırlar atlanır
+    @Modifying
+    @Query(value = """
+        INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+        WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (
+            SELECT id, id, 0 FROM categories
+            UNION ALL
+            SELECT t.ancestor_id, c.id, t.depth + 1
+            FROM tree t JOIN categories c ON c.parent_id = t.descendant_id
+        )
+        SELECT ancestor_id, descendant_id, depth FROM tree
+        ON CONFLICT (ancestor_id, descendant_id) DO NOTHING
+    """, nativeQuery = true)
+    int backfill();
+
+    // Kategorinin kök'e uzaklığı (ana kategori = 0)
+    @Query("SELECT COALESCE(MAX(c.depth), 0) FROM CategoryClosure c WHERE c.id.descendantId = :categoryId")
+    int findDepth(@Param("categoryId") Long categoryId);
+
+    // Alt ağacın yüksekliği (yaprak = 0)
+    @Query("SELECT COALESCE(MAX(c.depth), 0) FROM CategoryClosure c WHERE c.id.ancestorId = :categoryId")
+    int findSubtreeHeight(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT c.id.descendantId FROM CategoryClosure c WHERE c.id.ancestorId = :categoryId")
+    List<Long> findDescendantIds(@Param("categoryId") Long categoryId);
+
+    boolean existsByIdAncestorIdAndIdDescendantId(Long ancestorId, Long descendantId);
+}
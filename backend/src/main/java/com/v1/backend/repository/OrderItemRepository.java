@@ -3,9 +3,13 @@ package com.v1.backend.repository;
 import com.v1.backend.model.Order;
 import com.v1.backend.model.OrderItem;
 import com.v1.backend.model.Product;
+import com.v1.backend.stock.OrderStockLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +30,11 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      * Ürüne ait tüm order item'leri bulur
      */
     List<OrderItem> findByProduct(Product product);
-}
\ No newline at end of file
+
+    /**
+     * Siparişlerin stok satırları tek sorguda; OrderItem/Product entity'leri yüklenmez
+     */
+    @Query("SELECT new com.v1.backend.stock.OrderStockLine(oi.order.id, oi.product.id, oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.id IN :orderIds ORDER BY oi.order.id, oi.product.id")
+    List<OrderStockLine> findStockLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
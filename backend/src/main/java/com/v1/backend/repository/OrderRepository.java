@@ -1,13 +1,17 @@
 package com.v1.backend.repository;
 
+import com.v1.backend.dto.order.InvoiceKey;
 import com.v1.backend.model.Order;
 import com.v1.backend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +23,61 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    /**
+     * Fatura için sahip, sipariş numarası ve sürüm; siparişin kendisi yüklenmez
+     */
+    @Query("SELECT new com.v1.backend.dto.order.InvoiceKey(o.user.id, o.orderNumber, o.version) " +
+            "FROM Order o WHERE o.id = :id")
+    Optional<InvoiceKey> findInvoiceKeyById(@Param("id") Long id);
+
+    /**
+     * Faturası basılacak siparişler, kullanıcı ve satırların ürünleriyle tek sorguda
+     */
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user " +
+            "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<Order> findAllForInvoiceByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Toplu fatura dışa aktarımı için id'ler (keyset, id sırasıyla); from/to null ise o taraf sınırsızdır
+     */
+    @Query("SELECT o.id FROM Order o WHERE (:from IS NULL OR o.createdAt >= :from) " +
+            "AND (:to IS NULL OR o.createdAt < :to) " +
+            "AND (:status IS NULL OR o.status = :status) AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsForInvoiceExport(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("status") Order.OrderStatus status,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
     /**
      * Kullanıcıya ait siparişleri bulur
      */
     Page<Order> findByUser(User user, Pageable pageable);
 
+    /**
+     * Kullanıcıya ait siparişleri kullanıcı satırını okumadan bulur
+     */
+    Page<Order> findByUserId(Long userId, Pageable pageable);
+
+    /**
+     * Kullanıcının siparişlerinin ilk dilimi (keyset sayfalama, COUNT çalışmaz)
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstSliceByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Verilen (createdAt, id) noktasından sonraki dilim
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.createdAt, o.id) < (:createdAt, :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findSliceByUserIdAfter(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     /**
      * Kullanıcıya ait siparişleri duruma göre filtreler
      */
@@ -43,4 +97,4 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * Ödeme durumuna göre siparişleri bulur
      */
     Page<Order> findByPaymentStatus(Order.PaymentStatus paymentStatus, Pageable pageable);
-}
\ No newline at end of file
+}
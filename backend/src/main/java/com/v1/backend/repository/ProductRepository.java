@@ -1,42 +1,97 @@
 package com.v1.backend.repository;
 
 import com.v1.backend.model.Product;
+import com.v1.backend.search.FacetDocument;
+import com.v1.backend.search.ParentCategoryLink;
+import com.v1.backend.search.SearchDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
 
     Optional<Product> findBySku(String sku);
 
     Page<Product> findByNameContainingIgnoreCaseAndActiveTrue(String name, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"brand", "category"})
     Page<Product> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
 
+    // Kategori ve tüm alt kategorileri; closure tablosu sayesinde ağaç derinliğinden bağımsız tek sorgu
+    @EntityGraph(attributePaths = {"brand", "category"})
+    @Query(value = "SELECT p FROM Product p WHERE p.active = true AND p.category.id IN " +
+            "(SELECT cc.id.descendantId FROM CategoryClosure cc WHERE cc.id.ancestorId = :categoryId)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.active = true AND p.category.id IN " +
+            "(SELECT cc.id.descendantId FROM CategoryClosure cc WHERE cc.id.ancestorId = :categoryId)")
+    Page<Product> findByCategorySubtree(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"brand", "category"})
     Page<Product> findByBrandIdAndActiveTrue(Long brandId, Pageable pageable);
 
     List<Product> findByActiveTrue();
 
     List<Product> findByStatusAndActiveTrue(Product.ProductStatus status);
 
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.status = 'ACTIVE' " +
             "ORDER BY p.createdAt DESC")
     Page<Product> findAllActive(Pageable pageable);
 
+    // Keyset sayfalama: OFFSET ve COUNT yok, (created_at, id) indeksinden okunur
+    @EntityGraph(attributePaths = {"brand", "category"})
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.status = 'ACTIVE' " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveFirstSlice(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"brand", "category"})
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.status = 'ACTIVE' " +
+            "AND (p.createdAt, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveSliceAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.status = 'ACTIVE' " +
             "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
             "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
 
+    // İndeksten gelen id sayfasını tek sorguda yüklemek için
+    @EntityGraph(attributePaths = {"brand", "category"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Arama indeksi yüklemesi için id sırasıyla (keyset) okunan hafif projeksiyon
+    @Query("SELECT new com.v1.backend.search.SearchDocument(p.id, p.name, p.description) FROM Product p " +
+            "WHERE p.active = true AND p.status = 'ACTIVE' AND p.id > :afterId ORDER BY p.id")
+    List<SearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Facet indeksi yüklemesi için
+    @Query("SELECT new com.v1.backend.search.FacetDocument(p.id, b.id, c.id, p.color, p.size, p.price) " +
+            "FROM Product p LEFT JOIN p.brand b LEFT JOIN p.category c " +
+            "WHERE p.active = true AND p.status = 'ACTIVE' AND p.id > :afterId ORDER BY p.id")
+    List<FacetDocument> findFacetDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.v1.backend.search.ParentCategoryLink(p.id, pc.id) " +
+            "FROM Product p JOIN p.parentCategories pc WHERE p.id IN :productIds")
+    List<ParentCategoryLink> findParentCategoryLinks(@Param("productIds") Collection<Long> productIds);
+
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.price BETWEEN :minPrice AND :maxPrice " +
             "AND p.active = true AND p.status = 'ACTIVE'")
     Page<Product> findByCategoryAndPriceRange(
@@ -47,11 +102,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     boolean existsBySku(String sku);
 
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.active = true ORDER BY p.rating DESC LIMIT 10")
     List<Product> findTop10ByStatusAndActiveTrueOrderByRatingDesc();
 
     long countByActiveTrue();
 
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("""
         SELECT p FROM Product p
         JOIN p.parentCategories pc
@@ -66,6 +123,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             Pageable pageable
     );
 
+    @EntityGraph(attributePaths = {"brand", "category"})
     @Query("""
         SELECT p FROM Product p
         JOIN p.parentCategories pc
@@ -79,4 +137,19 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("parentCategoryIds") Set<Long> parentCategoryIds,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // Stok düşümü tek koşullu UPDATE ile: entity yüklenmez, stok yetmezse 0 satır döner.
+    // VERSIONED: aynı anda yüklenmiş bir Product kaydedilirse eski stoğu yazamaz (optimistic lock)
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED Product p SET p.stock = p.stock - :quantity WHERE p.id = :productId AND p.stock >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE VERSIONED Product p SET p.stock = p.stock + :quantity WHERE p.id = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :productId")
+    Optional<Integer> findStockById(@Param("productId") Long productId);
+}
@@ -0,0 +1,28 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.stock.StockLine;
+
+import java.util.List;
+
+/**
+ * {@link ProductRepository} için JDBC ile yazılmış toplu stok işlemleri
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Her satır için koşullu UPDATE (stock >= quantity) çalıştırır; hepsi tek batch'te gider, entity yüklenmez.
+     *
+     * @return stok yetmediği veya ürün bulunamadığı için düşülemeyen satırlar (girdi sırasıyla)
+     */
+    List<StockLine> decrementStockBatch(List<StockLine> lines);
+
+    /**
+     * Satırların stoğunu aynı transaction içinde geri ekler (tek batch)
+     */
+    void incrementStockBatch(List<StockLine> lines);
+
+    /**
+     * Ürün satırlarını id sırasıyla kilitler (SELECT ... FOR UPDATE); transaction sonuna kadar tutulur
+     */
+    void lockStockRows(List<Long> productIds);
+}
@@ -0,0 +1,63 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.stock.StockLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // decrementStock ile aynı koşul; version artırılır ki eşzamanlı yüklenmiş Product eski stoğu yazamasın
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, version = COALESCE(version, 0) + 1 WHERE id = ? AND stock >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET stock = stock + ?, version = COALESCE(version, 0) + 1 WHERE id = ?";
+
+    private static final String LOCK_SQL =
+            "SELECT id FROM products WHERE id = ANY (?) ORDER BY id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<StockLine> decrementStockBatch(List<StockLine> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.quantity());
+            ps.setLong(2, line.productId());
+            ps.setInt(3, line.quantity());
+        });
+
+        List<StockLine> failed = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (counts[0][i] != 1) {
+                failed.add(lines.get(i));
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public void incrementStockBatch(List<StockLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.quantity());
+            ps.setLong(2, line.productId());
+        });
+    }
+
+    @Override
+    public void lockStockRows(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList(LOCK_SQL, Long.class, (Object) productIds.toArray(new Long[0]));
+    }
+}
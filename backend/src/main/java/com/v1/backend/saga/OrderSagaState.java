@@ -0,0 +1,28 @@
+package com.v1.backend.saga;
+
+import com.v1.backend.model.Order.OrderStatus;
+import com.v1.backend.model.Order.PaymentStatus;
+
+/**
+ * Saga adımlarının ihtiyaç duyduğu sipariş durumu (entity yüklenmeden)
+ */
+public record OrderSagaState(
+        Long orderId,
+        String orderNumber,
+        OrderStatus status,
+        PaymentStatus paymentStatus,
+        String paymentMethod) {
+
+    /**
+     * @throws IllegalStateException geçiş {@link OrderTransitions} tablosunda yoksa
+     */
+    public OrderTransition to(OrderStatus target) {
+        return to(target, paymentStatus);
+    }
+
+    public OrderTransition to(OrderStatus target, PaymentStatus targetPaymentStatus) {
+        OrderTransitions.require(status, target);
+        return new OrderTransition(this,
+                new OrderSagaState(orderId, orderNumber, target, targetPaymentStatus, paymentMethod));
+    }
+}
@@ -0,0 +1,211 @@
+package com.v1.backend.saga;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.v1.backend.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Saga'daki siparişlerin durumunu, sipariş numarasına (Kafka mesaj anahtarı) göre bellekte tutar.
+ * <ul>
+ *   <li>Aynı sipariş numarası tüm saga topic'lerinde aynı partition numarasına düşer (topic'lerin partition sayısı
+ *       eşit olmalı); durum o partition'ı tüketen node'da kalır, partition elden çıkınca girdiler silinir. Her
+ *       consumer grubu partition'larını bağımsız aldığı için siparişin bir sonraki adımı başka node'da işlenebilir;
+ *       bellekteki durum bu yüzden eskiyebilir ve her kullanımda doğrulanır.</li>
+ *   <li>Adımların durum kontrolleri bellekten yapılır, veritabanı sadece cache'te olmayan siparişler için
+ *       (batch başına tek sorgu) okunur.</li>
+ *   <li>Geçişler adımlardan ayrı biriktirilir ve batch transaction'ının sonunda tek JDBC batch'i olarak
+ *       koşullu UPDATE ile yazılır. Bellekteki durum eskiyse (başka node veya admin değiştirdiyse) UPDATE satır
+ *       bulamaz; batch geri alınır, girdi silinir ve tekrar denemede durum veritabanından okunur.</li>
+ *   <li>Bellekteki duruma göre reddedilen event'ler claim'leri commit olmadan önce veritabanındaki durumla
+ *       doğrulanır ({@link #reload}); durum farklıysa event yeni durumla tekrar uygulanır, böylece eski durum
+ *       yüzünden event kaybolmaz.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OrderStateEngine implements ConsumerAwareRebalanceListener {
+
+    private static final String SELECT_SQL =
+            "SELECT id, order_number, status, payment_status, payment_method FROM orders WHERE order_number = ANY (?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE orders SET status = ?, payment_status = ?, paid_at = CASE WHEN ? THEN ? ELSE paid_at END, " +
+                    "updated_at = ?, version = COALESCE(version, 0) + 1 " +
+                    "WHERE id = ? AND status = ? AND payment_status = ?";
+
+    private record Entry(OrderSagaState state, int partition) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Entry> states;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleWrites;
+
+    public OrderStateEngine(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${saga.state.max-size:100000}") long maxSize,
+            @Value("${saga.state.ttl-minutes:30}") long ttlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "saga.state");
+        this.hits = Counter.builder("saga.state.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("saga.state.lookups").tag("result", "miss").register(meterRegistry);
+        this.staleWrites = Counter.builder("saga.state.stale").register(meterRegistry);
+    }
+
+    /**
+     * Siparişlerin durumunu döner; cache'te olmayanlar tek sorguyla okunur
+     *
+     * @param partitions sipariş numarası -> kaydın geldiği partition
+     * @return bulunamayan siparişler map'te yer almaz
+     */
+    public Map<String, OrderSagaState> load(Map<String, Integer> partitions) {
+        Map<String, OrderSagaState> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        partitions.forEach((orderNumber, partition) -> {
+            Entry entry = states.getIfPresent(orderNumber);
+            if (entry != null) {
+                result.put(orderNumber, entry.state());
+            } else {
+                missing.add(orderNumber);
+            }
+        });
+        hits.increment(result.size());
+        misses.increment(missing.size());
+
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query(SELECT_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", missing.toArray())),
+                    rs -> {
+                        OrderSagaState state = new OrderSagaState(
+                                rs.getLong("id"),
+                                rs.getString("order_number"),
+                                Order.OrderStatus.valueOf(rs.getString("status")),
+                                Order.PaymentStatus.valueOf(rs.getString("payment_status")),
+                                rs.getString("payment_method"));
+                        result.put(state.orderNumber(), state);
+                        states.put(state.orderNumber(), new Entry(state, partitions.get(state.orderNumber())));
+                    });
+        }
+        return result;
+    }
+
+    /**
+     * Geçişleri aktif transaction içinde tek batch'te yazar; cache commit sonrası güncellenir.
+     * Aynı siparişin birden fazla geçişi sırayla verilmelidir.
+     *
+     * @throws OptimisticLockingFailureException veritabanındaki durum beklenenden farklıysa
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void persist(List<OrderTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+
+        Set<String> touched = transitions.stream().map(t -> t.to().orderNumber()).collect(Collectors.toSet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    transitions.forEach(t -> states.asMap().computeIfPresent(t.to().orderNumber(),
+                            (orderNumber, entry) -> new Entry(t.to(), entry.partition())));
+                } else {
+                    states.invalidateAll(touched);
+                }
+            }
+        });
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, transitions, transitions.size(), (ps, t) -> {
+            ps.setString(1, t.to().status().name());
+            ps.setString(2, t.to().paymentStatus().name());
+            ps.setBoolean(3, t.from().paymentStatus() != Order.PaymentStatus.PAID
+                    && t.to().paymentStatus() == Order.PaymentStatus.PAID);
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+            ps.setLong(6, t.to().orderId());
+            ps.setString(7, t.from().status().name());
+            ps.setString(8, t.from().paymentStatus().name());
+        });
+
+        List<String> stale = new ArrayList<>();
+        for (int i = 0; i < transitions.size(); i++) {
+            if (counts[0][i] == 0) {
+                stale.add(transitions.get(i).to().orderNumber());
+            }
+        }
+        if (!stale.isEmpty()) {
+            staleWrites.increment(stale.size());
+            log.warn("Bellekteki sipariş durumu eskimiş, batch tekrar denenecek - OrderNumbers: {}", stale);
+            throw new OptimisticLockingFailureException("Sipariş durumu başka bir işlem tarafından değiştirilmiş: " + stale);
+        }
+    }
+
+    /**
+     * Girdileri silip veritabanından yeniden okur; bellekteki duruma göre verilen bir kararı doğrulamak için
+     *
+     * @param partitions sipariş numarası -> kaydın geldiği partition
+     */
+    public Map<String, OrderSagaState> reload(Map<String, Integer> partitions) {
+        states.invalidateAll(partitions.keySet());
+        return load(partitions);
+    }
+
+    /**
+     * Durumu şüpheli girdileri siler; bir sonraki okumada veritabanından yüklenir
+     */
+    public void evict(Collection<String> orderNumbers) {
+        states.invalidateAll(orderNumbers);
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        evictPartitions(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        evictPartitions(partitions);
+    }
+
+    private void evictPartitions(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Set<Integer> revoked = partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet());
+        states.asMap().values().removeIf(entry -> revoked.contains(entry.partition()));
+        log.info("Elden çıkan partition'ların sipariş durumları silindi - Partitions: {}", revoked);
+    }
+}
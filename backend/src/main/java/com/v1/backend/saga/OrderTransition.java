@@ -0,0 +1,7 @@
+package com.v1.backend.saga;
+
+/**
+ * Doğrulanmış tek durum geçişi; {@link OrderStateEngine#persist} ile yazılır
+ */
+public record OrderTransition(OrderSagaState from, OrderSagaState to) {
+}
@@ -0,0 +1,46 @@
+package com.v1.backend.saga;
+
+import com.v1.backend.model.Order.OrderStatus;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sipariş durumları arasında izin verilen geçişler. Saga adımları durumu sadece bu tablodaki geçişlerle değiştirir.
+ */
+public final class OrderTransitions {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED = new EnumMap<>(OrderStatus.class);
+
+    static {
+        ALLOWED.put(OrderStatus.AWAITING_PAYMENT,
+                EnumSet.of(OrderStatus.PAYMENT_CONFIRMED, OrderStatus.PAYMENT_FAILED, OrderStatus.CANCELLED));
+        ALLOWED.put(OrderStatus.PAYMENT_CONFIRMED,
+                EnumSet.of(OrderStatus.STOCK_RESERVED, OrderStatus.STOCK_RESERVATION_FAILED, OrderStatus.CANCELLED));
+        ALLOWED.put(OrderStatus.STOCK_RESERVED, EnumSet.of(OrderStatus.READY_FOR_SHIPMENT, OrderStatus.CANCELLED));
+        ALLOWED.put(OrderStatus.READY_FOR_SHIPMENT, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        ALLOWED.put(OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED));
+        ALLOWED.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        ALLOWED.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        ALLOWED.put(OrderStatus.PAYMENT_FAILED, EnumSet.of(OrderStatus.CANCELLED));
+        ALLOWED.put(OrderStatus.STOCK_RESERVATION_FAILED, EnumSet.of(OrderStatus.CANCELLED));
+    }
+
+    private OrderTransitions() {
+    }
+
+    public static boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return ALLOWED.get(from).contains(to);
+    }
+
+    /**
+     * @throws IllegalStateException geçiş tabloda yoksa
+     */
+    public static void require(OrderStatus from, OrderStatus to) {
+        if (!isAllowed(from, to)) {
+            throw new IllegalStateException("Geçersiz sipariş durumu geçişi: " + from + " -> " + to);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.v1.backend.search;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Facet indeksine giren ürün alanları
+ */
+public record FacetDocument(
+        Long id,
+        Long brandId,
+        Long categoryId,
+        Set<Long> parentCategoryIds,
+        String color,
+        String size,
+        BigDecimal price) {
+
+    // JPQL constructor expression için; parent kategoriler ayrı sorgu ile doldurulur
+    public FacetDocument(Long id, Long brandId, Long categoryId, String color, String size, BigDecimal price) {
+        this(id, brandId, categoryId, new HashSet<>(), color, size, price);
+    }
+}
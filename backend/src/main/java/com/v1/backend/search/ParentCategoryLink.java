@@ -0,0 +1,7 @@
+package com.v1.backend.search;
+
+/**
+ * product_parent_categories tablosundaki bir satır
+ */
+public record ParentCategoryLink(Long productId, Long parentCategoryId) {
+}
@@ -0,0 +1,124 @@
+package com.v1.backend.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Otomatik tamamlama için karakter trie'si.
+ * Her terim kaç üründe geçtiğini (document frequency) tutar; öneriler bu sayıya göre sıralanır.
+ * Thread-safe değildir, senkronizasyon {@link ProductSearchIndex} tarafından yapılır.
+ */
+class PrefixTrie {
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String term;
+        private String display;
+        private int count;
+    }
+
+    private record Match(String term, String display, int count) {
+    }
+
+    private static final Comparator<Match> BY_COUNT = Comparator
+            .comparingInt(Match::count)
+            .thenComparing(Match::term, Comparator.reverseOrder());
+
+    private final Node root = new Node();
+
+    /**
+     * Terimi ekler veya sayacını bir artırır
+     */
+    void add(String term, String display) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+        }
+        node.term = term;
+        node.display = display;
+        node.count++;
+    }
+
+    /**
+     * Terimin sayacını bir azaltır, sıfıra düşerse boşalan dalları temizler
+     */
+    void remove(String term) {
+        Deque<Node> path = new ArrayDeque<>(term.length() + 1);
+        Node node = root;
+        path.push(node);
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.get(term.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path.push(node);
+        }
+        if (node.count == 0 || --node.count > 0) {
+            return;
+        }
+        node.term = null;
+        node.display = null;
+
+        for (int i = term.length() - 1; i >= 0; i--) {
+            Node child = path.pop();
+            if (child.count > 0 || !child.children.isEmpty()) {
+                break;
+            }
+            path.peek().children.remove(term.charAt(i));
+        }
+    }
+
+    /**
+     * Önekle başlayan indeks terimlerini (katlanmış hali) sıklık sırasıyla döner
+     */
+    List<String> expand(String prefix, int limit) {
+        return collect(prefix, limit).stream().map(Match::term).toList();
+    }
+
+    /**
+     * Önekle başlayan terimlerin kullanıcıya gösterilecek hallerini sıklık sırasıyla döner
+     */
+    List<String> suggest(String prefix, int limit) {
+        return collect(prefix, limit).stream().map(Match::display).toList();
+    }
+
+    private List<Match> collect(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null || limit <= 0) {
+            return List.of();
+        }
+
+        // En sık geçen "limit" terimi tutan min-heap
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, BY_COUNT);
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (current.count > 0) {
+                Match match = new Match(current.term, current.display, current.count);
+                if (top.size() < limit) {
+                    top.offer(match);
+                } else if (BY_COUNT.compare(match, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(match);
+                }
+            }
+            for (Node child : current.children.values()) {
+                stack.push(child);
+            }
+        }
+
+        List<Match> result = new ArrayList<>(top);
+        result.sort(BY_COUNT.reversed());
+        return result;
+    }
+}
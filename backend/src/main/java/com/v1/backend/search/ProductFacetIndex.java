@@ -0,0 +1,370 @@
+package com.v1.backend.search;
+
+import com.v1.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Katalog filtreleme için bitmap facet indeksi.
+ * Her ürüne artan bir ordinal verilir; her facet değeri (marka, kategori, renk, beden, fiyat aralığı)
+ * o değere sahip ürünlerin ordinal'lerini tutan bir RoaringBitmap'tir.
+ * Aynı facet içindeki değerler OR, farklı facet'ler AND ile birleşir. Ordinal'ler id sırasıyla
+ * verildiği için bitmap'i tersten gezmek en yeni ürünleri önce getirir.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String PARENT_CATEGORY = "parentCategory";
+    public static final String COLOR = "color";
+    public static final String SIZE = "size";
+    public static final String PRICE = "price";
+
+    private static final List<String> FACETS = List.of(BRAND, CATEGORY, PARENT_CATEGORY, COLOR, SIZE, PRICE);
+
+    // Fiyat aralığı sınırları (TRY)
+    private static final int[] PRICE_BOUNDS = {100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private FacetState state = new FacetState();
+    private FacetState building;
+    private volatile boolean ready;
+
+    /**
+     * @param ids          istenen sayfadaki ürün id'leri (en yeni önce)
+     * @param total        filtreye uyan toplam ürün sayısı
+     * @param facetCounts  facet -> değer -> ürün sayısı
+     */
+    public record BrowseResult(List<Long> ids, long total, Map<String, Map<String, Integer>> facetCounts) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::rebuild, "product-facet-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * İndeksi veritabanından baştan kurar. Kurulum sürerken mevcut indeks sorgulara cevap vermeye devam eder.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Product facet index rebuild already in progress");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            building = new FacetState();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long afterId = 0;
+            List<FacetDocument> batch;
+            do {
+                batch = productRepository.findFacetDocuments(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    attachParentCategories(batch);
+                }
+                lock.writeLock().lock();
+                try {
+                    for (FacetDocument doc : batch) {
+                        // Kurulum sırasında güncellenen ürünlerin güncel hali zaten indekste
+                        if (!building.touched.contains(doc.id())) {
+                            building.add(doc);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                building.touched.clear();
+                building.runOptimize();
+                state = building;
+                building = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Product facet index built - Products: {}, Took: {} ms",
+                    state.live.getCardinality(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                building = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Product facet index build failed", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ürünü indekse ekler; zaten varsa eski değerleri çıkarılır, ordinal'i korunur
+     */
+    public void index(FacetDocument doc) {
+        lock.writeLock().lock();
+        try {
+            state.add(doc);
+            if (building != null) {
+                building.add(doc);
+                building.touched.add(doc.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+            if (building != null) {
+                building.remove(productId);
+                building.touched.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filtreleri uygular, istenen sayfanın id'lerini ve facet sayılarını döner.
+     * Bir facet'in sayıları hesaplanırken o facet'in kendi filtresi uygulanmaz; böylece
+     * "Nike" seçiliyken diğer markaların da kaç ürün getireceği görülebilir.
+     */
+    public BrowseResult browse(Map<String, Set<String>> filters, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            FacetState s = state;
+
+            Map<String, RoaringBitmap> selections = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                Set<String> values = filters.get(facet);
+                if (values != null && !values.isEmpty()) {
+                    selections.put(facet, s.union(facet, values));
+                }
+            }
+
+            RoaringBitmap result = s.live.clone();
+            for (RoaringBitmap selection : selections.values()) {
+                result.and(selection);
+            }
+
+            Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                RoaringBitmap base = result;
+                if (selections.containsKey(facet)) {
+                    base = s.live.clone();
+                    for (Map.Entry<String, RoaringBitmap> selection : selections.entrySet()) {
+                        if (!selection.getKey().equals(facet)) {
+                            base.and(selection.getValue());
+                        }
+                    }
+                }
+                Map<String, Integer> counts = new HashMap<>();
+                for (Map.Entry<String, RoaringBitmap> value : s.facets.get(facet).entrySet()) {
+                    int count = RoaringBitmap.andCardinality(base, value.getValue());
+                    if (count > 0) {
+                        counts.put(value.getKey(), count);
+                    }
+                }
+                facetCounts.put(facet, counts);
+            }
+
+            List<Long> ids = new ArrayList<>(limit);
+            IntIterator iterator = result.getReverseIntIterator();
+            int skipped = 0;
+            while (iterator.hasNext() && ids.size() < limit) {
+                int ordinal = iterator.next();
+                if (skipped++ >= offset) {
+                    ids.add(s.ids[ordinal]);
+                }
+            }
+            return new BrowseResult(ids, result.getLongCardinality(), facetCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtre değerlerini indeksteki anahtar biçimine getirir (renk/beden büyük-küçük harf duyarsız)
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(TURKISH);
+    }
+
+    /**
+     * Fiyatın düştüğü aralığın etiketi, örn. "250-500" veya "10000+"
+     */
+    public static String priceBucket(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        int lower = 0;
+        for (int bound : PRICE_BOUNDS) {
+            if (price.compareTo(BigDecimal.valueOf(bound)) < 0) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    private void attachParentCategories(List<FacetDocument> batch) {
+        Map<Long, FacetDocument> byId = new HashMap<>(batch.size() * 2);
+        for (FacetDocument doc : batch) {
+            byId.put(doc.id(), doc);
+        }
+        for (ParentCategoryLink link : productRepository.findParentCategoryLinks(byId.keySet())) {
+            byId.get(link.productId()).parentCategoryIds().add(link.parentCategoryId());
+        }
+    }
+
+    /**
+     * İndeksin tek bir kopyası
+     */
+    private static final class FacetState {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<Long, FacetDocument> docs = new HashMap<>();
+        private final Map<String, Map<String, RoaringBitmap>> facets = new HashMap<>();
+        private final RoaringBitmap live = new RoaringBitmap();
+        // Sadece yeniden kurulum sırasında kullanılır
+        private final Set<Long> touched = new HashSet<>();
+        private long[] ids = new long[1024];
+        private int nextOrdinal;
+
+        private FacetState() {
+            for (String facet : FACETS) {
+                facets.put(facet, new HashMap<>());
+            }
+        }
+
+        private void add(FacetDocument doc) {
+            remove(doc.id());
+
+            int ordinal = ordinals.computeIfAbsent(doc.id(), this::allocateOrdinal);
+
+            forEachValue(doc, (facet, value) -> facets.get(facet)
+                    .computeIfAbsent(value, v -> new RoaringBitmap())
+                    .add(ordinal));
+            live.add(ordinal);
+            docs.put(doc.id(), doc);
+        }
+
+        private int allocateOrdinal(Long id) {
+            int ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[ordinal] = id;
+            return ordinal;
+        }
+
+        private void remove(Long id) {
+            FacetDocument doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            int ordinal = ordinals.get(id);
+            forEachValue(doc, (facet, value) -> {
+                Map<String, RoaringBitmap> values = facets.get(facet);
+                RoaringBitmap bitmap = values.get(value);
+                if (bitmap != null) {
+                    bitmap.remove(ordinal);
+                    if (bitmap.isEmpty()) {
+                        values.remove(value);
+                    }
+                }
+            });
+            live.remove(ordinal);
+        }
+
+        private RoaringBitmap union(String facet, Set<String> values) {
+            Map<String, RoaringBitmap> bitmaps = facets.get(facet);
+            List<RoaringBitmap> selected = new ArrayList<>(values.size());
+            for (String value : values) {
+                RoaringBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    selected.add(bitmap);
+                }
+            }
+            return RoaringBitmap.or(selected.iterator());
+        }
+
+        private void runOptimize() {
+            live.runOptimize();
+            for (Map<String, RoaringBitmap> values : facets.values()) {
+                values.values().forEach(RoaringBitmap::runOptimize);
+            }
+        }
+
+        private static void forEachValue(FacetDocument doc, BiConsumer<String, String> consumer) {
+            if (doc.brandId() != null) {
+                consumer.accept(BRAND, doc.brandId().toString());
+            }
+            if (doc.categoryId() != null) {
+                consumer.accept(CATEGORY, doc.categoryId().toString());
+            }
+            if (doc.parentCategoryIds() != null) {
+                for (Long parentId : doc.parentCategoryIds()) {
+                    consumer.accept(PARENT_CATEGORY, parentId.toString());
+                }
+            }
+            if (doc.color() != null && !doc.color().isBlank()) {
+                consumer.accept(COLOR, normalize(doc.color()));
+            }
+            if (doc.size() != null && !doc.size().isBlank()) {
+                consumer.accept(SIZE, normalize(doc.size()));
+            }
+            if (doc.price() != null) {
+                consumer.accept(PRICE, priceBucket(doc.price()));
+            }
+        }
+    }
+}
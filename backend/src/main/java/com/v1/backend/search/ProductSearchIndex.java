@@ -0,0 +1,380 @@
+package com.v1.backend.search;
+
+import com.v1.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ürün araması için bellek içi ters indeks (inverted index).
+ * Uygulama açılışında products tablosundan arka planda yüklenir, sonrasında
+ * ProductService üzerinden artımlı olarak güncellenir. Sıralama BM25 ile yapılır;
+ * sorgudaki son kelime önek olarak genişletilir (yazarken arama).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // İsimde geçen terim açıklamada geçenden daha değerli
+    private static final int NAME_BOOST = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private static final Comparator<ScoredDoc> BY_SCORE = Comparator
+            .comparingDouble(ScoredDoc::score)
+            .thenComparingLong(ScoredDoc::id);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private IndexState state = new IndexState();
+    private IndexState building;
+    private volatile boolean ready;
+
+    public record SearchResult(List<Long> ids, long total) {
+
+        public static SearchResult empty() {
+            return new SearchResult(List.of(), 0);
+        }
+    }
+
+    private record ScoredDoc(long id, double score) {
+    }
+
+    private record DocEntry(String[] terms, int length) {
+    }
+
+    private record TermRef(String term, double weight, double idf, Map<Long, Integer> postings) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::rebuild, "product-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * İndeksi veritabanından baştan kurar. Kurulum sürerken mevcut indeks sorgulara cevap vermeye devam eder.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Product search index rebuild already in progress");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            building = new IndexState();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long afterId = 0;
+            List<SearchDocument> batch;
+            do {
+                batch = productRepository.findSearchDocuments(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (SearchDocument doc : batch) {
+                        // Kurulum sırasında güncellenen ürünlerin güncel hali zaten indekste
+                        if (!building.touched.contains(doc.id())) {
+                            building.add(doc);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                building.touched.clear();
+                state = building;
+                building = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Product search index built - Documents: {}, Terms: {}, Took: {} ms",
+                    state.docs.size(), state.postings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                building = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Product search index build failed", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ürünü indekse ekler; zaten varsa eski hali çıkarılır
+     */
+    public void index(SearchDocument doc) {
+        lock.writeLock().lock();
+        try {
+            state.add(doc);
+            if (building != null) {
+                building.add(doc);
+                building.touched.add(doc.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+            if (building != null) {
+                building.remove(productId);
+                building.touched.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tüm kelimeleri içeren ürünleri BM25 skoruna göre sıralar ve istenen sayfanın id'lerini döner
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = TurkishTextAnalyzer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return SearchResult.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            IndexState s = state;
+            if (s.docs.isEmpty()) {
+                return SearchResult.empty();
+            }
+            double avgLength = (double) s.totalLength / s.docs.size();
+
+            List<List<TermRef>> clauses = new ArrayList<>();
+            List<String> exactTerms = new ArrayList<>(new LinkedHashSet<>(terms.subList(0, terms.size() - 1)));
+            for (String term : exactTerms) {
+                Map<Long, Integer> postings = s.postings.get(term);
+                if (postings == null) {
+                    return SearchResult.empty();
+                }
+                clauses.add(List.of(new TermRef(term, 1.0, s.idf(postings.size()), postings)));
+            }
+
+            String last = terms.get(terms.size() - 1);
+            if (!exactTerms.contains(last)) {
+                List<TermRef> lastClause = new ArrayList<>();
+                for (String term : s.trie.expand(last, MAX_PREFIX_EXPANSIONS)) {
+                    Map<Long, Integer> postings = s.postings.get(term);
+                    double weight = term.equals(last) ? 1.0 : PREFIX_WEIGHT;
+                    lastClause.add(new TermRef(term, weight, s.idf(postings.size()), postings));
+                }
+                if (lastClause.isEmpty()) {
+                    return SearchResult.empty();
+                }
+                clauses.add(lastClause);
+            }
+
+            // En seçici kelimeden başla, diğerleri sadece aday üzerinde kontrol edilir
+            clauses.sort(Comparator.comparingInt(ProductSearchIndex::estimatedSize));
+            Map<Long, Double> candidates = scoreAll(s, clauses.get(0), avgLength);
+
+            int window = offset + limit;
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(window, candidates.size()) + 1, BY_SCORE);
+            long total = 0;
+            for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+                Long id = candidate.getKey();
+                double score = candidate.getValue();
+                boolean matchesAll = true;
+                for (int i = 1; i < clauses.size() && matchesAll; i++) {
+                    double clauseScore = scoreOne(s, clauses.get(i), id, avgLength);
+                    matchesAll = clauseScore > 0;
+                    score += clauseScore;
+                }
+                if (!matchesAll) {
+                    continue;
+                }
+                total++;
+                ScoredDoc doc = new ScoredDoc(id, score);
+                if (top.size() < window) {
+                    top.offer(doc);
+                } else if (BY_SCORE.compare(doc, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(doc);
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(BY_SCORE.reversed());
+            List<Long> ids = new ArrayList<>(limit);
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add(ranked.get(i).id());
+            }
+            return new SearchResult(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Arama kutusu için otomatik tamamlama önerileri
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> words = TurkishTextAnalyzer.words(prefix);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        String folded = TurkishTextAnalyzer.fold(words.get(words.size() - 1));
+
+        lock.readLock().lock();
+        try {
+            return state.trie.suggest(folded, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int estimatedSize(List<TermRef> clause) {
+        int size = 0;
+        for (TermRef ref : clause) {
+            size += ref.postings().size();
+        }
+        return size;
+    }
+
+    private static Map<Long, Double> scoreAll(IndexState s, List<TermRef> clause, double avgLength) {
+        Map<Long, Double> scores = new HashMap<>(estimatedSize(clause) * 2);
+        for (TermRef ref : clause) {
+            for (Map.Entry<Long, Integer> posting : ref.postings().entrySet()) {
+                double score = bm25(s, ref, posting.getKey(), posting.getValue(), avgLength);
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static double scoreOne(IndexState s, List<TermRef> clause, Long id, double avgLength) {
+        double best = 0;
+        for (TermRef ref : clause) {
+            Integer tf = ref.postings().get(id);
+            if (tf != null) {
+                best = Math.max(best, bm25(s, ref, id, tf, avgLength));
+            }
+        }
+        return best;
+    }
+
+    private static double bm25(IndexState s, TermRef ref, Long id, int tf, double avgLength) {
+        int length = s.docs.get(id).length();
+        double norm = K1 * (1 - B + B * length / avgLength);
+        return ref.weight() * ref.idf() * (tf * (K1 + 1)) / (tf + norm);
+    }
+
+    /**
+     * İndeksin tek bir kopyası (postings + doküman uzunlukları + trie)
+     */
+    private static final class IndexState {
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, DocEntry> docs = new HashMap<>();
+        private final PrefixTrie trie = new PrefixTrie();
+        // Sadece yeniden kurulum sırasında kullanılır
+        private final Set<Long> touched = new HashSet<>();
+        private long totalLength;
+
+        private void add(SearchDocument doc) {
+            remove(doc.id());
+
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            Map<String, String> displays = new HashMap<>();
+            collect(doc.name(), NAME_BOOST, frequencies, displays);
+            collect(doc.description(), 1, frequencies, displays);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc.id(), entry.getValue());
+                trie.add(entry.getKey(), displays.get(entry.getKey()));
+                length += entry.getValue();
+            }
+            docs.put(doc.id(), new DocEntry(frequencies.keySet().toArray(String[]::new), length));
+            totalLength += length;
+        }
+
+        private void remove(Long id) {
+            DocEntry entry = docs.remove(id);
+            if (entry == null) {
+                return;
+            }
+            for (String term : entry.terms()) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+                trie.remove(term);
+            }
+            totalLength -= entry.length();
+        }
+
+        private double idf(int documentFrequency) {
+            return Math.log(1 + (docs.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        private static void collect(String text, int weight, Map<String, Integer> frequencies, Map<String, String> displays) {
+            for (String word : TurkishTextAnalyzer.words(text)) {
+                String term = TurkishTextAnalyzer.fold(word);
+                frequencies.merge(term, weight, Integer::sum);
+                displays.putIfAbsent(term, word);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.v1.backend.search;
+
+/**
+ * Arama indeksine giren ürün alanları (entity yüklemeden okunan projeksiyon)
+ */
+public record SearchDocument(Long id, String name, String description) {
+}
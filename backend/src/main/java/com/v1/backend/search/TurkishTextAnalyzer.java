@@ -0,0 +1,88 @@
+package com.v1.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Arama için Türkçe'ye duyarlı tokenizer.
+ * Metni tr locale ile küçük harfe çevirir (I -> ı, İ -> i) ve ardından
+ * Türkçe karakterleri ASCII karşılıklarına indirger; böylece "KILIF", "kılıf" ve "kilif"
+ * aynı terime düşer.
+ */
+public final class TurkishTextAnalyzer {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+
+    private TurkishTextAnalyzer() {
+    }
+
+    /**
+     * Metni normalize edilmiş terimlere böler (harf/rakam dışındaki her karakter ayraçtır)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = words(text);
+        List<String> tokens = new ArrayList<>(words.size());
+        for (String word : words) {
+            tokens.add(fold(word));
+        }
+        return tokens;
+    }
+
+    /**
+     * Metni tr locale ile küçük harfe çevrilmiş, katlanmamış kelimelere böler
+     * (öneri listesinde kullanıcıya gösterilen hali)
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                words.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            words.add(current.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Küçük harfli bir kelimeyi indeks terimine indirger
+     */
+    public static String fold(String lower) {
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ı', 'î' -> sb.append('i');
+                case 'ğ' -> sb.append('g');
+                case 'ü', 'û' -> sb.append('u');
+                case 'ş' -> sb.append('s');
+                case 'ö' -> sb.append('o');
+                case 'ç' -> sb.append('c');
+                case 'â' -> sb.append('a');
+                default -> sb.append(c);
+            }
+        }
+        boolean ascii = true;
+        for (int i = 0; i < sb.length() && ascii; i++) {
+            ascii = sb.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return sb.toString();
+        }
+        // Kalan aksanlı Latin karakterler (é, ë, ...) için
+        return Normalizer.normalize(sb, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+}
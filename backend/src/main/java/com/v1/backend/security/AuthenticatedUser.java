@@ -0,0 +1,50 @@
+package com.v1.backend.security;
+
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * İsteği yapan kullanıcı; JwtAuthFilter doğrulanmış token'dan bir kez kurar, sonra cache'ten gelir.
+ * Controller'larda {@code @AuthenticationPrincipal AuthenticatedUser} ile alınır; kimlik için kullanıcı
+ * tablosuna gitmeye gerek kalmaz.
+ */
+public record AuthenticatedUser(Long userId, String email, Role role) implements AuthenticatedPrincipal {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    /**
+     * Token claim'lerinden kurar. Rol, yüklenen kullanıcıdan (güncel) alınır; {@code userId} claim'i olmayan
+     * eski token'larda id de oradan gelir.
+     */
+    public static AuthenticatedUser from(Claims claims, UserDetails loaded) {
+        if (loaded instanceof CustomUserDetails details) {
+            User user = details.getUser();
+            Long userId = claims.get("userId", Long.class);
+            return new AuthenticatedUser(userId != null ? userId : user.getId(), claims.getSubject(), user.getRole());
+        }
+        return new AuthenticatedUser(claims.get("userId", Long.class), claims.getSubject(),
+                Role.valueOf(claims.get("role", String.class)));
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
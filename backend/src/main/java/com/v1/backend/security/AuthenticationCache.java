@@ -0,0 +1,206 @@
+package com.v1.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.ToLongFunction;
+
+/**
+ * Doğrulanmış token'ların cache'i: token hash'i -> {@link AuthenticatedUser}.
+ * <ul>
+ *   <li>Token bir kez parse edilip imzası doğrulanınca, kullanıcısıyla birlikte saklanır; sonraki isteklerde
+ *       kimlik doğrulama tek cache okumasıdır (parse ve veritabanı yok).</li>
+ *   <li>Girdi en geç token'ın süresi dolunca, en geç de {@code security.auth-cache.user-ttl-seconds} sonra düşer;
+ *       rol değişikliği gibi diğer node'lardaki güncellemeler bu süre içinde yansır.</li>
+ *   <li>Anahtar SHA-256 hash'idir; ham token bellekte tutulmaz.</li>
+ *   <li>İptal: {@link #revokeToken} (logout) token'ı Redis'e token'ın kalan ömrü kadar TTL ile yazar; iptal
+ *       kaynağı Redis'tir. Token yerel cache'te yoksa (yeni açılan node, ilk istek) cache'e almadan önce
+ *       Redis'e bakılır. Redis pub/sub sadece diğer node'ların cache'teki girdiyi hemen düşürmesi içindir;
+ *       mesaj kaçarsa girdi en geç {@code user-ttl-seconds} sonra düşer ve token Redis'te reddedilir.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AuthenticationCache implements MessageListener {
+
+    public static final String REVOCATION_CHANNEL = "auth-revocation";
+
+    private static final String TOKEN_PREFIX = "token:";
+    private static final String REVOKED_KEY_PREFIX = "auth:revoked:";
+
+    /**
+     * Doğrulanmış token: kullanıcı ve token'ın bitiş zamanı (epoch ms)
+     */
+    public record VerifiedToken(AuthenticatedUser user, long expiresAt) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, Long> revoked;
+
+    public AuthenticationCache(
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${security.auth-cache.max-size:100000}") long maxSize,
+            @Value("${security.auth-cache.user-ttl-seconds:300}") long userTtlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        long maxTtlNanos = Duration.ofSeconds(userTtlSeconds).toNanos();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilExpiry<VerifiedToken>(VerifiedToken::expiresAt, maxTtlNanos))
+                .recordStats()
+                .build();
+        // Boyut sınırı yok: boyuttan dolayı atılan iptal, token'ı süresi dolmadan yeniden geçerli yapardı.
+        // Girdiler token'ın süresi dolunca düşer; en fazla süresi dolmamış iptal edilmiş token sayısı kadar büyür.
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new UntilExpiry<Long>(expiresAt -> expiresAt, Long.MAX_VALUE))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "auth.tokens");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    /**
+     * @return cache'teki doğrulanmış token; yoksa, süresi dolmuşsa veya iptal edilmişse null
+     */
+    public VerifiedToken get(String tokenHash) {
+        VerifiedToken verified = tokens.getIfPresent(tokenHash);
+        if (verified == null || verified.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * Parse edilip doğrulanmış token'ı kullanıcısıyla birlikte saklar; iptal edilmişse saklamaz.
+     * Yerelde iptal kaydı yoksa Redis'e bakılır; Redis'e ulaşılamazsa token kabul edilir ama cache'e alınmaz,
+     * sonraki istekte yeniden kontrol edilir.
+     *
+     * @return token iptal edilmemişse true
+     */
+    public boolean put(String tokenHash, Claims claims, AuthenticatedUser user) {
+        if (revoked.getIfPresent(tokenHash) != null) {
+            return false;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        Boolean revokedInRedis;
+        try {
+            revokedInRedis = stringRedisTemplate.hasKey(REVOKED_KEY_PREFIX + tokenHash);
+        } catch (Exception e) {
+            log.warn("Token iptal kaydı Redis'ten okunamadı, token cache'lenmiyor - Hata: {}", e.getMessage());
+            return true;
+        }
+        if (Boolean.TRUE.equals(revokedInRedis)) {
+            revoked.put(tokenHash, expiresAt);
+            return false;
+        }
+        tokens.put(tokenHash, new VerifiedToken(user, expiresAt));
+        // put ile eşzamanlı gelen iptal girdiyi geri bırakmasın
+        if (revoked.getIfPresent(tokenHash) != null) {
+            tokens.invalidate(tokenHash);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Token'ı süresi dolana kadar tüm node'larda geçersiz kılar
+     *
+     * @throws IllegalStateException iptal Redis'e yazılamadıysa; token diğer node'larda geçerli kalabilir
+     */
+    public void revokeToken(String tokenHash, long expiresAt) {
+        revokeLocal(tokenHash, expiresAt);
+        long remainingMillis = expiresAt - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(REVOKED_KEY_PREFIX + tokenHash, "1", Duration.ofMillis(remainingMillis));
+        } catch (Exception e) {
+            throw new IllegalStateException("Token iptali Redis'e yazılamadı", e);
+        }
+        publish(TOKEN_PREFIX + tokenHash + ":" + expiresAt);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(TOKEN_PREFIX)) {
+            int separator = body.lastIndexOf(':');
+            revokeLocal(body.substring(TOKEN_PREFIX.length(), separator), Long.parseLong(body.substring(separator + 1)));
+        }
+    }
+
+    private void revokeLocal(String tokenHash, long expiresAt) {
+        revoked.put(tokenHash, expiresAt);
+        tokens.invalidate(tokenHash);
+    }
+
+    private void publish(String body) {
+        try {
+            stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, body);
+        } catch (Exception e) {
+            log.warn("Token iptali diğer node'lara yayınlanamadı - Hata: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cache anahtarı: token'ın SHA-256 hash'i
+     */
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+
+    /**
+     * Girdiyi token'ın bitiş zamanında (en fazla maxNanos sonra) düşürür
+     */
+    private record UntilExpiry<V>(ToLongFunction<V> expiresAt, long maxNanos)
+            implements Expiry<String, V> {
+
+        @Override
+        public long expireAfterCreate(String key, V value, long currentTime) {
+            long remainingMillis = Math.max(0, expiresAt.applyAsLong(value) - System.currentTimeMillis());
+            return Math.min(Duration.ofMillis(remainingMillis).toNanos(), maxNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureException;
@@ -26,6 +27,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final AuthenticationCache authenticationCache;
 
     @Override
     protected void doFilterInternal(
@@ -38,86 +40,100 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String jwtToken = null;
         String email = null;
 
-        log.info("🔍 JWT Filter çalışıyor - Path: {}", request.getRequestURI());
-        log.info("📋 Authorization Header: {}", authHeader != null ? "VAR" : "YOK");
+        // İstek başına loglar debug seviyesinde; info'da her istekte birkaç satır yazılıyordu
+        log.debug("🔍 JWT Filter çalışıyor - Path: {}", request.getRequestURI());
 
         try {
             // 1. Header kontrol et
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                log.warn("⚠️ Authorization header yok veya format yanlış");
+                log.debug("⚠️ Authorization header yok veya format yanlış");
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            // 2. Token'ı çıkar
-            jwtToken = authHeader.substring(7);
-            log.info("✅ Token bulundu, uzunluğu: {} karakter", jwtToken.length());
-
-            // 3. Email'i çöz (BURASI HATAYı FIRLATABİLİR)
-            try {
-                email = jwtUtils.extractUsername(jwtToken);
-                log.info("✅ Email çözüldü: {}", email);
-            } catch (ExpiredJwtException e) {
-                log.error("❌ TOKEN EXPIRED: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            } catch (SignatureException e) {
-                log.error("❌ INVALID SIGNATURE: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            } catch (MalformedJwtException e) {
-                log.error("❌ MALFORMED TOKEN: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            } catch (Exception e) {
-                log.error("❌ TOKEN PARSING ERROR: {}", e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            // 4. Email boş mı kontrol et
-            if (email == null || email.isEmpty()) {
-                log.warn("⚠️ Email çözemedi");
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            // 5. Zaten authentication set edilmişse skip et
+            // 2. Zaten authentication set edilmişse skip et
             if (SecurityContextHolder.getContext().getAuthentication() != null) {
-                log.info("ℹ️ Authentication zaten set edilmiş");
+                log.debug("ℹ️ Authentication zaten set edilmiş");
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            // 6. UserDetails'ı yükle
-            UserDetails userDetails = null;
-            try {
-                userDetails = userDetailsService.loadUserByUsername(email);
-                log.info("✅ UserDetails yüklendi: {}", userDetails.getUsername());
-            } catch (Exception e) {
-                log.error("❌ USER NOT FOUND: {} - Error: {}", email, e.getMessage());
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            // 7. Token'ı doğrula
-            if (jwtUtils.isTokenValid(jwtToken, userDetails)) {
-                log.info("✅ Token GEÇERLI!");
-
-                // 8. Authentication token oluştur
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities()
-                        );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // 3. Token'ı çıkar ve cache'e bak: daha önce doğrulanmışsa parse ve DB yok
+            jwtToken = authHeader.substring(7);
+            String tokenHash = AuthenticationCache.hash(jwtToken);
+            AuthenticationCache.VerifiedToken verified = authenticationCache.get(tokenHash);
 
-                // 9. SecurityContext'e set et
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.info("✅ Authentication set: {}", userDetails.getAuthorities());
+            AuthenticatedUser principal;
+            if (verified != null) {
+                principal = verified.user();
             } else {
-                log.warn("❌ Token GEÇERSİZ! Email: {}", email);
+                // 4. Token'ı tek seferde çöz ve doğrula (BURASI HATAYı FIRLATABİLİR)
+                Claims claims;
+                try {
+                    claims = jwtUtils.extractAllClaims(jwtToken);
+                    email = claims.getSubject();
+                    log.debug("✅ Email çözüldü: {}", email);
+                } catch (ExpiredJwtException e) {
+                    log.error("❌ TOKEN EXPIRED: {}", e.getMessage());
+                    filterChain.doFilter(request, response);
+                    return;
+                } catch (SignatureException e) {
+                    log.error("❌ INVALID SIGNATURE: {}", e.getMessage());
+                    filterChain.doFilter(request, response);
+                    return;
+                } catch (MalformedJwtException e) {
+                    log.error("❌ MALFORMED TOKEN: {}", e.getMessage());
+                    filterChain.doFilter(request, response);
+                    return;
+                } catch (Exception e) {
+                    log.error("❌ TOKEN PARSING ERROR: {}", e.getMessage());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // 5. Email boş mı kontrol et
+                if (email == null || email.isEmpty()) {
+                    log.warn("⚠️ Email çözemedi");
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // 6. UserDetails'ı yükle (token başına bir kez; sonraki istekler cache'ten)
+                UserDetails userDetails;
+                try {
+                    userDetails = userDetailsService.loadUserByUsername(email);
+                    log.debug("✅ UserDetails yüklendi: {}", userDetails.getUsername());
+                } catch (Exception e) {
+                    log.error("❌ USER NOT FOUND: {} - Error: {}", email, e.getMessage());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // 7. Token'ı doğrula ve cache'le (iptal edilmiş token cache'e girmez)
+                if (!jwtUtils.isTokenValid(claims, userDetails)) {
+                    log.warn("❌ Token GEÇERSİZ! Email: {}", email);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                principal = AuthenticatedUser.from(claims, userDetails);
+                if (!authenticationCache.put(tokenHash, claims, principal)) {
+                    log.warn("❌ Token İPTAL EDİLMİŞ! Email: {}", email);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
             }
 
+            // 8. Authentication token oluştur (principal: AuthenticatedUser)
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.authorities()
+                    );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            // 9. SecurityContext'e set et
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            log.debug("✅ Authentication set: {}", principal.authorities());
+
         } catch (Exception e) {
             log.error("❌ JWT Filter GENEL HATASI: {}", e.getMessage(), e);
         }
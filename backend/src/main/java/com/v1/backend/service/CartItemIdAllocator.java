@@ -0,0 +1,52 @@
+package com.v1.backend.service;
+
+import com.v1.backend.model.CartItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Redis'teki sepet satırları için cart_items id'si verir.
+ * Hibernate'in pooled optimizer'ıyla aynı kural: her nextval değeri v, v-blok+1..v bloğunun üst sınırıdır
+ * (sequence blok boyunun altında kalmaz, bkz. {@link com.v1.backend.config.IdSequenceMigration}).
+ * Blok bellekte kilitsiz tüketilir; biten bloğu gören thread nextval'i kilit tutmadan alır. Aynı anda yeni blok alan
+ * thread'lerden sadece birinin bloğu kurulur, diğerleri aldıkları bloğun ilk id'sini kullanıp kalanını bırakır
+ * (sequence'te boşluk kalır, id tekrarı olmaz).
+ * nextval çağıranın transaction'ı dışında çalışır; read-only transaction'dan da çağrılabilir.
+ */
+@Component
+public class CartItemIdAllocator {
+
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('cart_items_seq')";
+
+    private record Block(AtomicLong next, long hi) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate outsideTransaction;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(new AtomicLong(1), 0));
+
+    public CartItemIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outsideTransaction = new TransactionTemplate(transactionManager);
+        this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    }
+
+    public long next() {
+        Block current = block.get();
+        long id = current.next().getAndIncrement();
+        if (id <= current.hi()) {
+            return id;
+        }
+        long hi = outsideTransaction.execute(status -> jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class));
+        Block fresh = new Block(new AtomicLong(hi - CartItem.ID_BLOCK_SIZE + 1), hi);
+        id = fresh.next().getAndIncrement();
+        block.compareAndSet(current, fresh);
+        return id;
+    }
+}
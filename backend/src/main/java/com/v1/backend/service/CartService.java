@@ -1,44 +1,68 @@
 package com.v1.backend.service;
 
+import com.v1.backend.cache.CartStore;
+import com.v1.backend.dto.ProductDTO;
 import com.v1.backend.dto.cart.CartDTO;
 import com.v1.backend.dto.cart.CartItemDTO;
 import com.v1.backend.model.Cart;
 import com.v1.backend.model.CartItem;
 import com.v1.backend.model.Product;
 import com.v1.backend.model.User;
-import com.v1.backend.repository.CartItemRepository;
 import com.v1.backend.repository.CartRepository;
 import com.v1.backend.repository.ProductRepository;
 import com.v1.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+/**
+ * Sepet işlemleri Redis'teki kopya ({@link CartStore}) üzerinde çalışır; JPA transaction'ı sadece sepet
+ * veritabanından yüklenirken veya oluşturulurken açılır, Redis'e giden isteklerde bağlantı tutulmaz.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class CartService {
 
     private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String CART_CACHE_PREFIX = "cart:";
-    private static final long CACHE_EXPIRY_MINUTES = 30;
+    private final ProductService productService;
+    private final CartStore cartStore;
+    private final CartWriteBehind cartWriteBehind;
+    private final CartItemIdAllocator cartItemIds;
+    private final TransactionTemplate loadTransaction;
+
+    public CartService(
+            CartRepository cartRepository,
+            ProductRepository productRepository,
+            UserRepository userRepository,
+            ProductService productService,
+            CartStore cartStore,
+            CartWriteBehind cartWriteBehind,
+            CartItemIdAllocator cartItemIds,
+            PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.productService = productService;
+        this.cartStore = cartStore;
+        this.cartWriteBehind = cartWriteBehind;
+        this.cartItemIds = cartItemIds;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * ✅ Sepeti getir veya oluştur
      */
+    @Transactional
     public Cart getOrCreateCart(Long userId) {
         return cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
@@ -57,90 +81,64 @@ public class CartService {
     }
 
     /**
-     * ✅ Sepete ürün ekle - FIXED VERSION
+     * ✅ Sepete ürün ekle - miktar Redis'te atomik artırılır, veritabanına write-behind ile yazılır
      */
     public CartDTO addToCart(Long userId, Long productId, Integer quantity) {
         log.info("➕ Sepete ürün ekleniyor - UserId: {}, ProductId: {}, Quantity: {}", userId, productId, quantity);
 
-        // 1. Cart'ı getir
-        Cart cart = getOrCreateCart(userId);
-
-        // 2. Product'ı DB'den getir (MANAGED ENTITY)
+        // 1. Product'ı DB'den getir
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Ürün bulunamadı: " + productId));
 
-        // 3. Validasyonlar
+        // 2. Validasyonlar
         if (!product.isAvailable()) {
             throw new IllegalArgumentException("Bu ürün şu anda sipariş verilemez");
         }
 
+        Integer minQty = product.getMinOrderQuantity() != null ? product.getMinOrderQuantity() : 1;
+        Integer maxQty = product.getMaxOrderQuantity() != null ? product.getMaxOrderQuantity() : 100;
+        int stock = product.getStock() != null ? product.getStock() : 0;
+
         if (!product.canOrder(quantity)) {
-            Integer minQty = product.getMinOrderQuantity() != null ? product.getMinOrderQuantity() : 1;
-            Integer maxQty = product.getMaxOrderQuantity() != null ? product.getMaxOrderQuantity() : 100;
             throw new IllegalArgumentException(
                     String.format("Miktar %d - %d arasında olmalıdır", minQty, maxQty)
             );
         }
 
-        if (product.getStock() == null || product.getStock() < quantity) {
+        if (stock < quantity) {
             throw new IllegalArgumentException(
-                    String.format("Yeterli stok yok. Mevcut stok: %d, İstenen miktar: %d",
-                            product.getStock() != null ? product.getStock() : 0, quantity)
+                    String.format("Yeterli stok yok. Mevcut stok: %d, İstenen miktar: %d", stock, quantity)
             );
         }
 
-        // 4. Sepetteki ürünü kontrol et
-        CartItem existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
-                .orElse(null);
-
-        if (existingItem != null) {
-            // Miktarı artır
-            int newQuantity = existingItem.getQuantity() + quantity;
-            if (!product.canOrder(newQuantity)) {
-                Integer minQty = product.getMinOrderQuantity() != null ? product.getMinOrderQuantity() : 1;
-                Integer maxQty = product.getMaxOrderQuantity() != null ? product.getMaxOrderQuantity() : 100;
-                throw new IllegalArgumentException(
-                        String.format("Toplam miktar %d - %d arasında olmalıdır", minQty, maxQty)
-                );
-            }
+        // 3. Sepet Redis'te yoksa oluştur / veritabanından yükle
+        ensureLoaded(userId, true);
 
-            if (product.getStock() == null || product.getStock() < newQuantity) {
-                throw new IllegalArgumentException(
-                        String.format("Yeterli stok yok. Mevcut stok: %d, İstenen toplam miktar: %d",
-                                product.getStock() != null ? product.getStock() : 0, newQuantity)
-                );
-            }
+        // 4. Toplam miktar kontrolü ve artırma tek Lua script'inde
+        CartStore.AddResult result = cartStore.add(
+                userId, productId, quantity, product.getPrice(), minQty, maxQty, stock, cartItemIds.next());
 
-            existingItem.setQuantity(newQuantity);
-            existingItem.calculateSubtotal();
-            cartItemRepository.saveAndFlush(existingItem);
-            log.info("✏️ Sepetteki ürün miktarı güncellendi - ProductId: {}, NewQuantity: {}", productId, newQuantity);
-        } else {
-            // ⚠️ ÖNEMLI: CartItem'ı oluştur ve HEMEDİ flush et
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)  // ← Managed entity
-                    .quantity(quantity)
-                    .unitPrice(product.getPrice())
-                    .build();
-
-            newItem.calculateSubtotal();
-
-            // ⚠️ FIX: saveAndFlush kullan (detachment sorununu önler)
-            cartItemRepository.saveAndFlush(newItem);
-            cart.getItems().add(newItem);
-            log.info("✨ Yeni ürün sepete eklendi - ProductId: {}, Quantity: {}", productId, quantity);
+        if (result.code() == CartStore.QUANTITY_OUT_OF_RANGE) {
+            throw new IllegalArgumentException(
+                    String.format("Toplam miktar %d - %d arasında olmalıdır", minQty, maxQty)
+            );
+        }
+        if (result.code() == CartStore.INSUFFICIENT_STOCK) {
+            throw new IllegalArgumentException(
+                    String.format("Yeterli stok yok. Mevcut stok: %d, İstenen toplam miktar: %d", stock, result.total())
+            );
         }
 
-        // 5. Cart totals'ı güncelle ve kaydet
-        cart.updateTotals();
-        cartRepository.saveAndFlush(cart);
+        cartWriteBehind.enqueue(userId);
 
-        // 6. Redis cache'i temizle
-        invalidateCartCache(userId);
+        if (result.previous() > 0) {
+            log.info("✏️ Sepetteki ürün miktarı güncellendi - ProductId: {}, NewQuantity: {}", productId, result.total());
+        } else {
+            log.info("✨ Yeni ürün sepete eklendi - ProductId: {}, Quantity: {}", productId, quantity);
+        }
 
-        CartDTO cartDTO = convertToDTO(cart);
-        log.info("✅ Ürün sepete ekleme başarılı - CartId: {}", cart.getId());
+        CartDTO cartDTO = readCart(userId);
+        log.info("✅ Ürün sepete ekleme başarılı - CartId: {}", cartDTO.getId());
         return cartDTO;
     }
 
@@ -150,21 +148,15 @@ public class CartService {
     public CartDTO removeFromCart(Long userId, Long productId) {
         log.info("❌ Sepetten ürün kaldırılıyor - UserId: {}, ProductId: {}", userId, productId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Sepet bulunamadı"));
+        ensureLoaded(userId, false);
 
-        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
-                .orElseThrow(() -> new IllegalArgumentException("Ürün sepette bulunamadı"));
-
-        cartItemRepository.delete(item);
-        cart.getItems().remove(item);
-        cart.updateTotals();
-        cartRepository.saveAndFlush(cart);
-
-        invalidateCartCache(userId);
+        if (!cartStore.remove(userId, productId)) {
+            throw new IllegalArgumentException("Ürün sepette bulunamadı");
+        }
+        cartWriteBehind.enqueue(userId);
 
         log.info("✅ Ürün sepetten kaldırılıyor - ProductId: {}", productId);
-        return convertToDTO(cart);
+        return readCart(userId);
     }
 
     /**
@@ -174,19 +166,16 @@ public class CartService {
         log.info("🔄 Sepetteki ürün güncelleniyor - UserId: {}, ProductId: {}, NewQuantity: {}",
                 userId, productId, newQuantity);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Sepet bulunamadı"));
-
-        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
-                .orElseThrow(() -> new IllegalArgumentException("Ürün sepette bulunamadı"));
-
-        Product product = item.getProduct();
+        ensureLoaded(userId, false);
 
         if (newQuantity <= 0) {
             log.info("⚠️ Miktar 0 olduğu için ürün silinir");
             return removeFromCart(userId, productId);
         }
 
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Ürün sepette bulunamadı"));
+
         if (!product.canOrder(newQuantity)) {
             Integer minQty = product.getMinOrderQuantity() != null ? product.getMinOrderQuantity() : 1;
             Integer maxQty = product.getMaxOrderQuantity() != null ? product.getMaxOrderQuantity() : 100;
@@ -202,15 +191,13 @@ public class CartService {
             );
         }
 
-        item.setQuantity(newQuantity);
-        item.calculateSubtotal();
-        cart.updateTotals();
-        cartRepository.saveAndFlush(cart);
-
-        invalidateCartCache(userId);
+        if (!cartStore.setQuantity(userId, productId, newQuantity)) {
+            throw new IllegalArgumentException("Ürün sepette bulunamadı");
+        }
+        cartWriteBehind.enqueue(userId);
 
         log.info("✅ Ürün miktarı güncellendi - ProductId: {}, NewQuantity: {}", productId, newQuantity);
-        return convertToDTO(cart);
+        return readCart(userId);
     }
 
     /**
@@ -219,134 +206,123 @@ public class CartService {
     public void clearCart(Long userId) {
         log.info("🗑️ Sepet temizleniyor - UserId: {}", userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Sepet bulunamadı"));
-
-        cartItemRepository.deleteByCartId(cart.getId());
-        cart.clear();
-        cartRepository.saveAndFlush(cart);
-
-        invalidateCartCache(userId);
+        ensureLoaded(userId, false);
+        cartStore.clear(userId);
+        cartWriteBehind.enqueue(userId);
 
         log.info("✅ Sepet temizlendi - UserId: {}", userId);
     }
 
     /**
-     * ✅ Sepeti getir (Redis'den varsa, yoksa DB'den)
+     * ✅ Sepeti getir (Redis'den; ilk erişimde veritabanından yüklenir)
      */
-    @Transactional(readOnly = true)
     public CartDTO getCart(Long userId) {
         log.info("🛒 Sepet getiriliyor - UserId: {}", userId);
-
-        String cacheKey = CART_CACHE_PREFIX + userId;
-        CartDTO cachedCart = (CartDTO) redisTemplate.opsForValue().get(cacheKey);
-
-        if (cachedCart != null) {
-            log.info("✅ Sepet Redis'den alındı - UserId: {}", userId);
-            return cachedCart;
-        }
-
-        log.info("⚠️ Sepet Redis'de yok, Database'den alınıyor - UserId: {}", userId);
-
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Sepet bulunamadı"));
-
-        CartDTO cartDTO = convertToDTO(cart);
-
-        redisTemplate.opsForValue().set(
-                cacheKey,
-                cartDTO,
-                CACHE_EXPIRY_MINUTES,
-                TimeUnit.MINUTES
-        );
-
-        log.info("💾 Sepet Redis'e cache edildi - UserId: {}, TTL: {} min", userId, CACHE_EXPIRY_MINUTES);
-
-        return cartDTO;
+        ensureLoaded(userId, false);
+        return readCart(userId);
     }
 
     /**
      * ✅ Sepetteki ürün sayısını getir
      */
-    @Transactional(readOnly = true)
     public Integer getCartItemCount(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Sepet bulunamadı"));
-        return cart.getTotalQuantity();
+        ensureLoaded(userId, false);
+        return cartStore.read(userId).totalQuantity();
     }
 
     /**
-     * ✅ DTO dönüşümü
+     * Sepet Redis'te yoksa veritabanından yükler. create=true ise veritabanında da yoksa oluşturur.
      */
-    private CartDTO convertToDTO(Cart cart) {
-        List<CartItemDTO> items = cart.getItems().stream()
-                .map(this::convertItemToDTO)
-                .collect(Collectors.toList());
+    private void ensureLoaded(Long userId, boolean create) {
+        if (cartStore.read(userId) != null) {
+            return;
+        }
 
-        return CartDTO.builder()
-                .id(cart.getId())
-                .userId(cart.getUser().getId())
-                .items(items)
-                .totalPrice(cart.getTotalPrice())
-                .totalQuantity(cart.getTotalQuantity())
-                .active(cart.getActive())
-                .createdAt(cart.getCreatedAt())
-                .updatedAt(cart.getUpdatedAt())
-                .build();
+        Map<Long, Integer> quantities = new HashMap<>();
+        Map<Long, BigDecimal> unitPrices = new HashMap<>();
+        Map<Long, CartStore.ItemInfo> items = new HashMap<>();
+        // Satırlar lazy yüklendiği için okuma transaction içinde; Redis'e yazma transaction kapandıktan sonra
+        Cart cart = loadTransaction.execute(status -> {
+            Cart found = create ? getOrCreateCart(userId) : cartRepository.findByUserId(userId).orElse(null);
+            if (found != null) {
+                for (CartItem item : found.getItems()) {
+                    quantities.put(item.getProduct().getId(), item.getQuantity());
+                    unitPrices.put(item.getProduct().getId(), item.getUnitPrice());
+                    items.put(item.getProduct().getId(),
+                            new CartStore.ItemInfo(item.getId(), item.getCreatedAt(), item.getUpdatedAt()));
+                }
+            }
+            return found;
+        });
+        if (cart == null) {
+            throw new IllegalArgumentException("Sepet bulunamadı");
+        }
+        cartStore.hydrate(userId, cart.getId(), cart.getCreatedAt(), cart.getUpdatedAt(), quantities, unitPrices, items);
+        log.info("💾 Sepet Redis'e yüklendi - UserId: {}, ÜrünSayısı: {}", userId, quantities.size());
     }
 
-    /**
-     * ✅ CartItem DTO dönüşümü - NULL SAFE
-     */
-    private CartItemDTO convertItemToDTO(CartItem item) {
-        if (item == null) {
-            log.warn("⚠️ CartItem null");
-            return null;
+    private CartDTO readCart(Long userId) {
+        CartStore.CartState state = cartStore.read(userId);
+        if (state == null) {
+            throw new IllegalArgumentException("Sepet bulunamadı");
         }
 
-        Product product = item.getProduct();
-        if (product == null) {
-            log.warn("⚠️ Product null for CartItem ID: {}", item.getId());
-            return CartItemDTO.builder()
-                    .id(item.getId())
-                    .cartId(item.getCart() != null ? item.getCart().getId() : null)
-                    .quantity(item.getQuantity())
-                    .unitPrice(item.getUnitPrice())
-                    .subtotal(item.getSubtotal())
-                    .createdAt(item.getCreatedAt())
-                    .updatedAt(item.getUpdatedAt())
-                    .build();
+        // Satır id'si tutulmaya başlanmadan Redis'e girmiş satırlar bir kez id alır
+        List<Long> withoutId = state.productsWithoutItemId();
+        if (!withoutId.isEmpty()) {
+            Map<Long, Long> itemIds = new HashMap<>();
+            withoutId.forEach(productId -> itemIds.put(productId, cartItemIds.next()));
+            cartStore.assignItemIds(userId, itemIds);
+            state = cartStore.read(userId);
         }
+        return convertToDTO(userId, state);
+    }
 
-        String productImage = null;
-        try {
-            if (product.getImages() != null && !product.getImages().isEmpty()) {
-                productImage = product.getImages().get(0);
+    /**
+     * ✅ DTO dönüşümü - ürün adı ve görseli ürün cache'inden okunur
+     */
+    private CartDTO convertToDTO(Long userId, CartStore.CartState state) {
+        List<CartItemDTO> items = new ArrayList<>(state.quantities().size());
+        BigDecimal totalPrice = BigDecimal.ZERO;
+
+        for (Map.Entry<Long, Integer> line : state.quantities().entrySet()) {
+            Long productId = line.getKey();
+            BigDecimal unitPrice = state.unitPrices().getOrDefault(productId, BigDecimal.ZERO);
+            BigDecimal subtotal = unitPrice.multiply(new BigDecimal(line.getValue()));
+            totalPrice = totalPrice.add(subtotal);
+
+            CartStore.ItemInfo info = state.items().get(productId);
+            CartItemDTO.CartItemDTOBuilder item = CartItemDTO.builder()
+                    .id(info != null ? info.id() : null)
+                    .cartId(state.cartId())
+                    .productId(productId)
+                    .quantity(line.getValue())
+                    .unitPrice(unitPrice)
+                    .subtotal(subtotal)
+                    .createdAt(info != null ? info.createdAt() : null)
+                    .updatedAt(info != null ? info.updatedAt() : null);
+
+            try {
+                ProductDTO product = productService.getProductById(productId);
+                item.productName(product.getName());
+                if (product.getImages() != null && !product.getImages().isEmpty()) {
+                    item.productImage(product.getImages().get(0));
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Sepetteki ürün okunamadı - ProductId: {}", productId);
             }
-        } catch (Exception e) {
-            log.warn("⚠️ Product images yüklenirken hata - ProductId: {}", product.getId());
+            items.add(item.build());
         }
 
-        return CartItemDTO.builder()
-                .id(item.getId())
-                .cartId(item.getCart() != null ? item.getCart().getId() : null)
-                .productId(product.getId())
-                .productName(product.getName())
-                .productImage(productImage)
-                .quantity(item.getQuantity())
-                .unitPrice(item.getUnitPrice())
-                .subtotal(item.getSubtotal())
-                .createdAt(item.getCreatedAt())
-                .updatedAt(item.getUpdatedAt())
+        return CartDTO.builder()
+                .id(state.cartId())
+                .userId(userId)
+                .items(items)
+                .totalPrice(totalPrice)
+                .totalQuantity(state.totalQuantity())
+                .active(true)
+                .createdAt(state.createdAt())
+                .updatedAt(state.updatedAt())
                 .build();
     }
-
-    /**
-     * 🔴 Redis cache'i temizle
-     */
-    private void invalidateCartCache(Long userId) {
-        String cacheKey = CART_CACHE_PREFIX + userId;
-        redisTemplate.delete(cacheKey);
-        log.info("🧹 Redis cache temizlendi - Key: {}", cacheKey);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,460 @@
+package com.v1.backend.service;
+
+import com.v1.backend.cache.CartStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis'teki sepet değişikliklerini veritabanına asenkron ve toplu yazar (write-behind).
+ * <ul>
+ *   <li>Değişen sepet sınırlı bir kuyruğa girer; aynı sepet zaten bekliyorsa tekrar eklenmez (coalescing).
+ *       Sepet kuyrukta en az pencere süresi kadar bekler, böylece art arda gelen değişiklikler tek yazıma iner.</li>
+ *   <li>Kuyruk doluysa çağıran kısa süre bekler (backpressure); yine yer açılmazsa sepet Redis'teki
+ *       dirty kümesine bırakılır ve periyodik turda yazılır.</li>
+ *   <li>Her değişiklik yerel bir append-only loga yazılır ve diske zorlanır (eşzamanlı değişiklikler tek fsync'te);
+ *       uygulama veya makine çökerse açılışta yazılmamış sepetler logdan bulunup tekrar kuyruğa alınır. Log kalıcı
+ *       bir diskte olmalıdır; yolu açıkça verilmezse uygulama açılmaz. Dirty kümesinden alınan sepetler de yazılmadan
+ *       önce loga kaydedilir.</li>
+ *   <li>Yazılamayan sepet, diğer sepetleri bekletmeden kendi artan bekleme süresi sonunda tekrar kuyruğa girer.</li>
+ *   <li>Bir batch tek transaction'da, ürün satırı sayısından bağımsız üç JDBC batch ifadesiyle yazılır.</li>
+ * </ul>
+ * Redis asıl kaynak olduğu için yazma anında sepetin güncel hali okunur; aynı sepeti iki kez yazmak zararsızdır.
+ */
+@Slf4j
+@Service
+public class CartWriteBehind {
+
+    private static final String DELETE_REMOVED_ITEMS_SQL =
+            "DELETE FROM cart_items WHERE cart_id = ? AND NOT (product_id = ANY (?))";
+
+    // Id, satır Redis'e eklenirken verilen id'dir (CartItemIdAllocator); yoksa sequence'ten tek değer alınır.
+    // Satır veritabanında zaten varsa id'si değişmez
+    private static final String UPSERT_ITEM_SQL = """
+            INSERT INTO cart_items (id, cart_id, product_id, quantity, unit_price, subtotal, created_at, updated_at, version)
+            VALUES (COALESCE(CAST(? AS BIGINT), nextval('cart_items_seq')), ?, ?, ?, ?, ?, ?, ?, 0)
+            ON CONFLICT (cart_id, product_id) DO UPDATE
+            SET quantity = EXCLUDED.quantity,
+                unit_price = EXCLUDED.unit_price,
+                subtotal = EXCLUDED.subtotal,
+                updated_at = EXCLUDED.updated_at,
+                version = COALESCE(cart_items.version, 0) + 1
+            WHERE cart_items.quantity <> EXCLUDED.quantity OR cart_items.unit_price <> EXCLUDED.unit_price
+            """;
+
+    private static final long RETRY_INITIAL_MS = 1000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private static final String UPDATE_CART_SQL =
+            "UPDATE carts SET total_price = ?, total_quantity = ?, updated_at = ?, version = COALESCE(version, 0) + 1 WHERE id = ?";
+
+    private final CartStore cartStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartWriteLog writeLog;
+    private final int batchSize;
+    private final long windowNanos;
+    private final long offerTimeoutMs;
+    private final long logMaxBytes;
+
+    private final BlockingQueue<Long> queue;
+    // Kuyrukta bekleyen sepetler -> kuyruğa ilk girdiği an (System.nanoTime)
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    // Yazılamayan sepetlerin art arda başarısız deneme sayısı
+    private final Map<Long, Integer> attempts = new ConcurrentHashMap<>();
+    // Dirty kümesinden alınıp henüz yazılmamış sepet turları
+    private final AtomicInteger overflowInFlight = new AtomicInteger();
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-write-behind-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private final Counter coalesced;
+    private final Counter overflow;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public CartWriteBehind(
+            CartStore cartStore,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${cart.write-behind.batch-size:100}") int batchSize,
+            @Value("${cart.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${cart.write-behind.window-ms:200}") long windowMs,
+            @Value("${cart.write-behind.offer-timeout-ms:50}") long offerTimeoutMs,
+            @Value("${cart.write-behind.log-path:}") String logPath,
+            @Value("${cart.write-behind.log-max-bytes:67108864}") long logMaxBytes) {
+        this.cartStore = cartStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        if (logPath.isBlank()) {
+            throw new IllegalStateException("cart.write-behind.log-path tanımlı değil: write-behind logu için kalıcı bir "
+                    + "dosya yolu verilmeli (ör. CART_WRITE_LOG_PATH=/var/lib/ecommerce/cart-write-behind.log)");
+        }
+        this.writeLog = new CartWriteLog(Path.of(logPath));
+        this.batchSize = batchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.logMaxBytes = logMaxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("cart.writebehind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("cart.writebehind.pending", pending, Map::size).register(meterRegistry);
+        this.lag = Timer.builder("cart.writebehind.lag")
+                .description("Sepetin kuyruğa girmesinden veritabanına yazılmasına kadar geçen süre")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("cart.writebehind.batch.size").register(meterRegistry);
+        this.coalesced = Counter.builder("cart.writebehind.coalesced").register(meterRegistry);
+        this.overflow = Counter.builder("cart.writebehind.overflow").register(meterRegistry);
+        this.failures = Counter.builder("cart.writebehind.failures").register(meterRegistry);
+    }
+
+    /**
+     * Önceki çalışmadan kalan, yazılmamış sepetleri logdan kurtarır
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Set<Long> unflushed = writeLog.recover();
+        if (!unflushed.isEmpty()) {
+            log.warn("Yazılmamış sepetler logdan kurtarıldı - Adet: {}", unflushed.size());
+            unflushed.forEach(this::enqueue);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "cart-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        // Bekleyen tekrar denemeler logda kalır, açılışta kurtarılır
+        retries.shutdownNow();
+        if (worker != null) {
+            // Kuyrukta kalanlar yazılsın; yetişmezse açılışta logdan tamamlanır
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        writeLog.close();
+    }
+
+    /**
+     * Sepet Redis'te değiştikten sonra çağrılır
+     */
+    public void enqueue(Long userId) {
+        boolean first;
+        long seq = 0;
+        synchronized (writeLog) {
+            try {
+                seq = writeLog.dirty(userId);
+            } catch (IOException e) {
+                log.warn("Sepet write-behind loguna yazılamadı - UserId: {}, Hata: {}", userId, e.getMessage());
+            }
+            first = pending.putIfAbsent(userId, System.nanoTime()) == null;
+        }
+        // Kilit dışında: eşzamanlı değişiklikler tek force'ta diske iner
+        if (seq > 0) {
+            try {
+                writeLog.sync(seq);
+            } catch (IOException e) {
+                log.warn("Sepet write-behind logu diske yazılamadı - UserId: {}, Hata: {}", userId, e.getMessage());
+            }
+        }
+        if (!first) {
+            coalesced.increment();
+            return;
+        }
+
+        boolean queued;
+        try {
+            queued = queue.offer(userId, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            pending.remove(userId);
+            overflow.increment();
+            log.warn("Sepet yazma kuyruğu dolu, sepet dirty kümesine bırakıldı - UserId: {}", userId);
+            cartStore.markDirty(List.of(userId));
+        }
+    }
+
+    /**
+     * Kuyruğa sığmamış veya başka node'dan kalmış sepetleri Redis'teki dirty kümesinden yazar
+     */
+    @Scheduled(fixedDelayString = "${cart.write-behind.interval-ms:2000}")
+    public void flushOverflow() {
+        List<Long> userIds;
+        try {
+            userIds = cartStore.popDirty(batchSize);
+        } catch (Exception e) {
+            log.warn("Dirty sepetler Redis'ten alınamadı: {}", e.getMessage());
+            return;
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        overflowInFlight.incrementAndGet();
+        try {
+            // Kümeden çıkan sepet yazılmadan node çökerse açılışta logdan kurtarılır
+            long covered = logDirty(userIds);
+            batchSizes.record(userIds.size());
+            List<Long> failed = persist(userIds);
+            Map<Long, Long> flushed = new HashMap<>();
+            userIds.stream().filter(userId -> !failed.contains(userId)).forEach(userId -> flushed.put(userId, covered));
+            try {
+                writeLog.flushed(flushed);
+            } catch (IOException e) {
+                log.warn("Sepet write-behind loguna yazılamadı: {}", e.getMessage());
+            }
+            if (!failed.isEmpty()) {
+                cartStore.markDirty(failed);
+            }
+        } finally {
+            overflowInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Sepetleri loga kaydeder ve diske zorlar
+     *
+     * @return kayıtları kapsayan sıra numarası; loga yazılamadıysa 0
+     */
+    private long logDirty(List<Long> userIds) {
+        long seq = 0;
+        try {
+            synchronized (writeLog) {
+                for (Long userId : userIds) {
+                    seq = writeLog.dirty(userId);
+                }
+            }
+            writeLog.sync(seq);
+        } catch (IOException e) {
+            log.warn("Sepet write-behind loguna yazılamadı - Adet: {}, Hata: {}", userIds.size(), e.getMessage());
+        }
+        return seq;
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    truncateLogIfIdle();
+                    continue;
+                }
+
+                // Pencere dolana kadar bekle; bu sürede gelen değişiklikler aynı yazıma dahil olur
+                Long enqueuedAt = pending.get(first);
+                if (enqueuedAt != null && running) {
+                    long waitNanos = enqueuedAt + windowNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+
+                List<Long> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                log.debug("Sepet write-behind döngüsü kesildi");
+            } catch (Exception e) {
+                log.error("Sepet write-behind döngüsünde beklenmeyen hata", e);
+            }
+        }
+        log.info("Sepet write-behind durduruldu");
+    }
+
+    private void writeBatch(List<Long> userIds) {
+        // Kuyruktan çıkan sepet bundan sonra değişirse yeniden kuyruğa girer; okuma bu noktadan sonra yapılır
+        Map<Long, Long> enqueuedAt = new HashMap<>();
+        long coveredSequence;
+        synchronized (writeLog) {
+            coveredSequence = writeLog.currentSequence();
+            for (Long userId : userIds) {
+                Long time = pending.remove(userId);
+                enqueuedAt.put(userId, time != null ? time : System.nanoTime());
+            }
+        }
+        batchSizes.record(userIds.size());
+
+        List<Long> failed = persist(userIds);
+
+        long now = System.nanoTime();
+        Map<Long, Long> covered = new HashMap<>();
+        for (Long userId : userIds) {
+            if (!failed.contains(userId)) {
+                lag.record(now - enqueuedAt.get(userId), TimeUnit.NANOSECONDS);
+                covered.put(userId, coveredSequence);
+                attempts.remove(userId);
+            }
+        }
+        try {
+            writeLog.flushed(covered);
+        } catch (IOException e) {
+            log.warn("Sepet write-behind loguna yazılamadı: {}", e.getMessage());
+        }
+
+        failed.forEach(userId -> scheduleRetry(userId, enqueuedAt.get(userId)));
+    }
+
+    /**
+     * Yazılamayan sepeti artan bekleme süresiyle (1 sn'den 60 sn'ye, her denemede iki katı) tekrar kuyruğa alır.
+     * Bu sürede sepet bekliyor sayılır: yeni değişiklikleri bu denemeye katılır, log sıfırlanmaz.
+     */
+    private void scheduleRetry(Long userId, Long enqueuedAt) {
+        int attempt = attempts.merge(userId, 1, Integer::sum);
+        if (pending.putIfAbsent(userId, enqueuedAt) != null) {
+            // Bu arada yeniden değişti ve kuyruğa girdi
+            return;
+        }
+        long delayMs = Math.min(RETRY_MAX_MS, RETRY_INITIAL_MS << Math.min(attempt - 1, 6));
+        try {
+            retries.schedule(() -> requeue(userId), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Kapanıyor; sepet logda kalır, açılışta kurtarılır
+            pending.remove(userId);
+        }
+    }
+
+    private void requeue(Long userId) {
+        if (queue.offer(userId)) {
+            return;
+        }
+        pending.remove(userId);
+        try {
+            cartStore.markDirty(List.of(userId));
+        } catch (Exception e) {
+            log.warn("Sepet dirty kümesine bırakılamadı, açılışta logdan kurtarılacak - UserId: {}, Hata: {}",
+                    userId, e.getMessage());
+        }
+    }
+
+    private void truncateLogIfIdle() {
+        try {
+            if (writeLog.truncateIfIdle(logMaxBytes,
+                    () -> pending.isEmpty() && queue.isEmpty() && overflowInFlight.get() == 0)) {
+                log.info("Sepet write-behind logu sıfırlandı");
+            }
+        } catch (IOException e) {
+            log.warn("Sepet write-behind logu sıfırlanamadı: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Batch'i tek transaction'da yazar; başarısız olursa sepetleri tek tek dener
+     *
+     * @return yazılamayan sepetler
+     */
+    private List<Long> persist(List<Long> userIds) {
+        try {
+            write(userIds);
+            return List.of();
+        } catch (Exception batchError) {
+            log.warn("Sepet batch yazılamadı, tek tek deneniyor - Adet: {}, Hata: {}",
+                    userIds.size(), batchError.getMessage());
+        }
+
+        List<Long> failed = new ArrayList<>();
+        for (Long userId : userIds) {
+            try {
+                write(List.of(userId));
+            } catch (Exception e) {
+                log.error("Sepet veritabanına yazılamadı - UserId: {}, Hata: {}", userId, e.getMessage());
+                failures.increment();
+                failed.add(userId);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Redis'teki güncel halleri veritabanına uygular: kaldırılan satırları sil, kalanları upsert et, toplamları güncelle
+     */
+    private void write(List<Long> userIds) {
+        List<CartStore.CartState> states = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            CartStore.CartState state = cartStore.read(userId);
+            if (state == null) {
+                log.warn("Sepet Redis'te bulunamadı, atlanıyor - UserId: {}", userId);
+            } else {
+                states.add(state);
+            }
+        }
+        if (states.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> carts = new ArrayList<>(states.size());
+        for (CartStore.CartState state : states) {
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            for (Map.Entry<Long, Integer> line : state.quantities().entrySet()) {
+                BigDecimal unitPrice = state.unitPrices().getOrDefault(line.getKey(), BigDecimal.ZERO);
+                BigDecimal subtotal = unitPrice.multiply(new BigDecimal(line.getValue()));
+                totalPrice = totalPrice.add(subtotal);
+                CartStore.ItemInfo item = state.items().get(line.getKey());
+                Long itemId = item != null ? item.id() : null;
+                Timestamp createdAt = item != null && item.createdAt() != null ? Timestamp.valueOf(item.createdAt()) : now;
+                items.add(new Object[]{itemId, state.cartId(), line.getKey(), line.getValue(), unitPrice, subtotal,
+                        createdAt, now});
+            }
+            carts.add(new Object[]{totalPrice, state.totalQuantity(), now, state.cartId()});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_REMOVED_ITEMS_SQL, states, states.size(), (ps, state) -> {
+                ps.setLong(1, state.cartId());
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", state.quantities().keySet().toArray()));
+            });
+            if (!items.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, items);
+            }
+            jdbcTemplate.batchUpdate(UPDATE_CART_SQL, carts);
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package com.v1.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind kuyruğu için yerel, sadece sona eklenen log.
+ * "D userId seq" satırı sepetin değiştiğini, "F userId seq" satırı seq'e kadarki değişikliklerin
+ * veritabanına yazıldığını gösterir. Uygulama çökerse açılışta yazılmamış sepetler buradan bulunur.
+ * Metodlar bu nesne üzerinde senkronizedir; çağıran taraf birden fazla adımı aynı kilitle birleştirebilir.
+ * "D" kayıtları {@link #sync} ile diske zorlanır; böylece işletim sistemi çökmesinde de kaybolmazlar.
+ * Dosya sadece bekleyen sepet kalmadığında sıfırlanır ({@link #truncateIfIdle}); açılışta kurtarılan sepetlerin
+ * kayıtları, sepetler yeniden yazılana kadar dosyada kalır.
+ */
+@Slf4j
+final class CartWriteLog {
+
+    private final Path path;
+    private final Object forceLock = new Object();
+    private volatile FileChannel channel;
+    private long sequence;
+    // Dosyaya yazılmış son sıra (henüz diske zorlanmamış olabilir)
+    private volatile long appended;
+    // Diske zorlanmış son sıra; forceLock altında
+    private long forced;
+
+    CartWriteLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Logu okur ve henüz yazılmamış sepetleri döner. Dosya sıfırlanmaz; sıra numaraları kaldığı yerden devam eder,
+     * böylece kurtarılan sepetler yazıldığında "F" kayıtları eski "D" kayıtlarını da kapatır.
+     */
+    synchronized Set<Long> recover() throws IOException {
+        Map<Long, Long> dirty = new HashMap<>();
+        Map<Long, Long> flushed = new HashMap<>();
+        long last = 0;
+        boolean partialLine = false;
+        if (Files.exists(path)) {
+            String content = Files.readString(path, StandardCharsets.UTF_8);
+            for (String line : content.split("\n")) {
+                String[] parts = line.split(" ");
+                // Çökme anında yarım kalmış satırlar atlanır
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    Long userId = Long.valueOf(parts[1]);
+                    long seq = Long.parseLong(parts[2]);
+                    last = Math.max(last, seq);
+                    if ("D".equals(parts[0])) {
+                        dirty.merge(userId, seq, Math::max);
+                    } else if ("F".equals(parts[0])) {
+                        flushed.merge(userId, seq, Math::max);
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("Sepet write-behind log satırı okunamadı: {}", line);
+                }
+            }
+            partialLine = !content.isEmpty() && !content.endsWith("\n");
+        } else if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        Set<Long> pending = new LinkedHashSet<>();
+        dirty.forEach((userId, seq) -> {
+            if (seq > flushed.getOrDefault(userId, 0L)) {
+                pending.add(userId);
+            }
+        });
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (partialLine) {
+            // Yarım kalan satır sonraki kayıtla birleşmesin
+            append("\n");
+        }
+        sequence = last;
+        appended = last;
+        synchronized (forceLock) {
+            forced = last;
+        }
+        return pending;
+    }
+
+    /**
+     * Sepetin değiştiğini kaydeder; dönen sıra numarası {@link #sync} ile diske zorlanır, {@link #flushed} ile kapatılır
+     */
+    synchronized long dirty(Long userId) throws IOException {
+        long seq = ++sequence;
+        append("D " + userId + " " + seq + "\n");
+        appended = seq;
+        return seq;
+    }
+
+    /**
+     * seq'e kadarki kayıtları diske zorlar. Bu nesnenin kilidi tutulmadan çağrılmalıdır: aynı anda bekleyenlerden
+     * biri force eder, diğerleri onun kapsadığı kayıtlar için tekrar force etmez (group commit).
+     */
+    void sync(long seq) throws IOException {
+        synchronized (forceLock) {
+            if (forced >= seq) {
+                return;
+            }
+            long upTo = appended;
+            channel.force(false);
+            forced = upTo;
+        }
+    }
+
+    synchronized long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sepetlerin verilen sıra numaralarına kadar yazıldığını kaydeder ve diske zorlar
+     */
+    synchronized void flushed(Map<Long, Long> coveredSequences) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        coveredSequences.forEach((userId, seq) -> lines.append("F ").append(userId).append(' ').append(seq).append('\n'));
+        append(lines.toString());
+        channel.force(false);
+    }
+
+    /**
+     * Bekleyen sepet kalmadıysa dosyayı sıfırlar (log sınırsız büyümesin)
+     */
+    synchronized boolean truncateIfIdle(long maxBytes, BooleanSupplier idle) throws IOException {
+        if (channel.size() < maxBytes || !idle.getAsBoolean()) {
+            return false;
+        }
+        channel.truncate(0);
+        channel.position(0);
+        return true;
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void append(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
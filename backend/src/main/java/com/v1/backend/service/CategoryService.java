@@ -1,71 +1,107 @@
 package com.v1.backend.service;
 
+import com.v1.backend.cache.CategoryTreeCache;
+import com.v1.backend.cache.CategoryTreeSnapshot;
 import com.v1.backend.dto.category.CategoryCreateRequest;
 import com.v1.backend.dto.category.CategoryDTO;
 import com.v1.backend.dto.category.CategoryUpdateRequest;
 import com.v1.backend.exception.CategoryException;
 import com.v1.backend.model.Category;
+import com.v1.backend.repository.CategoryClosureRepository;
 import com.v1.backend.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private static final int MAX_DEPTH = 3;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
 
-    // GET OPERATIONS
+    // Ağaçtaki toplam seviye sayısı (ana kategori = 1. seviye)
+    @Value("${category.max-depth:3}")
+    private int maxDepth;
+
+    /**
+     * Closure tablosu boşsa (ilk kurulum / eski veri) mevcut parent ilişkilerinden doldurur.
+     * Birlikte açılan node'ların ikisi de boş görebilir; backfill çakışan satırları atladığı için ikisi de açılır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillClosureTable() {
+        if (categoryClosureRepository.count() == 0 && categoryRepository.count() > 0) {
+            int rows = categoryClosureRepository.backfill();
+            log.info("Kategori closure tablosu dolduruldu - Satır: {}", rows);
+        }
+    }
+
+    // GET OPERATIONS (bellekteki ağaç snapshot'ından, veritabanına gitmeden)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDTO> getAllMainCategories() {
-        return categoryRepository.findByParentIsNull().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return categoryTreeCache.current().roots();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDTO> getAllActiveCategories() {
-        return categoryRepository.findByStatusTrue().stream()
-                .map(this::mapToDTO)
+        return categoryTreeCache.current().all().stream()
+                .filter(category -> Boolean.TRUE.equals(category.getStatus()))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CategoryDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new CategoryException("Kategori bulunamadı: ID = " + id));
-        return mapToDTO(category);
+        CategoryDTO category = categoryTreeCache.current().findById(id);
+        if (category == null) {
+            throw new CategoryException("Kategori bulunamadı: ID = " + id);
+        }
+        return category;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CategoryDTO getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new CategoryException("Kategori bulunamadı: slug = " + slug));
-        return mapToDTO(category);
+        CategoryDTO category = categoryTreeCache.current().findBySlug(slug);
+        if (category == null) {
+            throw new CategoryException("Kategori bulunamadı: slug = " + slug);
+        }
+        return category;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDTO> getDirectSubcategories(Long parentId) {
-        Category parent = categoryRepository.findById(parentId)
-                .orElseThrow(() -> new CategoryException("Parent kategori bulunamadı"));
-
-        return parent.getChildren().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        CategoryTreeSnapshot tree = categoryTreeCache.current();
+        if (!tree.contains(parentId)) {
+            throw new CategoryException("Parent kategori bulunamadı");
+        }
+        return tree.childrenOf(parentId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDTO> getSubCategories(Long parentId) {
-        return categoryRepository.findByParentId(parentId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return categoryTreeCache.current().childrenOf(parentId);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryDTO> searchCategories(String searchTerm) {
-        return categoryRepository.findByNameContainingIgnoreCase(searchTerm).stream()
-                .map(this::mapToDTO)
+        String term = searchTerm.toLowerCase(TURKISH);
+        return categoryTreeCache.current().all().stream()
+                .filter(category -> category.getName().toLowerCase(TURKISH).contains(term))
                 .collect(Collectors.toList());
     }
 
@@ -84,6 +120,8 @@ public class CategoryService {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        categoryClosureRepository.insertRoot(saved.getId());
+        categoryTreeCache.rebuildAfterCommit();
         return mapToDTO(saved);
     }
 
@@ -94,8 +132,8 @@ public class CategoryService {
                 .orElseThrow(() -> new CategoryException("Parent kategori bulunamadı"));
 
         // Maksimum derinlik kontrolü
-        if (parent.getDepthLevel() >= MAX_DEPTH - 1) {
-            throw new CategoryException("Maksimum 3 seviye derinliğe ulaşıldı");
+        if (categoryClosureRepository.findDepth(parentId) >= maxDepth - 1) {
+            throw new CategoryException("Maksimum " + maxDepth + " seviye derinliğe ulaşıldı");
         }
 
         Category category = Category.builder()
@@ -109,6 +147,8 @@ public class CategoryService {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        categoryClosureRepository.insertNode(saved.getId(), parentId);
+        categoryTreeCache.rebuildAfterCommit();
         return mapToDTO(saved);
     }
 
@@ -124,7 +164,14 @@ public class CategoryService {
         category.setDisplayOrder(request.getDisplayOrder());
         category.setStatus(request.getStatus());
 
+        // parentId değiştiyse kategori alt ağacıyla birlikte taşınır; null ana kategori yapar
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (!Objects.equals(request.getParentId(), currentParentId)) {
+            moveCategory(category, request.getParentId());
+        }
+
         Category updated = categoryRepository.save(category);
+        categoryTreeCache.rebuildAfterCommit();
         return mapToDTO(updated);
     }
 
@@ -133,6 +180,7 @@ public class CategoryService {
                 .orElseThrow(() -> new CategoryException("Kategori bulunamadı"));
         category.setStatus(false);
         categoryRepository.save(category);
+        categoryTreeCache.rebuildAfterCommit();
     }
 
     public void activateCategory(Long id) {
@@ -140,16 +188,47 @@ public class CategoryService {
                 .orElseThrow(() -> new CategoryException("Kategori bulunamadı"));
         category.setStatus(true);
         categoryRepository.save(category);
+        categoryTreeCache.rebuildAfterCommit();
     }
 
     // DELETE OPERATIONS
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryException("Kategori bulunamadı"));
+        // Alt kategoriler de cascade ile silindiği için tüm alt ağacın satırları kaldırılır
+        categoryClosureRepository.deleteSubtree(id);
         categoryRepository.delete(category);
+        categoryTreeCache.rebuildAfterCommit();
     }
 
     // UTILITY METHODS
+    // newParentId null ise kategori alt ağacıyla birlikte ana kategori olur
+    private void moveCategory(Category category, Long newParentId) {
+        if (newParentId == null) {
+            categoryClosureRepository.detachSubtree(category.getId());
+            category.setParent(null);
+            return;
+        }
+
+        Category newParent = categoryRepository.findById(newParentId)
+                .orElseThrow(() -> new CategoryException("Parent kategori bulunamadı"));
+
+        // Kategori kendi altına taşınamaz
+        if (categoryClosureRepository.existsByIdAncestorIdAndIdDescendantId(category.getId(), newParentId)) {
+            throw new CategoryException("Kategori kendi alt kategorisine taşınamaz");
+        }
+
+        int newDepth = categoryClosureRepository.findDepth(newParentId) + 1
+                + categoryClosureRepository.findSubtreeHeight(category.getId());
+        if (newDepth > maxDepth - 1) {
+            throw new CategoryException("Maksimum " + maxDepth + " seviye derinliğe ulaşıldı");
+        }
+
+        categoryClosureRepository.detachSubtree(category.getId());
+        categoryClosureRepository.attachSubtree(category.getId(), newParentId);
+        category.setParent(newParent);
+    }
+
     private void validateCategoryUniqueness(String name, String slug) {
         if (categoryRepository.findByName(name).isPresent()) {
             throw new CategoryException("Bu kategori adı zaten mevcut");
@@ -181,6 +260,7 @@ public class CategoryService {
                 .parentId(category.getParent() != null ? category.getParent().getId() : null)
                 .parentName(category.getParent() != null ? category.getParent().getName() : null)
                 .children(childrenDTOs)
+                .path(category.getPath())
                 .status(category.getStatus())
                 .displayOrder(category.getDisplayOrder())
                 .depthLevel(category.getDepthLevel())
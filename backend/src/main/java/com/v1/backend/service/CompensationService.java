@@ -2,75 +2,83 @@ package com.v1.backend.service;
 
 import com.v1.backend.event.PaymentFailedEvent;
 import com.v1.backend.event.StockReservationFailedEvent;
+import com.v1.backend.kafka.SagaBatchProcessor;
 import com.v1.backend.model.Order;
-import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderTransition;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CompensationService {
 
-    private final OrderRepository orderRepository;
+    private final SagaBatchProcessor sagaBatchProcessor;
 
     @KafkaListener(
             topics = "payment-failed",
             groupId = "compensation-service-group",
-            concurrency = "3"
+            concurrency = "${saga.listener.concurrency:3}",
+            containerFactory = "sagaBatchListenerFactory"
     )
-    @Transactional
-    public void handlePaymentFailed(PaymentFailedEvent event) {
-        log.info("Ödeme başarısız telafisi - OrderId: {}, OrderNumber: {}, Reason: {}",
-                event.getOrderId(), event.getOrderNumber(), event.getReason());
-
-        try {
-            Order order = orderRepository.findById(event.getOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId()));
-
-            order.setStatus(Order.OrderStatus.PAYMENT_FAILED);
-            order.cancel("Ödeme başarısız: " + event.getReason());
-            orderRepository.save(order);
-
-            log.info("Sipariş iptal edildi - OrderId: {}, Reason: Ödeme başarısız",
-                    event.getOrderId());
-
-        } catch (Exception e) {
-            log.error("Ödeme başarısız telafisinde hata - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
-        }
+    public void handlePaymentFailed(List<ConsumerRecord<String, PaymentFailedEvent>> records) {
+        sagaBatchProcessor.process(records, PaymentFailedEvent::getOrderNumber, this::compensatePaymentFailed);
     }
 
     @KafkaListener(
             topics = "stock-reservation-failed",
             groupId = "compensation-service-group",
-            concurrency = "3"
+            concurrency = "${saga.listener.concurrency:3}",
+            containerFactory = "sagaBatchListenerFactory"
     )
-    @Transactional
-    public void handleStockReservationFailed(StockReservationFailedEvent event) {
-        log.info("Stok rezervasyonu başarısız telafisi - OrderId: {}, OrderNumber: {}, Reason: {}",
+    public void handleStockReservationFailed(List<ConsumerRecord<String, StockReservationFailedEvent>> records) {
+        sagaBatchProcessor.process(records, StockReservationFailedEvent::getOrderNumber, this::compensateStockReservationFailed);
+    }
+
+    private OrderTransition compensatePaymentFailed(PaymentFailedEvent event, OrderSagaState order) {
+        log.info("Ödeme başarısız telafisi - OrderId: {}, OrderNumber: {}, Reason: {}",
                 event.getOrderId(), event.getOrderNumber(), event.getReason());
 
-        try {
-            Order order = orderRepository.findById(event.getOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId()));
+        if (order == null) {
+            throw new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId());
+        }
+
+        if (order.status() == Order.OrderStatus.CANCELLED) {
+            log.warn("Sipariş zaten iptal edilmiş - OrderId: {}", event.getOrderId());
+            return null;
+        }
+        OrderTransition cancelled = order.to(Order.OrderStatus.CANCELLED);
+
+        log.info("Sipariş iptal edildi - OrderId: {}, Reason: Ödeme başarısız",
+                event.getOrderId());
+        return cancelled;
+    }
 
-            // Ödeme iadesi işlemi burada yapılır (örneğin, RefundService çağrısı)
-            // refundService.refundPayment(event.getOrderId(), order.getTotalPrice());
+    private OrderTransition compensateStockReservationFailed(StockReservationFailedEvent event, OrderSagaState order) {
+        log.info("Stok rezervasyonu başarısız telafisi - OrderId: {}, OrderNumber: {}, Reason: {}",
+                event.getOrderId(), event.getOrderNumber(), event.getReason());
 
-            order.setStatus(Order.OrderStatus.STOCK_RESERVATION_FAILED);
-            order.cancel("Stok rezervasyonu başarısız: " + event.getReason());
-            orderRepository.save(order);
+        if (order == null) {
+            throw new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId());
+        }
 
-            log.info("Sipariş iptal edildi - OrderId: {}, Reason: Stok yok",
-                    event.getOrderId());
+        // Ödeme iadesi işlemi burada yapılır (örneğin, RefundService çağrısı)
+        // refundService.refundPayment(event.getOrderId(), order.getTotalPrice());
 
-        } catch (Exception e) {
-            log.error("Stok rezervasyonu başarısız telafisinde hata - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
+        if (order.status() == Order.OrderStatus.CANCELLED) {
+            log.warn("Sipariş zaten iptal edilmiş - OrderId: {}", event.getOrderId());
+            return null;
         }
+        OrderTransition cancelled = order.to(Order.OrderStatus.CANCELLED);
+
+        log.info("Sipariş iptal edildi - OrderId: {}, Reason: Stok yok",
+                event.getOrderId());
+        return cancelled;
     }
-}
\ No newline at end of file
+}
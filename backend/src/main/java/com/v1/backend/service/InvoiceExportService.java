@@ -0,0 +1,208 @@
+package com.v1.backend.service;
+
+import com.v1.backend.model.Order;
+import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.utils.InvoicePdfGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Toplu fatura dışa aktarımı: filtreye uyan siparişlerin PDF'lerini tek bir ZIP olarak akıtır.
+ * <ul>
+ *   <li>Siparişler id sırasıyla keyset batch'leri halinde, kullanıcı ve satırlarıyla birlikte (join fetch) okunur.</li>
+ *   <li>PDF'ler çekirdek sayısı kadar thread'de paralel üretilir; ZIP'e sipariş sırasıyla yazılır.</li>
+ *   <li>Aynı anda en fazla {@code window} fatura üretimde/beklemede olur; yazıcı yetişemezse yeni iş verilmez.
+ *       Bellek kullanımı dışa aktarılan fatura sayısından bağımsızdır.</li>
+ *   <li>PDF'ler zaten sıkıştırılmış olduğu için ZIP girdileri STORED yazılır.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class InvoiceExportService {
+
+    private final OrderRepository orderRepository;
+    private final InvoicePdfGenerator invoicePdfGenerator;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService renderPool;
+    private final Semaphore exports;
+    private final int batchSize;
+    private final int window;
+
+    private final Counter exportedInvoices;
+    private final Counter rejected;
+    private final Timer exportTimer;
+
+    public InvoiceExportService(
+            OrderRepository orderRepository,
+            InvoicePdfGenerator invoicePdfGenerator,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${invoice.export.threads:0}") int threads,
+            @Value("${invoice.export.batch-size:200}") int batchSize,
+            @Value("${invoice.export.max-concurrent:2}") int maxConcurrent) {
+        this.orderRepository = orderRepository;
+        this.invoicePdfGenerator = invoicePdfGenerator;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.exports = new Semaphore(maxConcurrent);
+
+        int renderThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.window = renderThreads * 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(renderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "invoice-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.exportedInvoices = Counter.builder("invoice.export.invoices").register(meterRegistry);
+        this.rejected = Counter.builder("invoice.export.rejected").register(meterRegistry);
+        this.exportTimer = Timer.builder("invoice.export.time").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /**
+     * Filtreye uyan siparişlerin faturalarını ZIP olarak yazar. Akış kapatılmaz.
+     *
+     * @param from   null ise başlangıç sınırı yok
+     * @param to     hariç; null ise bitiş sınırı yok
+     * @param status null ise tüm durumlar
+     * @return yazılan fatura sayısı
+     * @throws RejectedExecutionException aynı anda çalışan dışa aktarım sınırı dolu
+     */
+    public int exportInvoices(LocalDateTime from, LocalDateTime to, Order.OrderStatus status, OutputStream out)
+            throws IOException {
+        if (!exports.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Aynı anda çalışan fatura dışa aktarımı sınırına ulaşıldı");
+        }
+        long startedAt = System.nanoTime();
+        try {
+            int count = writeZip(from, to, status, out);
+            log.info("Toplu fatura dışa aktarımı tamamlandı - Fatura: {}, From: {}, To: {}, Status: {}",
+                    count, from, to, status);
+            return count;
+        } finally {
+            exportTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            exports.release();
+        }
+    }
+
+    private int writeZip(LocalDateTime from, LocalDateTime to, Order.OrderStatus status, OutputStream out)
+            throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setMethod(ZipOutputStream.STORED);
+
+        Deque<CompletableFuture<RenderedInvoice>> pending = new ArrayDeque<>();
+        int written = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                List<Order> batch = nextBatch(from, to, status, afterId);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+
+                for (Order order : batch) {
+                    // Pencere doluysa önce en eski faturayı yaz; üretim yazıcının en fazla window kadar önünde gider
+                    while (pending.size() >= window) {
+                        write(zip, pending.removeFirst());
+                        written++;
+                    }
+                    pending.addLast(CompletableFuture.supplyAsync(() -> render(order), renderPool));
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(zip, pending.removeFirst());
+                written++;
+            }
+            zip.finish();
+            zip.flush();
+            return written;
+        } finally {
+            // İstemci koptuysa bekleyen işler boşuna çalışmasın
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Sonraki keyset batch'i: önce id'ler (LIMIT veritabanında), sonra siparişler kullanıcı ve satırlarıyla
+     */
+    private List<Order> nextBatch(LocalDateTime from, LocalDateTime to, Order.OrderStatus status, long afterId) {
+        return readTransaction.execute(tx -> {
+            List<Long> ids = orderRepository.findIdsForInvoiceExport(from, to, status, afterId,
+                    PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            return orderRepository.findAllForInvoiceByIdIn(ids).stream()
+                    .sorted(Comparator.comparing(Order::getId))
+                    .toList();
+        });
+    }
+
+    private RenderedInvoice render(Order order) {
+        try {
+            return new RenderedInvoice(order.getOrderNumber() + "-Fatura.pdf", invoicePdfGenerator.generateInvoicePdf(order));
+        } catch (Exception e) {
+            throw new IllegalStateException("Fatura oluşturulamadı: " + order.getOrderNumber(), e);
+        }
+    }
+
+    private void write(ZipOutputStream zip, CompletableFuture<RenderedInvoice> future) throws IOException {
+        RenderedInvoice invoice;
+        try {
+            invoice = future.join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(invoice.pdf());
+        ZipEntry entry = new ZipEntry(invoice.fileName());
+        entry.setSize(invoice.pdf().length);
+        entry.setCompressedSize(invoice.pdf().length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(invoice.pdf());
+        zip.closeEntry();
+        exportedInvoices.increment();
+    }
+
+    private record RenderedInvoice(String fileName, byte[] pdf) {
+    }
+}
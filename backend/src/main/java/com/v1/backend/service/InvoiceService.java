@@ -0,0 +1,310 @@
+package com.v1.backend.service;
+
+import com.v1.backend.dto.order.InvoiceKey;
+import com.v1.backend.model.Order;
+import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.security.AuthenticatedUser;
+import com.v1.backend.utils.InvoicePdfGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fatura PDF'lerini üretir ve yanıta akıtır.
+ * <ul>
+ *   <li>Erişim kontrolü ve başlıklar burada yapılır; sipariş render için bir kez, satırları ve kullanıcısıyla
+ *       birlikte read-only transaction'da yüklenir. PDF transaction commit olduktan sonra yazılır; yavaş istemciye
+ *       akıtılırken veritabanı bağlantısı tutulmaz.</li>
+ *   <li>Üretim sınırlı bir thread havuzunda yapılır (iText CPU'ya yüklenir); sıra doluysa veya iş sırada
+ *       {@code invoice.render.queue-timeout-ms} içinde başlamazsa {@link RejectedExecutionException} fırlatılır.</li>
+ *   <li>Disk cache kapalıysa PDF doğrudan servlet akışına yazılır, bellekte byte[] oluşmaz.</li>
+ *   <li>Disk cache açıksa PDF {@code <orderId>-<version>.pdf} olarak yazılır ve oradan gönderilir; sipariş
+ *       değiştikçe version arttığı için eski dosya kendiliğinden geçersiz olur. Tomcat sendfile destekliyorsa
+ *       dosya çekirdek içinde sokete kopyalanır, desteklemiyorsa {@link FileChannel#transferTo} kullanılır.
+ *       Dosyalar sadece son erişimden bu yana saklama süresi geçince silinir; gönderilmekte olan dosya silinmez.
+ *       Cache dizini açıkça verilmelidir (kalıcı, uygulamaya ait bir dizin).</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class InvoiceService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Render işi: yüklenmiş (transaction dışında, ilişkileri dolu) siparişi PDF olarak yazar
+     */
+    @FunctionalInterface
+    private interface RenderTarget {
+        void write(Order order) throws Exception;
+    }
+
+    private final OrderRepository orderRepository;
+    private final InvoicePdfGenerator invoicePdfGenerator;
+    private final TransactionTemplate readTransaction;
+    private final ThreadPoolExecutor renderPool;
+    private final long queueTimeoutMs;
+    private final boolean diskCacheEnabled;
+    private final Path cacheDir;
+    private final Duration cacheRetention;
+
+    private final Timer queueTimer;
+    private final Timer renderTimer;
+    private final Counter rejected;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public InvoiceService(
+            OrderRepository orderRepository,
+            InvoicePdfGenerator invoicePdfGenerator,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${invoice.render.threads:4}") int threads,
+            @Value("${invoice.render.queue-capacity:100}") int queueCapacity,
+            @Value("${invoice.render.queue-timeout-ms:5000}") long queueTimeoutMs,
+            @Value("${invoice.cache.enabled:false}") boolean diskCacheEnabled,
+            @Value("${invoice.cache.dir:}") String cacheDir,
+            @Value("${invoice.cache.retention-hours:24}") long cacheRetentionHours) throws IOException {
+        this.orderRepository = orderRepository;
+        this.invoicePdfGenerator = invoicePdfGenerator;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.diskCacheEnabled = diskCacheEnabled;
+        this.cacheDir = Path.of(cacheDir);
+        this.cacheRetention = Duration.ofHours(cacheRetentionHours);
+        if (diskCacheEnabled) {
+            if (cacheDir.isBlank()) {
+                throw new IllegalStateException("invoice.cache.enabled=true iken invoice.cache.dir verilmeli");
+            }
+            Files.createDirectories(this.cacheDir);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueTimer = Timer.builder("invoice.render.queue.time")
+                .description("Render işinin havuzda başlamadan önce beklediği süre")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("invoice.render.time").register(meterRegistry);
+        this.rejected = Counter.builder("invoice.render.rejected").register(meterRegistry);
+        this.cacheHits = Counter.builder("invoice.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("invoice.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("invoice.render.queued", renderPool, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("invoice.render.active", renderPool, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdown();
+    }
+
+    /**
+     * Faturayı yanıta yazar. Erişim kontrolü hafif bir sorguyla yapılır; sipariş sadece render için,
+     * satırlarıyla birlikte bir kez yüklenir.
+     *
+     * @throws IllegalArgumentException sipariş yok veya çağıranın değil
+     * @throws RejectedExecutionException render havuzu dolu
+     */
+    public void writeInvoice(Long orderId, AuthenticatedUser caller, HttpServletRequest request,
+                             HttpServletResponse response) throws Exception {
+        InvoiceKey key = orderRepository.findInvoiceKeyById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
+        if (!caller.isAdmin() && !key.userId().equals(caller.userId())) {
+            throw new IllegalArgumentException("Bu siparişe erişim yetkiniz yok");
+        }
+
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + key.orderNumber() + "-Fatura.pdf\"");
+
+        if (!diskCacheEnabled) {
+            OutputStream out = response.getOutputStream();
+            render(orderId, order -> invoicePdfGenerator.writeInvoicePdf(order, out));
+            out.flush();
+            return;
+        }
+
+        long version = Objects.requireNonNullElse(key.version(), 0L);
+        Path file = cacheDir.resolve(orderId + "-" + version + ".pdf");
+        if (touch(file)) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            render(orderId, order -> writeToCache(order, file));
+        }
+        sendFile(file, request, response);
+    }
+
+    /**
+     * Render işini havuza verir ve bitmesini bekler. Sadece sıra beklemesi zaman aşımına uğrar; başlamış bir
+     * iş (yanıta yazıyor olabilir) yarıda bırakılmaz.
+     */
+    private void render(Long orderId, RenderTarget target) throws Exception {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = renderPool.submit(() -> {
+                started.complete(null);
+                queueTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                renderTimer.record(() -> {
+                    // Kullanıcı, satırlar ve ürünler fetch join ile yüklenir; yazarken lazy yükleme olmaz
+                    Order order = readTransaction.execute(status -> orderRepository
+                            .findAllForInvoiceByIdIn(List.of(orderId)).stream()
+                            .findFirst()
+                            .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId)));
+                    try {
+                        target.write(order);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Fatura oluşturulamadı: " + orderId, e);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        try {
+            started.get(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.cancel(false)) {
+                renderPool.remove((Runnable) task);
+                rejected.increment();
+                throw new RejectedExecutionException("Fatura sırası zaman aşımına uğradı: " + orderId);
+            }
+            // Tam o anda başladı, bitmesini bekle
+        }
+
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Geçici dosyaya yazıp atomik olarak yerine taşır; aynı dosyayı okuyan (gönderen) istek yarım dosya görmez
+     */
+    private void writeToCache(Order order, Path file) throws Exception {
+        Path temp = Files.createTempFile(cacheDir, order.getId() + "-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            invoicePdfGenerator.writeInvoicePdf(order, out);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Cache'teki dosyanın son erişim zamanını günceller (saklama süresi son erişimden sayılır)
+     *
+     * @return dosya yoksa false
+     */
+    private static boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Son erişimi saklama süresinden eski fatura ve yarım kalmış geçici dosyaları siler. Eski sürümlerin dosyaları
+     * da burada temizlenir; yeni sürüm yazılırken silinmez, çünkü o anda başka bir istek tarafından gönderiliyor olabilir.
+     */
+    @Scheduled(fixedDelayString = "${invoice.cache.cleanup-interval-ms:600000}")
+    public void cleanCache() {
+        if (!diskCacheEnabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(cacheRetention);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*.{pdf,tmp}")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Fatura cache dosyası silinemedi - Dosya: {}, Hata: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Fatura cache dizini okunamadı: {}", e.getMessage());
+        }
+        if (deleted > 0) {
+            log.info("Süresi dolan fatura dosyaları silindi - Adet: {}", deleted);
+        }
+    }
+
+    private void sendFile(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size = Files.size(file);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+}
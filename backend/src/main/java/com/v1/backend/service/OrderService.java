@@ -1,5 +1,6 @@
 package com.v1.backend.service;
 
+import com.v1.backend.dto.CursorPage;
 import com.v1.backend.dto.order.CreateOrderRequest;
 import com.v1.backend.dto.order.OrderResponse;
 import com.v1.backend.event.OrderCreatedEvent;
@@ -11,20 +12,25 @@ import com.v1.backend.model.User;
 import com.v1.backend.repository.OrderRepository;
 import com.v1.backend.repository.ProductRepository;
 import com.v1.backend.repository.UserRepository;
+import com.v1.backend.security.AuthenticatedUser;
+import com.v1.backend.utils.CursorCodec;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -51,8 +57,8 @@ public class OrderService {
         log.info("Sipariş oluşturuluyor - UserId: {}, İtemSayısı: {}", userId, request.getItems().size());
 
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("Kullanıcı bulunamadı: " + userId));
+            // Kimlik token'dan doğrulandı; kullanıcı satırı okunmaz, sadece FK için referans
+            User user = userRepository.getReferenceById(userId);
 
             Order order = Order.builder()
                     .orderNumber(generateOrderNumber())
@@ -66,16 +72,7 @@ public class OrderService {
                     .taxAmount(request.getTaxAmount())
                     .build();
 
-            for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-                Product product = productRepository.findById(itemRequest.getProductId())
-                        .orElseThrow(() -> new IllegalArgumentException("Ürün bulunamadı: " + itemRequest.getProductId()));
-
-                if (!product.isAvailable() || !product.canOrder(itemRequest.getQuantity()) || !product.hasStock(itemRequest.getQuantity())) {
-                    throw new IllegalArgumentException("Ürün uygun değil veya stok yetersiz: " + product.getName());
-                }
-
-                order.addItem(product, itemRequest.getQuantity());
-            }
+            addItems(order, request.getItems());
 
             order.calculateTotals();
             Order savedOrder = orderRepository.save(order);
@@ -96,7 +93,7 @@ public class OrderService {
                 log.warn("Sepet temizlenirken hata oluştu (Sipariş süreci etkilenmedi): {}", e.getMessage());
             }
 
-            // Event yayınla (Stock Service'e gitmesi için)
+            // Event outbox'a yazılır, Kafka'ya relay gönderir (Payment Service'e gitmesi için)
             publishOrderCreatedEvent(savedOrder);
 
             return OrderResponse.fromEntity(savedOrder);
@@ -110,38 +107,61 @@ public class OrderService {
         }
     }
 
+    /**
+     * Aynı ürünün satırları birleştirilir, ürünler tek sorguda yüklenir ve birleşik miktarla tek geçişte
+     * doğrulanır. Satır sayısından bağımsız olarak ürünler için tek SELECT çalışır.
+     */
+    private void addItems(Order order, List<CreateOrderRequest.OrderItemRequest> lines) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderRequest.OrderItemRequest line : lines) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Ürün bulunamadı: " + productId);
+            }
+            if (!product.isAvailable() || !product.canOrder(quantity) || !product.hasStock(quantity)) {
+                throw new IllegalArgumentException("Ürün uygun değil veya stok yetersiz: " + product.getName());
+            }
+            order.addItem(product, quantity);
+        });
+    }
+
     public OrderResponse createOrderFallback(CreateOrderRequest request, Long userId, Exception ex) {
         log.error("FALLBACK: Sipariş oluşturma başarısız - UserId: {} - Hata: {}",
                 userId, ex.getMessage(), ex);
         throw new RuntimeException("Sipariş oluşturulamadı. Lütfen daha sonra tekrar deneyin.", ex);
     }
 
+    /**
+     * Event siparişle aynı transaction'da outbox'a yazılır; yazılamazsa sipariş de oluşmaz
+     */
     private void publishOrderCreatedEvent(Order order) {
-        try {
-            List<OrderCreatedEvent.OrderItemDto> items = order.getItems().stream()
-                    .map(item -> OrderCreatedEvent.OrderItemDto.builder()
-                            .productId(item.getProduct().getId())
-                            .productName(item.getProduct().getName())
-                            .quantity(item.getQuantity())
-                            .unitPrice(item.getUnitPrice())
-                            .build())
-                    .collect(Collectors.toList());
-
-            OrderCreatedEvent event = OrderCreatedEvent.builder()
-                    .orderId(order.getId())
-                    .orderNumber(order.getOrderNumber())
-                    .userId(order.getUser().getId())
-                    .totalPrice(order.getTotalPrice())
-                    .currency(order.getCurrency())
-                    .items(items)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            kafkaProducer.publishOrderCreated(event);
-            log.info("OrderCreatedEvent yayınlandı - OrderId: {}", order.getId());
-        } catch (Exception e) {
-            log.error("OrderCreatedEvent yayınlanamadı - OrderId: {}", order.getId(), e);
-        }
+        List<OrderCreatedEvent.OrderItemDto> items = order.getItems().stream()
+                .map(item -> OrderCreatedEvent.OrderItemDto.builder()
+                        .productId(item.getProduct().getId())
+                        .productName(item.getProduct().getName())
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .build())
+                .collect(Collectors.toList());
+
+        OrderCreatedEvent event = OrderCreatedEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .userId(order.getUser().getId())
+                .totalPrice(order.getTotalPrice())
+                .currency(order.getCurrency())
+                .items(items)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        kafkaProducer.publishOrderCreated(event);
     }
 
     private String generateOrderNumber() {
@@ -152,11 +172,11 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public OrderResponse getOrderById(Long orderId, Long userId) {
+    public OrderResponse getOrderById(Long orderId, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!order.getUser().getId().equals(userId) && !isAdmin()) {
+        if (!caller.isAdmin() && !order.getUser().getId().equals(caller.userId())) {
             throw new IllegalArgumentException("Bu siparişe erişim yetkiniz yok");
         }
 
@@ -164,26 +184,32 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public Order getOrderEntity(Long orderId) {
-        return orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
+    public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
+        return orderRepository.findByUserId(userId, pageable)
+                .map(OrderResponse::fromEntity);
     }
 
+    /**
+     * Kullanıcının siparişlerini keyset (cursor) ile sayfalar, COUNT çalıştırmaz
+     */
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Kullanıcı bulunamadı: " + userId));
-
-        return orderRepository.findByUser(user, pageable)
-                .map(OrderResponse::fromEntity);
+    public CursorPage<OrderResponse> getUserOrdersByCursor(Long userId, String cursor, int size) {
+        CursorPage.requireValidSize(size);
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        Pageable slice = PageRequest.of(0, size + 1);
+        List<Order> orders = position == null
+                ? orderRepository.findFirstSliceByUserId(userId, slice)
+                : orderRepository.findSliceByUserIdAfter(userId, position.createdAt(), position.id(), slice);
+        return CursorPage.of(orders, size, OrderResponse::fromEntity,
+                order -> CursorCodec.encode(order.getCreatedAt(), order.getId()));
     }
 
     @Transactional(readOnly = true)
-    public OrderResponse getOrderByOrderNumber(String orderNumber, Long userId) {
+    public OrderResponse getOrderByOrderNumber(String orderNumber, AuthenticatedUser caller) {
         Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderNumber));
 
-        if (!order.getUser().getId().equals(userId) && !isAdmin()) {
+        if (!caller.isAdmin() && !order.getUser().getId().equals(caller.userId())) {
             throw new IllegalArgumentException("Bu siparişe erişim yetkiniz yok");
         }
 
@@ -191,11 +217,11 @@ public class OrderService {
     }
 
     @Transactional
-    public OrderResponse updateOrderStatus(Long orderId, Order.OrderStatus newStatus, Long userId) {
+    public OrderResponse updateOrderStatus(Long orderId, Order.OrderStatus newStatus, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!isAdmin()) {
+        if (!caller.isAdmin()) {
             throw new IllegalArgumentException("Sadece admin bu işlemi yapabilir");
         }
 
@@ -207,11 +233,11 @@ public class OrderService {
     }
 
     @Transactional
-    public OrderResponse updatePaymentStatus(Long orderId, Order.PaymentStatus paymentStatus, Long userId) {
+    public OrderResponse updatePaymentStatus(Long orderId, Order.PaymentStatus paymentStatus, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!isAdmin() && !order.getUser().getId().equals(userId)) {
+        if (!caller.isAdmin() && !order.getUser().getId().equals(caller.userId())) {
             throw new IllegalArgumentException("Bu işlemi yapma yetkiniz yok");
         }
 
@@ -226,11 +252,11 @@ public class OrderService {
     }
 
     @Transactional
-    public OrderResponse shipOrder(Long orderId, String trackingNumber, Long userId) {
+    public OrderResponse shipOrder(Long orderId, String trackingNumber, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!isAdmin()) {
+        if (!caller.isAdmin()) {
             throw new IllegalArgumentException("Sadece admin bu işlemi yapabilir");
         }
 
@@ -243,11 +269,11 @@ public class OrderService {
     }
 
     @Transactional
-    public OrderResponse deliverOrder(Long orderId, Long userId) {
+    public OrderResponse deliverOrder(Long orderId, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!isAdmin()) {
+        if (!caller.isAdmin()) {
             throw new IllegalArgumentException("Sadece admin bu işlemi yapabilir");
         }
 
@@ -259,11 +285,11 @@ public class OrderService {
     }
 
     @Transactional
-    public OrderResponse cancelOrder(Long orderId, String reason, Long userId) {
+    public OrderResponse cancelOrder(Long orderId, String reason, AuthenticatedUser caller) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + orderId));
 
-        if (!order.getUser().getId().equals(userId) && !isAdmin()) {
+        if (!caller.isAdmin() && !order.getUser().getId().equals(caller.userId())) {
             throw new IllegalArgumentException("Bu işlemi yapma yetkiniz yok");
         }
 
@@ -273,10 +299,4 @@ public class OrderService {
         log.info("Sipariş iptal edildi - OrderId: {}, Reason: {}", orderId, reason);
         return OrderResponse.fromEntity(updatedOrder);
     }
-
-    private boolean isAdmin() {
-        return SecurityContextHolder.getContext().getAuthentication().getAuthorities()
-                .stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-    }
 }
\ No newline at end of file
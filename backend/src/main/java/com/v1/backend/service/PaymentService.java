@@ -4,147 +4,87 @@ import com.v1.backend.event.OrderCreatedEvent;
 import com.v1.backend.event.PaymentFailedEvent;
 import com.v1.backend.event.PaymentSuccessEvent;
 import com.v1.backend.kafka.PaymentKafkaProducer;
+import com.v1.backend.kafka.SagaBatchProcessor;
 import com.v1.backend.model.Order;
-import com.v1.backend.repository.OrderRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderTransition;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
-    private final OrderRepository orderRepository;
     private final PaymentKafkaProducer paymentKafkaProducer;
+    private final SagaBatchProcessor sagaBatchProcessor;
 
     @KafkaListener(
             topics = "order-created",
             groupId = "payment-service-group",
-            concurrency = "3"
+            concurrency = "${saga.listener.concurrency:3}",
+            containerFactory = "sagaBatchListenerFactory"
     )
-    @Transactional
-    @CircuitBreaker(
-            name = "paymentProcessing",
-            fallbackMethod = "paymentProcessingFallback"
-    )
-    @Retry(
-            name = "paymentProcessing",
-            fallbackMethod = "paymentProcessingFallback"
-    )
-    public void processPayment(OrderCreatedEvent event) {
+    public void processPayments(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        sagaBatchProcessor.process(records, OrderCreatedEvent::getOrderNumber, this::processPayment);
+    }
+
+    private OrderTransition processPayment(OrderCreatedEvent event, OrderSagaState order) {
         log.info("Ödeme işlemini başlat - OrderId: {}, OrderNumber: {}, TotalPrice: {}",
                 event.getOrderId(), event.getOrderNumber(), event.getTotalPrice());
 
-        try {
-            Order order = orderRepository.findById(event.getOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId()));
-
-            if (!order.getPaymentStatus().equals(Order.PaymentStatus.PENDING)) {
-                log.warn("Sipariş zaten işlenmiş - OrderId: {}, PaymentStatus: {}",
-                        event.getOrderId(), order.getPaymentStatus());
-                return;
-            }
-
-            boolean paymentSuccess = processPaymentWithProvider(event);
-
-            if (paymentSuccess) {
-                order.markAsPaid();
-                orderRepository.save(order);
-
-                PaymentSuccessEvent successEvent = PaymentSuccessEvent.builder()
-                        .orderId(event.getOrderId())
-                        .orderNumber(event.getOrderNumber())
-                        .userId(event.getUserId())
-                        .totalPrice(event.getTotalPrice())
-                        .paymentMethod(order.getPaymentMethod())
-                        .paidAt(LocalDateTime.now())
-                        .build();
-
-                paymentKafkaProducer.publishPaymentSuccess(successEvent);
-
-                log.info("Ödeme başarılı - OrderId: {}, OrderNumber: {}",
-                        event.getOrderId(), event.getOrderNumber());
-
-            } else {
-                order.setPaymentStatus(Order.PaymentStatus.FAILED);
-                order.setStatus(Order.OrderStatus.PAYMENT_FAILED);
-                orderRepository.save(order);
-
-                PaymentFailedEvent failedEvent = PaymentFailedEvent.builder()
-                        .orderId(event.getOrderId())
-                        .orderNumber(event.getOrderNumber())
-                        .userId(event.getUserId())
-                        .reason("Ödeme sağlayıcısından reddedildi")
-                        .failedAt(LocalDateTime.now())
-                        .build();
-
-                paymentKafkaProducer.publishPaymentFailed(failedEvent);
-
-                log.warn("Ödeme başarısız - OrderId: {}, OrderNumber: {}",
-                        event.getOrderId(), event.getOrderNumber());
-            }
-
-        } catch (Exception e) {
-            log.error("Ödeme işleminde hata - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
-
-            try {
-                Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-                if (order != null) {
-                    order.setPaymentStatus(Order.PaymentStatus.FAILED);
-                    order.setStatus(Order.OrderStatus.PAYMENT_FAILED);
-                    orderRepository.save(order);
-                }
-            } catch (Exception saveEx) {
-                log.error("Order güncelleme başarısız - OrderId: {}", event.getOrderId(), saveEx);
-            }
-
-            PaymentFailedEvent failedEvent = PaymentFailedEvent.builder()
-                    .orderId(event.getOrderId())
-                    .orderNumber(event.getOrderNumber())
-                    .userId(event.getUserId())
-                    .reason(e.getMessage())
-                    .failedAt(LocalDateTime.now())
-                    .build();
-
-            paymentKafkaProducer.publishPaymentFailed(failedEvent);
+        if (order == null) {
+            throw new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId());
+        }
 
-            throw new RuntimeException("Ödeme işlemi başarısız", e);
+        if (order.paymentStatus() != Order.PaymentStatus.PENDING) {
+            log.warn("Sipariş zaten işlenmiş - OrderId: {}, PaymentStatus: {}",
+                    event.getOrderId(), order.paymentStatus());
+            return null;
         }
-    }
 
-    public void paymentProcessingFallback(OrderCreatedEvent event, Exception ex) {
-        log.error("FALLBACK: Ödeme işlemi başarısız - OrderId: {}, Hata: {}",
-                event.getOrderId(), ex.getMessage(), ex);
+        boolean paymentSuccess = processPaymentWithProvider(event);
 
-        try {
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order != null) {
-                order.setPaymentStatus(Order.PaymentStatus.FAILED);
-                order.setStatus(Order.OrderStatus.PAYMENT_FAILED);
-                orderRepository.save(order);
-            }
+        if (paymentSuccess) {
+            OrderTransition paid = order.to(Order.OrderStatus.PAYMENT_CONFIRMED, Order.PaymentStatus.PAID);
 
-            PaymentFailedEvent failedEvent = PaymentFailedEvent.builder()
+            PaymentSuccessEvent successEvent = PaymentSuccessEvent.builder()
                     .orderId(event.getOrderId())
                     .orderNumber(event.getOrderNumber())
                     .userId(event.getUserId())
-                    .reason("Sistem hatası: " + ex.getMessage())
-                    .failedAt(LocalDateTime.now())
+                    .totalPrice(event.getTotalPrice())
+                    .paymentMethod(order.paymentMethod())
+                    .paidAt(LocalDateTime.now())
                     .build();
 
-            paymentKafkaProducer.publishPaymentFailed(failedEvent);
+            paymentKafkaProducer.publishPaymentSuccess(successEvent);
 
-        } catch (Exception e) {
-            log.error("Fallback da hata - OrderId: {}", event.getOrderId(), e);
+            log.info("Ödeme başarılı - OrderId: {}, OrderNumber: {}",
+                    event.getOrderId(), event.getOrderNumber());
+            return paid;
         }
+
+        OrderTransition failed = order.to(Order.OrderStatus.PAYMENT_FAILED, Order.PaymentStatus.FAILED);
+
+        PaymentFailedEvent failedEvent = PaymentFailedEvent.builder()
+                .orderId(event.getOrderId())
+                .orderNumber(event.getOrderNumber())
+                .userId(event.getUserId())
+                .reason("Ödeme sağlayıcısından reddedildi")
+                .failedAt(LocalDateTime.now())
+                .build();
+
+        paymentKafkaProducer.publishPaymentFailed(failedEvent);
+
+        log.warn("Ödeme başarısız - OrderId: {}, OrderNumber: {}",
+                event.getOrderId(), event.getOrderNumber());
+        return failed;
     }
 
     private boolean processPaymentWithProvider(OrderCreatedEvent event) {
@@ -166,4 +106,4 @@ public class PaymentService {
 
         return success;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,705 @@
+package com.v1.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.dto.ProductImportResult;
+import com.v1.backend.model.Product;
+import com.v1.backend.search.ProductFacetIndex;
+import com.v1.backend.search.ProductSearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Toplu ürün içe aktarımı (CSV veya JSON Lines). Gövde akış olarak okunur; dosyanın tamamı bellekte tutulmaz.
+ * <ul>
+ *   <li>Marka ve kategoriler başta bir kez belleğe alınır; satırlar id, ad veya slug ile bu haritalardan çözülür.</li>
+ *   <li>Satırlar {@code product.import.batch-size}'lık parçalar halinde havuzda paralel parse edilip doğrulanır;
+ *       yazıcı (çağıran thread) parçaları dosya sırasıyla alır, en fazla {@code window} parça önde gidilir.</li>
+ *   <li>SKU tekrarları dosya içinde bir hash set ile, veritabanındakilere karşı {@code ON CONFLICT DO NOTHING} ile elenir.</li>
+ *   <li>Id'ler {@code products_seq}'ten parça başına tek sorguda blok olarak alınır; ürünler, üst kategoriler ve görseller
+ *       parça başına bir transaction içinde JDBC batch olarak yazılır (entity başına Hibernate maliyeti olmadan).</li>
+ *   <li>Arama ve facet indeksleri içe aktarım bitince arka planda yeniden kurulur.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        public static Format of(MediaType contentType) {
+            if ("csv".equalsIgnoreCase(contentType.getSubtype())) {
+                return CSV;
+            }
+            if ("x-ndjson".equalsIgnoreCase(contentType.getSubtype()) || "jsonl".equalsIgnoreCase(contentType.getSubtype())) {
+                return JSON_LINES;
+            }
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+        }
+    }
+
+    private static final String BRANDS_SQL = "SELECT id, name, NULL AS slug FROM brands";
+    private static final String CATEGORIES_SQL = "SELECT id, name, slug FROM categories";
+
+    // Product'ın pooled sequence'i; parça başına tek round-trip
+    private static final String NEXT_ID_BLOCKS_SQL = "SELECT nextval('products_seq') FROM generate_series(1, ?)";
+
+
+    // Çakışma sadece sku veya (sku'dan türetilen) slug'da olabilir; ikisi de tekrar sayılır
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (id, name, description, slug, sku, brand_id, category_id, price, currency, "
+                    + "weight_gram, dimensions, color, size, average_rating, review_count, status, "
+                    + "min_order_quantity, max_order_quantity, active, stock, created_at, updated_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?, ?, 0, ?, ?, 0) "
+                    + "ON CONFLICT DO NOTHING";
+
+    private static final String INSERT_PARENT_CATEGORY_SQL =
+            "INSERT INTO product_parent_categories (product_id, parent_category_id) VALUES (?, ?)";
+
+    private static final String INSERT_IMAGE_SQL =
+            "INSERT INTO product_images (product_id, image_order, image_url) VALUES (?, ?, ?)";
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+            "sku", "name", "description", "brandId", "brandName", "categoryId", "categoryName",
+            "parentCategoryIds", "parentCategoryNames", "price", "currency", "weight", "dimensions", "images",
+            "color", "size", "status", "minOrderQuantity", "maxOrderQuantity", "active");
+
+    // Çok değerli CSV kolonlarında değerler '|' ile ayrılır
+    private static final Set<String> MULTI_VALUE_COLUMNS = Set.of("parentCategoryIds", "parentCategoryNames", "images");
+
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+    private static final int MAX_SLUG_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService validationPool;
+    private final Semaphore imports = new Semaphore(1);
+    private final int batchSize;
+    private final int window;
+    private final int maxReportedErrors;
+
+    // Çalışan içe aktarımda okunan satır sayısı
+    private final AtomicLong progress = new AtomicLong();
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter invalidRows;
+    private final Counter rejected;
+    private final Timer importTimer;
+
+    public ProductImportService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ProductSearchIndex productSearchIndex,
+            ProductFacetIndex productFacetIndex,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${product.import.threads:0}") int threads,
+            @Value("${product.import.batch-size:1000}") int batchSize,
+            @Value("${product.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+
+        int validationThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.window = validationThreads * 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.validationPool = Executors.newFixedThreadPool(validationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importedRows = Counter.builder("product.import.rows").tag("result", "imported").register(meterRegistry);
+        this.duplicateRows = Counter.builder("product.import.rows").tag("result", "duplicate").register(meterRegistry);
+        this.invalidRows = Counter.builder("product.import.rows").tag("result", "invalid").register(meterRegistry);
+        this.rejected = Counter.builder("product.import.rejected").register(meterRegistry);
+        this.importTimer = Timer.builder("product.import.time").register(meterRegistry);
+        Gauge.builder("product.import.progress", progress, AtomicLong::get)
+                .description("Çalışan içe aktarımda şu ana kadar okunan satır sayısı")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdownNow();
+    }
+
+    /**
+     * Ürünleri akıştan okuyup yazar. Akış kapatılmaz. Geçersiz satırlar atlanır ve sonuçta raporlanır;
+     * geçerli satırlar parça parça commit edildiği için yarıda kesilen bir içe aktarım o ana kadarki parçaları bırakır.
+     *
+     * @throws IllegalArgumentException CSV başlığı geçersiz
+     * @throws RejectedExecutionException başka bir içe aktarım çalışıyor
+     */
+    public ProductImportResult importProducts(InputStream in, Format format) throws IOException {
+        if (!imports.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Another product import is already running");
+        }
+        long startedAt = System.nanoTime();
+        progress.set(0);
+        try {
+            ImportRun run = new ImportRun(loadReferences());
+            RecordReader reader = new RecordReader(
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16), format);
+            pipeline(reader, run);
+
+            long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            log.info("Product import finished - Read: {}, Imported: {}, Duplicates: {}, Invalid: {}, Took: {} ms",
+                    run.read, run.imported, run.duplicates, run.invalid, tookMs);
+            if (run.imported > 0) {
+                rebuildIndexesAsync();
+            }
+            return new ProductImportResult(run.read, run.imported, run.duplicates, run.invalid, tookMs,
+                    List.copyOf(run.errors));
+        } finally {
+            importTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            imports.release();
+        }
+    }
+
+    private void pipeline(RecordReader reader, ImportRun run) throws IOException {
+        Deque<CompletableFuture<ValidatedChunk>> pending = new ArrayDeque<>();
+        try {
+            List<SourceRecord> chunk;
+            while (!(chunk = reader.next(batchSize)).isEmpty()) {
+                // Pencere doluysa önce en eski parçayı yaz; doğrulama yazıcının en fazla window parça önünde gider
+                while (pending.size() >= window) {
+                    write(pending.removeFirst(), run);
+                }
+                List<SourceRecord> records = chunk;
+                pending.addLast(CompletableFuture.supplyAsync(
+                        () -> validate(records, reader.header, run.references), validationPool));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.removeFirst(), run);
+            }
+        } finally {
+            // İstemci koptuysa bekleyen parçalar boşuna çalışmasın
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    // ===== Doğrulama (havuz thread'leri) =====
+
+    private ValidatedChunk validate(List<SourceRecord> records, String[] header, References references) {
+        List<ImportRow> rows = new ArrayList<>(records.size());
+        List<ProductImportResult.RowError> errors = new ArrayList<>();
+        for (SourceRecord record : records) {
+            ProductDTO dto = null;
+            try {
+                dto = header != null ? parseCsv(record, header) : objectMapper.readValue(record.text(), ProductDTO.class);
+                rows.add(toRow(dto, references));
+            } catch (IOException | RuntimeException e) {
+                errors.add(new ProductImportResult.RowError(record.line(), dto != null ? dto.getSku() : null,
+                        messageOf(e)));
+            }
+        }
+        return new ValidatedChunk(records.size(), rows, errors);
+    }
+
+    private ProductDTO parseCsv(SourceRecord record, String[] header) {
+        List<String> fields = splitCsv(record.text());
+        if (fields.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + fields.size());
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            values.put(header[i], MULTI_VALUE_COLUMNS.contains(header[i])
+                    ? Arrays.stream(value.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                    : value);
+        }
+        return objectMapper.convertValue(values, ProductDTO.class);
+    }
+
+    private ImportRow toRow(ProductDTO dto, References references) {
+        String sku = required(dto.getSku(), "sku", 50);
+        String name = required(dto.getName(), "name", 255);
+
+        BigDecimal price = dto.getPrice();
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("price must be greater than zero");
+        }
+        // price kolonu NUMERIC(10, 2)
+        if (price.scale() > 2 || price.precision() - price.scale() > 8) {
+            throw new IllegalArgumentException("price does not fit NUMERIC(10, 2): " + price);
+        }
+
+        long brandId = resolve(dto.getBrandId(), dto.getBrandName(), references.brandIds(), references.brandsByName(), "Brand");
+        long categoryId = resolve(dto.getCategoryId(), dto.getCategoryName(),
+                references.categoryIds(), references.categoriesByName(), "Category");
+
+        Set<Long> parentCategoryIds = new LinkedHashSet<>();
+        if (dto.getParentCategoryIds() != null) {
+            for (Long parentId : dto.getParentCategoryIds()) {
+                parentCategoryIds.add(resolve(parentId, null, references.categoryIds(), references.categoriesByName(),
+                        "Parent category"));
+            }
+        }
+        if (dto.getParentCategoryNames() != null) {
+            for (String parentName : dto.getParentCategoryNames()) {
+                parentCategoryIds.add(resolve(null, parentName, references.categoryIds(), references.categoriesByName(),
+                        "Parent category"));
+            }
+        }
+
+        int minOrderQuantity = dto.getMinOrderQuantity() != null ? dto.getMinOrderQuantity() : 1;
+        int maxOrderQuantity = dto.getMaxOrderQuantity() != null ? dto.getMaxOrderQuantity() : 999999;
+        if (minOrderQuantity < 1 || maxOrderQuantity < minOrderQuantity) {
+            throw new IllegalArgumentException("Invalid order quantity range: " + minOrderQuantity + "-" + maxOrderQuantity);
+        }
+
+        Product.ProductStatus status = dto.getStatus() != null
+                ? Product.ProductStatus.valueOf(dto.getStatus().trim().toUpperCase(Locale.ROOT))
+                : Product.ProductStatus.ACTIVE;
+
+        return new ImportRow(
+                sku,
+                name,
+                dto.getDescription(),
+                slugOf(name, sku),
+                brandId,
+                categoryId,
+                parentCategoryIds,
+                price,
+                dto.getCurrency() != null ? optional(dto.getCurrency(), "currency", 10) : "TRY",
+                dto.getWeight(),
+                optional(dto.getDimensions(), "dimensions", 100),
+                dto.getImages() != null ? dto.getImages() : List.of(),
+                optional(dto.getColor(), "color", 50),
+                optional(dto.getSize(), "size", 50),
+                status,
+                minOrderQuantity,
+                maxOrderQuantity,
+                dto.getActive() == null || dto.getActive());
+    }
+
+    private static long resolve(Long id, String name, Set<Long> ids, Map<String, Long> byName, String label) {
+        if (id != null) {
+            if (!ids.contains(id)) {
+                throw new IllegalArgumentException(label + " not found with id: " + id);
+            }
+            return id;
+        }
+        if (name != null && !name.isBlank()) {
+            Long resolved = byName.get(name.trim().toLowerCase(Locale.ROOT));
+            if (resolved == null) {
+                throw new IllegalArgumentException(label + " not found with name: " + name);
+            }
+            return resolved;
+        }
+        throw new IllegalArgumentException(label + " is required");
+    }
+
+    private static String required(String value, String field, int maxLength) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return optional(value, field, maxLength);
+    }
+
+    private static String optional(String value, String field, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    /**
+     * Ürün adından türetilen slug benzersiz olmayabilir (aynı adlı ürünler); SKU eklenerek benzersizleştirilir
+     */
+    private static String slugOf(String name, String sku) {
+        String skuSlug = ProductService.generateSlug(sku);
+        String nameSlug = ProductService.generateSlug(name);
+        int maxNameLength = MAX_SLUG_LENGTH - skuSlug.length() - 1;
+        if (nameSlug.length() > maxNameLength) {
+            nameSlug = nameSlug.substring(0, maxNameLength);
+        }
+        return nameSlug.isEmpty() ? skuSlug : nameSlug + "-" + skuSlug;
+    }
+
+    private static String messageOf(Exception e) {
+        Throwable cause = e.getCause() instanceof JsonProcessingException ? e.getCause() : e;
+        return cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+    }
+
+    // ===== Yazma (çağıran thread, dosya sırasıyla) =====
+
+    private void write(CompletableFuture<ValidatedChunk> future, ImportRun run) throws IOException {
+        ValidatedChunk chunk;
+        try {
+            chunk = future.join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+
+        run.read += chunk.read();
+        run.invalid += chunk.errors().size();
+        invalidRows.increment(chunk.errors().size());
+        for (ProductImportResult.RowError error : chunk.errors()) {
+            if (run.errors.size() >= maxReportedErrors) {
+                break;
+            }
+            run.errors.add(error);
+        }
+
+        List<ImportRow> unique = new ArrayList<>(chunk.rows().size());
+        for (ImportRow row : chunk.rows()) {
+            if (run.skus.add(row.sku())) {
+                unique.add(row);
+            }
+        }
+        int inserted = unique.isEmpty() ? 0 : insert(unique);
+        int duplicates = chunk.rows().size() - inserted;
+        run.imported += inserted;
+        run.duplicates += duplicates;
+        importedRows.increment(inserted);
+        duplicateRows.increment(duplicates);
+
+        long before = progress.getAndAdd(chunk.read());
+        if ((before + chunk.read()) / PROGRESS_LOG_INTERVAL > before / PROGRESS_LOG_INTERVAL) {
+            log.info("Product import progress - Read: {}, Imported: {}, Duplicates: {}, Invalid: {}",
+                    run.read, run.imported, run.duplicates, run.invalid);
+        }
+    }
+
+    /**
+     * Bir parçayı tek transaction'da yazar
+     *
+     * @return eklenen ürün sayısı; kalanlar veritabanında zaten olan SKU'lardır
+     */
+    private int insert(List<ImportRow> rows) {
+        Integer inserted = writeTransaction.execute(status -> {
+            List<Long> ids = allocateIds(rows.size());
+            List<PendingInsert> inserts = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                inserts.add(new PendingInsert(ids.get(i), rows.get(i)));
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, inserts, inserts.size(), (ps, insert) -> {
+                ImportRow row = insert.row();
+                ps.setLong(1, insert.id());
+                ps.setString(2, row.name());
+                ps.setString(3, row.description());
+                ps.setString(4, row.slug());
+                ps.setString(5, row.sku());
+                ps.setLong(6, row.brandId());
+                ps.setLong(7, row.categoryId());
+                ps.setBigDecimal(8, row.price());
+                ps.setString(9, row.currency());
+                ps.setObject(10, row.weight(), Types.INTEGER);
+                ps.setString(11, row.dimensions());
+                ps.setString(12, row.color());
+                ps.setString(13, row.size());
+                ps.setString(14, row.status().name());
+                ps.setInt(15, row.minOrderQuantity());
+                ps.setInt(16, row.maxOrderQuantity());
+                ps.setBoolean(17, row.active());
+                ps.setTimestamp(18, now);
+                ps.setTimestamp(19, now);
+            });
+
+            List<Object[]> parentCategories = new ArrayList<>();
+            List<Object[]> images = new ArrayList<>();
+            int count = 0;
+            for (int i = 0; i < inserts.size(); i++) {
+                if (counts[0][i] != 1) {
+                    continue;
+                }
+                count++;
+                PendingInsert insert = inserts.get(i);
+                for (Long parentId : insert.row().parentCategoryIds()) {
+                    parentCategories.add(new Object[]{insert.id(), parentId});
+                }
+                List<String> urls = insert.row().images();
+                for (int order = 0; order < urls.size(); order++) {
+                    images.add(new Object[]{insert.id(), order, urls.get(order)});
+                }
+            }
+            if (!parentCategories.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PARENT_CATEGORY_SQL, parentCategories);
+            }
+            if (!images.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+            }
+            return count;
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    /**
+     * Sequence'ten blok alır; her değer Hibernate'in pooled optimizer'ıyla aynı kuralla v-blok+1..v aralığına
+     * açılır. Sequence blok boyunun altında kalmadığı için ({@link com.v1.backend.config.IdSequenceMigration})
+     * içe aktarım ve Hibernate aynı id'yi vermez.
+     */
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        int blocks = (count + Product.ID_BLOCK_SIZE - 1) / Product.ID_BLOCK_SIZE;
+        for (Long hi : jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks)) {
+            for (long id = hi - Product.ID_BLOCK_SIZE + 1; id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private References loadReferences() {
+        Set<Long> brandIds = new HashSet<>();
+        Map<String, Long> brandsByName = new HashMap<>();
+        for (Reference brand : jdbcTemplate.query(BRANDS_SQL, Reference.ROW_MAPPER)) {
+            brandIds.add(brand.id());
+            brandsByName.put(brand.name().toLowerCase(Locale.ROOT), brand.id());
+        }
+
+        Set<Long> categoryIds = new HashSet<>();
+        Map<String, Long> categoriesByName = new HashMap<>();
+        for (Reference category : jdbcTemplate.query(CATEGORIES_SQL, Reference.ROW_MAPPER)) {
+            categoryIds.add(category.id());
+            categoriesByName.put(category.name().toLowerCase(Locale.ROOT), category.id());
+            // Slug'lar küçük harf; ad ile çakışırsa ad kazanır
+            categoriesByName.putIfAbsent(category.slug(), category.id());
+        }
+        log.info("Product import references loaded - Brands: {}, Categories: {}", brandIds.size(), categoryIds.size());
+        return new References(brandIds, brandsByName, categoryIds, categoriesByName);
+    }
+
+    private void rebuildIndexesAsync() {
+        Thread rebuild = new Thread(() -> {
+            productSearchIndex.rebuild();
+            productFacetIndex.rebuild();
+        }, "product-import-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * RFC 4180 CSV alanları: tırnaklı alanlarda virgül, satır sonu ve "" (tek tırnak) olabilir
+     */
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Akıştan kayıtları parça parça okur. CSV'de ilk kayıt başlıktır; tırnak içinde satır sonu olan kayıtlar
+     * birleştirilir. Boş satırlar atlanır.
+     */
+    private static final class RecordReader {
+
+        private final BufferedReader reader;
+        private final String[] header;
+        private long lineNumber;
+
+        RecordReader(BufferedReader reader, Format format) throws IOException {
+            this.reader = reader;
+            this.header = format == Format.CSV ? readHeader() : null;
+        }
+
+        private String[] readHeader() throws IOException {
+            SourceRecord first = nextRecord();
+            if (first == null) {
+                throw new IllegalArgumentException("CSV header is missing");
+            }
+            String text = first.text().startsWith("\uFEFF") ? first.text().substring(1) : first.text();
+            String[] columns = splitCsv(text).stream().map(String::trim).toArray(String[]::new);
+            for (String column : columns) {
+                if (!CSV_COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + column);
+                }
+            }
+            List<String> present = Arrays.asList(columns);
+            for (String column : List.of("sku", "name", "price")) {
+                if (!present.contains(column)) {
+                    throw new IllegalArgumentException("CSV column is required: " + column);
+                }
+            }
+            return columns;
+        }
+
+        List<SourceRecord> next(int max) throws IOException {
+            List<SourceRecord> records = new ArrayList<>(max);
+            SourceRecord record;
+            while (records.size() < max && (record = nextRecord()) != null) {
+                records.add(record);
+            }
+            return records;
+        }
+
+        private SourceRecord nextRecord() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    break;
+                }
+            }
+            if (line == null) {
+                return null;
+            }
+            long startLine = lineNumber;
+            if (header == null || !hasOpenQuote(line)) {
+                return new SourceRecord(startLine, line);
+            }
+            StringBuilder text = new StringBuilder(line);
+            String continuation;
+            while (hasOpenQuote(text) && (continuation = reader.readLine()) != null) {
+                lineNumber++;
+                text.append('\n').append(continuation);
+            }
+            return new SourceRecord(startLine, text.toString());
+        }
+
+        private static boolean hasOpenQuote(CharSequence text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes % 2 != 0;
+        }
+    }
+
+    private record SourceRecord(long line, String text) {
+    }
+
+    private record ValidatedChunk(int read, List<ImportRow> rows, List<ProductImportResult.RowError> errors) {
+    }
+
+    private record PendingInsert(long id, ImportRow row) {
+    }
+
+    private record ImportRow(
+            String sku,
+            String name,
+            String description,
+            String slug,
+            long brandId,
+            long categoryId,
+            Set<Long> parentCategoryIds,
+            BigDecimal price,
+            String currency,
+            Integer weight,
+            String dimensions,
+            List<String> images,
+            String color,
+            String size,
+            Product.ProductStatus status,
+            int minOrderQuantity,
+            int maxOrderQuantity,
+            boolean active) {
+    }
+
+    private record Reference(long id, String name, String slug) {
+        static final RowMapper<Reference> ROW_MAPPER =
+                (rs, rowNum) -> new Reference(rs.getLong("id"), rs.getString("name"), rs.getString("slug"));
+    }
+
+    private record References(
+            Set<Long> brandIds,
+            Map<String, Long> brandsByName,
+            Set<Long> categoryIds,
+            Map<String, Long> categoriesByName) {
+    }
+
+    /**
+     * Tek bir içe aktarımın durumu; sadece yazıcı thread'i değiştirir
+     */
+    private static final class ImportRun {
+
+        final References references;
+        final Set<String> skus = new HashSet<>();
+        final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        long read;
+        long imported;
+        long duplicates;
+        long invalid;
+
+        ImportRun(References references) {
+            this.references = references;
+        }
+    }
+}
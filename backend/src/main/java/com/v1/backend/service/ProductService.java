@@ -1,34 +1,77 @@
 package com.v1.backend.service;
 
+import com.v1.backend.cache.ProductReadCache;
+import com.v1.backend.dto.CursorPage;
+import com.v1.backend.exception.IndexNotReadyException;
 import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.dto.browse.ProductBrowseResponse;
 import com.v1.backend.model.Brand;
 import com.v1.backend.model.Category;
 import com.v1.backend.model.Product;
 import com.v1.backend.repository.BrandRepository;
 import com.v1.backend.repository.CategoryRepository;
 import com.v1.backend.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.v1.backend.search.FacetDocument;
+import com.v1.backend.search.ProductFacetIndex;
+import com.v1.backend.search.ProductSearchIndex;
+import com.v1.backend.search.SearchDocument;
+import com.v1.backend.utils.CursorCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 @Transactional
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductReadCache productReadCache;
+    // Cache okumaları transaction'sız; sadece miss'te (loader) transaction açılır
+    private final TransactionTemplate readTransaction;
+
+    public ProductService(
+            ProductRepository productRepository,
+            BrandRepository brandRepository,
+            CategoryRepository categoryRepository,
+            ProductSearchIndex productSearchIndex,
+            ProductFacetIndex productFacetIndex,
+            ProductReadCache productReadCache,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.brandRepository = brandRepository;
+        this.categoryRepository = categoryRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.productReadCache = productReadCache;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
 
     // CREATE
     public ProductDTO createProduct(ProductDTO productDTO) {
@@ -73,23 +116,25 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        syncIndexes(savedProduct);
         log.info("Product created successfully with id: {}", savedProduct.getId());
         return convertToDTO(savedProduct);
     }
 
     // READ
+    // SUPPORTS: cache hit'i transaction ve bağlantı almadan döner
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductDTO getProductById(Long id) {
         log.info("Fetching product with id: {}", id);
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        return convertToDTO(product);
+        return productReadCache.getById(id, this::readProductById);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ProductDTO getProductBySku(String sku) {
         log.info("Fetching product with SKU: {}", sku);
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
-        return convertToDTO(product);
+        return productReadCache.getBySku(sku,
+                key -> readTransaction.execute(status -> loadProductBySku(key)),
+                this::readProductById);
     }
 
     @Transactional(readOnly = true)
@@ -99,19 +144,60 @@ public class ProductService {
         return products.map(this::convertToDTO);
     }
 
+    // Keyset sayfalama: sayfa derinliğinden bağımsız maliyet, COUNT sorgusu yok
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getProductsByCursor(String cursor, int size) {
+        log.info("Fetching products by cursor - Size: {}", size);
+        CursorPage.requireValidSize(size);
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        Pageable slice = PageRequest.of(0, size + 1);
+        List<Product> products = position == null
+                ? productRepository.findActiveFirstSlice(slice)
+                : productRepository.findActiveSliceAfter(position.createdAt(), position.id(), slice);
+        return CursorPage.of(products, size, this::convertToDTO,
+                product -> CursorCodec.encode(product.getCreatedAt(), product.getId()));
+    }
+
     @Transactional(readOnly = true)
     public Page<ProductDTO> searchProducts(String keyword, Pageable pageable) {
         log.info("Searching products with keyword: {}", keyword);
-        Page<Product> products = productRepository.searchProducts(keyword, pageable);
-        return products.map(this::convertToDTO);
+        if (!productSearchIndex.isReady()) {
+            // İndeks henüz yüklenmedi, veritabanı aramasına düş
+            Page<Product> products = productRepository.searchProducts(keyword, pageable);
+            return products.map(this::convertToDTO);
+        }
+
+        ProductSearchIndex.SearchResult result =
+                productSearchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<Long, Product> productsById = productRepository.findByIdIn(result.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Veritabanı sırası değil, indeksin relevans sırası korunur
+        List<ProductDTO> content = result.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    public List<String> suggestSearchTerms(String prefix, int limit) {
+        return productSearchIndex.suggest(prefix, limit);
     }
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getProductsByCategory(Long categoryId, Pageable pageable) {
-        log.info("Fetching products for category: {}", categoryId);
+        return getProductsByCategory(categoryId, false, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> getProductsByCategory(Long categoryId, boolean includeSubcategories, Pageable pageable) {
+        log.info("Fetching products for category: {}, Include subcategories: {}", categoryId, includeSubcategories);
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
-        Page<Product> products = productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
+        Page<Product> products = includeSubcategories
+                ? productRepository.findByCategorySubtree(categoryId, pageable)
+                : productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
         return products.map(this::convertToDTO);
     }
 
@@ -131,11 +217,49 @@ public class ProductService {
         return products.map(this::convertToDTO);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<ProductDTO> getTopRatedProducts() {
         log.info("Fetching top 10 rated products");
-        List<Product> products = productRepository.findTop10ByStatusAndActiveTrueOrderByRatingDesc();
-        return products.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return productReadCache.getTopRated(() -> readTransaction.execute(status -> loadTopRatedProducts()));
+    }
+
+    List<ProductDTO> loadTopRatedProducts() {
+        return productRepository.findTop10ByStatusAndActiveTrueOrderByRatingDesc()
+                .stream().map(this::convertToDTO).collect(Collectors.toList());
+    }
+
+    // Birleşik filtreleme: facet indeksinden id + sayılar, veritabanından sadece sayfa
+    @Transactional(readOnly = true)
+    public ProductBrowseResponse browseProducts(Map<String, Set<String>> filters, Pageable pageable) {
+        log.info("Browsing products with filters: {}", filters);
+        if (!productFacetIndex.isReady()) {
+            throw new IndexNotReadyException("Product facet index is still loading");
+        }
+
+        ProductFacetIndex.BrowseResult result =
+                productFacetIndex.browse(filters, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<Long, Product> productsById = productRepository.findByIdIn(result.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDTO> content = result.ids().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        Map<String, List<ProductBrowseResponse.FacetValue>> facets = new LinkedHashMap<>();
+        result.facetCounts().forEach((facet, counts) -> facets.put(facet, counts.entrySet().stream()
+                .map(e -> new ProductBrowseResponse.FacetValue(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(ProductBrowseResponse.FacetValue::getCount).reversed())
+                .collect(Collectors.toList())));
+
+        return ProductBrowseResponse.builder()
+                .content(content)
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(result.total())
+                .totalPages((int) Math.ceil((double) result.total() / pageable.getPageSize()))
+                .facets(facets)
+                .build();
     }
 
     // NEW: Alt kategori filtresi - Slug ile
@@ -214,6 +338,7 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        syncIndexes(updatedProduct);
         log.info("Product updated successfully");
         return convertToDTO(updatedProduct);
     }
@@ -225,12 +350,14 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         product.setActive(false);
         productRepository.save(product);
+        removeFromIndexes(id);
         log.info("Product deleted (soft delete) successfully");
     }
 
     public void hardDeleteProduct(Long id) {
         log.info("Hard deleting product with id: {}", id);
         productRepository.deleteById(id);
+        removeFromIndexes(id);
         log.info("Product hard deleted successfully");
     }
 
@@ -241,12 +368,75 @@ public class ProductService {
     }
 
     // HELPER METHODS
-    private String generateSlug(String name) {
+    // ReactiveCatalogService de kullanır (cache miss)
+    ProductDTO loadProductById(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        return convertToDTO(product);
+    }
+
+    private ProductDTO readProductById(Long id) {
+        return readTransaction.execute(status -> loadProductById(id));
+    }
+
+    ProductDTO loadProductBySku(String sku) {
+        Product product = productRepository.findBySku(sku)
+                .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
+        return convertToDTO(product);
+    }
+
+    static String generateSlug(String name) {
         return name.toLowerCase()
                 .replaceAll("[^a-z0-9]+", "-")
                 .replaceAll("^-+|-+$", "");
     }
 
+    private void syncIndexes(Product product) {
+        Long id = product.getId();
+        productReadCache.evictAfterCommit(id);
+        if (Boolean.TRUE.equals(product.getActive()) && product.getStatus() == Product.ProductStatus.ACTIVE) {
+            SearchDocument searchDoc = new SearchDocument(id, product.getName(), product.getDescription());
+            FacetDocument facetDoc = new FacetDocument(
+                    id,
+                    product.getBrand() != null ? product.getBrand().getId() : null,
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    product.getParentCategories() != null ?
+                            product.getParentCategories().stream().map(Category::getId).collect(Collectors.toSet())
+                            : new HashSet<>(),
+                    product.getColor(),
+                    product.getSize(),
+                    product.getPrice());
+            afterCommit(() -> {
+                productSearchIndex.index(searchDoc);
+                productFacetIndex.index(facetDoc);
+            });
+        } else {
+            removeFromIndexes(id);
+        }
+    }
+
+    private void removeFromIndexes(Long id) {
+        productReadCache.evictAfterCommit(id);
+        afterCommit(() -> {
+            productSearchIndex.remove(id);
+            productFacetIndex.remove(id);
+        });
+    }
+
+    // İndeks sadece commit edilen veriyi görmeli; rollback olursa hiçbir şey yapılmaz
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     // UTILITY
     private ProductDTO convertToDTO(Product product) {
         Set<Long> parentCategoryIds = product.getParentCategories() != null ?
@@ -276,7 +466,8 @@ public class ProductService {
                 .currency(product.getCurrency())
                 .weight(product.getWeight())
                 .dimensions(product.getDimensions())
-                .images(product.getImages())
+                // Lazy koleksiyon servis içinde (batch fetch ile) yüklenir, JSON yazılırken değil
+                .images(product.getImages() != null ? new ArrayList<>(product.getImages()) : new ArrayList<>())
                 .color(product.getColor())
                 .size(product.getSize())
                 .rating(product.getRating())
@@ -0,0 +1,159 @@
+package com.v1.backend.service;
+
+import com.v1.backend.cache.CategoryTreeCache;
+import com.v1.backend.cache.ProductReadCache;
+import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.dto.category.CategoryDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Katalog okumalarının reaktif yüzü; MVC servisleriyle aynı DTO'ları döner.
+ * Cache isabetleri (Caffeine + reaktif Redis) hiç thread bloklamaz. Veritabanına gitmesi gereken okumalar
+ * ayrı bir scheduler'da çalışır; böylece istek thread'i (servlet async) beklemez. Scheduler'ın thread sayısı
+ * varsayılan olarak JDBC havuzunun dörtte biridir: reaktif okumalar havuzun tamamını alıp MVC isteklerini,
+ * listener'ları ve stok yazmalarını bağlantı beklemeye düşürmez.
+ */
+@Service
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogService {
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ProductReadCache productReadCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final TransactionTemplate readTransaction;
+    private final Scheduler jdbcScheduler;
+
+    public ReactiveCatalogService(
+            ProductService productService,
+            CategoryService categoryService,
+            ProductReadCache productReadCache,
+            CategoryTreeCache categoryTreeCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${catalog.reactive.jdbc-threads:0}") int jdbcThreads,
+            @Value("${catalog.reactive.jdbc-queue-size:1000}") int jdbcQueueSize) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.productReadCache = productReadCache;
+        this.categoryTreeCache = categoryTreeCache;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.jdbcScheduler = Schedulers.newBoundedElastic(jdbcThreads(poolSize, jdbcThreads), jdbcQueueSize, "catalog-jdbc");
+    }
+
+    /**
+     * Ayarlanmamışsa (0) havuzun dörtte biri, en az 1; ayarlanan değer de havuzun yarısını geçemez
+     */
+    static int jdbcThreads(int poolSize, int configured) {
+        int max = Math.max(1, poolSize / 2);
+        return configured > 0 ? Math.min(configured, max) : Math.max(1, poolSize / 4);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jdbcScheduler.dispose();
+    }
+
+    // ===== Products =====
+
+    public Mono<ProductDTO> getProductById(Long id) {
+        return productReadCache.getByIdReactive(id, this::loadProductById);
+    }
+
+    public Mono<ProductDTO> getProductBySku(String sku) {
+        return productReadCache.getBySkuReactive(sku,
+                key -> onJdbc(() -> readTransaction.execute(status -> productService.loadProductBySku(key))),
+                this::loadProductById);
+    }
+
+    public Flux<ProductDTO> getTopRatedProducts() {
+        return productReadCache.getTopRatedReactive(
+                        () -> onJdbc(() -> readTransaction.execute(status -> productService.loadTopRatedProducts())))
+                .flatMapIterable(products -> products);
+    }
+
+    public Mono<Page<ProductDTO>> getAllProducts(Pageable pageable) {
+        return onJdbc(() -> productService.getAllProducts(pageable));
+    }
+
+    public Mono<Page<ProductDTO>> searchProducts(String keyword, Pageable pageable) {
+        return onJdbc(() -> productService.searchProducts(keyword, pageable));
+    }
+
+    public Flux<String> suggestSearchTerms(String prefix, int limit) {
+        // Bellekteki trie'den okunur, thread değiştirmeye gerek yok
+        return Flux.defer(() -> Flux.fromIterable(productService.suggestSearchTerms(prefix, limit)));
+    }
+
+    public Mono<Page<ProductDTO>> getProductsByCategory(Long categoryId, boolean includeSubcategories, Pageable pageable) {
+        return onJdbc(() -> productService.getProductsByCategory(categoryId, includeSubcategories, pageable));
+    }
+
+    public Mono<Page<ProductDTO>> getProductsByBrand(Long brandId, Pageable pageable) {
+        return onJdbc(() -> productService.getProductsByBrand(brandId, pageable));
+    }
+
+    public Mono<Page<ProductDTO>> getProductsByPriceRange(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                          Pageable pageable) {
+        return onJdbc(() -> productService.getProductsByPriceRange(categoryId, minPrice, maxPrice, pageable));
+    }
+
+    // ===== Categories =====
+
+    public Mono<List<CategoryDTO>> getAllMainCategories() {
+        return onCategoryTree(categoryService::getAllMainCategories);
+    }
+
+    public Mono<List<CategoryDTO>> getAllActiveCategories() {
+        return onCategoryTree(categoryService::getAllActiveCategories);
+    }
+
+    public Mono<CategoryDTO> getCategoryById(Long id) {
+        return onCategoryTree(() -> categoryService.getCategoryById(id));
+    }
+
+    public Mono<CategoryDTO> getCategoryBySlug(String slug) {
+        return onCategoryTree(() -> categoryService.getCategoryBySlug(slug));
+    }
+
+    public Mono<List<CategoryDTO>> getDirectSubcategories(Long parentId) {
+        return onCategoryTree(() -> categoryService.getDirectSubcategories(parentId));
+    }
+
+    public Mono<List<CategoryDTO>> getSubcategories(Long parentId) {
+        return onCategoryTree(() -> categoryService.getSubCategories(parentId));
+    }
+
+    public Mono<List<CategoryDTO>> searchCategories(String searchTerm) {
+        return onCategoryTree(() -> categoryService.searchCategories(searchTerm));
+    }
+
+    private Mono<ProductDTO> loadProductById(Long id) {
+        return onJdbc(() -> readTransaction.execute(status -> productService.loadProductById(id)));
+    }
+
+    // Ağaç bellekte kuruluysa okuma istek thread'inde yapılır; sadece ilk kurulum veritabanına gider
+    private <T> Mono<T> onCategoryTree(Callable<T> read) {
+        return categoryTreeCache.isLoaded() ? Mono.fromCallable(read) : onJdbc(read);
+    }
+
+    private <T> Mono<T> onJdbc(Callable<T> query) {
+        return Mono.fromCallable(query).subscribeOn(jdbcScheduler);
+    }
+}
@@ -1,67 +1,54 @@
 package com.v1.backend.service;
 
 import com.v1.backend.event.StockReservedEvent;
+import com.v1.backend.kafka.SagaBatchProcessor;
 import com.v1.backend.model.Order;
-import com.v1.backend.repository.OrderRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderTransition;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ShipmentService {
 
-    private final OrderRepository orderRepository;
+    private final SagaBatchProcessor sagaBatchProcessor;
 
     @KafkaListener(
             topics = "stock-reserved",
             groupId = "shipment-service-group",
-            concurrency = "3"
-    )
-    @Transactional
-    @CircuitBreaker(
-            name = "shipmentPreparation",
-            fallbackMethod = "shipmentPreparationFallback"
-    )
-    @Retry(
-            name = "shipmentPreparation",
-            fallbackMethod = "shipmentPreparationFallback"
+            concurrency = "${saga.listener.concurrency:3}",
+            containerFactory = "sagaBatchListenerFactory"
     )
-    public void prepareShipment(StockReservedEvent event) {
+    public void prepareShipments(List<ConsumerRecord<String, StockReservedEvent>> records) {
+        sagaBatchProcessor.process(records, StockReservedEvent::getOrderNumber, this::prepareShipment);
+    }
+
+    private OrderTransition prepareShipment(StockReservedEvent event, OrderSagaState order) {
         log.info("Kargo hazırlığı başlat - OrderId: {}, OrderNumber: {}",
                 event.getOrderId(), event.getOrderNumber());
 
-        try {
-            Order order = orderRepository.findById(event.getOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId()));
-
-            if (!order.getStatus().equals(Order.OrderStatus.STOCK_RESERVED)) {
-                log.warn("Sipariş durumu uygun değil - OrderId: {}, Status: {}",
-                        event.getOrderId(), order.getStatus());
-                return;
-            }
-
-            // Siparişi gönderime hazır olarak işaretle
-            order.markAsReadyForShipment();
-            orderRepository.save(order);
-
-            log.info("Sipariş gönderime hazır - OrderId: {}, OrderNumber: {}",
-                    event.getOrderId(), event.getOrderNumber());
+        if (order == null) {
+            throw new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId());
+        }
 
-        } catch (Exception e) {
-            log.error("Kargo hazırlığında hata - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
-            throw new RuntimeException("Kargo hazırlığı başarısız", e);
+        if (order.status() != Order.OrderStatus.STOCK_RESERVED) {
+            log.warn("Sipariş durumu uygun değil - OrderId: {}, Status: {}",
+                    event.getOrderId(), order.status());
+            return null;
         }
-    }
 
-    public void shipmentPreparationFallback(StockReservedEvent event, Exception ex) {
-        log.error("FALLBACK: Kargo hazırlığı başarısız - OrderId: {}, Hata: {}",
-                event.getOrderId(), ex.getMessage(), ex);
+        // Siparişi gönderime hazır olarak işaretle
+        OrderTransition ready = order.to(Order.OrderStatus.READY_FOR_SHIPMENT);
+
+        log.info("Sipariş gönderime hazır - OrderId: {}, OrderNumber: {}",
+                event.getOrderId(), event.getOrderNumber());
+        return ready;
     }
-}
\ No newline at end of file
+}
@@ -3,22 +3,27 @@ package com.v1.backend.service;
 import com.v1.backend.event.PaymentSuccessEvent;
 import com.v1.backend.event.StockReservationFailedEvent;
 import com.v1.backend.event.StockReservedEvent;
+import com.v1.backend.kafka.SagaBatchProcessor;
 import com.v1.backend.kafka.StockKafkaProducer;
 import com.v1.backend.model.Order;
-import com.v1.backend.model.OrderItem;
-import com.v1.backend.model.Product;
-import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderTransition;
+import com.v1.backend.repository.OrderItemRepository;
 import com.v1.backend.repository.ProductRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import com.v1.backend.stock.OrderStockLine;
+import com.v1.backend.stock.StockLedger;
+import com.v1.backend.stock.StockLine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,159 +31,109 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StockService {
 
-    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final StockKafkaProducer stockKafkaProducer;
+    private final StockLedger stockLedger;
+    private final SagaBatchProcessor sagaBatchProcessor;
 
     @KafkaListener(
             topics = "payment-success",
             groupId = "stock-service-group",
-            concurrency = "3"
+            concurrency = "${saga.listener.concurrency:3}",
+            containerFactory = "sagaBatchListenerFactory"
     )
-    @Transactional
-    @CircuitBreaker(
-            name = "stockReservation",
-            fallbackMethod = "stockReservationFallback"
-    )
-    @Retry(
-            name = "stockReservation",
-            fallbackMethod = "stockReservationFallback"
-    )
-    public void reserveStock(PaymentSuccessEvent event) {
+    public void reserveStock(List<ConsumerRecord<String, PaymentSuccessEvent>> records) {
+        // Batch'teki tüm siparişlerin satırları tek sorguda (sipariş satırları oluşturulduktan sonra değişmez)
+        Set<Long> orderIds = records.stream()
+                .map(ConsumerRecord::value)
+                .filter(Objects::nonNull)
+                .map(PaymentSuccessEvent::getOrderId)
+                .collect(Collectors.toSet());
+        Map<Long, List<StockLine>> linesByOrder = orderIds.isEmpty() ? Map.of()
+                : orderItemRepository.findStockLinesByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderStockLine::orderId,
+                        Collectors.mapping(OrderStockLine::toStockLine, Collectors.toList())));
+
+        // Batch tek transaction'da işlenir; veritabanı yolundaki ürün satırları baştan id sırasıyla kilitlenir ki
+        // aynı ürünleri farklı sırada içeren eşzamanlı batch'ler birbirini kilitlemesin
+        sagaBatchProcessor.process(records, PaymentSuccessEvent::getOrderNumber,
+                events -> stockLedger.lockRows(events.stream()
+                        .flatMap(event -> linesByOrder.getOrDefault(event.getOrderId(), List.of()).stream())
+                        .map(StockLine::productId)
+                        .toList()),
+                (event, order) -> reserveStock(event, order, linesByOrder.getOrDefault(event.getOrderId(), List.of())));
+    }
+
+    private OrderTransition reserveStock(PaymentSuccessEvent event, OrderSagaState order, List<StockLine> lines) {
         log.info("Stok rezervasyonu başlat - OrderId: {}, OrderNumber: {}",
                 event.getOrderId(), event.getOrderNumber());
 
-        try {
-            Order order = orderRepository.findById(event.getOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId()));
-
-            if (!order.getStatus().equals(Order.OrderStatus.PAYMENT_CONFIRMED)) {
-                log.warn("Sipariş durumu uygun değil - OrderId: {}, Status: {}",
-                        event.getOrderId(), order.getStatus());
-                return;
-            }
-
-            // Stok kontrolü ve rezervasyonu
-            for (OrderItem item : order.getItems()) {
-                Product product = item.getProduct();
-
-                if (!product.hasStock(item.getQuantity())) {
-                    throw new IllegalArgumentException(
-                            String.format("Yetersiz stok - ProductId: %d, Gerekli: %d, Mevcut: %d",
-                                    product.getId(), item.getQuantity(), product.getStock())
-                    );
-                }
-
-                // Stoğu düş
-                product.decreaseStock(item.getQuantity());
-                productRepository.save(product);
-
-                log.info("Stok düşürüldü - ProductId: {}, Quantity: {}, YeniStok: {}",
-                        product.getId(), item.getQuantity(), product.getStock());
-            }
-
-            // Order statüsünü güncelle
-            order.markAsConfirmed();
-            orderRepository.save(order);
-
-            // StockReservedEvent yayınla
-            List<StockReservedEvent.StockItem> stockItems = order.getItems().stream()
-                    .map(item -> StockReservedEvent.StockItem.builder()
-                            .productId(item.getProduct().getId())
-                            .quantity(item.getQuantity())
-                            .build())
-                    .collect(Collectors.toList());
-
-            StockReservedEvent stockReservedEvent = StockReservedEvent.builder()
-                    .orderId(event.getOrderId())
-                    .orderNumber(event.getOrderNumber())
-                    .userId(event.getUserId())
-                    .items(stockItems)
-                    .reservedAt(LocalDateTime.now())
-                    .build();
+        if (order == null) {
+            throw new IllegalArgumentException("Sipariş bulunamadı: " + event.getOrderId());
+        }
 
-            stockKafkaProducer.publishStockReserved(stockReservedEvent);
+        if (order.status() != Order.OrderStatus.PAYMENT_CONFIRMED) {
+            log.warn("Sipariş durumu uygun değil - OrderId: {}, Status: {}",
+                    event.getOrderId(), order.status());
+            return null;
+        }
 
-            log.info("Stok başarıyla rezerve edildi - OrderId: {}, OrderNumber: {}",
-                    event.getOrderId(), event.getOrderNumber());
+        if (order.paymentStatus() != Order.PaymentStatus.PAID) {
+            throw new IllegalStateException("Ödeme yapılmamış siparişler onaylanamaz");
+        }
 
-        } catch (IllegalArgumentException e) {
-            log.error("Stok rezervasyonu başarısız - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
+        // Tüm satırlar tek seferde koşullu düşülür; biri bile yetmezse siparişin hiçbir satırı düşülmez
+        List<StockLine> failedLines = stockLedger.reserveAll(lines);
+        if (!failedLines.isEmpty()) {
+            String reason = insufficientStockMessage(failedLines);
+            log.error("Stok rezervasyonu başarısız - OrderId: {}, Hata: {}", event.getOrderId(), reason);
 
-            try {
-                Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-                if (order != null) {
-                    order.setStatus(Order.OrderStatus.STOCK_RESERVATION_FAILED);
-                    orderRepository.save(order);
-                }
-            } catch (Exception saveEx) {
-                log.error("Order güncelleme başarısız - OrderId: {}", event.getOrderId(), saveEx);
-            }
+            OrderTransition failed = order.to(Order.OrderStatus.STOCK_RESERVATION_FAILED);
 
             StockReservationFailedEvent failedEvent = StockReservationFailedEvent.builder()
                     .orderId(event.getOrderId())
                     .orderNumber(event.getOrderNumber())
                     .userId(event.getUserId())
-                    .reason(e.getMessage())
+                    .reason(reason)
                     .failedAt(LocalDateTime.now())
                     .build();
-
             stockKafkaProducer.publishStockReservationFailed(failedEvent);
+            return failed;
+        }
 
-            throw e;
+        OrderTransition reserved = order.to(Order.OrderStatus.STOCK_RESERVED);
 
-        } catch (Exception e) {
-            log.error("Stok rezervasyonunda beklenmeyen hata - OrderId: {}, Hata: {}",
-                    event.getOrderId(), e.getMessage(), e);
+        List<StockReservedEvent.StockItem> stockItems = lines.stream()
+                .map(line -> StockReservedEvent.StockItem.builder()
+                        .productId(line.productId())
+                        .quantity(line.quantity())
+                        .build())
+                .collect(Collectors.toList());
 
-            try {
-                Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-                if (order != null) {
-                    order.setStatus(Order.OrderStatus.STOCK_RESERVATION_FAILED);
-                    orderRepository.save(order);
-                }
-            } catch (Exception saveEx) {
-                log.error("Order güncelleme başarısız - OrderId: {}", event.getOrderId(), saveEx);
-            }
+        StockReservedEvent stockReservedEvent = StockReservedEvent.builder()
+                .orderId(event.getOrderId())
+                .orderNumber(event.getOrderNumber())
+                .userId(event.getUserId())
+                .items(stockItems)
+                .reservedAt(LocalDateTime.now())
+                .build();
 
-            StockReservationFailedEvent failedEvent = StockReservationFailedEvent.builder()
-                    .orderId(event.getOrderId())
-                    .orderNumber(event.getOrderNumber())
-                    .userId(event.getUserId())
-                    .reason(e.getMessage())
-                    .failedAt(LocalDateTime.now())
-                    .build();
-
-            stockKafkaProducer.publishStockReservationFailed(failedEvent);
+        stockKafkaProducer.publishStockReserved(stockReservedEvent);
 
-            throw new RuntimeException("Stok rezervasyonu başarısız", e);
-        }
+        log.info("Stok başarıyla rezerve edildi - OrderId: {}, OrderNumber: {}",
+                event.getOrderId(), event.getOrderNumber());
+        return reserved;
     }
 
-    public void stockReservationFallback(PaymentSuccessEvent event, Exception ex) {
-        log.error("FALLBACK: Stok rezervasyonu başarısız - OrderId: {}, Hata: {}",
-                event.getOrderId(), ex.getMessage(), ex);
-
-        try {
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order != null) {
-                order.setStatus(Order.OrderStatus.STOCK_RESERVATION_FAILED);
-                orderRepository.save(order);
-            }
-
-            StockReservationFailedEvent failedEvent = StockReservationFailedEvent.builder()
-                    .orderId(event.getOrderId())
-                    .orderNumber(event.getOrderNumber())
-                    .userId(event.getUserId())
-                    .reason("Sistem hatası: " + ex.getMessage())
-                    .failedAt(LocalDateTime.now())
-                    .build();
-
-            stockKafkaProducer.publishStockReservationFailed(failedEvent);
-
-        } catch (Exception e) {
-            log.error("Fallback da hata - OrderId: {}", event.getOrderId(), e);
-        }
+    /**
+     * Düşülemeyen satırlar için hata mesajı; mevcut stok sadece bu (başarısız) durumda okunur
+     */
+    private String insufficientStockMessage(List<StockLine> failedLines) {
+        return failedLines.stream()
+                .map(line -> String.format("Yetersiz stok - ProductId: %d, Gerekli: %d, Mevcut: %s",
+                        line.productId(), line.quantity(),
+                        productRepository.findStockById(line.productId()).map(String::valueOf).orElse("ürün yok")))
+                .collect(Collectors.joining("; "));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.v1.backend.stock;
+
+/**
+ * Bir siparişe ait stok satırı (entity yüklemeden okunan projeksiyon)
+ */
+public record OrderStockLine(Long orderId, Long productId, Integer quantity) {
+
+    public StockLine toStockLine() {
+        return new StockLine(productId, quantity);
+    }
+}
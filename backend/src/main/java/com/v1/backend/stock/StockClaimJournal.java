@@ -0,0 +1,200 @@
+package com.v1.backend.stock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StockLedger}'ın veritabanından ayırıp henüz sayaç stripe'larına dağıtmadığı stoğun (rezerv) kaydı.
+ * <ul>
+ *   <li>Node'un her üründeki rezervi {@code stock_claims}'te tek satırdır. Satır sadece stok ayrılırken ve
+ *       stripe'lara blok halinde dağıtılırken, products.stock düşümüyle aynı transaction'da güncellenir;
+ *       sayaçtan satış veritabanına yazılmaz.</li>
+ *   <li>Stripe'lardaki stok kayıtlı değildir: satılmış olabileceği için iade edilmez. Node çökerse
+ *       en fazla stripe'larda kalan (bir dolum bloğu kadar) stok kaybolur, fazla satış olmaz.</li>
+ *   <li>Node {@code stock_claim_nodes}'ta bir kira (lease) tutar ve heartbeat ile yeniler. Heartbeat'i kira süresini
+ *       geçen node'un (çökmüş, kill -9) rezervleri herhangi bir node tarafından products.stock'a eklenip silinir.
+ *       İade önce node satırını siler, sonra rezerv satırlarını kilitler; böylece node'un eşzamanlı dolumu ya
+ *       iadeden önce commit olur ya da satırını bulamayıp reddedilir.</li>
+ *   <li>Saat olarak uygulama saati (UTC) kullanılır; node'lar arası saat farkı kira süresinden çok küçük olmalıdır.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class StockClaimJournal {
+
+    private static final String UPDATE_SQL =
+            "UPDATE stock_claims SET quantity = ? WHERE node_id = ? AND product_id = ?";
+
+    // Satırın ilk kaydı node satırı kilitlenerek yapılır; node silinmişse (rezervleri iade edilmişse) kayıt reddedilir
+    private static final String LOCK_NODE_SQL =
+            "SELECT node_id FROM stock_claim_nodes WHERE node_id = ? FOR UPDATE";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_claims (node_id, product_id, quantity, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT quantity FROM stock_claims WHERE node_id = ? AND product_id = ? FOR UPDATE";
+
+    private static final String DELETE_SQL = "DELETE FROM stock_claims WHERE node_id = ? AND product_id = ?";
+
+    private static final String REGISTER_SQL =
+            "INSERT INTO stock_claim_nodes (node_id, heartbeat_at) VALUES (?, ?)";
+
+    // Satır yoksa kira dolmuş ve rezervler iade edilmiştir; aynı id ile yeniden kayıt yapılmaz
+    private static final String HEARTBEAT_SQL =
+            "UPDATE stock_claim_nodes SET heartbeat_at = ? WHERE node_id = ?";
+
+    private static final String EXPIRED_SQL = "SELECT node_id FROM stock_claim_nodes WHERE heartbeat_at < ?";
+
+    // Eşzamanlı iki node aynı node'u bir kez siler; bu arada heartbeat geldiyse silinmez
+    private static final String EXPIRE_SQL = "DELETE FROM stock_claim_nodes WHERE node_id = ? AND heartbeat_at < ?";
+
+    private static final String HELD_SQL =
+            "SELECT product_id, quantity FROM stock_claims WHERE node_id = ? ORDER BY product_id FOR UPDATE";
+
+    private static final String RETURN_SQL =
+            "UPDATE products SET stock = stock + ?, version = COALESCE(version, 0) + 1 WHERE id = ?";
+
+    private static final String DELETE_NODE_CLAIMS_SQL = "DELETE FROM stock_claims WHERE node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final long leaseSeconds;
+    private final long validNanos;
+
+    private volatile String nodeId = UUID.randomUUID().toString();
+    // Son başarılı heartbeat'in başladığı an (System.nanoTime); 0 = kira yok
+    private volatile long lastHeartbeat;
+
+    public StockClaimJournal(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${stock.ledger.lease-seconds:30}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseSeconds = leaseSeconds;
+        this.validNanos = TimeUnit.SECONDS.toNanos(leaseSeconds) / 2;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Kira geçerliyse node veritabanından stok ayırabilir
+     */
+    public boolean leaseValid() {
+        long last = lastHeartbeat;
+        return last != 0 && System.nanoTime() - last < validNanos;
+    }
+
+    /**
+     * Kirayı yeniler (yeni node id için oluşturur)
+     *
+     * @return yenilenemediyse false; kira iade edildiyse kira da geçersiz olur
+     */
+    public boolean heartbeat() {
+        long start = System.nanoTime();
+        try {
+            if (lastHeartbeat == 0) {
+                jdbcTemplate.update(REGISTER_SQL, nodeId, now());
+            } else if (jdbcTemplate.update(HEARTBEAT_SQL, now(), nodeId) == 0) {
+                log.warn("Stok kirası başka node tarafından iade edilmiş - NodeId: {}", nodeId);
+                lastHeartbeat = 0;
+                return false;
+            }
+            lastHeartbeat = start;
+            return true;
+        } catch (Exception e) {
+            log.warn("Stok kirası yenilenemedi - NodeId: {}, Hata: {}", nodeId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Kirayı bırakır; eski node id'nin rezervleri kira dolunca iade edilir, node yeni id ile devam eder
+     */
+    public void abandonLease() {
+        String previous = nodeId;
+        nodeId = UUID.randomUUID().toString();
+        lastHeartbeat = 0;
+        log.warn("Stok kirası geçersiz sayıldı, node id değişti - Eski: {}, Yeni: {}", previous, nodeId);
+    }
+
+    /**
+     * Node'un üründeki rezervini çağıranın transaction'ında yazar (products.stock düşümüyle birlikte)
+     *
+     * @return node'un rezervleri iade edildiği için reddedildiyse false; çağıran transaction'ı geri almalıdır
+     */
+    public boolean hold(String nodeId, Long productId, int quantity) {
+        if (jdbcTemplate.update(UPDATE_SQL, quantity, nodeId, productId) == 1) {
+            return true;
+        }
+        if (jdbcTemplate.queryForList(LOCK_NODE_SQL, String.class, nodeId).isEmpty()) {
+            return false;
+        }
+        jdbcTemplate.update(INSERT_SQL, nodeId, productId, quantity, now());
+        return true;
+    }
+
+    /**
+     * Node'un üründeki rezerv satırını çağıranın transaction'ında siler
+     *
+     * @return silinen rezerv; satır yoksa (kira dolunca iade edildiyse) 0
+     */
+    public int release(String nodeId, Long productId) {
+        List<Integer> held = jdbcTemplate.queryForList(SELECT_SQL, Integer.class, nodeId, productId);
+        if (held.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(DELETE_SQL, nodeId, productId);
+        return held.get(0);
+    }
+
+    /**
+     * Kirası dolan node'ların rezervlerini iade eder; her node kendi transaction'ında
+     *
+     * @return ürün id -> iade edilen miktar
+     */
+    public Map<Long, Integer> recoverExpired() {
+        LocalDateTime cutoff = now().minusSeconds(leaseSeconds);
+        Map<Long, Integer> recovered = new TreeMap<>();
+        for (String expired : jdbcTemplate.queryForList(EXPIRED_SQL, String.class, cutoff)) {
+            ownTransaction.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(EXPIRE_SQL, expired, cutoff) == 0) {
+                    return;
+                }
+                log.warn("Kirası dolan node'un stoğu iade ediliyor - NodeId: {}", expired);
+                List<Object[]> held = new ArrayList<>();
+                jdbcTemplate.query(HELD_SQL, rs -> {
+                    if (rs.getInt(2) > 0) {
+                        held.add(new Object[]{rs.getInt(2), rs.getLong(1)});
+                    }
+                }, expired);
+                jdbcTemplate.batchUpdate(RETURN_SQL, held);
+                jdbcTemplate.update(DELETE_NODE_CLAIMS_SQL, expired);
+                held.forEach(row -> recovered.merge((Long) row[1], (Integer) row[0], Integer::sum));
+            });
+        }
+        return recovered;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
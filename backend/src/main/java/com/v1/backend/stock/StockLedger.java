@@ -0,0 +1,439 @@
+package com.v1.backend.stock;
+
+import com.v1.backend.repository.ProductRepository;
+import com.v1.backend.utils.SavepointScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stok rezervasyonlarının giriş noktası.
+ * Normal ürünlerde stok tek koşullu UPDATE ile doğrudan veritabanından düşer.
+ * Saniyede eşik üstü rezervasyon alan (hot) veya config'de işaretlenmiş ürünlerde node, veritabanından
+ * parça parça stok ayırır ve rezervasyonları {@link StripedStockCounter} üzerinden kilitsiz karşılar;
+ * böylece flash sale sırasında aynı satır için optimistic lock hataları ve retry fırtınası oluşmaz.
+ * <p>
+ * Hot üründe node'un ayırdığı ama henüz satmadığı stok veritabanındaki stock sütununda görünmez;
+ * ürün soğuyunca veya uygulama kapanırken veritabanına iade edilir. Ayrılan stok önce node'un rezervine
+ * ({@link StockClaimJournal}) yazılır ve sayaca refill-size'lık bloklar halinde dağıtılır; veritabanına satış başına
+ * değil blok başına yazılır. Node çökerse rezervi kirası dolunca diğer node'lar tarafından iade edilir, sayaçta
+ * kalan (en fazla bir blok) stok kaybolur. Kira geçerli değilse yeni stok ayrılmaz ve rezervasyonlar veritabanı
+ * yolundan yapılır.
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private final ProductRepository productRepository;
+    private final StockClaimJournal journal;
+    private final TransactionTemplate ownTransaction;
+    private final int stripes;
+    private final int claimSize;
+    private final int refillSize;
+    private final int hotThreshold;
+    private final long idleMillis;
+    private final Set<Long> pinnedProductIds;
+
+    private final Map<Long, HotProduct> hot = new ConcurrentHashMap<>();
+    // Son bir saniyedeki rezervasyon sayıları (hot tespiti için)
+    private final Map<Long, LongAdder> rates = new ConcurrentHashMap<>();
+    // Transaction'a bağlı kaynak anahtarı: bu transaction'ın kilitlediği ürün satırları
+    private final Object lockedRowsKey = new Object();
+
+    private final Counter databaseReservations;
+    private final Counter stripedReservations;
+    private final Counter claims;
+
+    private static final class HotProduct {
+        // Rezervin kayıtlı olduğu node id'si
+        private final String nodeId;
+        private StripedStockCounter counter;
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Node'un rezervi (kayıttaki miktar); sadece sayacın dolumunda değişir, aynı anda tek dolum yapılır
+        private volatile int held;
+
+        private HotProduct(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    public StockLedger(
+            ProductRepository productRepository,
+            StockClaimJournal journal,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${stock.ledger.stripes:8}") int stripes,
+            @Value("${stock.ledger.claim-size:50}") int claimSize,
+            @Value("${stock.ledger.refill-size:10}") int refillSize,
+            @Value("${stock.ledger.hot-threshold-per-second:50}") int hotThreshold,
+            @Value("${stock.ledger.idle-seconds:30}") long idleSeconds,
+            @Value("${stock.ledger.hot-product-ids:}") Set<Long> pinnedProductIds) {
+        this.productRepository = productRepository;
+        this.journal = journal;
+        // Ayrılan stok, rezervasyonu yapan transaction geri alınsa bile ayrılmış kalmalı
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ownTransaction.setTimeout(5);
+        this.stripes = stripes;
+        this.claimSize = claimSize;
+        this.refillSize = Math.max(1, Math.min(refillSize, claimSize));
+        this.hotThreshold = hotThreshold;
+        this.idleMillis = idleSeconds * 1000;
+        this.pinnedProductIds = pinnedProductIds;
+
+        this.databaseReservations = Counter.builder("stock.ledger.reservations").tag("path", "database").register(meterRegistry);
+        this.stripedReservations = Counter.builder("stock.ledger.reservations").tag("path", "striped").register(meterRegistry);
+        this.claims = Counter.builder("stock.ledger.claims").register(meterRegistry);
+        Gauge.builder("stock.ledger.hot.products", hot, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Stoktan düşer. Aktif bir transaction varsa ve geri alınırsa düşülen stok iade edilir.
+     *
+     * @return stok yetmediyse false
+     */
+    public boolean reserve(Long productId, int quantity) {
+        HotProduct product = hotProduct(productId);
+
+        if (product != null) {
+            product.lastAccess = System.currentTimeMillis();
+            if (product.counter.tryReserve(quantity)) {
+                releaseOnRollback(product, productId, quantity);
+                stripedReservations.increment();
+                return true;
+            }
+            if (!product.counter.isRetired()) {
+                return false;
+            }
+            // Ürün tam bu sırada soğudu, veritabanı yoluna düş
+        }
+
+        databaseReservations.increment();
+        lockedRows().add(productId);
+        return productRepository.decrementStock(productId, quantity) == 1;
+    }
+
+    /**
+     * Birden fazla siparişi aynı transaction'da rezerve etmeden önce veritabanı yolundaki ürün satırlarını
+     * id sırasıyla kilitler; böylece batch'ler arasında kilit sırası tutarlı olur (deadlock olmaz).
+     * Kilitlenen ürünler bu transaction boyunca hot yoluna alınmaz (sayaç dolumu kendi kilidini beklerdi).
+     */
+    public void lockRows(Collection<Long> productIds) {
+        Set<Long> sorted = new TreeSet<>();
+        for (Long productId : productIds) {
+            HotProduct product = hot.get(productId);
+            if (product == null || product.counter.isRetired() || !journal.leaseValid()) {
+                sorted.add(productId);
+            }
+        }
+        if (!sorted.isEmpty()) {
+            lockedRows().addAll(sorted);
+            productRepository.lockStockRows(new ArrayList<>(sorted));
+        }
+    }
+
+    /**
+     * Siparişin tüm satırlarını düşer. Hot ürünler sayaçtan, diğerleri tek JDBC batch'te koşullu UPDATE ile düşülür.
+     * Aynı ürünün satırları birleştirilir; satırlar ürün id sırasıyla işlenir ki eşzamanlı siparişler
+     * satır kilitlerini aynı sırada alsın (deadlock olmasın).
+     * <p>
+     * Ya hepsi ya hiçbiri: başarısız satır varsa başarılı olanlar aynı transaction içinde geri alınır, böylece
+     * aynı transaction'daki diğer siparişler etkilenmez. Hepsi başarılıysa transaction geri alındığında iade edilir.
+     *
+     * @return düşülemeyen satırlar; boşsa hepsi rezerve edildi
+     */
+    public List<StockLine> reserveAll(List<StockLine> lines) {
+        Map<Long, Integer> merged = new TreeMap<>();
+        for (StockLine line : lines) {
+            merged.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+
+        List<StockLine> failed = new ArrayList<>();
+        List<StockLine> striped = new ArrayList<>();
+        List<StockLine> database = new ArrayList<>();
+        Map<Long, HotProduct> owners = new HashMap<>();
+        merged.forEach((productId, quantity) -> {
+            HotProduct product = hotProduct(productId);
+            if (product != null) {
+                product.lastAccess = System.currentTimeMillis();
+                if (product.counter.tryReserve(quantity)) {
+                    striped.add(new StockLine(productId, quantity));
+                    owners.put(productId, product);
+                    return;
+                }
+                if (!product.counter.isRetired()) {
+                    failed.add(new StockLine(productId, quantity));
+                    return;
+                }
+            }
+            database.add(new StockLine(productId, quantity));
+        });
+
+        if (!database.isEmpty()) {
+            lockedRows().addAll(database.stream().map(StockLine::productId).toList());
+            failed.addAll(productRepository.decrementStockBatch(database));
+        }
+
+        if (!failed.isEmpty()) {
+            striped.forEach(line -> release(owners.get(line.productId()), line.productId(), line.quantity()));
+            List<StockLine> decremented = new ArrayList<>(database);
+            decremented.removeAll(failed);
+            productRepository.incrementStockBatch(decremented);
+            return failed;
+        }
+
+        stripedReservations.increment(striped.size());
+        databaseReservations.increment(database.size());
+        striped.forEach(line -> releaseOnRollback(owners.get(line.productId()), line.productId(), line.quantity()));
+        return failed;
+    }
+
+    /**
+     * Satılmamış veya satışı commit olmamış stoğu sayaca, sayaç kapandıysa veritabanına geri bırakır
+     */
+    private void release(HotProduct product, Long productId, int quantity) {
+        if (!product.counter.release(quantity)) {
+            returnToDatabase(productId, quantity);
+        }
+    }
+
+    /**
+     * Kirayı yeniler ve kirası dolan node'ların rezervlerini iade eder.
+     * Kira yenilenemez ve geçerliliği de dolmuşsa sayaçlar veritabanına iade edilir ve node yeni id ile devam eder.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void maintain() {
+        if (!journal.heartbeat() && !journal.leaseValid()) {
+            leaseLost();
+            return;
+        }
+        try {
+            Map<Long, Integer> recovered = journal.recoverExpired();
+            recovered.forEach((productId, quantity) ->
+                    log.warn("Çöken node'un stoğu iade edildi - ProductId: {}, Miktar: {}", productId, quantity));
+        } catch (Exception e) {
+            log.error("Stok kaydı bakımı yapılamadı - Hata: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Her saniye rezervasyon sayaçlarını sıfırlar; bir süredir rezervasyon almayan hot ürünlerin
+     * stoğunu veritabanına iade eder
+     */
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        rates.clear();
+        long now = System.currentTimeMillis();
+        hot.forEach((productId, product) -> {
+            if (!pinnedProductIds.contains(productId) && now - product.lastAccess > idleMillis) {
+                demote(productId, product);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hot.forEach(this::demote);
+    }
+
+    private HotProduct hotProduct(Long productId) {
+        if (!journal.leaseValid() || isLockedRow(productId)) {
+            return null;
+        }
+        HotProduct product = hot.get(productId);
+        if (product != null && !product.nodeId.equals(journal.nodeId())) {
+            // Kira bırakılmış; sayaç ve varsa eski id'nin rezervi iade edilir
+            demote(productId, product);
+            product = null;
+        }
+        if (product == null && isHot(productId)) {
+            product = promote(productId);
+        }
+        return product;
+    }
+
+    private boolean isHot(Long productId) {
+        if (pinnedProductIds.contains(productId)) {
+            return true;
+        }
+        LongAdder rate = rates.computeIfAbsent(productId, id -> new LongAdder());
+        rate.increment();
+        return rate.sum() >= hotThreshold;
+    }
+
+    private HotProduct promote(Long productId) {
+        return hot.computeIfAbsent(productId, id -> {
+            log.info("Ürün hot olarak işaretlendi, stok stripe'lara bölünüyor - ProductId: {}, Stripe: {}", id, stripes);
+            HotProduct product = new HotProduct(journal.nodeId());
+            product.counter = new StripedStockCounter(stripes, needed -> refill(id, product, needed));
+            return product;
+        });
+    }
+
+    private void demote(Long productId, HotProduct product) {
+        if (!hot.remove(productId, product)) {
+            return;
+        }
+        long remaining = product.counter.retire();
+        try {
+            int returned = ownTransaction.execute(status -> {
+                // Rezerv satırı yoksa kira dolunca zaten iade edildi
+                int total = journal.release(product.nodeId, productId) + (int) remaining;
+                if (total > 0) {
+                    productRepository.incrementStock(productId, total);
+                }
+                return total;
+            });
+            log.info("Ürün hot listesinden çıkarıldı - ProductId: {}, İadeEdilenStok: {}", productId, returned);
+        } catch (Exception e) {
+            log.error("Hot ürünün stoğu veritabanına iade edilemedi - ProductId: {}, Sayaçtaki: {}, Hata: {}",
+                    productId, remaining, e.getMessage());
+        }
+    }
+
+    /**
+     * Kira iade edildi veya dolmak üzere: eski id'nin sayaçları iade edilir, node yeni id ile devam eder.
+     * Veritabanına ulaşılamazsa rezervler kira dolunca diğer node'lar tarafından iade edilir.
+     */
+    private void leaseLost() {
+        String lost = journal.nodeId();
+        journal.abandonLease();
+        hot.forEach((productId, product) -> {
+            if (product.nodeId.equals(lost)) {
+                demote(productId, product);
+            }
+        });
+    }
+
+    /**
+     * Sayaca en az needed, en fazla refillSize (needed büyükse needed) birim verir. Rezerv yetmezse veritabanından
+     * claimSize'a kadar stok ayrılır; diğer node'lara da kalsın diye kalan stoğun yarısından fazlası alınmaz.
+     * Rezervin yeni değeri stok düşümüyle aynı transaction'da yazılır. Sayacın kilidi dışında çağrılır.
+     */
+    private int refill(Long productId, HotProduct product, int needed) {
+        if (!journal.leaseValid() || !product.nodeId.equals(journal.nodeId())) {
+            return 0;
+        }
+        int block = Math.max(needed, refillSize);
+        int held = product.held;
+        int[] claimed = new int[1];
+        try {
+            Integer granted = ownTransaction.execute(status -> {
+                if (held < block) {
+                    int stock = productRepository.findStockById(productId).orElse(0);
+                    int amount = Math.max(block - held, Math.min(claimSize, (stock + 1) / 2));
+                    if (amount > stock || productRepository.decrementStock(productId, amount) != 1) {
+                        amount = Math.max(0, needed - held);
+                        if (amount > 0 && productRepository.decrementStock(productId, amount) != 1) {
+                            return 0;
+                        }
+                    }
+                    claimed[0] = amount;
+                }
+                int grant = Math.min(block, held + claimed[0]);
+                if (!journal.hold(product.nodeId, productId, held + claimed[0] - grant)) {
+                    status.setRollbackOnly();
+                    return -1;
+                }
+                return grant;
+            });
+            if (granted != null && granted < 0) {
+                // Rezervler kira dolunca iade edilmiş; sayaçlar bir sonraki erişimde iade edilir
+                if (product.nodeId.equals(journal.nodeId())) {
+                    journal.abandonLease();
+                }
+                return 0;
+            }
+            if (granted != null && granted > 0) {
+                product.held = held + claimed[0] - granted;
+                if (claimed[0] > 0) {
+                    claims.increment();
+                    log.debug("Veritabanından stok ayrıldı - ProductId: {}, Miktar: {}", productId, claimed[0]);
+                }
+                return granted;
+            }
+        } catch (Exception e) {
+            log.error("Veritabanından stok ayrılamadı - ProductId: {}, Hata: {}", productId, e.getMessage());
+        }
+        return 0;
+    }
+
+    private void returnToDatabase(Long productId, int quantity) {
+        try {
+            ownTransaction.executeWithoutResult(status -> productRepository.incrementStock(productId, quantity));
+        } catch (Exception e) {
+            log.error("Stok veritabanına iade edilemedi - ProductId: {}, Miktar: {}, Hata: {}",
+                    productId, quantity, e.getMessage());
+        }
+    }
+
+    private void releaseOnRollback(HotProduct product, Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // Savepoint geri alınır ve dış transaction commit olursa da bırakılır; iki yol da sadece bir kez bırakır
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releaseOnce = () -> {
+            if (released.compareAndSet(false, true)) {
+                release(product, productId, quantity);
+            }
+        };
+        SavepointScope.onRollback(releaseOnce);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releaseOnce.run();
+                }
+            }
+        });
+    }
+
+    private boolean isLockedRow(Long productId) {
+        Object locked = TransactionSynchronizationManager.getResource(lockedRowsKey);
+        return locked instanceof Set<?> rows && rows.contains(productId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> lockedRows() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<Long> locked = (Set<Long>) TransactionSynchronizationManager.getResource(lockedRowsKey);
+        if (locked == null) {
+            Set<Long> rows = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(lockedRowsKey, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(lockedRowsKey);
+                }
+            });
+            locked = rows;
+        }
+        return locked;
+    }
+}
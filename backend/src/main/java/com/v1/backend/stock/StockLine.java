@@ -0,0 +1,7 @@
+package com.v1.backend.stock;
+
+/**
+ * Stok düşümü yapılacak tek bir satır (entity yüklemeden okunan projeksiyon)
+ */
+public record StockLine(Long productId, Integer quantity) {
+}
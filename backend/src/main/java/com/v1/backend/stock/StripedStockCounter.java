@@ -0,0 +1,193 @@
+package com.v1.backend.stock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tek bir ürünün node'a ayrılmış stoğunu N alt sayaca (stripe) bölen kilitsiz sayaç.
+ * Rezervasyonlar rastgele bir stripe'tan CAS ile düşer; eşzamanlı istekler çoğunlukla farklı
+ * stripe'lara düştüğü için aynı sayaç üzerinde yarışmazlar.
+ * Hiçbir stripe isteği tek başına karşılayamazsa kilit altında tüm stripe'lar toplanıp eşit dağıtılır.
+ * Yine yetmezse kaynaktan (veritabanı) yeni stok kilit dışında alınır; aynı anda tek dolum yapılır, dolum
+ * sürerken gelen istekler onun sonucunu bekler (virtual thread'ler monitor'de sabitlenmez).
+ * Her birim kaynaktan bir kez alındığı ve CAS ile bir kez düşüldüğü için fazla satış olmaz.
+ */
+public final class StripedStockCounter {
+
+    // Her stripe ayrı cache line'da dursun (false sharing olmasın)
+    private static final int PADDING = 8;
+
+    /**
+     * Stok kaynağı (ör. veritabanı). Stripe'lar yetmediğinde çağrılır.
+     */
+    @FunctionalInterface
+    public interface Refill {
+        /**
+         * @param needed istek için en az gereken miktar
+         * @return kaynaktan alınan miktar; needed'dan azsa 0 dönmeli (kısmi alım yapılmaz)
+         */
+        int claim(int needed);
+    }
+
+    private final int stripes;
+    private final AtomicLongArray counters;
+    private final Refill refill;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean retired;
+    // Süren dolum; sonucu alınan miktardır. lock altında okunur/yazılır
+    private CompletableFuture<Integer> pendingRefill;
+
+    public StripedStockCounter(int stripes, Refill refill) {
+        this.stripes = Math.max(1, stripes);
+        this.counters = new AtomicLongArray(this.stripes * PADDING);
+        this.refill = refill;
+    }
+
+    /**
+     * @return rezervasyon yapıldıysa true; stok yoksa veya sayaç emekliye ayrıldıysa false
+     */
+    public boolean tryReserve(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            long current = counters.get(index);
+            while (current >= quantity) {
+                if (counters.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = counters.get(index);
+            }
+        }
+        return rebalanceAndReserve(quantity);
+    }
+
+    /**
+     * Geri bırakılan stoğu sayaca ekler
+     *
+     * @return sayaç emekliye ayrıldıysa false (stok kaynağa iade edilmeli)
+     */
+    public boolean release(int quantity) {
+        lock.lock();
+        try {
+            if (retired) {
+                return false;
+            }
+            counters.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sayacı kapatır ve içindeki stoğu döner; bundan sonraki rezervasyonlar false döner.
+     * Süren bir dolum varsa biter ve aldığı stok da dönülen miktara eklenir.
+     * Dolum ({@link Refill#claim}) içinden çağrılmamalı.
+     */
+    public long retire() {
+        long total;
+        CompletableFuture<Integer> refilling;
+        lock.lock();
+        try {
+            retired = true;
+            total = drain();
+            refilling = pendingRefill;
+        } finally {
+            lock.unlock();
+        }
+        if (refilling != null) {
+            total += refilling.join();
+        }
+        return total;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Anlık toplam (yaklaşık; eşzamanlı rezervasyonlar sırasında değişebilir)
+     */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += counters.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean rebalanceAndReserve(int quantity) {
+        while (true) {
+            CompletableFuture<Integer> refilling;
+            boolean owner = false;
+            long total;
+            lock.lock();
+            try {
+                if (retired) {
+                    return false;
+                }
+                total = drain();
+                if (total >= quantity) {
+                    spread(total - quantity);
+                    return true;
+                }
+                spread(total);
+                refilling = pendingRefill;
+                if (refilling == null) {
+                    refilling = new CompletableFuture<>();
+                    pendingRefill = refilling;
+                    owner = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            int claimed = owner ? refill(refilling, (int) (quantity - total)) : refilling.join();
+            if (claimed == 0) {
+                return false;
+            }
+            // Alınan stok stripe'lara eklendi; eşzamanlı istekler de ondan rezerve etmiş olabilir, yeniden dene
+        }
+    }
+
+    /**
+     * Kaynaktan kilit dışında stok alır ve stripe'lara ekler; sayaç bu sırada kapandıysa stok
+     * {@link #retire()}'ın döndüğü miktara eklenir
+     */
+    private int refill(CompletableFuture<Integer> refilling, int needed) {
+        int claimed = 0;
+        try {
+            claimed = refill.claim(needed);
+        } finally {
+            lock.lock();
+            try {
+                pendingRefill = null;
+                if (!retired) {
+                    spread(claimed);
+                }
+            } finally {
+                lock.unlock();
+            }
+            refilling.complete(claimed);
+        }
+        return claimed;
+    }
+
+    private long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += counters.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    private void spread(long total) {
+        long share = total / stripes;
+        long remainder = total % stripes;
+        for (int i = 0; i < stripes; i++) {
+            counters.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+}
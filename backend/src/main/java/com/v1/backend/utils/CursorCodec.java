@@ -0,0 +1,50 @@
+package com.v1.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset sayfalama için (createdAt, id) çiftini opak bir token'a çevirir.
+ * İstemci token'ın içeriğine bakmaz, sadece bir sonraki istekte geri gönderir.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+    }
+
+    public record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    /**
+     * @throws IllegalArgumentException createdAt veya id boşsa (kaydedilmemiş satırdan cursor üretilemez)
+     */
+    public static String encode(LocalDateTime createdAt, Long id) {
+        if (createdAt == null || id == null) {
+            throw new IllegalArgumentException("Cursor için createdAt ve id gerekli - Id: " + id);
+        }
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Token'ı çözer; boş token ilk sayfa demektir ve null döner
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Geçersiz cursor: " + token);
+        }
+    }
+}
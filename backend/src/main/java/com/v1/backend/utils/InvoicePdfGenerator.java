@@ -2,6 +2,7 @@ package com.v1.backend.utils;
 
 import com.v1.backend.model.Order;
 import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
@@ -9,37 +10,72 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 
 @Component
 @RequiredArgsConstructor
 public class InvoicePdfGenerator {
 
+    private static final String COMPANY_NAME = "TechHub";
+    private static final String COMPANY_CONTACT = "TechHub E-Commerce\ninfo@techhub.com | 0212 XXX XX XX";
+    private static final String FOOTER_TEXT =
+            "Bu belge otomatik olarak oluşturulmuştur. İmza gerekmemektedir.\nTeşekkür ederiz!";
+
+    // Yazı tipleri bir kez yüklenir; Font nesneleri sadece okunur, thread'ler arasında paylaşılabilir
+    private static final BaseFont REGULAR = baseFont(BaseFont.HELVETICA);
+    private static final BaseFont BOLD = baseFont(BaseFont.HELVETICA_BOLD);
+
+    private static final Font TITLE_FONT = new Font(BOLD, 24, Font.NORMAL, BaseColor.CYAN);
+    private static final Font HEADER_FONT = new Font(REGULAR, 11, Font.NORMAL, BaseColor.DARK_GRAY);
+    private static final Font INVOICE_TITLE_FONT = new Font(BOLD, 16);
+    private static final Font SECTION_FONT = new Font(BOLD, 11, Font.NORMAL, BaseColor.DARK_GRAY);
+    private static final Font TABLE_HEADER_FONT = new Font(BOLD, 11, Font.NORMAL, BaseColor.WHITE);
+    private static final Font TOTAL_FONT = new Font(BOLD, 13, Font.NORMAL, BaseColor.CYAN);
+    private static final Font FOOTER_FONT = new Font(REGULAR, 9, Font.NORMAL, BaseColor.LIGHT_GRAY);
+    private static final Font LABEL_FONT = new Font(BOLD, 11);
+    private static final Font VALUE_FONT = new Font(REGULAR, 11);
+    private static final Font CELL_FONT = new Font(REGULAR, 10);
+
+    private static final String[] ITEM_HEADERS = {"Ürün", "Adet", "Birim Fiyatı", "Toplam"};
+
+    private static BaseFont baseFont(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("Fatura yazı tipi yüklenemedi: " + name, e);
+        }
+    }
+
     public byte[] generateInvoicePdf(Order order) throws DocumentException {
-        Document document = new Document();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter.getInstance(document, baos);
+        writeInvoicePdf(order, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Faturayı doğrudan verilen akışa yazar (ara byte[] yok). Akış kapatılmaz.
+     */
+    public void writeInvoicePdf(Order order, OutputStream out) throws DocumentException {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
         document.open();
 
         // Header
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 24, Font.BOLD, BaseColor.CYAN);
-        Paragraph title = new Paragraph("TechHub", titleFont);
+        Paragraph title = new Paragraph(COMPANY_NAME, TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         document.add(title);
 
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 11, Font.NORMAL, BaseColor.DARK_GRAY);
-        Paragraph headerInfo = new Paragraph(
-                "TechHub E-Commerce\ninfo@techhub.com | 0212 XXX XX XX",
-                headerFont
-        );
+        Paragraph headerInfo = new Paragraph(COMPANY_CONTACT, HEADER_FONT);
         headerInfo.setAlignment(Element.ALIGN_CENTER);
         document.add(headerInfo);
 
         document.add(new Paragraph(" ")); // Space
 
         // Invoice Title
-        Font invoiceTitleFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-        Paragraph invoiceTitle = new Paragraph("FATURA", invoiceTitleFont);
+        Paragraph invoiceTitle = new Paragraph("FATURA", INVOICE_TITLE_FONT);
         invoiceTitle.setAlignment(Element.ALIGN_CENTER);
         document.add(invoiceTitle);
 
@@ -51,36 +87,36 @@ public class InvoicePdfGenerator {
         detailsTable.setSpacingBefore(10f);
 
         // Fatura No
-        PdfPCell cellLabel = new PdfPCell(new Phrase("Fatura No:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+        PdfPCell cellLabel = new PdfPCell(new Phrase("Fatura No:", LABEL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setPaddingBottom(5);
         detailsTable.addCell(cellLabel);
 
-        PdfPCell cellValue = new PdfPCell(new Phrase(order.getOrderNumber(), new Font(Font.FontFamily.HELVETICA, 11)));
+        PdfPCell cellValue = new PdfPCell(new Phrase(order.getOrderNumber(), VALUE_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setPaddingBottom(5);
         detailsTable.addCell(cellValue);
 
         // Fatura Tarihi
-        cellLabel = new PdfPCell(new Phrase("Fatura Tarihi:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+        cellLabel = new PdfPCell(new Phrase("Fatura Tarihi:", LABEL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setPaddingBottom(5);
         detailsTable.addCell(cellLabel);
 
         String dateStr = order.getCreatedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-        cellValue = new PdfPCell(new Phrase(dateStr, new Font(Font.FontFamily.HELVETICA, 11)));
+        cellValue = new PdfPCell(new Phrase(dateStr, VALUE_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setPaddingBottom(5);
         detailsTable.addCell(cellValue);
 
         // Ödeme Durumu
-        cellLabel = new PdfPCell(new Phrase("Ödeme Durumu:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+        cellLabel = new PdfPCell(new Phrase("Ödeme Durumu:", LABEL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setPaddingBottom(5);
         detailsTable.addCell(cellLabel);
 
         String paymentStatus = order.getPaymentStatus().name().equals("PAID") ? "Ödendi" : "Bekleniyor";
-        cellValue = new PdfPCell(new Phrase(paymentStatus, new Font(Font.FontFamily.HELVETICA, 11)));
+        cellValue = new PdfPCell(new Phrase(paymentStatus, VALUE_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setPaddingBottom(5);
         detailsTable.addCell(cellValue);
@@ -89,8 +125,7 @@ public class InvoicePdfGenerator {
         document.add(new Paragraph(" "));
 
         // Customer Info Section
-        Font sectionFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, BaseColor.DARK_GRAY);
-        document.add(new Paragraph("MÜŞTERİ BİLGİLERİ", sectionFont));
+        document.add(new Paragraph("MÜŞTERİ BİLGİLERİ", SECTION_FONT));
 
         PdfPTable customerTable = new PdfPTable(1);
         customerTable.setWidthPercentage(100);
@@ -104,7 +139,7 @@ public class InvoicePdfGenerator {
                 order.getShippingAddress()
         );
 
-        PdfPCell customerCell = new PdfPCell(new Phrase(customerInfo, new Font(Font.FontFamily.HELVETICA, 10)));
+        PdfPCell customerCell = new PdfPCell(new Phrase(customerInfo, CELL_FONT));
         customerCell.setBorder(Rectangle.BOX);
         customerCell.setPadding(10);
         customerTable.addCell(customerCell);
@@ -113,7 +148,7 @@ public class InvoicePdfGenerator {
         document.add(new Paragraph(" "));
 
         // Items Table
-        document.add(new Paragraph("ÜRÜNLER", sectionFont));
+        document.add(new Paragraph("ÜRÜNLER", SECTION_FONT));
 
         PdfPTable itemsTable = new PdfPTable(4);
         itemsTable.setWidthPercentage(100);
@@ -121,9 +156,8 @@ public class InvoicePdfGenerator {
         itemsTable.setWidths(new float[]{40, 15, 15, 15});
 
         // Header Row
-        String[] headers = {"Ürün", "Adet", "Birim Fiyatı", "Toplam"};
-        for (String header : headers) {
-            PdfPCell headerCell = new PdfPCell(new Phrase(header, new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, BaseColor.WHITE)));
+        for (String header : ITEM_HEADERS) {
+            PdfPCell headerCell = new PdfPCell(new Phrase(header, TABLE_HEADER_FONT));
             headerCell.setBackgroundColor(BaseColor.CYAN);
             headerCell.setPadding(8);
             headerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
@@ -134,22 +168,22 @@ public class InvoicePdfGenerator {
         order.getItems().forEach(item -> {
             PdfPCell cell;
 
-            cell = new PdfPCell(new Phrase(item.getProduct().getName(), new Font(Font.FontFamily.HELVETICA, 10)));
+            cell = new PdfPCell(new Phrase(item.getProduct().getName(), CELL_FONT));
             cell.setPadding(5);
             itemsTable.addCell(cell);
 
-            cell = new PdfPCell(new Phrase(String.valueOf(item.getQuantity()), new Font(Font.FontFamily.HELVETICA, 10)));
+            cell = new PdfPCell(new Phrase(String.valueOf(item.getQuantity()), CELL_FONT));
             cell.setPadding(5);
             cell.setHorizontalAlignment(Element.ALIGN_CENTER);
             itemsTable.addCell(cell);
 
-            cell = new PdfPCell(new Phrase("₺" + item.getUnitPrice().toPlainString(), new Font(Font.FontFamily.HELVETICA, 10)));
+            cell = new PdfPCell(new Phrase("₺" + item.getUnitPrice().toPlainString(), CELL_FONT));
             cell.setPadding(5);
             cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
             itemsTable.addCell(cell);
 
             double total = item.getUnitPrice().doubleValue() * item.getQuantity();
-            cell = new PdfPCell(new Phrase("₺" + String.format("%.2f", total), new Font(Font.FontFamily.HELVETICA, 10)));
+            cell = new PdfPCell(new Phrase("₺" + String.format("%.2f", total), CELL_FONT));
             cell.setPadding(5);
             cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
             itemsTable.addCell(cell);
@@ -164,49 +198,49 @@ public class InvoicePdfGenerator {
         summaryTable.setHorizontalAlignment(Element.ALIGN_RIGHT);
 
         // Subtotal
-        cellLabel = new PdfPCell(new Phrase("Ara Toplam:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+        cellLabel = new PdfPCell(new Phrase("Ara Toplam:", LABEL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
         summaryTable.addCell(cellLabel);
 
-        cellValue = new PdfPCell(new Phrase("₺" + order.getSubtotal().toPlainString(), new Font(Font.FontFamily.HELVETICA, 11)));
+        cellValue = new PdfPCell(new Phrase("₺" + order.getSubtotal().toPlainString(), VALUE_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setHorizontalAlignment(Element.ALIGN_RIGHT);
         summaryTable.addCell(cellValue);
 
         // Shipping
-        cellLabel = new PdfPCell(new Phrase("Kargo:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+        cellLabel = new PdfPCell(new Phrase("Kargo:", LABEL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
         summaryTable.addCell(cellLabel);
 
         String shippingText = order.getShippingCost().compareTo(java.math.BigDecimal.ZERO) == 0 ? "Ücretsiz" : "₺" + order.getShippingCost().toPlainString();
-        cellValue = new PdfPCell(new Phrase(shippingText, new Font(Font.FontFamily.HELVETICA, 11)));
+        cellValue = new PdfPCell(new Phrase(shippingText, VALUE_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setHorizontalAlignment(Element.ALIGN_RIGHT);
         summaryTable.addCell(cellValue);
 
         // Tax
         if (order.getTaxAmount() != null && order.getTaxAmount().compareTo(java.math.BigDecimal.ZERO) > 0) {
-            cellLabel = new PdfPCell(new Phrase("Vergi:", new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD)));
+            cellLabel = new PdfPCell(new Phrase("Vergi:", LABEL_FONT));
             cellLabel.setBorder(Rectangle.NO_BORDER);
             cellLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
             summaryTable.addCell(cellLabel);
 
-            cellValue = new PdfPCell(new Phrase("₺" + order.getTaxAmount().toPlainString(), new Font(Font.FontFamily.HELVETICA, 11)));
+            cellValue = new PdfPCell(new Phrase("₺" + order.getTaxAmount().toPlainString(), VALUE_FONT));
             cellValue.setBorder(Rectangle.NO_BORDER);
             cellValue.setHorizontalAlignment(Element.ALIGN_RIGHT);
             summaryTable.addCell(cellValue);
         }
 
         // Total
-        cellLabel = new PdfPCell(new Phrase("TOPLAM:", new Font(Font.FontFamily.HELVETICA, 13, Font.BOLD, BaseColor.CYAN)));
+        cellLabel = new PdfPCell(new Phrase("TOPLAM:", TOTAL_FONT));
         cellLabel.setBorder(Rectangle.NO_BORDER);
         cellLabel.setHorizontalAlignment(Element.ALIGN_RIGHT);
         cellLabel.setPaddingTop(10);
         summaryTable.addCell(cellLabel);
 
-        cellValue = new PdfPCell(new Phrase("₺" + order.getTotalPrice().toPlainString(), new Font(Font.FontFamily.HELVETICA, 13, Font.BOLD, BaseColor.CYAN)));
+        cellValue = new PdfPCell(new Phrase("₺" + order.getTotalPrice().toPlainString(), TOTAL_FONT));
         cellValue.setBorder(Rectangle.NO_BORDER);
         cellValue.setHorizontalAlignment(Element.ALIGN_RIGHT);
         cellValue.setPaddingTop(10);
@@ -216,15 +250,10 @@ public class InvoicePdfGenerator {
         document.add(new Paragraph(" "));
 
         // Footer
-        Font footerFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, BaseColor.LIGHT_GRAY);
-        Paragraph footer = new Paragraph(
-                "Bu belge otomatik olarak oluşturulmuştur. İmza gerekmemektedir.\nTeşekkür ederiz!",
-                footerFont
-        );
+        Paragraph footer = new Paragraph(FOOTER_TEXT, FOOTER_FONT);
         footer.setAlignment(Element.ALIGN_CENTER);
         document.add(footer);
 
         document.close();
-        return baos.toByteArray();
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.v1.backend.utils;
+
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * NESTED (savepoint) transaction içinde yapılan bellek değişikliklerinin geri alınması.
+ * Spring sadece dış transaction bitince haber verir (afterCompletion); savepoint'e dönüldüğünde veritabanı
+ * geri alınır ama bellekteki etkiler (ör. sayaçtan ayrılan stok) kalır. Savepoint içinde kaydedilen işler
+ * savepoint geri alınınca çalışır.
+ */
+public final class SavepointScope {
+
+    private static final ThreadLocal<Deque<List<Runnable>>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SavepointScope() {
+    }
+
+    /**
+     * İşi savepoint içinde çalıştırır; exception fırlatırsa veya rollback-only işaretlenirse kaydedilen işler çalışır
+     *
+     * @param savepoint PROPAGATION_NESTED ile ayarlanmış template
+     */
+    public static <T> T execute(TransactionTemplate savepoint, TransactionCallback<T> action) {
+        List<Runnable> onRollback = new ArrayList<>();
+        Deque<List<Runnable>> scopes = SCOPES.get();
+        scopes.push(onRollback);
+        boolean rolledBack = true;
+        try {
+            boolean[] rollbackOnly = new boolean[1];
+            T result = savepoint.execute(status -> {
+                T value = action.doInTransaction(status);
+                rollbackOnly[0] = status.isRollbackOnly();
+                return value;
+            });
+            rolledBack = rollbackOnly[0];
+            return result;
+        } finally {
+            scopes.pop();
+            if (rolledBack) {
+                for (int i = onRollback.size() - 1; i >= 0; i--) {
+                    onRollback.get(i).run();
+                }
+            } else if (!scopes.isEmpty()) {
+                // Dıştaki savepoint geri alınırsa bu işler de geri alınmalı
+                scopes.peek().addAll(onRollback);
+            }
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+
+    /**
+     * Açık savepoint varsa işi ona kaydeder
+     *
+     * @return savepoint yoksa false
+     */
+    public static boolean onRollback(Runnable action) {
+        List<Runnable> scope = SCOPES.get().peek();
+        if (scope == null) {
+            SCOPES.remove();
+            return false;
+        }
+        scope.add(action);
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+package com.v1.backend.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.v1.backend.dto.order.CreateOrderRequest;
+import com.v1.backend.dto.order.OrderResponse;
+import com.v1.backend.kafka.OrderKafkaProducer;
+import com.v1.backend.model.Order;
+import com.v1.backend.model.OrderItem;
+import com.v1.backend.model.Product;
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.repository.ProductRepository;
+import com.v1.backend.repository.UserRepository;
+import com.v1.backend.service.CartService;
+import com.v1.backend.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Sipariş kurma maliyeti, satır sayısına göre:
+ * <ul>
+ *   <li>createOrder: {@link OrderService#createOrder}; ürünler tek {@code findAllById} ile yüklenir,
+ *       aynı ürünün satırları hash map'te birleştirilir, {@code addItem} satırı O(1) bulur.</li>
+ *   <li>legacyPerLine: önceki döngü; satır başına {@code findById} ve her eklemede satırlar arasında doğrusal arama.</li>
+ * </ul>
+ * Repository'ler bellekten cevap verir; {@code roundTripMicros} her ürün sorgusuna eklenen veritabanı
+ * round-trip'ini taklit eder. createOrder ayrıca kaydetme ve event adımlarını (mock) içerir.
+ * Çalıştırma: {@code mvn test-compile exec:java -Dexec.mainClass=com.v1.backend.benchmark.CreateOrderBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateOrderBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    @Param({"1", "50", "500"})
+    public int lines;
+
+    @Param({"0", "150"})
+    public long roundTripMicros;
+
+    private ProductRepository productRepository;
+    private OrderService orderService;
+    private CreateOrderRequest request;
+
+    @Setup
+    public void setUp() {
+        // Servisin istek başına INFO logları ölçümü bozmasın
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Map<Long, Product> products = new HashMap<>();
+        List<CreateOrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (long id = 1; id <= lines; id++) {
+            products.put(id, Product.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .sku("SKU-" + id)
+                    .price(new BigDecimal("49.90"))
+                    .status(Product.ProductStatus.ACTIVE)
+                    .active(true)
+                    .stock(1_000_000)
+                    .build());
+            items.add(new CreateOrderRequest.OrderItemRequest(id, 2));
+        }
+
+        productRepository = stub(ProductRepository.class);
+        when(productRepository.findById(anyLong())).thenAnswer(invocation -> {
+            roundTrip();
+            return Optional.ofNullable(products.get(invocation.<Long>getArgument(0)));
+        });
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            roundTrip();
+            List<Product> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                found.add(products.get(id));
+            }
+            return found;
+        });
+
+        OrderRepository orderRepository = stub(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UserRepository userRepository = stub(UserRepository.class);
+        User user = User.builder().id(USER_ID).username("bench").email("bench@gmail.com").password("x")
+                .role(Role.USER).build();
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(user);
+
+        orderService = new OrderService(orderRepository, productRepository, userRepository,
+                stub(OrderKafkaProducer.class), stub(CartService.class));
+
+        request = CreateOrderRequest.builder()
+                .items(items)
+                .shippingAddress("İstanbul")
+                .phoneNumber("+905551112233")
+                .paymentMethod("CARD")
+                .build();
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(request, USER_ID);
+    }
+
+    /**
+     * Önceki createOrder'ın sipariş kurma döngüsü (kaydetme ve event hariç)
+     */
+    @Benchmark
+    public Order legacyPerLine() {
+        Order order = Order.builder().orderNumber("ORD-BENCH").shippingAddress(request.getShippingAddress()).build();
+        for (CreateOrderRequest.OrderItemRequest line : request.getItems()) {
+            Product product = productRepository.findById(line.getProductId())
+                    .orElseThrow(() -> new IllegalArgumentException("Ürün bulunamadı: " + line.getProductId()));
+            if (!product.isAvailable() || !product.canOrder(line.getQuantity()) || !product.hasStock(line.getQuantity())) {
+                throw new IllegalArgumentException("Ürün uygun değil veya stok yetersiz: " + product.getName());
+            }
+
+            OrderItem existing = order.getItems().stream()
+                    .filter(item -> item.getProduct().getId().equals(product.getId()))
+                    .findFirst()
+                    .orElse(null);
+            if (existing != null) {
+                existing.setQuantity(existing.getQuantity() + line.getQuantity());
+            } else {
+                order.getItems().add(OrderItem.builder()
+                        .order(order)
+                        .product(product)
+                        .quantity(line.getQuantity())
+                        .unitPrice(product.getPrice())
+                        .build());
+            }
+        }
+        order.calculateTotals();
+        return order;
+    }
+
+    // Çağrı kaydı tutmayan mock; ölçüme Mockito'nun çağrı başına maliyeti karışmasın
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CreateOrderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
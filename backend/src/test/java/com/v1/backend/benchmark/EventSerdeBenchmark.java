@@ -0,0 +1,119 @@
+package com.v1.backend.benchmark;
+
+import com.v1.backend.event.OrderCreatedEvent;
+import com.v1.backend.event.serde.BinaryWriter;
+import com.v1.backend.event.serde.SagaEventCodecs;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderCreatedEvent için mevcut JSON yolu (JsonSerializer/JsonDeserializer, tip başlıklarıyla) ile
+ * ikili kodlayıcının kodlama/çözme hızı. Event başına byte sayıları setup'ta yazdırılır.
+ * Çalıştırma: {@code mvn test-compile exec:java -Dexec.mainClass=com.v1.backend.benchmark.EventSerdeBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerdeBenchmark {
+
+    private static final String TOPIC = "order-created";
+
+    @Param({"1", "10"})
+    public int items;
+
+    private OrderCreatedEvent event;
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private RecordHeaders headers;
+    private byte[] json;
+    private byte[] binary;
+    private BinaryWriter writer;
+
+    @Setup
+    public void setUp() {
+        List<OrderCreatedEvent.OrderItemDto> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderCreatedEvent.OrderItemDto(1000L + i, "Ürün " + i, 1 + i % 3, new BigDecimal("149.90")));
+        }
+        event = OrderCreatedEvent.builder()
+                .orderId(123456L)
+                .orderNumber("ORD-12345678-ABCDEF12")
+                .userId(4242L)
+                .totalPrice(new BigDecimal("1499.00"))
+                .currency("TRY")
+                .items(lines)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.v1.backend.event"), false);
+
+        headers = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, headers, event);
+        binary = SagaEventCodecs.encode(event);
+        writer = new BinaryWriter(256);
+
+        System.out.printf("%nitems=%d -> JSON: %d byte, ikili: %d byte%n", items, json.length, binary.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonDeserializer.deserialize(TOPIC, headers, json);
+    }
+
+    @Benchmark
+    public int binaryEncode() {
+        writer.reset();
+        SagaEventCodecs.encode(event, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return SagaEventCodecs.decode(binary);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventSerdeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.v1.backend.benchmark;
+
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import com.v1.backend.security.AuthenticationCache;
+import com.v1.backend.security.CustomUserDetails;
+import com.v1.backend.security.JwtAuthFilter;
+import com.v1.backend.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * İstek başına JWT filtresi maliyeti: cache'ten kabul (kararlı durum) ile token'ın her istekte çözülüp
+ * kullanıcının yüklendiği eski yol. Kullanıcı yükleme burada bellekten yapılır; gerçek sistemde eski yola
+ * ayrıca bir veritabanı sorgusu eklenir.
+ * Çalıştırma: {@code mvn test-compile exec:java -Dexec.mainClass=com.v1.backend.benchmark.JwtAuthFilterBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "MyVerySecureSecretKeyThatIsAtLeast256BitsLongForHS256AlgorithmEncryption";
+
+    private JwtUtils jwtUtils;
+    private UserDetailsService userDetailsService;
+    private JwtAuthFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        User user = User.builder().id(1L).username("bench").email("bench@gmail.com").password("x")
+                .role(Role.USER).build();
+        CustomUserDetails details = new CustomUserDetails(user);
+
+        jwtUtils = new JwtUtils(SECRET, TimeUnit.HOURS.toMillis(1));
+        userDetailsService = username -> details;
+        AuthenticationCache authenticationCache = new AuthenticationCache(mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(), 1000, 300);
+        filter = new JwtAuthFilter(jwtUtils, userDetailsService, authenticationCache);
+
+        token = jwtUtils.generateJwtToken(user);
+        request = new MockHttpServletRequest("GET", "/api/v1/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        // Token bir kez doğrulanıp cache'e girsin
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object cachedFilter() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * Önceki filtrenin işi: token üç kez parse edilir ve kullanıcı yüklenir. Anahtar ve parser burada çağrı
+     * başına bir kez kurulur; eskiden her parse'ta kuruluyordu, yani gerçek fark daha büyük
+     */
+    @Benchmark
+    public boolean legacyParsing() {
+        JwtUtils fresh = new JwtUtils(SECRET, TimeUnit.HOURS.toMillis(1));
+        String email = fresh.extractUsername(token);
+        UserDetails details = userDetailsService.loadUserByUsername(email);
+        return email.equals(fresh.extractUsername(token)) && fresh.isTokenValid(token, details);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,198 @@
+package com.v1.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sipariş + satırlarının yazılması, Hibernate'in iki id stratejisinde gönderdiği SQL'lerle (H2, bellek içi):
+ * <ul>
+ *   <li>identity: IDENTITY id'yi insert'ten döndürdüğü için batch yapılamaz; sipariş ve her satır ayrı
+ *       INSERT + generated keys okuması. {@code items} satır için {@code items + 1} round-trip.</li>
+ *   <li>pooledSequence: id'ler bellekteki bloktan (orders 50, order_items 100) verilir; sipariş tek INSERT,
+ *       satırlar tek JDBC batch. 2 round-trip, blok bitince sequence başına +1.</li>
+ * </ul>
+ * H2 aynı JVM'de olduğu için ağ gecikmesi yoktur; {@code roundTripMicros} her round-trip'e eklenen
+ * ağ gecikmesini (aynı veri merkezi ~100-200 µs) taklit eder.
+ * Çalıştırma: {@code mvn test-compile exec:java -Dexec.mainClass=com.v1.backend.benchmark.OrderInsertBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (order_number, total_price) VALUES (?, ?)";
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ORDER_WITH_ID_SQL =
+            "INSERT INTO orders (id, order_number, total_price) VALUES (?, ?, ?)";
+    private static final String INSERT_ITEM_WITH_ID_SQL =
+            "INSERT INTO order_items (id, order_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)";
+
+    private static final BigDecimal UNIT_PRICE = new BigDecimal("49.90");
+
+    @Param({"20"})
+    public int items;
+
+    @Param({"0", "150"})
+    public long roundTripMicros;
+
+    private Connection connection;
+    private PooledIds orderIds;
+    private PooledIds itemIds;
+    private long orderNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:order-insert-" + System.nanoTime());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "order_number VARCHAR(50), total_price NUMERIC(12, 2))");
+            statement.execute("CREATE TABLE order_items (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "order_id BIGINT, product_id BIGINT, quantity INT, unit_price NUMERIC(10, 2))");
+            // IDENTITY id'leriyle çakışmasın
+            statement.execute("CREATE SEQUENCE orders_seq START WITH 1000000000 INCREMENT BY 50");
+            statement.execute("CREATE SEQUENCE order_items_seq START WITH 1000000000 INCREMENT BY 100");
+        }
+        connection.setAutoCommit(false);
+        orderIds = new PooledIds("orders_seq", 50);
+        itemIds = new PooledIds("order_items_seq", 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long orderId;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, "ORD-" + ++orderNumber);
+            ps.setBigDecimal(2, UNIT_PRICE.multiply(BigDecimal.valueOf(items)));
+            ps.executeUpdate();
+            orderId = generatedKey(ps);
+        }
+        for (int i = 0; i < items; i++) {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ITEM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setLong(1, orderId);
+                ps.setLong(2, i + 1);
+                ps.setInt(3, 1);
+                ps.setBigDecimal(4, UNIT_PRICE);
+                ps.executeUpdate();
+                generatedKey(ps);
+            }
+        }
+        commit();
+        return orderId;
+    }
+
+    @Benchmark
+    public long pooledSequence() throws SQLException {
+        long orderId = orderIds.next();
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER_WITH_ID_SQL)) {
+            ps.setLong(1, orderId);
+            ps.setString(2, "ORD-" + ++orderNumber);
+            ps.setBigDecimal(3, UNIT_PRICE.multiply(BigDecimal.valueOf(items)));
+            ps.executeUpdate();
+            roundTrip();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ITEM_WITH_ID_SQL)) {
+            for (int i = 0; i < items; i++) {
+                ps.setLong(1, itemIds.next());
+                ps.setLong(2, orderId);
+                ps.setLong(3, i + 1);
+                ps.setInt(4, 1);
+                ps.setBigDecimal(5, UNIT_PRICE);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            roundTrip();
+        }
+        commit();
+        return orderId;
+    }
+
+    private long generatedKey(PreparedStatement ps) throws SQLException {
+        roundTrip();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private void commit() throws SQLException {
+        connection.commit();
+        roundTrip();
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Hibernate pooled optimizer'ın bellekteki hali: sequence değeri bloğun üst sınırı
+     */
+    private final class PooledIds {
+
+        private final String sql;
+        private final int blockSize;
+        private long next;
+        private long hi = -1;
+
+        PooledIds(String sequence, int blockSize) {
+            this.sql = "SELECT NEXT VALUE FOR " + sequence;
+            this.blockSize = blockSize;
+        }
+
+        long next() throws SQLException {
+            if (next > hi) {
+                try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+                    rs.next();
+                    hi = rs.getLong(1);
+                }
+                roundTrip();
+                next = hi - blockSize + 1;
+            }
+            return next++;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.v1.backend.benchmark;
+
+import com.v1.backend.stock.StockClaimJournal;
+import com.v1.backend.stock.StripedStockCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tek bir hot ürün üzerinde eşzamanlı rezervasyon çekişmesi.
+ * <ul>
+ *   <li>singleCounter: tek sayaç üzerinde oku-değiştir-yaz + CAS (optimistic lock'lu Product satırı gibi)</li>
+ *   <li>lockedRow: tek kilit altında düşüm (satır kilidi / koşullu UPDATE gibi)</li>
+ *   <li>striped: {@link StripedStockCounter}, kaynaktan 50'şer birim stok ayırarak (bellekte, veritabanı maliyeti yok)</li>
+ *   <li>databaseRow: satış başına koşullu UPDATE (StockLedger'ın veritabanı yolu)</li>
+ *   <li>stripedJournaled: StockLedger'ın hot yolu; 50'şer birim ayırma ve 10'arlık her dolum
+ *       {@link StockClaimJournal} yazısıyla aynı transaction'da</li>
+ * </ul>
+ * Veritabanı olarak bellek içi H2 kullanılır; ağ gecikmesi olmadığı için veritabanı yollarının maliyeti
+ * PostgreSQL'e göre düşük çıkar. Hot yolda bu maliyet satış başına değil dolum bloğu başına ödenir.
+ * Çalıştırma: {@code mvn test-compile exec:java -Dexec.mainClass=com.v1.backend.benchmark.StockContentionBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class StockContentionBenchmark {
+
+    private static final long INITIAL_STOCK = Long.MAX_VALUE / 4;
+    private static final int CLAIM_SIZE = 50;
+    private static final int REFILL_SIZE = 10;
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private AtomicLong singleCounter;
+    private long lockedStock;
+    private AtomicLong database;
+    private StripedStockCounter striped;
+
+    private JdbcTemplate jdbcTemplate;
+    private StockClaimJournal journal;
+    private StripedStockCounter stripedJournaled;
+    // Node'un kayıtlı rezervi; aynı anda tek dolum yapıldığı için düz alan
+    private int held;
+
+    @Setup
+    public void setUp() {
+        singleCounter = new AtomicLong(INITIAL_STOCK);
+        lockedStock = INITIAL_STOCK;
+        database = new AtomicLong(INITIAL_STOCK);
+        striped = new StripedStockCounter(8, needed -> {
+            int amount = Math.max(needed, CLAIM_SIZE);
+            return database.addAndGet(-amount) >= 0 ? amount : 0;
+        });
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:stock-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL, version BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE stock_claim_nodes (node_id VARCHAR(36) PRIMARY KEY, heartbeat_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE stock_claims (id BIGINT AUTO_INCREMENT PRIMARY KEY, node_id VARCHAR(36) NOT NULL, "
+                + "product_id BIGINT NOT NULL, quantity INT NOT NULL, created_at TIMESTAMP NOT NULL, UNIQUE (node_id, product_id))");
+        jdbcTemplate.update("INSERT INTO products (id, stock, version) VALUES (1, ?, 0), (2, ?, 0)",
+                Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        journal = new StockClaimJournal(jdbcTemplate, transactionManager, 30);
+        journal.heartbeat();
+        stripedJournaled = new StripedStockCounter(8, needed -> transaction.execute(status -> {
+            int block = Math.max(needed, REFILL_SIZE);
+            int claimed = 0;
+            if (held < block) {
+                claimed = Math.max(block - held, CLAIM_SIZE);
+                if (jdbcTemplate.update(DECREMENT_SQL, claimed, 1L, claimed) != 1) {
+                    return 0;
+                }
+            }
+            if (!journal.hold(journal.nodeId(), 1L, held + claimed - block)) {
+                status.setRollbackOnly();
+                return 0;
+            }
+            held += claimed - block;
+            return block;
+        }));
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Benchmark
+    public boolean singleCounter() {
+        while (true) {
+            long current = singleCounter.get();
+            if (current < 1) {
+                return false;
+            }
+            if (singleCounter.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean lockedRow() {
+        synchronized (this) {
+            if (lockedStock < 1) {
+                return false;
+            }
+            lockedStock--;
+            return true;
+        }
+    }
+
+    @Benchmark
+    public boolean striped() {
+        return striped.tryReserve(1);
+    }
+
+    @Benchmark
+    public boolean databaseRow() {
+        return jdbcTemplate.update(DECREMENT_SQL, 1, 2L, 1) == 1;
+    }
+
+    @Benchmark
+    public boolean stripedJournaled() {
+        return stripedJournaled.tryReserve(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockContentionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.v1.backend.cache;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sepet script'lerine giden anahtar/argüman düzenini ve script sonuçlarının çözülmesini (Redis mock'lanarak) doğrular
+ */
+class CartStoreTest {
+
+    private static final List<String> KEYS = List.of("cart:7:lines", "cart:7:prices", "cart:7:meta", "cart:7:items");
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final CartStore store = new CartStore(redis, 7);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addPassesLimitsAndItemIdAndDecodesResult() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(CartStore.INSUFFICIENT_STOCK, 2L, 5L));
+
+        CartStore.AddResult result = store.add(7L, 3L, 3, new BigDecimal("9.90"), 1, 10, 4, 151L);
+
+        assertThat(result).isEqualTo(new CartStore.AddResult(CartStore.INSUFFICIENT_STOCK, 2, 5));
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redis).execute(any(RedisScript.class), eq(KEYS), args.capture());
+        assertThat(args.getValue()).hasSize(9);
+        assertThat(args.getValue()).startsWith("3", "3", "9.90", "1", "10", "4");
+        assertThat(args.getValue()[7]).isEqualTo(String.valueOf(7 * 24 * 3600));
+        assertThat(args.getValue()[8]).isEqualTo("151");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readDecodesAllHashes() {
+        when(redis.execute(any(RedisScript.class), eq(KEYS))).thenReturn(List.of(
+                List.of("cartId", "5", "createdAt", "1000", "updatedAt", "2000"),
+                List.of("3", "2", "4", "1"),
+                List.of("3", "9.90", "4", "1.50"),
+                List.of("3", "77:1000:2000")));
+
+        CartStore.CartState state = store.read(7L);
+
+        assertThat(state.cartId()).isEqualTo(5L);
+        assertThat(state.quantities()).isEqualTo(Map.of(3L, 2, 4L, 1));
+        assertThat(state.unitPrices()).containsEntry(3L, new BigDecimal("9.90")).containsEntry(4L, new BigDecimal("1.50"));
+        assertThat(state.totalQuantity()).isEqualTo(3);
+        assertThat(state.items()).containsEntry(3L, new CartStore.ItemInfo(77L, time(1000), time(2000)));
+        assertThat(state.productsWithoutItemId()).containsExactly(4L);
+        assertThat(state.createdAt()).isEqualTo(time(1000));
+        assertThat(state.updatedAt()).isEqualTo(time(2000));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readReturnsNullWhenCartIsNotLoaded() {
+        when(redis.execute(any(RedisScript.class), eq(KEYS)))
+                .thenReturn(List.of(List.of(), List.of(), List.of(), List.of()));
+
+        assertThat(store.read(7L)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hydrateSendsFourArgumentsPerLine() {
+        store.hydrate(7L, 5L, time(1000), time(2000), Map.of(3L, 2), Map.of(3L, new BigDecimal("9.90")),
+                Map.of(3L, new CartStore.ItemInfo(77L, time(1000), time(3000))));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redis).execute(any(RedisScript.class), eq(KEYS), args.capture());
+        assertThat(args.getValue()).containsExactly(
+                "5", "1000", "2000", String.valueOf(7 * 24 * 3600), "3", "2", "9.90", "77:1000:3000");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void popDirtyHandlesMissingSet() {
+        SetOperations<String, String> sets = mock(SetOperations.class);
+        when(redis.opsForSet()).thenReturn(sets);
+        when(sets.pop(CartStore.DIRTY_KEY, 10)).thenReturn(null);
+        assertThat(store.popDirty(10)).isEmpty();
+
+        when(sets.pop(CartStore.DIRTY_KEY, 10)).thenReturn(List.of("7", "8"));
+        assertThat(store.popDirty(10)).containsExactly(7L, 8L);
+    }
+
+    private static LocalDateTime time(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,63 @@
+package com.v1.backend.cache;
+
+import com.v1.backend.dto.category.CategoryDTO;
+import com.v1.backend.model.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshot'ın okumalarda kopya döndüğünü doğrular: çağıranın değişikliği sonraki okumalara yansımaz
+ */
+class CategoryTreeSnapshotTest {
+
+    private final Category root = category(1L, "Elektronik", null);
+    private final Category phone = category(2L, "Telefon", root);
+    private final CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.build(List.of(root, phone), 1);
+
+    @Test
+    void changesToReturnedCategoryDoNotReachSnapshot() {
+        CategoryDTO read = snapshot.findById(2L);
+        read.setName("Değişti");
+        read.setPath("Değişti");
+
+        assertThat(snapshot.findById(2L).getName()).isEqualTo("Telefon");
+        assertThat(snapshot.findBySlug("telefon").getPath()).isEqualTo("Elektronik > Telefon");
+        assertThat(snapshot.childrenOf(1L)).extracting(CategoryDTO::getName).containsExactly("Telefon");
+    }
+
+    @Test
+    void changesToReturnedChildrenDoNotReachSnapshot() {
+        CategoryDTO read = snapshot.roots().get(0);
+        read.getChildren().clear();
+        snapshot.childrenOf(1L).get(0).setStatus(false);
+
+        assertThat(snapshot.findById(1L).getChildren()).extracting(CategoryDTO::getId).containsExactly(2L);
+        assertThat(snapshot.findById(2L).getStatus()).isTrue();
+    }
+
+    @Test
+    void allCopiesEachCategoryOnceInTreeOrder() {
+        List<CategoryDTO> all = snapshot.all();
+
+        assertThat(all).extracting(CategoryDTO::getId).containsExactly(1L, 2L);
+        // Listedeki çocuk, kökün çocuk kümesindeki kopyanın kendisidir
+        assertThat(all.get(0).getChildren()).singleElement().isSameAs(all.get(1));
+        all.get(1).setName("Değişti");
+        assertThat(snapshot.all().get(1).getName()).isEqualTo("Telefon");
+    }
+
+    private static Category category(Long id, String name, Category parent) {
+        Category category = Category.builder()
+                .name(name)
+                .slug(name.toLowerCase())
+                .status(true)
+                .displayOrder(0)
+                .parent(parent)
+                .build();
+        category.setId(id);
+        return category;
+    }
+}
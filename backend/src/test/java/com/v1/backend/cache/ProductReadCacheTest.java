@@ -0,0 +1,115 @@
+package com.v1.backend.cache;
+
+import com.v1.backend.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ürün cache'inin L1/L2 okumalarını (Redis mock'lanarak) doğrular: SKU miss'inde ürün sürüm kontrolü olmadan
+ * L1'e yazılmaz, L2 dolumu yüklemeden önce okunan sürümle yapılır, evict L1'i temizler
+ */
+class ProductReadCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> values = mock(ValueOperations.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> strings = mock(ValueOperations.class);
+    private final ProductReadCache cache;
+
+    @SuppressWarnings("unchecked")
+    ProductReadCacheTest() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(stringRedisTemplate.opsForValue()).thenReturn(strings);
+        RedisSerializer<Object> serializer = mock(RedisSerializer.class);
+        when(serializer.serialize(any())).thenReturn("{}".getBytes(StandardCharsets.UTF_8));
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) serializer);
+        cache = new ProductReadCache(redisTemplate, mock(ReactiveRedisTemplate.class), stringRedisTemplate,
+                mock(ReactiveStringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), 100, 60, 10);
+    }
+
+    @Test
+    void skuMissCachesOnlyTheMappingAndReadsProductThroughIdPath() {
+        AtomicInteger skuLoads = new AtomicInteger();
+        AtomicInteger idLoads = new AtomicInteger();
+
+        ProductDTO first = cache.getBySku("SKU-1", sku -> {
+            skuLoads.incrementAndGet();
+            return product(5L, "eski");
+        }, id -> {
+            idLoads.incrementAndGet();
+            return product(id, "yeni");
+        });
+        ProductDTO second = cache.getBySku("SKU-1", sku -> {
+            skuLoads.incrementAndGet();
+            return product(5L, "eski");
+        }, id -> {
+            idLoads.incrementAndGet();
+            return product(id, "yeni");
+        });
+
+        assertThat(first.getName()).isEqualTo("eski");
+        // Eşleme cache'ten, ürün id yolundan (sürüm kontrolüyle) yüklendi
+        assertThat(second.getName()).isEqualTo("yeni");
+        assertThat(skuLoads).hasValue(1);
+        assertThat(idLoads).hasValue(1);
+        verify(strings).set(eq("product:sku:SKU-1"), eq("5"), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void missFillsRedisWithVersionReadBeforeLoading() {
+        when(strings.get("product:id:5:version")).thenReturn("3");
+
+        cache.getById(5L, id -> {
+            // Yükleme sırasında gelen evict sürümü artırır; dolum eski sürümle denenir ve script reddeder
+            when(strings.get("product:id:5:version")).thenReturn("4");
+            return product(id, "ürün");
+        });
+
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(List.of("product:id:5", "product:id:5:version")), eq("{}"), eq("3"), anyString());
+    }
+
+    @Test
+    void evictDropsLocalEntry() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getById(5L, id -> product(id, "v" + loads.incrementAndGet()));
+        assertThat(cache.getById(5L, id -> product(id, "v" + loads.incrementAndGet())).getName()).isEqualTo("v1");
+
+        cache.evict(5L);
+
+        assertThat(cache.getById(5L, id -> product(id, "v" + loads.incrementAndGet())).getName()).isEqualTo("v2");
+    }
+
+    private static ProductDTO product(Long id, String name) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,63 @@
+package com.v1.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Eşzamanlı istek sınırını doğrular: async istek tamamlanana kadar izni tutar, izin bir kez bırakılır;
+ * listener'lara ayrılan bağlantılar havuz boyutundan türetilir
+ */
+class RequestAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestAdmissionFilter filter = new RequestAdmissionFilter(1, 0, meterRegistry);
+
+    @Test
+    void asyncRequestHoldsPermitUntilItCompletes() throws Exception {
+        AtomicReference<AsyncContext> async = new AtomicReference<>();
+        MockHttpServletRequest first = request();
+        filter.doFilter(first, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> async.set(request.startAsync())));
+
+        assertThat(inFlight()).isEqualTo(1);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request(), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        async.get().complete();
+
+        assertThat(inFlight()).isZero();
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(request(), accepted, new MockFilterChain());
+        assertThat(accepted.getStatus()).isEqualTo(200);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void reservedConnectionsFollowPoolSize() {
+        assertThat(VirtualThreadConfiguration.reservedConnections(40, 0.45)).isEqualTo(18);
+        assertThat(VirtualThreadConfiguration.reservedConnections(20, 0.45)).isEqualTo(9);
+        assertThat(VirtualThreadConfiguration.reservedConnections(10, 0)).isZero();
+        assertThat(VirtualThreadConfiguration.reservedConnections(2, 0.9)).isEqualTo(1);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("http.admission.in.flight").gauge().value();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reactive/v1/products");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package com.v1.backend.controller;
+
+import com.v1.backend.dto.CursorPage;
+import com.v1.backend.dto.ProductDTO;
+import com.v1.backend.dto.browse.ProductBrowseResponse;
+import com.v1.backend.exception.GlobalExceptionHandler;
+import com.v1.backend.exception.IndexNotReadyException;
+import com.v1.backend.service.ProductImportService;
+import com.v1.backend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ürün listeleme uçlarını (servis mock'lanarak) doğrular: desteklenmeyen sıralama ve bozuk cursor standart hata
+ * gövdesiyle 400 döner, büyük sayfa istekleri tek batch'lik boyuta indirilir; facet indeksi yüklenirken browse 503 döner, diğer hatalar 503 ile gizlenmez
+ */
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new ProductController(productService, mock(ProductImportService.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void cursorWithDifferentSortIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("keyset", "true").param("sortBy", "price"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errorCode").value("UNSUPPORTED_CURSOR_SORT"));
+        mockMvc.perform(get("/api/v1/products").param("cursor", "abc").param("direction", "ASC"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("UNSUPPORTED_CURSOR_SORT"));
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void malformedCursorReturnsStandardErrorBody() throws Exception {
+        when(productService.getProductsByCursor(any(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Geçersiz cursor: abc"));
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Geçersiz cursor: abc"))
+                .andExpect(jsonPath("$.errorCode").value("INVALID_CURSOR"));
+    }
+
+    @Test
+    void cursorWithDefaultSortIsServed() throws Exception {
+        when(productService.getProductsByCursor(null, 10))
+                .thenReturn(CursorPage.<ProductDTO>builder().content(List.of()).size(10).hasNext(false).build());
+
+        mockMvc.perform(get("/api/v1/products").param("keyset", "true")
+                        .param("sortBy", "createdAt").param("direction", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void oversizedPageIsClampedToSingleFetchBatch() throws Exception {
+        Page<ProductDTO> empty = new PageImpl<>(List.of(), PageRequest.of(0, 1), 0);
+        when(productService.getAllProducts(any())).thenReturn(empty);
+        when(productService.getProductsByBrand(any(), any())).thenReturn(empty);
+        when(productService.getProductsByCursor(null, ProductController.MAX_PAGE_SIZE))
+                .thenReturn(CursorPage.<ProductDTO>builder().content(List.of()).size(ProductController.MAX_PAGE_SIZE)
+                        .hasNext(false).build());
+
+        mockMvc.perform(get("/api/v1/products").param("size", "500")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/brand/1").param("size", "101")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products").param("keyset", "true").param("size", "500"))
+                .andExpect(status().isOk());
+
+        verify(productService).getAllProducts(argThat(pageable -> pageable.getPageSize() == ProductController.MAX_PAGE_SIZE));
+        verify(productService).getProductsByBrand(eq(1L),
+                argThat(pageable -> pageable.getPageSize() == ProductController.MAX_PAGE_SIZE));
+        verify(productService).getProductsByCursor(null, ProductController.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void browseWhileIndexIsLoadingReturnsServiceUnavailable() throws Exception {
+        when(productService.browseProducts(any(), any()))
+                .thenThrow(new IndexNotReadyException("Product facet index is still loading"));
+
+        mockMvc.perform(get("/api/v1/products/browse"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errorCode").value("INDEX_NOT_READY"));
+    }
+
+    @Test
+    void otherBrowseFailuresAreNotReportedAsIndexLoading() throws Exception {
+        when(productService.browseProducts(any(), any())).thenThrow(new IllegalStateException("bug"));
+
+        mockMvc.perform(get("/api/v1/products/browse"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.errorCode").value("INTERNAL_SERVER_ERROR"));
+    }
+
+    @Test
+    void browseReturnsTypedResponse() throws Exception {
+        when(productService.browseProducts(any(), any())).thenReturn(ProductBrowseResponse.builder()
+                .content(List.of()).totalElements(0).build());
+
+        mockMvc.perform(get("/api/v1/products/browse").param("brandIds", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+}
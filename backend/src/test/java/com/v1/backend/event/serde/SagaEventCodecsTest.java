@@ -0,0 +1,182 @@
+package com.v1.backend.event.serde;
+
+import com.v1.backend.event.OrderCreatedEvent;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SagaEventCodecsTest {
+
+    @Data
+    static class Item {
+        private Long id;
+        private String note;
+    }
+
+    @Data
+    static class Sample {
+        private Long id;
+        private List<Item> items;
+        private String added;
+    }
+
+    private static RecordCodec<Sample> sampleCodec(boolean withVersion2) {
+        RecordCodec.Builder<Item> item = RecordCodec.builder(Item.class, "item", Item::new)
+                .longField("id", Item::getId, Item::setId);
+        RecordCodec.Builder<Sample> sample = RecordCodec.builder(Sample.class, "sample", Sample::new)
+                .longField("id", Sample::getId, Sample::setId);
+        if (withVersion2) {
+            item.since(2).stringField("note", Item::getNote, Item::setNote);
+        }
+        sample.listField("items", item.build(), Sample::getItems, Sample::setItems);
+        if (withVersion2) {
+            sample.since(2).stringField("added", Sample::getAdded, Sample::setAdded);
+        }
+        return sample.build();
+    }
+
+    @Test
+    void orderCreatedEventRoundTripsAndIsSmallerThanJson() {
+        OrderCreatedEvent event = OrderCreatedEvent.builder()
+                .orderId(42L)
+                .orderNumber("ORD-12345678-ABCDEF12")
+                .userId(7L)
+                .totalPrice(new BigDecimal("1249.90"))
+                .currency("TRY")
+                .items(List.of(
+                        new OrderCreatedEvent.OrderItemDto(1L, "Telefon", 1, new BigDecimal("999.90")),
+                        new OrderCreatedEvent.OrderItemDto(2L, null, 2, new BigDecimal("125.00"))))
+                .createdAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+                .build();
+
+        byte[] bytes = SagaEventCodecs.encode(event);
+
+        assertThat(SagaEventCodecs.isBinary(bytes)).isTrue();
+        assertThat(SagaEventCodecs.decode(bytes)).isEqualTo(event);
+        assertThat(bytes.length).isLessThan(100);
+    }
+
+    @Test
+    void oldAndNewReadersUnderstandEachOther() {
+        RecordCodec<Sample> v1 = sampleCodec(false);
+        RecordCodec<Sample> v2 = sampleCodec(true);
+
+        Sample newer = new Sample();
+        newer.setId(1L);
+        Item item = new Item();
+        item.setId(5L);
+        item.setNote("yeni");
+        newer.setItems(List.of(item));
+        newer.setAdded("yeni alan");
+
+        BinaryWriter out = new BinaryWriter();
+        v2.write(newer, out);
+        Sample readByOld = v1.read(new BinaryReader(out.toByteArray()));
+        assertThat(readByOld.getId()).isEqualTo(1L);
+        assertThat(readByOld.getItems()).extracting(Item::getId).containsExactly(5L);
+        assertThat(readByOld.getItems().get(0).getNote()).isNull();
+
+        out.reset();
+        v1.write(readByOld, out);
+        Sample readByNew = v2.read(new BinaryReader(out.toByteArray()));
+        assertThat(readByNew.getId()).isEqualTo(1L);
+        assertThat(readByNew.getAdded()).isNull();
+    }
+
+    @Test
+    void olderReaderDecodesNewerVersionMessageWithItsNewestCodec() {
+        Sample newer = new Sample();
+        newer.setId(3L);
+        Item item = new Item();
+        item.setId(9L);
+        item.setNote("v2");
+        newer.setItems(List.of(item));
+        newer.setAdded("v2 alanı");
+
+        BinaryWriter out = new BinaryWriter();
+        SagaEventCodecs.encode(sampleCodec(true), newer, out);
+        Map<Integer, RecordCodec<?>> v1Reader = SagaEventCodecs.index(List.of(sampleCodec(false)));
+
+        Sample decoded = (Sample) SagaEventCodecs.decode(out.toByteArray(), v1Reader);
+        assertThat(decoded.getId()).isEqualTo(3L);
+        assertThat(decoded.getItems()).extracting(Item::getId).containsExactly(9L);
+        assertThat(decoded.getItems().get(0).getNote()).isNull();
+        assertThat(decoded.getAdded()).isNull();
+
+        // Bilinmeyen subject hâlâ reddedilir
+        assertThatThrownBy(() -> SagaEventCodecs.decode(out.toByteArray(), Map.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fingerprintHeaderMessagesAreStillDecoded() {
+        OrderCreatedEvent event = OrderCreatedEvent.builder()
+                .orderId(1L)
+                .orderNumber("ORD-1")
+                .items(List.of())
+                .build();
+        byte[] current = SagaEventCodecs.encode(event);
+        EventSchema v1 = SagaEventCodecs.schemas().stream()
+                .filter(schema -> schema.subject().equals("order-created") && schema.version() == 1)
+                .findFirst()
+                .orElseThrow();
+
+        // Eski başlık: sihirli byte + parmak izi (subject kimliği + tek byte'lık sürüm yerine)
+        BinaryWriter legacy = new BinaryWriter();
+        legacy.writeByte(0x00);
+        legacy.writeFixedInt(v1.fingerprint());
+        byte[] record = Arrays.copyOfRange(current, 6, current.length);
+        legacy.writeRaw(record, 0, record.length);
+
+        assertThat(SagaEventCodecs.isBinary(legacy.toByteArray())).isTrue();
+        assertThat(SagaEventCodecs.decode(legacy.toByteArray())).isEqualTo(event);
+    }
+
+    @Test
+    void registryRejectsIncompatibleRewrittenAndUnregisteredSchemas() throws Exception {
+        String history = sampleCodec(true).schemas().stream()
+                .map(FileSchemaRegistry::line)
+                .collect(Collectors.joining("\n"));
+        FileSchemaRegistry registry = new FileSchemaRegistry(
+                new ByteArrayInputStream(history.getBytes(StandardCharsets.UTF_8)));
+        for (EventSchema schema : sampleCodec(true).schemas()) {
+            assertThat(registry.lookup(registry.verify(schema))).contains(schema);
+        }
+
+        // Aynı sürümün alanları değiştirilemez
+        assertThatThrownBy(() -> registry.verify(new EventSchema("sample", 1, List.of("id:string"))))
+                .isInstanceOf(IllegalStateException.class);
+        // Yeni sürüm alan silemez / sırasını değiştiremez
+        assertThatThrownBy(() -> registry.verify(new EventSchema("sample", 3, List.of("added:string", "id:long"))))
+                .isInstanceOf(IllegalStateException.class);
+        // Uyumlu yeni sürüm de geçmişe eklenmeden kabul edilmez; çalışırken dosyaya yazılmaz
+        EventSchema v3 = new EventSchema("sample", 3,
+                List.of("id:long", "items:array", "items.id:long", "items.note:string", "added:string", "extra:int"));
+        assertThatThrownBy(() -> registry.verify(v3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(FileSchemaRegistry.line(v3));
+    }
+
+    @Test
+    void committedHistoryCoversAllSagaEventSchemas() throws Exception {
+        try (InputStream history = getClass().getResourceAsStream("/schemas/saga-events.registry")) {
+            assertThat(history).isNotNull();
+            FileSchemaRegistry registry = new FileSchemaRegistry(history);
+            for (EventSchema schema : SagaEventCodecs.schemas()) {
+                registry.verify(schema);
+            }
+        }
+    }
+}
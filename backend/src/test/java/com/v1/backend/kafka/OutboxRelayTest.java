@@ -0,0 +1,104 @@
+package com.v1.backend.kafka;
+
+import com.v1.backend.model.OutboxEvent;
+import com.v1.backend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox batch'inin transaction dışında gönderildiğini, onaylanınca silindiğini ve onay gelmezse
+ * satırların tekrar gönderilmek üzere kaldığını doğrular
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acknowledgedBatchIsSentOutsideTransactionAndDeleted() {
+        append("ORD-1");
+        append("ORD-2");
+        List<String> keys = new ArrayList<>();
+        List<Boolean> inTransaction = new ArrayList<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            keys.add(invocation.<ProducerRecord<String, byte[]>>getArgument(0).key());
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertThat(relay().relayBatch()).isEqualTo(2);
+
+        assertThat(keys).containsExactly("ORD-1", "ORD-2");
+        assertThat(inTransaction).containsOnly(false);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unacknowledgedBatchStaysForRetry() {
+        append("ORD-3");
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker yok")));
+
+        assertThatThrownBy(() -> relay().relayBatch()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    private OutboxRelay relay() {
+        return new OutboxRelay(jdbcTemplate, dataSource, kafkaTemplate, new SimpleMeterRegistry(),
+                500, 100, 5000, 1000);
+    }
+
+    private void append(String key) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .topic("order-created")
+                .messageKey(key)
+                .eventType("java.lang.String")
+                .payload(key.getBytes(StandardCharsets.UTF_8))
+                .build());
+    }
+}
@@ -0,0 +1,74 @@
+package com.v1.backend.kafka;
+
+import com.v1.backend.event.PaymentSuccessEvent;
+import com.v1.backend.event.serde.SagaEventDeserializer;
+import com.v1.backend.model.OutboxEvent;
+import com.v1.backend.repository.OutboxEventRepository;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Outbox'a yazılan payload'ın consumer'lardaki deserializer ile çözülebildiğini doğrular
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(OutboxWriter.class)
+class OutboxWriterTest {
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void appendedPayloadIsReadableByConsumerDeserializer() {
+        PaymentSuccessEvent event = PaymentSuccessEvent.builder()
+                .orderId(7L)
+                .orderNumber("ORD-1")
+                .userId(3L)
+                .totalPrice(new BigDecimal("99.90"))
+                .paidAt(LocalDateTime.of(2024, 1, 2, 3, 4))
+                .build();
+
+        outboxWriter.append(PaymentKafkaProducer.PAYMENT_SUCCESS_TOPIC, "ORD-1", event);
+
+        List<OutboxEvent> rows = outboxEventRepository.findAll();
+        assertThat(rows).hasSize(1);
+        OutboxEvent row = rows.get(0);
+        assertThat(row.getTopic()).isEqualTo("payment-success");
+        assertThat(row.getMessageKey()).isEqualTo("ORD-1");
+
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, row.getEventType().getBytes(StandardCharsets.UTF_8));
+        try (SagaEventDeserializer deserializer = new SagaEventDeserializer()) {
+            deserializer.configure(Map.of("spring.json.trusted.packages", "com.v1.backend.event"), false);
+            assertThat(deserializer.deserialize(row.getTopic(), headers, row.getPayload())).isEqualTo(event);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void appendRequiresTransaction() {
+        assertThatThrownBy(() -> outboxWriter.append("order-created", "ORD-2", "x"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.v1.backend.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Eklenen id'lerin rotasyondan sonra bir aralık daha hatırlandığını ve yanlış pozitif oranının hedefe yakın
+ * kaldığını doğrular
+ */
+class RotatingBloomFilterTest {
+
+    @Test
+    void remembersIdsForOneRotationAndForgetsAfterTwo() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.01);
+        filter.put("event-1");
+
+        assertThat(filter.mightContain("event-1")).isTrue();
+        filter.rotate();
+        assertThat(filter.mightContain("event-1")).isTrue();
+        filter.rotate();
+        assertThat(filter.mightContain("event-1")).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
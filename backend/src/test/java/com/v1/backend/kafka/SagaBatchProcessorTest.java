@@ -0,0 +1,142 @@
+package com.v1.backend.kafka;
+
+import com.v1.backend.model.Order;
+import com.v1.backend.saga.OrderSagaState;
+import com.v1.backend.saga.OrderStateEngine;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hatalı kaydın sadece kendisinin DLT'ye gittiğini, batch'in geri kalanının işlendiğini doğrular
+ */
+class SagaBatchProcessorTest {
+
+    @Test
+    void poisonRecordGoesToDltWithoutFailingBatch() {
+        OrderStateEngine orderStateEngine = mock(OrderStateEngine.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        DeadLetterPublishingRecoverer recoverer = mock(DeadLetterPublishingRecoverer.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderStateEngine.load(any())).thenReturn(new HashMap<>(Map.of("ORD-1", state("ORD-1"), "ORD-3", state("ORD-3"))));
+
+        ConsumerRecord<String, String> first = new ConsumerRecord<>("payment-success", 0, 0, "a", "ORD-1");
+        ConsumerRecord<String, String> missing = new ConsumerRecord<>("payment-success", 0, 1, "b", "ORD-2");
+        ConsumerRecord<String, String> unreadable = new ConsumerRecord<>("payment-success", 0, 2, "c", null);
+        ConsumerRecord<String, String> third = new ConsumerRecord<>("payment-success", 0, 3, "d", "ORD-3");
+
+        List<String> published = new ArrayList<>();
+        new SagaBatchProcessor(orderStateEngine, transactionManager, recoverer, mock(IdempotencyGuard.class)).process(
+                List.of(first, missing, unreadable, third),
+                orderNumber -> orderNumber,
+                (orderNumber, order) -> {
+                    if (order == null) {
+                        throw new IllegalArgumentException("Sipariş bulunamadı: " + orderNumber);
+                    }
+                    published.add(orderNumber);
+                    return order.to(Order.OrderStatus.STOCK_RESERVED);
+                });
+
+        assertThat(published).containsExactly("ORD-1", "ORD-3");
+        // Batch tek transaction; her kayıt kendi savepoint'inde, hatalı kaydınki geri alınır
+        verify(transactionManager, times(3)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NESTED));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(orderStateEngine).persist(argThat(transitions -> transitions.size() == 2));
+        verify(recoverer).accept(eq(missing), any(IllegalArgumentException.class));
+        verify(recoverer).accept(eq(unreadable), any(IllegalArgumentException.class));
+        verify(recoverer, times(2)).accept(any(), any());
+        verify(recoverer, never()).accept(eq(first), any());
+    }
+
+    @Test
+    void alreadyProcessedEventsAreSkipped() {
+        OrderStateEngine orderStateEngine = mock(OrderStateEngine.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        IdempotencyGuard guard = mock(IdempotencyGuard.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderStateEngine.load(any())).thenReturn(new HashMap<>(Map.of("ORD-2", state("ORD-2"))));
+        when(orderStateEngine.reload(any())).thenReturn(new HashMap<>(Map.of("ORD-2", state("ORD-2"))));
+        when(guard.findProcessed(any())).thenReturn(Set.of("e-1"));
+        when(guard.claim(any())).thenReturn(Set.of("e-2"));
+
+        ConsumerRecord<String, String> processed = withEventId(new ConsumerRecord<>("order-created", 0, 0, "a", "ORD-1"), "e-1");
+        ConsumerRecord<String, String> fresh = withEventId(new ConsumerRecord<>("order-created", 0, 1, "b", "ORD-2"), "e-2");
+        ConsumerRecord<String, String> redelivered = withEventId(new ConsumerRecord<>("order-created", 0, 2, "b", "ORD-2"), "e-2");
+
+        List<String> applied = new ArrayList<>();
+        new SagaBatchProcessor(orderStateEngine, transactionManager, mock(DeadLetterPublishingRecoverer.class), guard)
+                .process(List.of(processed, fresh, redelivered), orderNumber -> orderNumber, (orderNumber, order) -> {
+                    applied.add(orderNumber);
+                    return null;
+                });
+
+        assertThat(applied).containsExactly("ORD-2");
+        verify(guard).claim(List.of("e-2"));
+    }
+
+    @Test
+    void rejectionOnStaleCachedStateIsRetriedWithDatabaseState() {
+        OrderStateEngine orderStateEngine = mock(OrderStateEngine.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        IdempotencyGuard guard = mock(IdempotencyGuard.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Bellekte eski durum; sipariş başka node'da ilerlemiş
+        when(orderStateEngine.load(any())).thenReturn(new HashMap<>(Map.of(
+                "ORD-1", state("ORD-1", Order.OrderStatus.AWAITING_PAYMENT),
+                "ORD-2", state("ORD-2", Order.OrderStatus.SHIPPED))));
+        when(orderStateEngine.reload(any())).thenReturn(new HashMap<>(Map.of(
+                "ORD-1", state("ORD-1", Order.OrderStatus.PAYMENT_CONFIRMED),
+                "ORD-2", state("ORD-2", Order.OrderStatus.SHIPPED))));
+
+        ConsumerRecord<String, String> stale = new ConsumerRecord<>("payment-success", 0, 0, "a", "ORD-1");
+        ConsumerRecord<String, String> genuine = new ConsumerRecord<>("payment-success", 0, 1, "b", "ORD-2");
+
+        List<String> applied = new ArrayList<>();
+        new SagaBatchProcessor(orderStateEngine, transactionManager, mock(DeadLetterPublishingRecoverer.class), guard)
+                .process(List.of(stale, genuine), orderNumber -> orderNumber, (orderNumber, order) -> {
+                    applied.add(orderNumber + ":" + order.status());
+                    return order.status() == Order.OrderStatus.PAYMENT_CONFIRMED
+                            ? order.to(Order.OrderStatus.STOCK_RESERVED) : null;
+                });
+
+        assertThat(applied).containsExactly("ORD-1:AWAITING_PAYMENT", "ORD-2:SHIPPED", "ORD-1:PAYMENT_CONFIRMED");
+        verify(orderStateEngine).persist(argThat(transitions -> transitions.size() == 1
+                && transitions.get(0).to().orderNumber().equals("ORD-1")));
+        verify(guard, never()).release(argThat(released -> !released.isEmpty()));
+    }
+
+    private static <V> ConsumerRecord<String, V> withEventId(ConsumerRecord<String, V> record, String eventId) {
+        record.headers().add(IdempotencyGuard.EVENT_ID_HEADER, eventId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static OrderSagaState state(String orderNumber) {
+        return state(orderNumber, Order.OrderStatus.PAYMENT_CONFIRMED);
+    }
+
+    private static OrderSagaState state(String orderNumber, Order.OrderStatus status) {
+        return new OrderSagaState((long) orderNumber.hashCode(), orderNumber, status, Order.PaymentStatus.PAID, "CARD");
+    }
+}
@@ -0,0 +1,39 @@
+package com.v1.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * addItem'ın ürün indeksinin, satır koleksiyonu aynı boyutta başka bir koleksiyonla değiştirildiğinde de
+ * yeniden kurulduğunu doğrular
+ */
+class OrderTest {
+
+    @Test
+    void replacedItemCollectionOfSameSizeIsReindexed() {
+        Product first = product(1L);
+        Product second = product(2L);
+        Order order = Order.builder().build();
+        order.addItem(first, 1);
+
+        OrderItem replacement = OrderItem.builder().order(order).product(second).quantity(2)
+                .unitPrice(second.getPrice()).build();
+        order.setItems(new ArrayList<>(List.of(replacement)));
+        order.addItem(second, 3);
+        order.addItem(first, 1);
+
+        assertThat(order.getItems()).hasSize(2);
+        assertThat(replacement.getQuantity()).isEqualTo(5);
+    }
+
+    private static Product product(Long id) {
+        Product product = Product.builder().name("Ürün " + id).price(BigDecimal.TEN).build();
+        product.setId(id);
+        return product;
+    }
+}
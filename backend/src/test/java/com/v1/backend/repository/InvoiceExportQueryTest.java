@@ -0,0 +1,85 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.model.Order;
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fatura dışa aktarım sorgusunun verilmeyen tarih sınırını sabit bir tarihle değil sınırsız olarak uyguladığını doğrular
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class InvoiceExportQueryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long oldOrder;
+    private Long recentOrder;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder().username("ayse").email("ayse@gmail.com").password("x")
+                .role(Role.USER).build());
+        oldOrder = order(user, LocalDateTime.of(1995, 6, 1, 12, 0), Order.OrderStatus.DELIVERED);
+        recentOrder = order(user, LocalDateTime.of(2024, 1, 15, 12, 0), Order.OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void missingFromIncludesOrdersOfAnyAge() {
+        assertThat(orderRepository.findIdsForInvoiceExport(null, LocalDateTime.of(2024, 2, 1, 0, 0),
+                Order.OrderStatus.DELIVERED, 0L, PageRequest.of(0, 10)))
+                .containsExactly(oldOrder, recentOrder);
+    }
+
+    @Test
+    void missingBothBoundsFiltersByStatusOnly() {
+        assertThat(orderRepository.findIdsForInvoiceExport(null, null, Order.OrderStatus.DELIVERED, 0L,
+                PageRequest.of(0, 10)))
+                .containsExactly(oldOrder, recentOrder);
+        assertThat(orderRepository.findIdsForInvoiceExport(null, null, Order.OrderStatus.SHIPPED, 0L,
+                PageRequest.of(0, 10)))
+                .isEmpty();
+    }
+
+    @Test
+    void givenBoundsAreApplied() {
+        assertThat(orderRepository.findIdsForInvoiceExport(LocalDateTime.of(2024, 1, 1, 0, 0), null, null, 0L,
+                PageRequest.of(0, 10)))
+                .containsExactly(recentOrder);
+        assertThat(orderRepository.findIdsForInvoiceExport(null, LocalDateTime.of(2024, 1, 1, 0, 0), null, 0L,
+                PageRequest.of(0, 10)))
+                .containsExactly(oldOrder);
+    }
+
+    private Long order(User user, LocalDateTime createdAt, Order.OrderStatus status) {
+        Long id = orderRepository.saveAndFlush(Order.builder()
+                .orderNumber("ORD-" + System.nanoTime())
+                .user(user)
+                .status(status)
+                .shippingAddress("İstanbul")
+                .build()).getId();
+        // createdAt güncellenemez (updatable = false); test verisi SQL ile eskitilir
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", createdAt, id);
+        return id;
+    }
+}
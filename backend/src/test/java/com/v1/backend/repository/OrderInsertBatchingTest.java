@@ -0,0 +1,99 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.model.Order;
+import com.v1.backend.model.Product;
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sipariş ve satırlarının kaydında çalışan SQL sayısının satır sayısından bağımsız olduğunu doğrular
+ * (pooled sequence + JDBC batch; IDENTITY ile her satır ayrı bir INSERT idi)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderInsertBatchingTest {
+
+    // orders INSERT + order_items INSERT (batch) + blok bittiyse orders_seq ve order_items_seq
+    private static final long MAX_STATEMENTS_PER_ORDER = 4;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Product> products;
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder().username("ayse").email("ayse@gmail.com").password("x")
+                .role(Role.USER).build());
+        products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("product-" + i)
+                    .sku("SKU-" + i)
+                    .price(BigDecimal.valueOf(100 + i))
+                    .status(Product.ProductStatus.ACTIVE)
+                    .stock(100)
+                    .build()));
+        }
+        // Sequence'lerin ilk (tek id'lik) bloğu tüketilsin; ölçülen sipariş tam bloktan id alır
+        orderRepository.save(order(1));
+        entityManager.flush();
+        entityManager.clear();
+        // Ürünler ölçümden önce yüklenir; sayılan sadece siparişin yazılması
+        products = products.stream().map(product -> entityManager.find(Product.class, product.getId())).toList();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20})
+    void savingOrderRunsFixedStatementCount(int itemCount) {
+        orderRepository.save(order(itemCount));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(itemCount + 1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_ORDER);
+    }
+
+    private Order order(int itemCount) {
+        Order order = Order.builder()
+                .orderNumber("ORD-" + System.nanoTime())
+                .user(entityManager.getEntityManager().getReference(User.class, user.getId()))
+                .shippingAddress("İstanbul")
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            order.addItem(products.get(i), 1);
+        }
+        order.calculateTotals();
+        return order;
+    }
+}
@@ -0,0 +1,58 @@
+package com.v1.backend.repository;
+
+import com.v1.backend.model.Product;
+import com.v1.backend.stock.StockLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Toplu koşullu stok düşümünün sadece yetmeyen satırları raporladığını doğrular
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class ProductStockRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void decrementStockBatchReportsOnlyFailedLines() {
+        Long first = persistProduct("A", 10);
+        Long second = persistProduct("B", 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<StockLine> failed = productRepository.decrementStockBatch(List.of(
+                new StockLine(first, 4),
+                new StockLine(second, 3),
+                new StockLine(-1L, 1)));
+
+        assertThat(failed).containsExactly(new StockLine(second, 3), new StockLine(-1L, 1));
+        assertThat(productRepository.findStockById(first)).contains(6);
+        assertThat(productRepository.findStockById(second)).contains(2);
+    }
+
+    private Long persistProduct(String name, int stock) {
+        return entityManager.persist(Product.builder()
+                .name(name)
+                .slug(name.toLowerCase())
+                .sku("SKU-" + name)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(Product.ProductStatus.ACTIVE)
+                .active(true)
+                .build()).getId();
+    }
+}
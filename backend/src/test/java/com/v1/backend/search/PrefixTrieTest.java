@@ -0,0 +1,54 @@
+package com.v1.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Önek aramasının terimleri sıklık sırasıyla döndüğünü ve sayacı sıfırlanan terimlerin çıkarıldığını doğrular
+ */
+class PrefixTrieTest {
+
+    private final PrefixTrie trie = new PrefixTrie();
+
+    @Test
+    void expandsPrefixByDocumentFrequency() {
+        trie.add("kilif", "kılıf");
+        trie.add("kilim", "kilim");
+        trie.add("kilim", "kilim");
+        trie.add("kablo", "kablo");
+
+        assertThat(trie.expand("kil", 10)).containsExactly("kilim", "kilif");
+        assertThat(trie.suggest("kil", 10)).containsExactly("kilim", "kılıf");
+        assertThat(trie.expand("k", 1)).containsExactly("kilim");
+        assertThat(trie.expand("x", 10)).isEmpty();
+        assertThat(trie.expand("kil", 0)).isEmpty();
+    }
+
+    @Test
+    void equalFrequenciesAreOrderedByTerm() {
+        trie.add("kilim", "kilim");
+        trie.add("kilif", "kılıf");
+
+        assertThat(trie.expand("kil", 10)).containsExactly("kilif", "kilim");
+    }
+
+    @Test
+    void removeDecrementsAndDropsTermAtZero() {
+        trie.add("kilif", "kılıf");
+        trie.add("kilif", "kılıf");
+        trie.add("kil", "kil");
+
+        trie.remove("kilif");
+        assertThat(trie.expand("kili", 10)).containsExactly("kilif");
+
+        trie.remove("kilif");
+        assertThat(trie.expand("kili", 10)).isEmpty();
+        // Ortak önekteki terim korunur
+        assertThat(trie.expand("ki", 10)).containsExactly("kil");
+
+        trie.remove("yok");
+        trie.remove("kilif");
+        assertThat(trie.expand("ki", 10)).containsExactly("kil");
+    }
+}
@@ -0,0 +1,85 @@
+package com.v1.backend.search;
+
+import com.v1.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Arama indeksinin Türkçe harf farklarından bağımsız eşleştiğini, son kelimeyi önek olarak genişlettiğini
+ * ve artımlı güncellemeleri (ekleme, değiştirme, silme) yansıttığını doğrular
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    @Test
+    void matchesRegardlessOfTurkishCase() {
+        index.index(new SearchDocument(1L, "Deri KILIF", "İPHONE uyumlu"));
+        index.index(new SearchDocument(2L, "Şarj Kablosu", null));
+
+        assertThat(index.search("kılıf", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("kilif iphone", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("ŞARJ", 0, 10).ids()).containsExactly(2L);
+        assertThat(index.search("kilif sarj", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void lastWordIsExpandedAsPrefix() {
+        index.index(new SearchDocument(1L, "Telefon Kılıfı", null));
+        index.index(new SearchDocument(2L, "Telefon Kablosu", null));
+        index.index(new SearchDocument(3L, "Tablet Kılıfı", null));
+
+        assertThat(index.search("telefon k", 0, 10).ids()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("kıl", 0, 10).ids()).containsExactlyInAnyOrder(1L, 3L);
+        // Önek sadece son kelimede uygulanır
+        assertThat(index.search("tel kablosu", 0, 10).total()).isZero();
+        assertThat(index.suggest("TELEFON Ka", 10)).containsExactly("kablosu");
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        index.index(new SearchDocument(1L, "Kırmızı Kılıf", null));
+        assertThat(index.search("kirmizi", 0, 10).ids()).containsExactly(1L);
+
+        index.index(new SearchDocument(1L, "Mavi Kılıf", null));
+        assertThat(index.search("kirmizi", 0, 10).total()).isZero();
+        assertThat(index.search("mavi", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.suggest("kır", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(1L);
+        assertThat(index.search("kilif", 0, 10).total()).isZero();
+        assertThat(index.suggest("ma", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void rankingAndPagingUseNameBoost() {
+        index.index(new SearchDocument(1L, "Kulaklık", "kılıf hediyeli"));
+        index.index(new SearchDocument(2L, "Kılıf", null));
+
+        ProductSearchIndex.SearchResult first = index.search("kılıf", 0, 1);
+        assertThat(first.ids()).containsExactly(2L);
+        assertThat(first.total()).isEqualTo(2);
+        assertThat(index.search("kılıf", 1, 1).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildLoadsDocumentsFromRepository() {
+        when(productRepository.findSearchDocuments(anyLong(), any()))
+                .thenReturn(List.of(new SearchDocument(5L, "Çanta", null)));
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("canta", 0, 10).ids()).containsExactly(5L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.v1.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Türkçe küçük harf dönüşümünü (I -> ı, İ -> i) ve terimlerin ASCII'ye katlanmasını doğrular
+ */
+class TurkishTextAnalyzerTest {
+
+    @Test
+    void dottedAndDotlessCapitalsFoldToSameTerm() {
+        assertThat(TurkishTextAnalyzer.tokenize("KILIF")).containsExactly("kilif");
+        assertThat(TurkishTextAnalyzer.tokenize("kılıf")).containsExactly("kilif");
+        assertThat(TurkishTextAnalyzer.tokenize("İSTANBUL istanbul")).containsExactly("istanbul", "istanbul");
+    }
+
+    @Test
+    void wordsKeepTurkishLowerCaseForDisplay() {
+        // Varsayılan locale'de "I" -> "i" olurdu; tr locale ile "ı" kalır
+        assertThat(TurkishTextAnalyzer.words("IŞIK İğne")).containsExactly("ışık", "iğne");
+    }
+
+    @Test
+    void foldsTurkishAndAccentedLetters() {
+        assertThat(TurkishTextAnalyzer.fold("çğışöüâî")).isEqualTo("cgisouai");
+        assertThat(TurkishTextAnalyzer.fold("café")).isEqualTo("cafe");
+    }
+
+    @Test
+    void splitsOnNonAlphanumericCharacters() {
+        assertThat(TurkishTextAnalyzer.tokenize("iPhone-15, 128GB!")).containsExactly("iphone", "15", "128gb");
+        assertThat(TurkishTextAnalyzer.tokenize("  ")).isEmpty();
+        assertThat(TurkishTextAnalyzer.tokenize(null)).isEmpty();
+    }
+}
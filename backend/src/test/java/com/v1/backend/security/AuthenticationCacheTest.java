@@ -0,0 +1,92 @@
+package com.v1.backend.security;
+
+import com.v1.backend.model.Role;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * İptallerin Redis'te token'ın kalan ömrü kadar tutulduğunu ve yerel kaydı olmayan node'un
+ * (yeniden başlamış, pub/sub mesajını kaçırmış) iptali Redis'ten gördüğünü doğrular
+ */
+class AuthenticationCacheTest {
+
+    private static final String HASH = "token-hash";
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final AuthenticatedUser user = new AuthenticatedUser(7L, "ayse@gmail.com", Role.USER);
+
+    AuthenticationCacheTest() {
+        when(redis.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    void revocationIsStoredInRedisForRemainingTokenLife() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        cache().revokeToken(HASH, expiresAt);
+
+        verify(values).set(eq("auth:revoked:" + HASH), eq("1"), any(Duration.class));
+        verify(redis).convertAndSend(eq(AuthenticationCache.REVOCATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void nodeWithoutLocalRevocationRejectsTokenRevokedInRedis() {
+        when(redis.hasKey("auth:revoked:" + HASH)).thenReturn(true);
+        AuthenticationCache restarted = cache();
+
+        assertThat(restarted.put(HASH, claims(), user)).isFalse();
+        assertThat(restarted.get(HASH)).isNull();
+    }
+
+    @Test
+    void tokenIsAcceptedButNotCachedWhenRedisIsUnavailable() {
+        when(redis.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("Redis yok"));
+        AuthenticationCache cache = cache();
+
+        assertThat(cache.put(HASH, claims(), user)).isTrue();
+        assertThat(cache.get(HASH)).isNull();
+    }
+
+    @Test
+    void failedRedisWriteFailsLogout() {
+        doThrow(new RedisConnectionFailureException("Redis yok"))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        AuthenticationCache cache = cache();
+
+        assertThatThrownBy(() -> cache.revokeToken(HASH, System.currentTimeMillis() + 60_000))
+                .isInstanceOf(IllegalStateException.class);
+        // Yerelde yine de reddedilir
+        assertThat(cache.put(HASH, claims(), user)).isFalse();
+    }
+
+    private AuthenticationCache cache() {
+        return new AuthenticationCache(redis, mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(),
+                100, 300);
+    }
+
+    private static Claims claims() {
+        Claims claims = mock(Claims.class);
+        when(claims.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+        return claims;
+    }
+}
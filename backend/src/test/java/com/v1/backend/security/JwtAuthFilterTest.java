@@ -0,0 +1,77 @@
+package com.v1.backend.security;
+
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Doğrulanmış token'ın ikinci istekte kullanıcı yüklemeden kabul edildiğini, iptal edilenin reddedildiğini doğrular
+ */
+class JwtAuthFilterTest {
+
+    private final JwtUtils jwtUtils =
+            new JwtUtils("MyVerySecureSecretKeyThatIsAtLeast256BitsLongForHS256AlgorithmEncryption", 60_000);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final AuthenticationCache authenticationCache = new AuthenticationCache(
+            mock(StringRedisTemplate.class, RETURNS_DEEP_STUBS), mock(RedisMessageListenerContainer.class),
+            new SimpleMeterRegistry(), 100, 300);
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtUtils, userDetailsService, authenticationCache);
+
+    private final User user = User.builder().id(7L).username("ayse").email("ayse@gmail.com").password("x")
+            .role(Role.USER).build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() throws Exception {
+        when(userDetailsService.loadUserByUsername("ayse@gmail.com")).thenReturn(new CustomUserDetails(user));
+        String token = jwtUtils.generateJwtToken(user);
+
+        assertThat(authenticate(token)).isNotNull();
+        Authentication second = authenticate(token);
+
+        assertThat(second).isNotNull();
+        assertThat(second.getPrincipal()).isEqualTo(new AuthenticatedUser(7L, "ayse@gmail.com", Role.USER));
+        verify(userDetailsService, times(1)).loadUserByUsername("ayse@gmail.com");
+    }
+
+    @Test
+    void revokedTokenIsRejected() throws Exception {
+        when(userDetailsService.loadUserByUsername("ayse@gmail.com")).thenReturn(new CustomUserDetails(user));
+        String token = jwtUtils.generateJwtToken(user);
+        assertThat(authenticate(token)).isNotNull();
+
+        authenticationCache.revokeToken(AuthenticationCache.hash(token),
+                jwtUtils.extractAllClaims(token).getExpiration().getTime());
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,72 @@
+package com.v1.backend.service;
+
+import com.v1.backend.model.CartItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Satır id'lerinin nextval bloğundan (v-blok+1..v) verildiğini ve eşzamanlı çağrılarda tekrarlanmadığını doğrular
+ */
+class CartItemIdAllocatorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong sequence = new AtomicLong(CartItem.ID_BLOCK_SIZE);
+    private final CartItemIdAllocator allocator =
+            new CartItemIdAllocator(jdbcTemplate, mock(PlatformTransactionManager.class));
+
+    CartItemIdAllocatorTest() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.addAndGet(CartItem.ID_BLOCK_SIZE));
+    }
+
+    @Test
+    void idsComeFromTheFetchedBlock() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < CartItem.ID_BLOCK_SIZE + 1; i++) {
+            ids.add(allocator.next());
+        }
+
+        assertThat(ids.get(0)).isEqualTo(CartItem.ID_BLOCK_SIZE + 1L);
+        assertThat(ids.get(CartItem.ID_BLOCK_SIZE - 1)).isEqualTo(2L * CartItem.ID_BLOCK_SIZE);
+        assertThat(ids.get(CartItem.ID_BLOCK_SIZE)).isEqualTo(2L * CartItem.ID_BLOCK_SIZE + 1);
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertThat(ids.add(allocator.next())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(ids).hasSize(8000);
+    }
+}
@@ -0,0 +1,57 @@
+package com.v1.backend.service;
+
+import com.v1.backend.cache.CartStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind logunun kalıcı yolu zorunlu tuttuğunu ve dirty kümesinden alınan sepetleri
+ * yazılana kadar logda sakladığını doğrular
+ */
+class CartWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private final CartStore cartStore = mock(CartStore.class);
+
+    @Test
+    void missingLogPathFailsFast() {
+        assertThatThrownBy(() -> writeBehind(" "))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cart.write-behind.log-path");
+    }
+
+    @Test
+    void overflowCartIsLoggedBeforeItIsPersisted() throws Exception {
+        Path path = dir.resolve("cart.log");
+        CartWriteBehind writeBehind = writeBehind(path.toString());
+        writeBehind.recover();
+        when(cartStore.popDirty(100)).thenReturn(List.of(7L));
+        when(cartStore.read(7L)).thenThrow(new IllegalStateException("Redis yok"));
+
+        writeBehind.flushOverflow();
+
+        verify(cartStore).markDirty(List.of(7L));
+        writeBehind.stop();
+        // Kümeden çıkan ama yazılamayan sepet, Redis'teki işaret kaybolsa da açılışta logdan kurtarılır
+        assertThat(new CartWriteLog(path).recover()).containsExactly(7L);
+    }
+
+    private CartWriteBehind writeBehind(String logPath) {
+        return new CartWriteBehind(cartStore, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 100, 10, 0, 10, logPath, 1024);
+    }
+}
@@ -0,0 +1,73 @@
+package com.v1.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Çökme sonrası açılışta sadece veritabanına yazılmamış sepetlerin geri geldiğini doğrular
+ */
+class CartWriteLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoverReturnsOnlyCartsChangedAfterLastFlush() throws Exception {
+        Path path = dir.resolve("cart.log");
+        CartWriteLog log = new CartWriteLog(path);
+        assertThat(log.recover()).isEmpty();
+
+        log.dirty(1L);
+        log.sync(log.dirty(2L));
+        long covered = log.currentSequence();
+        log.dirty(3L);
+        log.flushed(Map.of(1L, covered, 2L, covered));
+        // Yazımdan sonra tekrar değişen sepet
+        log.dirty(2L);
+        // Çökme anında yarım kalmış satır
+        Files.writeString(path, "D 4", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        CartWriteLog afterCrash = new CartWriteLog(path);
+        assertThat(afterCrash.recover()).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void recoveredCartsStayInLogUntilTheyAreFlushed() throws Exception {
+        Path path = dir.resolve("cart.log");
+        CartWriteLog log = new CartWriteLog(path);
+        log.recover();
+        log.sync(log.dirty(1L));
+        Files.writeString(path, "D 2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // Kurtarılan sepetler yazılmadan tekrar çökerse yine kurtarılır
+        CartWriteLog firstRestart = new CartWriteLog(path);
+        assertThat(firstRestart.recover()).containsExactly(1L);
+        firstRestart.close();
+        CartWriteLog secondRestart = new CartWriteLog(path);
+        assertThat(secondRestart.recover()).containsExactly(1L);
+
+        // Sıra numaraları devam eder: yeniden yazılan sepetin "F" kaydı eski "D" kaydını kapatır
+        secondRestart.flushed(Map.of(1L, secondRestart.currentSequence()));
+        secondRestart.close();
+        assertThat(new CartWriteLog(path).recover()).isEmpty();
+    }
+
+    @Test
+    void truncateKeepsLogWhileCartsArePending() throws Exception {
+        CartWriteLog log = new CartWriteLog(dir.resolve("cart.log"));
+        log.recover();
+        log.dirty(1L);
+
+        assertThat(log.truncateIfIdle(1, () -> false)).isFalse();
+        assertThat(log.truncateIfIdle(1, () -> true)).isTrue();
+        assertThat(new CartWriteLog(dir.resolve("cart.log")).recover()).isEmpty();
+    }
+}
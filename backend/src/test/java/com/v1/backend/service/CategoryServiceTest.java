@@ -0,0 +1,97 @@
+package com.v1.backend.service;
+
+import com.v1.backend.cache.CategoryTreeCache;
+import com.v1.backend.dto.category.CategoryCreateRequest;
+import com.v1.backend.dto.category.CategoryDTO;
+import com.v1.backend.dto.category.CategoryUpdateRequest;
+import com.v1.backend.model.Category;
+import com.v1.backend.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kategori taşımanın closure tablosunu alt ağaçla birlikte güncellediğini doğrular
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(CategoryService.class)
+class CategoryServiceTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CategoryTreeCache categoryTreeCache;
+
+    @Test
+    void movingToNullParentMakesSubtreeRoot() {
+        CategoryDTO electronics = categoryService.createMainCategory(create("Elektronik", "elektronik"));
+        CategoryDTO phone = categoryService.createSubCategory(electronics.getId(), create("Telefon", "telefon"));
+        CategoryDTO cover = categoryService.createSubCategory(phone.getId(), create("Kılıf", "kilif"));
+
+        categoryService.updateCategory(phone.getId(), update("Telefon", "telefon", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Eski ata bağlantıları silindi, yenisi eklenmedi; alt ağacın kendi içindeki bağlantıları kaldı
+        assertThat(ancestorsOf(phone.getId())).containsExactly(phone.getId() + ":0");
+        assertThat(ancestorsOf(cover.getId())).containsExactly(phone.getId() + ":1", cover.getId() + ":0");
+        assertThat(ancestorsOf(electronics.getId())).containsExactly(electronics.getId() + ":0");
+        Category moved = categoryRepository.findById(phone.getId()).orElseThrow();
+        assertThat(moved.getParent()).isNull();
+    }
+
+    @Test
+    void movingUnderAnotherParentRelinksSubtree() {
+        CategoryDTO electronics = categoryService.createMainCategory(create("Elektronik", "elektronik"));
+        CategoryDTO accessories = categoryService.createMainCategory(create("Aksesuar", "aksesuar"));
+        CategoryDTO phone = categoryService.createSubCategory(electronics.getId(), create("Telefon", "telefon"));
+
+        categoryService.updateCategory(phone.getId(), update("Telefon", "telefon", accessories.getId()));
+        entityManager.flush();
+
+        assertThat(ancestorsOf(phone.getId())).containsExactly(accessories.getId() + ":1", phone.getId() + ":0");
+    }
+
+    private List<String> ancestorsOf(Long descendantId) {
+        return jdbcTemplate.queryForList("SELECT ancestor_id || ':' || depth FROM category_closure "
+                + "WHERE descendant_id = ? ORDER BY depth DESC", String.class, descendantId);
+    }
+
+    private static CategoryCreateRequest create(String name, String slug) {
+        CategoryCreateRequest request = new CategoryCreateRequest();
+        request.setName(name);
+        request.setSlug(slug);
+        return request;
+    }
+
+    private static CategoryUpdateRequest update(String name, String slug, Long parentId) {
+        return CategoryUpdateRequest.builder()
+                .name(name)
+                .slug(slug)
+                .status(true)
+                .displayOrder(0)
+                .parentId(parentId)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.v1.backend.service;
+
+import com.v1.backend.dto.order.InvoiceKey;
+import com.v1.backend.model.Order;
+import com.v1.backend.model.OrderItem;
+import com.v1.backend.model.Product;
+import com.v1.backend.model.Role;
+import com.v1.backend.model.User;
+import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.security.AuthenticatedUser;
+import com.v1.backend.utils.InvoicePdfGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Faturanın transaction commit olduktan sonra yazıldığını ve disk cache'in sadece saklama süresi geçen
+ * dosyaları sildiğini doğrular
+ */
+class InvoiceServiceTest {
+
+    private static final AuthenticatedUser OWNER = new AuthenticatedUser(7L, "ali@example.com", Role.USER);
+
+    @TempDir
+    Path cacheDir;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final InvoicePdfGenerator generator = spy(new InvoicePdfGenerator());
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private InvoiceService service;
+
+    private void setUp(boolean diskCache) throws Exception {
+        Order order = Order.builder()
+                .id(5L)
+                .orderNumber("ORD-20240501-ABCDEF12")
+                .user(User.builder().id(7L).email("ali@example.com").build())
+                .subtotal(new BigDecimal("250.00"))
+                .totalPrice(new BigDecimal("250.00"))
+                .paymentStatus(Order.PaymentStatus.PAID)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+                .version(3L)
+                .build();
+        order.setItems(List.of(OrderItem.builder()
+                .order(order)
+                .product(Product.builder().id(1L).name("Kulaklik").build())
+                .quantity(2)
+                .unitPrice(new BigDecimal("125.00"))
+                .build()));
+        when(orderRepository.findInvoiceKeyById(5L))
+                .thenReturn(Optional.of(new InvoiceKey(7L, order.getOrderNumber(), order.getVersion())));
+        when(orderRepository.findAllForInvoiceByIdIn(List.of(5L))).thenReturn(List.of(order));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new InvoiceService(orderRepository, generator, transactionManager, new SimpleMeterRegistry(),
+                1, 10, 1000, diskCache, cacheDir.toString(), 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void pdfIsWrittenAfterTheReadTransactionCommits() throws Exception {
+        setUp(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.writeInvoice(5L, OWNER, new MockHttpServletRequest(), response);
+
+        InOrder order = inOrder(orderRepository, transactionManager, generator);
+        order.verify(orderRepository).findAllForInvoiceByIdIn(List.of(5L));
+        order.verify(transactionManager).commit(any());
+        order.verify(generator).writeInvoicePdf(any(Order.class), any(OutputStream.class));
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        assertThat(response.getHeader("Content-Disposition")).contains("ORD-20240501-ABCDEF12-Fatura.pdf");
+        assertThat(new String(response.getContentAsByteArray(), 0, 5)).isEqualTo("%PDF-");
+    }
+
+    @Test
+    void otherUsersCannotDownloadTheInvoice() throws Exception {
+        setUp(false);
+
+        assertThatThrownBy(() -> service.writeInvoice(5L, new AuthenticatedUser(8L, "veli@example.com", Role.USER),
+                new MockHttpServletRequest(), new MockHttpServletResponse()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cachedFileIsServedThroughSendfileAndRenderedOnce() throws Exception {
+        setUp(true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        service.writeInvoice(5L, OWNER, request, new MockHttpServletResponse());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        service.writeInvoice(5L, OWNER, request, second);
+
+        Path file = cacheDir.resolve("5-3.pdf");
+        verify(orderRepository, times(1)).findAllForInvoiceByIdIn(List.of(5L));
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(second.getContentLengthLong()).isEqualTo(Files.size(file));
+        try (var files = Files.list(cacheDir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void cleanupDeletesOnlyFilesPastRetention() throws Exception {
+        setUp(true);
+        Path stale = Files.writeString(cacheDir.resolve("5-2.pdf"), "eski");
+        Path abandoned = Files.writeString(cacheDir.resolve("5-123.tmp"), "yarım");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(25, ChronoUnit.HOURS)));
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(25, ChronoUnit.HOURS)));
+        Path recent = Files.writeString(cacheDir.resolve("5-3.pdf"), "yeni");
+
+        service.cleanCache();
+
+        assertThat(stale).doesNotExist();
+        assertThat(abandoned).doesNotExist();
+        assertThat(recent).exists();
+    }
+
+    @Test
+    void enabledCacheRequiresExplicitDirectory() {
+        assertThatThrownBy(() -> new InvoiceService(orderRepository, generator, transactionManager,
+                new SimpleMeterRegistry(), 1, 10, 1000, true, "", 24))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
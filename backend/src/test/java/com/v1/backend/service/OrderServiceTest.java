@@ -0,0 +1,106 @@
+package com.v1.backend.service;
+
+import com.v1.backend.dto.order.CreateOrderRequest;
+import com.v1.backend.kafka.OrderKafkaProducer;
+import com.v1.backend.model.Order;
+import com.v1.backend.model.OrderItem;
+import com.v1.backend.model.Product;
+import com.v1.backend.model.User;
+import com.v1.backend.repository.OrderRepository;
+import com.v1.backend.repository.ProductRepository;
+import com.v1.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aynı ürünün birden fazla satırının tek satırda birleştirildiğini ve stok/sipariş sınırlarının satır başına değil
+ * birleşik miktarla kontrol edildiğini doğrular
+ */
+class OrderServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final OrderService orderService = new OrderService(orderRepository, productRepository, userRepository,
+            mock(OrderKafkaProducer.class), mock(CartService.class));
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.getReferenceById(3L)).thenReturn(User.builder().id(3L).username("ayse").build());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void duplicateLinesAreMergedIntoOneItem() {
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(10, 999)));
+
+        orderService.createOrder(request(line(1L, 3), line(1L, 4)), 3L);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, atLeastOnce()).save(saved.capture());
+        List<OrderItem> items = saved.getValue().getItems();
+        assertThat(items).singleElement().satisfies(item -> assertThat(item.getQuantity()).isEqualTo(7));
+        assertThat(saved.getValue().getSubtotal()).isEqualByComparingTo("700");
+    }
+
+    @Test
+    void mergedQuantityIsCheckedAgainstStock() {
+        // Satırlar tek tek stoğa sığıyor, toplamı sığmıyor
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(5, 999)));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(line(1L, 3), line(1L, 4)), 3L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("stok yetersiz");
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void mergedQuantityIsCheckedAgainstMaxOrderQuantity() {
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(product(100, 5)));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(line(1L, 3), line(1L, 3)), 3L))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(orderRepository, never()).save(any());
+    }
+
+    private static Product product(int stock, int maxOrderQuantity) {
+        Product product = Product.builder()
+                .name("Kılıf")
+                .sku("SKU-1")
+                .price(BigDecimal.valueOf(100))
+                .stock(stock)
+                .maxOrderQuantity(maxOrderQuantity)
+                .status(Product.ProductStatus.ACTIVE)
+                .active(true)
+                .build();
+        product.setId(1L);
+        return product;
+    }
+
+    private static CreateOrderRequest.OrderItemRequest line(Long productId, int quantity) {
+        return CreateOrderRequest.OrderItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private static CreateOrderRequest request(CreateOrderRequest.OrderItemRequest... lines) {
+        return CreateOrderRequest.builder()
+                .items(List.of(lines))
+                .shippingAddress("İstanbul")
+                .phoneNumber("5551234567")
+                .paymentMethod("CARD")
+                .build();
+    }
+}
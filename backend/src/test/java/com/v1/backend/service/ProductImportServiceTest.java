@@ -0,0 +1,157 @@
+package com.v1.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.v1.backend.dto.ProductImportResult;
+import com.v1.backend.model.Product;
+import com.v1.backend.search.ProductFacetIndex;
+import com.v1.backend.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * İçe aktarımın parse, doğrulama, tekrar eleme ve batch yazma adımlarını (JDBC mock'lanarak) doğrular
+ */
+class ProductImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<String> insertedSkus = new ArrayList<>();
+
+    // batch-size=2 ve 2 thread: birden fazla parça ve pencere devreye girer
+    private final ProductImportService service = new ProductImportService(jdbcTemplate, new ObjectMapper(),
+            mock(ProductSearchIndex.class), mock(ProductFacetIndex.class), mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), 2, 2, 100);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(jdbcTemplate.query(contains("FROM brands"), any(RowMapper.class)))
+                .thenAnswer(invocation -> mapRows(invocation.getArgument(1), new Object[][]{{3L, "Acme", null}}));
+        when(jdbcTemplate.query(contains("FROM categories"), any(RowMapper.class)))
+                .thenAnswer(invocation -> mapRows(invocation.getArgument(1), new Object[][]{
+                        {10L, "Kulaklık", "kulaklik"}, {11L, "Elektronik", "elektronik"}}));
+
+        // Sequence blok boyu kadar artar (IdSequenceMigration'dan sonra en az blok boyundadır)
+        AtomicLong sequence = new AtomicLong(Product.ID_BLOCK_SIZE);
+        when(jdbcTemplate.queryForList(contains("nextval"), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocation -> LongStream.range(0, (int) invocation.getArgument(2))
+                        .map(i -> sequence.addAndGet(Product.ID_BLOCK_SIZE)).boxed().toList());
+
+        // Setter'ı sahte statement'a uygulayıp SKU'yu yakalar; EXISTING-1 veritabanında varmış gibi 0 döner
+        doAnswer(invocation -> {
+            Collection<Object> items = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            int[] counts = new int[items.size()];
+            int i = 0;
+            for (Object item : items) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                setter.setValues(ps, item);
+                ArgumentCaptor<String> sku = ArgumentCaptor.forClass(String.class);
+                verify(ps).setString(eq(5), sku.capture());
+                boolean exists = sku.getValue().equals("EXISTING-1");
+                if (!exists) {
+                    insertedSkus.add(sku.getValue());
+                }
+                counts[i++] = exists ? 0 : 1;
+            }
+            return new int[][]{counts};
+        }).when(jdbcTemplate).batchUpdate(contains("INSERT INTO products"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void csvRowsAreValidatedDedupedAndBatchInserted() throws Exception {
+        String csv = """
+                sku,name,brandName,categoryId,price,images,parentCategoryNames
+                SKU-1,"Kablosuz Kulaklık, Siyah",Acme,10,499.90,a.jpg|b.jpg,elektronik
+                SKU-2,Kılıf,acme,10,99.9,,
+
+                SKU-1,Tekrar,Acme,10,10,,
+                SKU-3,Bilinmeyen Marka,Nope,10,10,,
+                EXISTING-1,Var,Acme,10,10,,
+                SKU-4,"Çok
+                satırlı",Acme,10,abc,,
+                """;
+
+        ProductImportResult result = service.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        assertThat(result.read()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.duplicates()).isEqualTo(2);
+        assertThat(result.invalid()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ProductImportResult.RowError::line).containsExactly(6L, 8L);
+        assertThat(insertedSkus).containsExactly("SKU-1", "SKU-2");
+
+        ArgumentCaptor<List<Object[]>> images = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("product_images"), images.capture());
+        assertThat(images.getValue()).extracting(row -> row[2]).containsExactly("a.jpg", "b.jpg");
+
+        ArgumentCaptor<List<Object[]>> parents = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("product_parent_categories"), parents.capture());
+        assertThat(parents.getValue()).extracting(row -> row[1]).containsExactly(11L);
+    }
+
+    @Test
+    void jsonLinesAreImportedAndUnknownCsvColumnsRejected() throws Exception {
+        String jsonLines = """
+                {"sku":"J-1","name":"Kulaklık","brandId":3,"categoryName":"kulaklik","price":10.5}
+                {"sku":"J-2","name":"Kılıf","brandId":99,"categoryId":10,"price":5}
+                """;
+
+        ProductImportResult result = service.importProducts(stream(jsonLines), ProductImportService.Format.JSON_LINES);
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).singleElement()
+                .satisfies(error -> assertThat(error.message()).contains("Brand not found with id: 99"));
+        assertThat(Set.copyOf(insertedSkus)).containsExactly("J-1");
+
+        assertThatThrownBy(() -> service.importProducts(stream("sku,name,price,stok\n"), ProductImportService.Format.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("stok");
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Object> mapRows(RowMapper<?> mapper, Object[][] rows) throws Exception {
+        List<Object> mapped = new ArrayList<>();
+        for (Object[] row : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn((Long) row[0]);
+            when(rs.getString("name")).thenReturn((String) row[1]);
+            when(rs.getString("slug")).thenReturn((String) row[2]);
+            mapped.add(mapper.mapRow(rs, mapped.size()));
+        }
+        return mapped;
+    }
+}
@@ -0,0 +1,203 @@
+package com.v1.backend.service;
+
+import com.v1.backend.cache.ProductReadCache;
+import com.v1.backend.controller.ProductController;
+import com.v1.backend.model.Brand;
+import com.v1.backend.model.Category;
+import com.v1.backend.model.CategoryClosure;
+import com.v1.backend.model.Product;
+import com.v1.backend.search.ProductFacetIndex;
+import com.v1.backend.search.ProductSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sayfa başına çalışan SQL sayısının sayfa boyutundan bağımsız olduğunu doğrular (N+1 kontrolü)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductService.class, ProductSearchIndex.class, ProductFacetIndex.class})
+class ProductServiceQueryCountTest {
+
+    // ürün select + count + parentCategories batch + images batch
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private ProductService productService;
+
+    @MockBean
+    private ProductReadCache productReadCache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Brand brand;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        brand = entityManager.persist(Brand.builder().name("Test Brand").build());
+        category = entityManager.persist(Category.builder().name("Elektronik").slug("elektronik").build());
+        Category parent = entityManager.persist(Category.builder().name("Telefon").slug("telefon").build());
+
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("product-" + i)
+                    .sku("SKU-" + i)
+                    .brand(brand)
+                    .category(category)
+                    .parentCategories(Set.of(parent))
+                    .images(List.of("/img/" + i + "-1.png", "/img/" + i + "-2.png"))
+                    .price(BigDecimal.valueOf(100 + i))
+                    .status(Product.ProductStatus.ACTIVE)
+                    .active(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void getAllProductsRunsFixedStatementCount(int size) {
+        var page = productService.getAllProducts(PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getBrandName()).isEqualTo("Test Brand");
+            assertThat(dto.getImages()).hasSize(2);
+            assertThat(dto.getParentCategoryNames()).containsExactly("Telefon");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void getProductsByBrandRunsFixedStatementCount(int size) {
+        var page = productService.getProductsByBrand(brand.getId(), PageRequest.of(0, size));
+
+        assertThat(page.getContent()).hasSize(size);
+        // + marka varlık kontrolü
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void getProductsByCategoryRunsFixedStatementCount(int size) {
+        var page = productService.getProductsByCategory(category.getId(), PageRequest.of(0, size));
+
+        assertThat(page.getContent()).hasSize(size);
+        // + kategori varlık kontrolü
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void getProductsByCategorySubtreeRunsFixedStatementCount(int size) {
+        // Elektronik > Bilgisayar > Laptop; ürünler hem kökte hem en alt seviyede
+        Category child = entityManager.persist(Category.builder().name("Bilgisayar").slug("bilgisayar")
+                .parent(entityManager.find(Category.class, category.getId())).build());
+        Category grandchild = entityManager.persist(Category.builder().name("Laptop").slug("laptop")
+                .parent(child).build());
+        persistClosure(category, category, 0);
+        persistClosure(child, child, 0);
+        persistClosure(grandchild, grandchild, 0);
+        persistClosure(category, child, 1);
+        persistClosure(child, grandchild, 1);
+        persistClosure(category, grandchild, 2);
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Laptop " + i)
+                    .slug("laptop-" + i)
+                    .sku("LAPTOP-" + i)
+                    .brand(entityManager.find(Brand.class, brand.getId()))
+                    .category(grandchild)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .status(Product.ProductStatus.ACTIVE)
+                    .active(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        var page = productService.getProductsByCategory(category.getId(), true, PageRequest.of(0, size));
+
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getTotalElements()).isEqualTo(40);
+        // + kategori varlık kontrolü
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE + 1);
+    }
+
+    @Test
+    void largestAllowedPageRunsFixedStatementCount() {
+        Category parent = entityManager.find(Category.class, category.getId());
+        for (int i = 30; i < 130; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("product-" + i)
+                    .sku("SKU-" + i)
+                    .brand(entityManager.find(Brand.class, brand.getId()))
+                    .category(parent)
+                    .parentCategories(Set.of(parent))
+                    .images(List.of("/img/" + i + "-1.png"))
+                    .price(BigDecimal.valueOf(100 + i))
+                    .status(Product.ProductStatus.ACTIVE)
+                    .active(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // Controller 100'ün üzerindeki istekleri MAX_PAGE_SIZE'a indirir; bu boyut tek batch'e sığar
+        var page = productService.getAllProducts(PageRequest.of(0, ProductController.MAX_PAGE_SIZE,
+                Sort.by(Sort.Direction.DESC, "createdAt")));
+        assertThat(page.getContent()).hasSize(ProductController.MAX_PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+
+        entityManager.clear();
+        statistics.clear();
+        var slice = productService.getProductsByCursor(null, ProductController.MAX_PAGE_SIZE);
+        assertThat(slice.getContent()).hasSize(ProductController.MAX_PAGE_SIZE);
+        // count sorgusu yok
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE - 1);
+    }
+
+    private void persistClosure(Category ancestor, Category descendant, int depth) {
+        entityManager.persist(CategoryClosure.builder()
+                .id(new CategoryClosure.Key(ancestor.getId(), descendant.getId()))
+                .depth(depth)
+                .build());
+    }
+}
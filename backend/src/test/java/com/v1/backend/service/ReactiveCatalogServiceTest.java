@@ -0,0 +1,25 @@
+package com.v1.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reaktif okuma scheduler'ının JDBC havuzunun sadece bir kısmını kullandığını doğrular
+ */
+class ReactiveCatalogServiceTest {
+
+    @Test
+    void defaultThreadCountIsAQuarterOfThePool() {
+        assertThat(ReactiveCatalogService.jdbcThreads(40, 0)).isEqualTo(10);
+        assertThat(ReactiveCatalogService.jdbcThreads(10, 0)).isEqualTo(2);
+        assertThat(ReactiveCatalogService.jdbcThreads(2, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void configuredThreadCountIsCappedAtHalfThePool() {
+        assertThat(ReactiveCatalogService.jdbcThreads(10, 3)).isEqualTo(3);
+        assertThat(ReactiveCatalogService.jdbcThreads(10, 10)).isEqualTo(5);
+        assertThat(ReactiveCatalogService.jdbcThreads(1, 4)).isEqualTo(1);
+    }
+}
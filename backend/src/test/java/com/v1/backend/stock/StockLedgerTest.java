@@ -0,0 +1,181 @@
+package com.v1.backend.stock;
+
+import com.v1.backend.model.Product;
+import com.v1.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Hot ürün rezervinin veritabanı kaydını doğrular: satışlar bellekte kalır, rezerv blok başına yazılır,
+ * kirası dolan node'un rezervi iade edilir ve geri alınan satışlar sayaca döner
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerTest {
+
+    private static final int INITIAL_STOCK = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(Product.builder()
+                .name("Hot")
+                .slug("hot")
+                .sku("SKU-HOT")
+                .price(BigDecimal.TEN)
+                .stock(INITIAL_STOCK)
+                .status(Product.ProductStatus.ACTIVE)
+                .active(true)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_claims");
+        jdbcTemplate.update("DELETE FROM stock_claim_nodes");
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void salesStayInMemoryAndReserveIsJournaledPerRefillBlock() {
+        StockClaimJournal journal = spy(journal());
+        StockLedger ledger = ledger(journal);
+        ledger.maintain();
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(ledger.reserve(productId, 1)).isTrue();
+        }
+
+        // 50 birim ayrıldı, 10'arlık üç blok sayaca dağıtıldı: satış başına değil blok başına yazıldı
+        verify(journal, times(3)).hold(anyString(), anyLong(), anyInt());
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 50);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_claims", Integer.class)).isEqualTo(1);
+        assertThat(held(journal.nodeId())).isEqualTo(20);
+
+        ledger.shutdown();
+
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 25);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_claims", Integer.class)).isZero();
+    }
+
+    @Test
+    void expiredNodeReserveIsReturnedAndItsLaterRefillIsRejected() {
+        StockClaimJournal crashed = journal();
+        StockLedger ledger = ledger(crashed);
+        ledger.maintain();
+        assertThat(ledger.reserve(productId, 1)).isTrue();
+        String crashedNode = crashed.nodeId();
+
+        jdbcTemplate.update("UPDATE stock_claim_nodes SET heartbeat_at = ? WHERE node_id = ?",
+                LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5), crashedNode);
+        StockClaimJournal survivor = journal();
+        assertThat(survivor.heartbeat()).isTrue();
+
+        assertThat(survivor.recoverExpired()).containsEntry(productId, 40);
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 10);
+        assertThat(held(crashedNode)).isNull();
+
+        // Sayaçta 9 birim var; dolum reddedilir, rezervi iade edilmiş stok yeniden satılmaz
+        assertThat(ledger.reserve(productId, 10)).isFalse();
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 10);
+        assertThat(crashed.nodeId()).isNotEqualTo(crashedNode);
+        assertThat(crashed.heartbeat()).isTrue();
+
+        // Yeni id kaydedilene kadar veritabanı yolu kullanılır; eski sayacın stoğu kapanışta iade edilir
+        ledger.shutdown();
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 1);
+    }
+
+    @Test
+    void heartbeatOfRecoveredNodeFailsAndLedgerContinuesWithNewNodeId() {
+        StockClaimJournal journal = journal();
+        StockLedger ledger = ledger(journal);
+        ledger.maintain();
+        assertThat(journal.leaseValid()).isTrue();
+        assertThat(ledger.reserve(productId, 5)).isTrue();
+        String previous = journal.nodeId();
+
+        jdbcTemplate.update("UPDATE stock_claim_nodes SET heartbeat_at = ?",
+                LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+        journal().recoverExpired();
+        ledger.maintain();
+
+        // Rezerv iade edildi, sayaçta kalan 5 birim de veritabanına döndü
+        assertThat(journal.nodeId()).isNotEqualTo(previous);
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 5);
+
+        ledger.maintain();
+        assertThat(journal.leaseValid()).isTrue();
+        assertThat(ledger.reserve(productId, 5)).isTrue();
+        assertThat(held(journal.nodeId())).isEqualTo(40);
+    }
+
+    @Test
+    void rolledBackSaleReturnsToCounter() {
+        StockLedger ledger = ledger(journal());
+        ledger.maintain();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(ledger.reserve(productId, 5)).isTrue();
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> assertThat(ledger.reserve(productId, 3)).isTrue());
+        ledger.shutdown();
+
+        assertThat(stock()).isEqualTo(INITIAL_STOCK - 3);
+    }
+
+    private StockClaimJournal journal() {
+        return new StockClaimJournal(jdbcTemplate, transactionManager, 30);
+    }
+
+    private StockLedger ledger(StockClaimJournal journal) {
+        return new StockLedger(productRepository, journal, transactionManager,
+                new SimpleMeterRegistry(), 4, 50, 10, 1000, 3600, Set.of(productId));
+    }
+
+    private int stock() {
+        return productRepository.findStockById(productId).orElseThrow();
+    }
+
+    private Integer held(String nodeId) {
+        return jdbcTemplate.query("SELECT quantity FROM stock_claims WHERE node_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, nodeId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.v1.backend.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        AtomicInteger database = new AtomicInteger(1000);
+        StripedStockCounter counter = new StripedStockCounter(8, needed -> {
+            int amount = Math.max(needed, 50);
+            while (true) {
+                int stock = database.get();
+                int claimed = Math.min(stock, amount);
+                if (claimed < needed) {
+                    return 0;
+                }
+                if (database.compareAndSet(stock, stock - claimed)) {
+                    return claimed;
+                }
+            }
+        });
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < 200; i++) {
+                    if (counter.tryReserve(1 + i % 3)) {
+                        reserved += 1 + i % 3;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+
+        int reserved = 0;
+        for (Future<Integer> result : results) {
+            reserved += result.get();
+        }
+        executor.shutdown();
+
+        // Satılan + sayaçta kalan + veritabanında kalan = başlangıç stoğu
+        assertThat(reserved + counter.available() + database.get()).isEqualTo(1000);
+        assertThat(reserved).isGreaterThan(990);
+    }
+
+    @Test
+    void retiredCounterReturnsStockAndRejectsReservations() {
+        AtomicInteger database = new AtomicInteger(100);
+        StripedStockCounter counter = new StripedStockCounter(4, needed -> database.addAndGet(-20) >= 0 ? 20 : 0);
+
+        assertThat(counter.tryReserve(5)).isTrue();
+        assertThat(counter.retire()).isEqualTo(15);
+        assertThat(counter.tryReserve(1)).isFalse();
+        assertThat(counter.release(1)).isFalse();
+    }
+
+    @Test
+    void concurrentRequestsShareOneRefillRunningOutsideTheLock() throws Exception {
+        CountDownLatch refilling = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicInteger refills = new AtomicInteger();
+        StripedStockCounter counter = new StripedStockCounter(4, needed -> {
+            refills.incrementAndGet();
+            refilling.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 10;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        results.add(executor.submit(() -> counter.tryReserve(1)));
+        refilling.await();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> counter.tryReserve(1)));
+        }
+        // Dolum sürerken kilit serbest: iade beklemeden yapılır
+        assertThat(counter.release(1)).isTrue();
+        proceed.countDown();
+
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+        executor.shutdown();
+        assertThat(refills).hasValue(1);
+        assertThat(counter.available()).isEqualTo(7);
+    }
+
+    @Test
+    void retireDuringRefillReturnsTheRefilledStock() throws Exception {
+        CountDownLatch refilling = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        StripedStockCounter counter = new StripedStockCounter(4, needed -> {
+            refilling.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 10;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Boolean> reservation = executor.submit(() -> counter.tryReserve(1));
+        refilling.await();
+        Future<Long> retired = executor.submit(counter::retire);
+        while (!counter.isRetired()) {
+            Thread.onSpinWait();
+        }
+        proceed.countDown();
+
+        assertThat(retired.get()).isEqualTo(10);
+        assertThat(reservation.get()).isFalse();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.v1.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cursor token'ının (createdAt, id) çiftini taşıdığını ve bozuk/eksik girdiyi IllegalArgumentException ile reddettiğini
+ * doğrular
+ */
+class CursorCodecTest {
+
+    @Test
+    void encodedCursorDecodesToSamePosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000);
+
+        CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode(createdAt, 42L));
+
+        assertThat(cursor).isEqualTo(new CursorCodec.Cursor(createdAt, 42L));
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertThat(CursorCodec.decode(null)).isNull();
+        assertThat(CursorCodec.decode(" ")).isNull();
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> CursorCodec.decode("bozuk!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Geçersiz cursor");
+        assertThatThrownBy(() -> CursorCodec.decode("YWJj"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void missingCreatedAtIsRejectedInsteadOfNpe() {
+        assertThatThrownBy(() -> CursorCodec.encode(null, 42L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("createdAt");
+    }
+}
@@ -0,0 +1,74 @@
+package com.v1.backend.utils;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import com.v1.backend.model.Order;
+import com.v1.backend.model.OrderItem;
+import com.v1.backend.model.Product;
+import com.v1.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoicePdfGeneratorTest {
+
+    private final InvoicePdfGenerator generator = new InvoicePdfGenerator();
+
+    private static Order sampleOrder() {
+        Order order = Order.builder()
+                .id(5L)
+                .orderNumber("ORD-20240501-ABCDEF12")
+                .user(User.builder().id(7L).email("ali@example.com").build())
+                .subtotal(new BigDecimal("250.00"))
+                .shippingCost(BigDecimal.ZERO)
+                .totalPrice(new BigDecimal("250.00"))
+                .shippingAddress("İstanbul")
+                .phoneNumber("05550000000")
+                .paymentStatus(Order.PaymentStatus.PAID)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+                .version(3L)
+                .build();
+        order.setItems(List.of(OrderItem.builder()
+                .order(order)
+                .product(Product.builder().id(1L).name("Kulaklık").build())
+                .quantity(2)
+                .unitPrice(new BigDecimal("125.00"))
+                .subtotal(new BigDecimal("250.00"))
+                .build()));
+        return order;
+    }
+
+    @Test
+    void writesOrderDetailsAndItemsIntoPdf() throws Exception {
+        byte[] pdf = generator.generateInvoicePdf(sampleOrder());
+
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            String text = PdfTextExtractor.getTextFromPage(reader, 1);
+            assertThat(text).contains("ORD-20240501-ABCDEF12", "01.05.2024", "ali@example.com", "250.00");
+            assertThat(text).contains("2", "125.00");
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void streamsToCallerStreamWithoutClosingIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("Akış kapatılmamalı");
+            }
+        };
+
+        generator.writeInvoicePdf(sampleOrder(), out);
+        out.write('\n');
+
+        assertThat(new String(out.toByteArray(), 0, 5)).isEqualTo("%PDF-");
+    }
+}